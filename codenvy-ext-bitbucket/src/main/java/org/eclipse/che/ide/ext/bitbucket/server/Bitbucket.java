@@ -24,16 +24,11 @@ import org.eclipse.che.ide.ext.bitbucket.shared.BitbucketRepositoriesPage;
 import org.eclipse.che.ide.ext.bitbucket.shared.BitbucketRepository;
 import org.eclipse.che.ide.ext.bitbucket.shared.BitbucketRepositoryFork;
 import org.eclipse.che.ide.ext.bitbucket.shared.BitbucketUser;
+import org.eclipse.che.ide.ext.git.server.commons.HostingHttpClient;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -47,7 +42,6 @@ import static org.eclipse.che.ide.ext.bitbucket.shared.Preconditions.checkArgume
 import static org.eclipse.che.ide.ext.bitbucket.shared.StringHelper.isNullOrEmpty;
 import static org.eclipse.che.ide.rest.HTTPHeader.ACCEPT;
 import static org.eclipse.che.ide.rest.HTTPHeader.AUTHORIZATION;
-import static org.eclipse.che.ide.rest.HTTPHeader.CONTENT_TYPE;
 import static org.eclipse.che.ide.rest.HTTPMethod.GET;
 import static org.eclipse.che.ide.rest.HTTPMethod.POST;
 import static org.eclipse.che.ide.rest.HTTPStatus.CREATED;
@@ -66,10 +60,13 @@ public class Bitbucket {
     private static final String BITBUCKET_1_0_API_URL = BITBUCKET_API_URL + "/1.0";
 
     private final OAuthAuthorizationHeaderProvider authorizationHeaderProvider;
+    private final HostingHttpClient                httpClient;
 
     @Inject
-    public Bitbucket(@Nonnull final OAuthAuthorizationHeaderProvider authorizationHeaderProvider) {
+    public Bitbucket(@Nonnull final OAuthAuthorizationHeaderProvider authorizationHeaderProvider,
+                     @Nonnull final HostingHttpClient httpClient) {
         this.authorizationHeaderProvider = authorizationHeaderProvider;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -273,57 +270,35 @@ public class Bitbucket {
                              final int success,
                              final String contentType,
                              final String data) throws IOException, BitbucketException {
-        HttpURLConnection http = null;
-
-        try {
-
-            http = (HttpURLConnection)new URL(requestUrl).openConnection();
-            http.setInstanceFollowRedirects(false);
-            http.setRequestMethod(requestMethod);
-
-            final Map<String, String> requestParameters = new HashMap<>();
-            if (data != null && APPLICATION_FORM_URLENCODED.equals(contentType)) {
-                final String[] parameters = data.split("&");
-
-                for (final String oneParameter : parameters) {
-                    final String[] oneParameterKeyAndValue = oneParameter.split("=");
-                    if (oneParameterKeyAndValue.length == 2) {
-                        requestParameters.put(oneParameterKeyAndValue[0], decode(oneParameterKeyAndValue[1], "UTF-8"));
-                    }
+        final Map<String, String> requestParameters = new HashMap<>();
+        if (data != null && APPLICATION_FORM_URLENCODED.equals(contentType)) {
+            final String[] parameters = data.split("&");
+
+            for (final String oneParameter : parameters) {
+                final String[] oneParameterKeyAndValue = oneParameter.split("=");
+                if (oneParameterKeyAndValue.length == 2) {
+                    requestParameters.put(oneParameterKeyAndValue[0], decode(oneParameterKeyAndValue[1], "UTF-8"));
                 }
             }
+        }
 
-            final String authorizationHeaderValue = authorizationHeaderProvider.getAuthorizationHeader("bitbucket", getUserId(),
-                                                                                                       requestMethod, requestUrl,
-                                                                                                       requestParameters);
-            http.setRequestProperty(AUTHORIZATION, authorizationHeaderValue);
-            http.setRequestProperty(ACCEPT, APPLICATION_JSON);
-
-            if (data != null && !data.isEmpty()) {
-                http.setRequestProperty(CONTENT_TYPE, contentType);
-                http.setDoOutput(true);
-
-                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(http.getOutputStream()))) {
-                    writer.write(data);
-                }
-            }
-
-            if (http.getResponseCode() != success) {
-                throw fault(http);
-            }
-
-            String result;
-            try (InputStream input = http.getInputStream()) {
-                result = readBody(input, http.getContentLength());
-            }
-
-            return result;
+        final String authorizationHeaderValue = authorizationHeaderProvider.getAuthorizationHeader("bitbucket", getUserId(),
+                                                                                                   requestMethod, requestUrl,
+                                                                                                   requestParameters);
+        // authorization header is signed with unique nonce, so responses are kept for user instead of header
+        final HostingHttpClient.Request request = new HostingHttpClient.Request(requestMethod, requestUrl)
+                .withHeader(AUTHORIZATION, authorizationHeaderValue)
+                .withHeader(ACCEPT, APPLICATION_JSON)
+                .withCacheKey(getUserId());
+        if (data != null && !data.isEmpty()) {
+            request.withBody(contentType, data);
+        }
 
-        } finally {
-            if (http != null) {
-                http.disconnect();
-            }
+        final HostingHttpClient.Response response = httpClient.execute(request);
+        if (response.getCode() != success) {
+            throw new BitbucketException(response.getCode(), response.getBody(), response.getContentType());
         }
+        return response.getBody();
     }
 
     private <O> O parseJsonResponse(final String json, final Class<O> clazz) throws ParsingResponseException {
@@ -336,43 +311,6 @@ public class Bitbucket {
         }
     }
 
-    private BitbucketException fault(final HttpURLConnection http) throws IOException {
-        final int responseCode = http.getResponseCode();
-
-        try (final InputStream stream = (responseCode >= 400 ? http.getErrorStream() : http.getInputStream())) {
-
-            String body = null;
-            if (stream != null) {
-                final int length = http.getContentLength();
-                body = readBody(stream, length);
-            }
-
-            return new BitbucketException(responseCode, body, http.getContentType());
-        }
-    }
-
-    private String readBody(final InputStream input, final int contentLength) throws IOException {
-        String body = null;
-        if (contentLength > 0) {
-            byte[] b = new byte[contentLength];
-            int off = 0;
-            int i;
-            while ((i = input.read(b, off, contentLength - off)) > 0) {
-                off += i;
-            }
-            body = new String(b);
-        } else if (contentLength < 0) {
-            ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            byte[] buf = new byte[1024];
-            int point;
-            while ((point = input.read(buf)) != -1) {
-                bout.write(buf, 0, point);
-            }
-            body = bout.toString();
-        }
-        return body;
-    }
-
     private String getUserId() {
         return EnvironmentContext.getCurrent().getUser().getId();
     }
@@ -16,6 +16,7 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.bitbucket.shared.BitbucketKey;
+import org.eclipse.che.ide.ext.git.server.commons.HostingHttpClient;
 import org.eclipse.che.ide.ext.git.server.commons.Util;
 import org.eclipse.che.ide.ext.git.server.nativegit.SshKeyUploader;
 import org.eclipse.che.ide.ext.ssh.server.SshKey;
@@ -26,12 +27,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,8 +36,6 @@ import java.util.Map;
 import static org.eclipse.che.ide.MimeType.APPLICATION_JSON;
 import static org.eclipse.che.ide.rest.HTTPHeader.ACCEPT;
 import static org.eclipse.che.ide.rest.HTTPHeader.AUTHORIZATION;
-import static org.eclipse.che.ide.rest.HTTPHeader.CONTENT_LENGTH;
-import static org.eclipse.che.ide.rest.HTTPHeader.CONTENT_TYPE;
 import static org.eclipse.che.ide.rest.HTTPMethod.GET;
 import static org.eclipse.che.ide.rest.HTTPMethod.POST;
 import static org.eclipse.che.ide.rest.HTTPStatus.FORBIDDEN;
@@ -58,11 +52,14 @@ public class BitbucketKeyUploader extends SshKeyUploader {
     private static final String OAUTH_PROVIDER_NAME = "bitbucket";
 
     private final OAuthAuthorizationHeaderProvider authorizationHeaderProvider;
+    private final HostingHttpClient                httpClient;
 
     @Inject
-    public BitbucketKeyUploader(@Nonnull final OAuthAuthorizationHeaderProvider authorizationHeaderProvider) {
+    public BitbucketKeyUploader(@Nonnull final OAuthAuthorizationHeaderProvider authorizationHeaderProvider,
+                                @Nonnull final HostingHttpClient httpClient) {
         super(null);
         this.authorizationHeaderProvider = authorizationHeaderProvider;
+        this.httpClient = httpClient;
     }
 
     @Override
@@ -91,31 +88,11 @@ public class BitbucketKeyUploader extends SshKeyUploader {
 
         LOG.debug("Upload public key: {}", postBody);
 
-        int responseCode;
-        HttpURLConnection conn = null;
-        try {
-
-            conn = (HttpURLConnection)new URL(sshKeysUrl).openConnection();
-            conn.setInstanceFollowRedirects(false);
-            conn.setRequestMethod(POST);
-            conn.setRequestProperty(ACCEPT, APPLICATION_JSON);
-            conn.setRequestProperty(AUTHORIZATION, authorizationHeaderProvider
-                    .getAuthorizationHeader(OAUTH_PROVIDER_NAME, getUserId(), POST, sshKeysUrl, Collections.<String, String>emptyMap()));
-
-            conn.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON);
-            conn.setRequestProperty(CONTENT_LENGTH, String.valueOf(postBody.length()));
-            conn.setDoOutput(true);
-
-            try (OutputStream out = conn.getOutputStream()) {
-                out.write(postBody.getBytes());
-            }
-            responseCode = conn.getResponseCode();
-
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
-        }
+        final int responseCode = httpClient.execute(new HostingHttpClient.Request(POST, sshKeysUrl)
+                .withHeader(ACCEPT, APPLICATION_JSON)
+                .withHeader(AUTHORIZATION, authorizationHeaderProvider
+                        .getAuthorizationHeader(OAUTH_PROVIDER_NAME, getUserId(), POST, sshKeysUrl, Collections.<String, String>emptyMap()))
+                .withBody(APPLICATION_JSON, postBody)).getCode();
 
         LOG.debug("Upload key response code: {}", responseCode);
 
@@ -130,23 +107,17 @@ public class BitbucketKeyUploader extends SshKeyUploader {
     }
 
     private List<BitbucketKey> getUserPublicKeys(final String requestUrl, final StringBuilder answer) {
-        HttpURLConnection conn = null;
-
         try {
 
-            conn = (HttpURLConnection)new URL(requestUrl).openConnection();
-            conn.setInstanceFollowRedirects(false);
-            conn.setRequestMethod(GET);
-            conn.setRequestProperty(ACCEPT, APPLICATION_JSON);
-            conn.setRequestProperty(AUTHORIZATION, authorizationHeaderProvider
-                    .getAuthorizationHeader(OAUTH_PROVIDER_NAME, getUserId(), GET, requestUrl, Collections.<String, String>emptyMap()));
-
-            if (conn.getResponseCode() == OK) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        answer.append(line).append('\n');
-                    }
+            final HostingHttpClient.Response response = httpClient.execute(new HostingHttpClient.Request(GET, requestUrl)
+                    .withHeader(ACCEPT, APPLICATION_JSON)
+                    .withHeader(AUTHORIZATION, authorizationHeaderProvider
+                            .getAuthorizationHeader(OAUTH_PROVIDER_NAME, getUserId(), GET, requestUrl, Collections.<String, String>emptyMap()))
+                    .withCacheKey(getUserId()));
+
+            if (response.getCode() == OK) {
+                if (response.getBody() != null) {
+                    answer.append(response.getBody()).append('\n');
                 }
 
                 return DtoFactory.getInstance().createListDtoFromJson(answer.toString(), BitbucketKey.class);
@@ -156,11 +127,6 @@ public class BitbucketKeyUploader extends SshKeyUploader {
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
             return Collections.emptyList();
-
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
         }
     }
 
@@ -11,7 +11,9 @@
 package org.eclipse.che.ide.ext.git.server;
 
 import java.io.File;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author andrew00x
@@ -47,4 +49,40 @@ public abstract class Config {
     public abstract Config add(String name, String value) throws GitException;
 
     public abstract Config unset(String name) throws GitException;
+
+    /**
+     * Gets values of few parameters at once.
+     *
+     * @param names
+     *         git config file parameters such as user.name
+     * @return values of parameters in the same order as names, parameters which are not set or have invalid names are skipped
+     * @throws GitException
+     *         when some error occurs
+     */
+    public Map<String, String> getValues(List<String> names) throws GitException {
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            try {
+                values.put(name, get(name));
+            } catch (GitException ignored) {
+                // parameter is not set
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Sets values of few parameters at once.
+     *
+     * @param values
+     *         names and values of git config file parameters
+     * @throws GitException
+     *         when some error occurs
+     */
+    public Config setValues(Map<String, String> values) throws GitException {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
 }
@@ -21,8 +21,10 @@ import org.eclipse.che.ide.ext.git.shared.BranchDeleteRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchListRequest;
 import org.eclipse.che.ide.ext.git.shared.CloneRequest;
 import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
 import org.eclipse.che.ide.ext.git.shared.DiffRequest;
 import org.eclipse.che.ide.ext.git.shared.FetchRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
 import org.eclipse.che.ide.ext.git.shared.GitUser;
 import org.eclipse.che.ide.ext.git.shared.InitRequest;
 import org.eclipse.che.ide.ext.git.shared.LogRequest;
@@ -171,6 +173,30 @@ public interface GitConnection extends Closeable {
      */
     DiffPage diff(DiffRequest request) throws GitException;
 
+    /**
+     * Show changed files without their content. Files are compared in the same way as {@link #diff(DiffRequest)} does,
+     * {@link DiffRequest#getSkip()} and {@link DiffRequest#getMaxCount()} select page of files.
+     *
+     * @param request
+     *         diff request
+     * @return page of changed files
+     * @throws GitException
+     *         if any error occurs
+     */
+    DiffIndex diffIndex(DiffRequest request) throws GitException;
+
+    /**
+     * Show diff of one file in unified format. Path of file, and original path of renamed file, are set in
+     * {@link DiffRequest#getFileFilter()}. Diff bigger than {@link DiffRequest#getMaxSize()} or server limit is truncated.
+     *
+     * @param request
+     *         diff request
+     * @return diff of file
+     * @throws GitException
+     *         if file is not specified or any other error occurs
+     */
+    FileDiff diffFile(DiffRequest request) throws GitException;
+
     /**
      * Fetch data from remote repository.
      *
@@ -403,9 +429,10 @@ public interface GitConnection extends Closeable {
     GitUser getUser();
 
     /**
-     * Gel list of commiters in current repository.
+     * Gel list of commiters of current branch, every commiter is included once with number of commits and time of
+     * the latest one.
      *
-     * @return list of commiters
+     * @return list of commiters, the most recent commiters are first
      * @throws GitException
      */
     List<GitUser> getCommiters() throws GitException;
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.ide.ext.git.server.jgit.JGitConnectionFactory;
+import org.eclipse.che.ide.ext.git.server.nativegit.NativeGitConnectionFactory;
+import com.google.inject.Inject;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Provides {@link GitConnectionFactory} selected with configuration property <i>git.engine</i>,
+ * <i>native</i> (default) or <i>jgit</i>. Connections of selected factory are wrapped in
+ * {@link LockingGitConnection}, so concurrent operations on the same repository don't conflict.
+ */
+@Singleton
+public class GitConnectionFactoryProvider implements Provider<GitConnectionFactory> {
+
+    public static final String ENGINE        = "git.engine";
+    public static final String ENGINE_NATIVE = "native";
+    public static final String ENGINE_JGIT   = "jgit";
+
+    private final Provider<NativeGitConnectionFactory> nativeGitConnectionFactory;
+    private final Provider<JGitConnectionFactory>      jGitConnectionFactory;
+    private final RepositoryLockManager                lockManager;
+
+    @Inject(optional = true)
+    @Named(ENGINE)
+    private String engine = ENGINE_NATIVE;
+
+    @Inject
+    public GitConnectionFactoryProvider(Provider<NativeGitConnectionFactory> nativeGitConnectionFactory,
+                                        Provider<JGitConnectionFactory> jGitConnectionFactory,
+                                        RepositoryLockManager lockManager) {
+        this.nativeGitConnectionFactory = nativeGitConnectionFactory;
+        this.jGitConnectionFactory = jGitConnectionFactory;
+        this.lockManager = lockManager;
+    }
+
+    @Override
+    public GitConnectionFactory get() {
+        final GitConnectionFactory factory;
+        if (ENGINE_JGIT.equals(engine)) {
+            factory = jGitConnectionFactory.get();
+        } else if (ENGINE_NATIVE.equals(engine)) {
+            factory = nativeGitConnectionFactory.get();
+        } else {
+            throw new IllegalStateException("Unsupported git engine '" + engine + "'. Must be either 'native' or 'jgit'.");
+        }
+        return new LockingGitConnectionFactory(factory, lockManager);
+    }
+}
@@ -14,7 +14,7 @@ import org.eclipse.che.api.project.server.ProjectImporter;
 import org.eclipse.che.api.project.server.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ProjectType;
 import org.eclipse.che.ide.ext.git.server.commons.GitRepositoryPrivacyChecker;
-import org.eclipse.che.ide.ext.git.server.nativegit.NativeGitConnectionFactory;
+import org.eclipse.che.ide.ext.git.server.nativegit.CommandProcess;
 import org.eclipse.che.ide.ext.git.server.rest.BranchListWriter;
 import org.eclipse.che.ide.ext.git.server.rest.CommitMessageWriter;
 import org.eclipse.che.ide.ext.git.server.rest.GitService;
@@ -54,6 +54,7 @@ public class GitModule extends AbstractModule {
         bind(StatusPageWriter.class);
         bind(TagListWriter.class);
 
-        bind(GitConnectionFactory.class).to(NativeGitConnectionFactory.class);
+        bind(GitConnectionFactory.class).toProvider(GitConnectionFactoryProvider.class);
+        requestStaticInjection(CommandProcess.class);
     }
 }
\ No newline at end of file
@@ -14,7 +14,6 @@ import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
-import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.project.server.FolderEntry;
 import org.eclipse.che.api.project.server.ProjectImporter;
@@ -42,6 +41,7 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -109,6 +109,9 @@ public class GitProjectImporter implements ProjectImporter {
             // Delete vcs info if false.
             String branchMerge = null;
             boolean keepVcs = true;
+            // For factory: number of commits of history to be imported, clone only one branch and partial clone filter,
+            // e.g. "blob:none", to transfer only part of objects of big repository.
+            final CloneOptions cloneOptions = new CloneOptions();
             if (parameters != null) {
                 commitId = parameters.get("commitId");
                 branch = parameters.get("branch");
@@ -118,30 +121,42 @@ public class GitProjectImporter implements ProjectImporter {
                     keepVcs = Boolean.parseBoolean(parameters.get("keepVcs"));
                 }
                 branchMerge = parameters.get("branchMerge");
+                if (parameters.containsKey("depth")) {
+                    try {
+                        cloneOptions.depth = Integer.parseInt(parameters.get("depth"));
+                    } catch (NumberFormatException e) {
+                        throw new ServerException("Depth must be a number: " + parameters.get("depth"));
+                    }
+                }
+                cloneOptions.singleBranch = Boolean.parseBoolean(parameters.get("singleBranch"));
+                cloneOptions.filter = parameters.get("filter");
             }
             // Get path to local file. Git works with local filesystem only.
             final String localPath = localPathResolver.resolve((VirtualFileImpl)baseFolder.getVirtualFile());
             final DtoFactory dtoFactory = DtoFactory.getInstance();
             if (keepDirectory != null) {
-                final File temp = Files.createTempDirectory(null).toFile();
+                final File projectDir = new File(localPath);
+                // Repository is checked out inside of the project folder, so content of directory is moved to the
+                // project folder without copying.
+                final File temp = Files.createTempDirectory(projectDir.toPath(), ".import").toFile();
                 try {
+                    resolveKeepDirectory(temp, keepDirectory);
                     git = gitConnectionFactory.getConnection(temp, consumerFactory);
-                    sparsecheckout(git, location, branch == null ? "master" : branch, keepDirectory, dtoFactory);
-                    // Copy content of directory to the project folder.
-                    final File projectDir = new File(localPath);
-                    IoUtil.copy(new File(temp, keepDirectory), projectDir, IoUtil.ANY_FILTER);
+                    sparsecheckout(git, location, branch == null ? "master" : branch, keepDirectory, cloneOptions.depth, dtoFactory);
+                    // resolved again after checkout, directory of repository may be a symbolic link
+                    moveContent(resolveKeepDirectory(temp, keepDirectory), projectDir);
                 } finally {
-                    FileCleaner.addFile(temp);
+                    IoUtil.deleteRecursive(temp);
                 }
             } else {
                 git = gitConnectionFactory.getConnection(localPath, consumerFactory);
                 if (baseFolder.getChildren().size() == 0) {
-                    cloneRepository(git, "origin", location, dtoFactory);
+                    cloneRepository(git, "origin", location, branch, cloneOptions, dtoFactory);
                     if (commitId != null) {
-                        checkoutCommit(git, commitId, dtoFactory);
+                        checkoutCommit(git, commitId, cloneOptions.depth > 0, dtoFactory);
                     } else if (remoteOriginFetch != null) {
                         git.getConfig().add("remote.origin.fetch", remoteOriginFetch);
-                        fetch(git, "origin", dtoFactory);
+                        fetch(git, "origin", cloneOptions.depth, dtoFactory);
                         if (branch != null) {
                             checkoutBranch(git, branch, dtoFactory);
                         }
@@ -152,16 +167,16 @@ public class GitProjectImporter implements ProjectImporter {
                     initRepository(git, dtoFactory);
                     addRemote(git, "origin", location, dtoFactory);
                     if (commitId != null) {
-                        fetchBranch(git, "origin", branch == null ? "*" : branch, dtoFactory);
-                        checkoutCommit(git, commitId, dtoFactory);
+                        fetchBranch(git, "origin", branch == null ? "*" : branch, cloneOptions.depth, dtoFactory);
+                        checkoutCommit(git, commitId, cloneOptions.depth > 0, dtoFactory);
                     } else if (remoteOriginFetch != null) {
                         git.getConfig().add("remote.origin.fetch", remoteOriginFetch);
-                        fetch(git, "origin", dtoFactory);
+                        fetch(git, "origin", cloneOptions.depth, dtoFactory);
                         if (branch != null) {
                             checkoutBranch(git, branch, dtoFactory);
                         }
                     } else {
-                        fetchBranch(git, "origin", branch == null ? "*" : branch, dtoFactory);
+                        fetchBranch(git, "origin", branch == null ? "*" : branch, cloneOptions.depth, dtoFactory);
 
                         List<Branch> branchList = git.branchList(dtoFactory.createDto(BranchListRequest.class).withListMode("r"));
                         if (!branchList.isEmpty()) {
@@ -193,9 +208,16 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void cloneRepository(GitConnection git, String remoteName, String url, DtoFactory dtoFactory)
-            throws ServerException, UnauthorizedException, URISyntaxException {
-        final CloneRequest request = dtoFactory.createDto(CloneRequest.class).withRemoteName(remoteName).withRemoteUri(url);
+    private void cloneRepository(GitConnection git, String remoteName, String url, String branch, CloneOptions options,
+                                 DtoFactory dtoFactory) throws ServerException, UnauthorizedException, URISyntaxException {
+        final CloneRequest request = dtoFactory.createDto(CloneRequest.class).withRemoteName(remoteName).withRemoteUri(url)
+                                               .withDepth(options.depth)
+                                               .withSingleBranch(options.singleBranch)
+                                               .withFilter(options.filter);
+        if (options.singleBranch) {
+            // branch of repository isn't known after clone if only one branch is cloned
+            request.setBranch(branch);
+        }
         git.clone(request);
     }
 
@@ -209,17 +231,17 @@ public class GitProjectImporter implements ProjectImporter {
         git.remoteAdd(request);
     }
 
-    private void fetch(GitConnection git, String remote, DtoFactory dtoFactory) throws UnauthorizedException, GitException {
-        final FetchRequest request = dtoFactory.createDto(FetchRequest.class).withRemote(remote);
+    private void fetch(GitConnection git, String remote, int depth, DtoFactory dtoFactory) throws UnauthorizedException, GitException {
+        final FetchRequest request = dtoFactory.createDto(FetchRequest.class).withRemote(remote).withDepth(depth);
         git.fetch(request);
     }
 
-    private void fetchBranch(GitConnection gitConnection, String remote, String branch, DtoFactory dtoFactory)
+    private void fetchBranch(GitConnection gitConnection, String remote, String branch, int depth, DtoFactory dtoFactory)
             throws UnauthorizedException, GitException {
 
         final List<String> refSpecs = Collections.singletonList(String.format("refs/heads/%1$s:refs/remotes/origin/%1$s", branch));
         try {
-            fetchRefSpecs(gitConnection, remote, refSpecs, dtoFactory);
+            fetchRefSpecs(gitConnection, remote, refSpecs, depth, dtoFactory);
         } catch (GitException e) {
             LOG.warn("Git exception on branch fetch", e);
             throw new GitException(
@@ -228,17 +250,27 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void fetchRefSpecs(GitConnection git, String remote, List<String> refSpecs, DtoFactory dtoFactory)
+    private void fetchRefSpecs(GitConnection git, String remote, List<String> refSpecs, int depth, DtoFactory dtoFactory)
             throws UnauthorizedException, GitException {
-        final FetchRequest request = dtoFactory.createDto(FetchRequest.class).withRemote(remote).withRefSpec(refSpecs);
+        final FetchRequest request = dtoFactory.createDto(FetchRequest.class).withRemote(remote).withRefSpec(refSpecs).withDepth(depth);
         git.fetch(request);
     }
 
-    private void checkoutCommit(GitConnection git, String commit, DtoFactory dtoFactory) throws GitException {
+    private void checkoutCommit(GitConnection git, String commit, boolean shallow, DtoFactory dtoFactory)
+            throws UnauthorizedException, GitException {
         final BranchCheckoutRequest request = dtoFactory.createDto(BranchCheckoutRequest.class).withName("temp").withCreateNew(true)
                                                         .withStartPoint(commit);
         try {
-            git.branchCheckout(request);
+            try {
+                git.branchCheckout(request);
+            } catch (GitException e) {
+                if (!shallow) {
+                    throw e;
+                }
+                // commit is older than imported history
+                git.fetch(dtoFactory.createDto(FetchRequest.class).withRemote("origin").withUnshallow(true));
+                git.branchCheckout(request);
+            }
         } catch (GitException e) {
             LOG.warn("Git exception on commit checkout", e);
             throw new GitException(
@@ -258,34 +290,111 @@ public class GitProjectImporter implements ProjectImporter {
         }
     }
 
-    private void sparsecheckout(GitConnection git, String url, String branch, String directory, DtoFactory dtoFactory)
+    private void sparsecheckout(GitConnection git, String url, String branch, String directory, int depth, DtoFactory dtoFactory)
             throws GitException, UnauthorizedException {
         /*
         Does following sequence of Git commands:
         $ git init
         $ git remote add origin <URL>
         $ git config core.sparsecheckout true
-        $ echo keepDirectory >> .git/info/sparse-checkout
-        $ git pull origin master
+        $ git config core.sparseCheckoutCone true
+        $ git config extensions.partialClone origin
+        $ git config remote.origin.promisor true
+        $ git config remote.origin.partialclonefilter blob:none
+        $ git fetch origin master
+        $ git checkout master
+        Before fetch patterns of keepDirectory are written to .git/info/sparse-checkout directly, see conePatterns(). They
+        are the same as "git sparse-checkout set keepDirectory" writes, but older git doesn't have sparse-checkout command.
+        Fetch downloads commits and trees only, content of files of kept directory is downloaded by checkout.
+        Servers which don't support filters send all objects.
         */
         initRepository(git, dtoFactory);
         addRemote(git, "origin", url, dtoFactory);
-        git.getConfig().add("core.sparsecheckout", "true");
+        final Config config = git.getConfig();
+        config.add("core.sparsecheckout", "true");
+        config.add("core.sparseCheckoutCone", "true");
+        config.add("extensions.partialClone", "origin");
+        config.add("remote.origin.promisor", "true");
+        config.add("remote.origin.partialclonefilter", "blob:none");
         final File workingDir = git.getWorkingDir();
         final File sparseCheckout = new File(workingDir, ".git" + File.separator + "info" + File.separator + "sparse-checkout");
         try {
             try (BufferedWriter writer = Files.newBufferedWriter(sparseCheckout.toPath(), Charset.forName("UTF-8"))) {
-                writer.write(directory);
+                writer.write(conePatterns(directory));
             }
         } catch (IOException e) {
             throw new GitException(e);
         }
-        fetchBranch(git, "origin", branch, dtoFactory);
+        fetchBranch(git, "origin", branch, depth, dtoFactory);
         checkoutBranch(git, branch, dtoFactory);
     }
 
+    /**
+     * Creates patterns of cone mode of sparse checkout which include directory with all its content, files of its
+     * parent directories and files in the root of repository.
+     */
+    static String conePatterns(String directory) {
+        final StringBuilder patterns = new StringBuilder("/*\n!/*/\n");
+        final StringBuilder parent = new StringBuilder("/");
+        final String[] names = directory.replace('\\', '/').split("/");
+        for (String name : names) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (parent.length() > 1) {
+                patterns.append('!').append(parent).append("*/\n");
+            }
+            parent.append(name).append('/');
+            patterns.append(parent).append('\n');
+        }
+        return patterns.toString();
+    }
+
+    /**
+     * Resolves directory which is kept from repository checked out to temporary directory. Its content is moved, so
+     * directory must be strictly inside of temporary directory and outside of <i>.git</i>, otherwise files of other
+     * folders could be moved to the project.
+     *
+     * @throws ServerException
+     *         if directory is empty, absolute or isn't inside of temporary directory
+     */
+    static File resolveKeepDirectory(File temp, String keepDirectory) throws ServerException, IOException {
+        if (keepDirectory.trim().isEmpty() || new File(keepDirectory).isAbsolute()) {
+            throw new ServerException("Directory to keep must be a relative path in repository: " + keepDirectory);
+        }
+        final Path root = temp.getCanonicalFile().toPath();
+        final Path directory = new File(temp, keepDirectory).getCanonicalFile().toPath();
+        if (directory.equals(root) || !directory.startsWith(root) || directory.startsWith(root.resolve(".git"))) {
+            throw new ServerException("Directory to keep must be a relative path in repository: " + keepDirectory);
+        }
+        return directory.toFile();
+    }
+
+    /** Moves content of directory to the project folder, content is merged with existing files of the project. */
+    static void moveContent(File source, File projectDir) throws IOException {
+        final File[] children = source.listFiles();
+        if (children == null) {
+            throw new IOException(String.format("Directory %s doesn't exist in repository.", source.getName()));
+        }
+        for (File child : children) {
+            final File target = new File(projectDir, child.getName());
+            if (target.exists()) {
+                IoUtil.copy(child, target, IoUtil.ANY_FILTER);
+            } else {
+                Files.move(child.toPath(), target.toPath());
+            }
+        }
+    }
+
     private void cleanGit(File project) {
         IoUtil.deleteRecursive(new File(project, ".git"));
         new File(project, ".gitignore").delete();
     }
+
+    /** Options which limit history and objects transferred while repository is imported. */
+    private static class CloneOptions {
+        int     depth;
+        boolean singleBranch;
+        String  filter;
+    }
 }
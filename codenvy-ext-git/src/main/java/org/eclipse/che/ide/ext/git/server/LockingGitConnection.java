@@ -0,0 +1,498 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.ide.ext.git.shared.AddRequest;
+import org.eclipse.che.ide.ext.git.shared.Branch;
+import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchCreateRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchDeleteRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchListRequest;
+import org.eclipse.che.ide.ext.git.shared.CloneRequest;
+import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.FetchRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.InitRequest;
+import org.eclipse.che.ide.ext.git.shared.LogRequest;
+import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import org.eclipse.che.ide.ext.git.shared.MergeRequest;
+import org.eclipse.che.ide.ext.git.shared.MergeResult;
+import org.eclipse.che.ide.ext.git.shared.MoveRequest;
+import org.eclipse.che.ide.ext.git.shared.PullRequest;
+import org.eclipse.che.ide.ext.git.shared.PushRequest;
+import org.eclipse.che.ide.ext.git.shared.Remote;
+import org.eclipse.che.ide.ext.git.shared.RemoteAddRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteListRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteReference;
+import org.eclipse.che.ide.ext.git.shared.RemoteUpdateRequest;
+import org.eclipse.che.ide.ext.git.shared.ResetRequest;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+import org.eclipse.che.ide.ext.git.shared.RmRequest;
+import org.eclipse.che.ide.ext.git.shared.Status;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import org.eclipse.che.ide.ext.git.shared.Tag;
+import org.eclipse.che.ide.ext.git.shared.TagCreateRequest;
+import org.eclipse.che.ide.ext.git.shared.TagDeleteRequest;
+import org.eclipse.che.ide.ext.git.shared.TagListRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Serializes operations of connection with other operations on the same repository. Operations which
+ * modify index, working tree or local branches take exclusive lock of repository, so they don't fail
+ * on <i>index.lock</i> held by another git process. Read operations share the lock. Fetch and push only
+ * update remote tracking refs and objects, so they share the lock as well and don't block status
+ * during long transfers. ls-remote doesn't touch local repository and isn't locked at all.
+ * <p/>
+ * Lock is held while operation is executed. Diff is produced by git when returned page is written, so the page
+ * takes shared lock again while it is written. Writes of returned {@link Config} lock repository exclusively.
+ */
+public class LockingGitConnection implements GitConnection {
+
+    private final GitConnection         delegate;
+    private final RepositoryLockManager lockManager;
+
+    public LockingGitConnection(GitConnection delegate, RepositoryLockManager lockManager) {
+        this.delegate = delegate;
+        this.lockManager = lockManager;
+    }
+
+    @Override
+    public File getWorkingDir() {
+        return delegate.getWorkingDir();
+    }
+
+    @Override
+    public void add(AddRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.add(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void branchCheckout(BranchCheckoutRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.branchCheckout(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Branch branchCreate(BranchCreateRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            return delegate.branchCreate(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void branchDelete(BranchDeleteRequest request) throws GitException, UnauthorizedException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.branchDelete(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void branchRename(String oldName, String newName) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.branchRename(oldName, newName);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Branch> branchList(BranchListRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.branchList(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clone(CloneRequest request) throws URISyntaxException, ServerException, UnauthorizedException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.clone(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Revision commit(CommitRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            return delegate.commit(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public DiffPage diff(DiffRequest request) throws GitException {
+        final DiffPage page;
+        final Lock lock = lockRead();
+        try {
+            page = delegate.diff(request);
+        } finally {
+            lock.unlock();
+        }
+        return new DiffPage() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                final Lock lock;
+                try {
+                    lock = lockRead();
+                } catch (GitException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+                try {
+                    page.writeTo(out);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+    }
+
+    @Override
+    public DiffIndex diffIndex(DiffRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.diffIndex(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FileDiff diffFile(DiffRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.diffFile(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void fetch(FetchRequest request) throws UnauthorizedException, GitException {
+        final Lock lock = lockRead();
+        try {
+            delegate.fetch(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void init(InitRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.init(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public LogPage log(LogRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.log(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<RemoteReference> lsRemote(LsRemoteRequest request) throws UnauthorizedException, GitException {
+        return delegate.lsRemote(request);
+    }
+
+    @Override
+    public MergeResult merge(MergeRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            return delegate.merge(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void mv(MoveRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.mv(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void pull(PullRequest request) throws GitException, UnauthorizedException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.pull(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void push(PushRequest request) throws GitException, UnauthorizedException {
+        final Lock lock = lockRead();
+        try {
+            delegate.push(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remoteAdd(RemoteAddRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.remoteAdd(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remoteDelete(String name) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.remoteDelete(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Remote> remoteList(RemoteListRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.remoteList(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remoteUpdate(RemoteUpdateRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.remoteUpdate(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void reset(ResetRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.reset(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void rm(RmRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.rm(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Status status(StatusFormat format) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.status(format);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Tag tagCreate(TagCreateRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            return delegate.tagCreate(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void tagDelete(TagDeleteRequest request) throws GitException {
+        final Lock lock = lockWrite();
+        try {
+            delegate.tagDelete(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Tag> tagList(TagListRequest request) throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.tagList(request);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public GitUser getUser() {
+        return delegate.getUser();
+    }
+
+    @Override
+    public List<GitUser> getCommiters() throws GitException {
+        final Lock lock = lockRead();
+        try {
+            return delegate.getCommiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Config getConfig() throws GitException {
+        return new LockingConfig(delegate.getConfig());
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void setOutputLineConsumerFactory(LineConsumerFactory outputPublisherFactory) {
+        delegate.setOutputLineConsumerFactory(outputPublisherFactory);
+    }
+
+    private Lock lockRead() throws GitException {
+        return lockManager.lockRead(getWorkingDir());
+    }
+
+    private Lock lockWrite() throws GitException {
+        return lockManager.lockWrite(getWorkingDir());
+    }
+
+    /** Config which locks repository exclusively while git config file is modified. */
+    private class LockingConfig extends Config {
+        private final Config delegate;
+
+        LockingConfig(Config delegate) throws GitException {
+            super(getWorkingDir());
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String get(String name) throws GitException {
+            return delegate.get(name);
+        }
+
+        @Override
+        public List<String> getAll(String name) throws GitException {
+            return delegate.getAll(name);
+        }
+
+        @Override
+        public List<String> getList() throws GitException {
+            return delegate.getList();
+        }
+
+        @Override
+        public Map<String, String> getValues(List<String> names) throws GitException {
+            return delegate.getValues(names);
+        }
+
+        @Override
+        public Config set(String name, String value) throws GitException {
+            final Lock lock = lockWrite();
+            try {
+                delegate.set(name, value);
+            } finally {
+                lock.unlock();
+            }
+            return this;
+        }
+
+        @Override
+        public Config add(String name, String value) throws GitException {
+            final Lock lock = lockWrite();
+            try {
+                delegate.add(name, value);
+            } finally {
+                lock.unlock();
+            }
+            return this;
+        }
+
+        @Override
+        public Config unset(String name) throws GitException {
+            final Lock lock = lockWrite();
+            try {
+                delegate.unset(name);
+            } finally {
+                lock.unlock();
+            }
+            return this;
+        }
+
+        @Override
+        public Config setValues(Map<String, String> values) throws GitException {
+            final Lock lock = lockWrite();
+            try {
+                delegate.setValues(values);
+            } finally {
+                lock.unlock();
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+
+import java.io.File;
+
+/** Wraps connections of another factory in {@link LockingGitConnection}. */
+public class LockingGitConnectionFactory extends GitConnectionFactory {
+
+    private final GitConnectionFactory  delegate;
+    private final RepositoryLockManager lockManager;
+
+    public LockingGitConnectionFactory(GitConnectionFactory delegate, RepositoryLockManager lockManager) {
+        this.delegate = delegate;
+        this.lockManager = lockManager;
+    }
+
+    @Override
+    public GitConnection getConnection(File workDir, GitUser user, LineConsumerFactory outputPublisherFactory) throws GitException {
+        return new LockingGitConnection(delegate.getConnection(workDir, user, outputPublisherFactory), lockManager);
+    }
+
+    @Override
+    public GitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
+        return new LockingGitConnection(delegate.getConnection(workDir, outputPublisherFactory), lockManager);
+    }
+}
@@ -54,14 +54,15 @@ public class LogPage implements Log, InfoPage {
         for (Revision commit : commits) {
             writer.format("commit %s\n", commit.getId());
 
-            GitUser commiter = commit.getCommitter();
-            if (commiter != null) {
-                writer.format("Author: %1$s <%2$s>\n", commiter.getName(), commiter.getEmail());
+            // committer is shown if author is unknown
+            GitUser author = commit.getAuthor() != null ? commit.getAuthor() : commit.getCommitter();
+            if (author != null) {
+                writer.format("Author: %1$s <%2$s>\n", author.getName(), author.getEmail());
             }
 
-            long commitTime = commit.getCommitTime();
-            if (commitTime > 0) {
-                writer.format("Date:   %s\n", df.format(new Date(commitTime)));
+            long time = commit.getAuthorTime() > 0 ? commit.getAuthorTime() : commit.getCommitTime();
+            if (time > 0) {
+                writer.format("Date:   %s\n", df.format(new Date(time)));
             }
 
             writer.println();
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.inject.Inject;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Read/write locks of repositories. Operations which only read repository share lock of repository,
+ * operations which modify index, working tree or local refs lock repository exclusively.
+ * <p/>
+ * Locks are striped by path of repository, so different repositories may share the same lock,
+ * but the number of locks doesn't grow with number of repositories and there is no global lock.
+ */
+@Singleton
+public class RepositoryLockManager {
+
+    public static final String LOCK_TIMEOUT = "git.lock.timeout";
+
+    private static final int  STRIPES              = 256;
+    private static final long DEFAULT_LOCK_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    private final Striped<ReadWriteLock> locks;
+
+    private final AtomicLong acquired      = new AtomicLong();
+    private final AtomicLong timeouts      = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime   = new AtomicLong();
+
+    @Inject(optional = true)
+    @Named(LOCK_TIMEOUT)
+    private long timeout = DEFAULT_LOCK_TIMEOUT;
+
+    public RepositoryLockManager() {
+        this(DEFAULT_LOCK_TIMEOUT);
+    }
+
+    /**
+     * @param timeout
+     *         time in milliseconds to wait for lock
+     */
+    public RepositoryLockManager(long timeout) {
+        this.timeout = timeout;
+        this.locks = Striped.readWriteLock(STRIPES);
+    }
+
+    /**
+     * Acquires shared lock of repository.
+     *
+     * @param repository
+     *         working directory of repository
+     * @return acquired lock, it must be unlocked after operation
+     * @throws GitException
+     *         when lock is not acquired during timeout
+     */
+    public Lock lockRead(File repository) throws GitException {
+        return lock(getLock(repository).readLock(), repository);
+    }
+
+    /**
+     * Acquires exclusive lock of repository.
+     *
+     * @param repository
+     *         working directory of repository
+     * @return acquired lock, it must be unlocked after operation
+     * @throws GitException
+     *         when lock is not acquired during timeout
+     */
+    public Lock lockWrite(File repository) throws GitException {
+        return lock(getLock(repository).writeLock(), repository);
+    }
+
+    /** @return number of acquired locks */
+    public long getAcquired() {
+        return acquired.get();
+    }
+
+    /** @return number of operations which were not able to get lock during timeout */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /** @return average time in milliseconds which operations waited for lock */
+    public long getAverageWaitTime() {
+        final long count = acquired.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitTime.get() / count);
+    }
+
+    /** @return maximal time in milliseconds which operation waited for lock */
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+    }
+
+    private ReadWriteLock getLock(File repository) {
+        return locks.get(repository.getAbsoluteFile().toPath().normalize().toString());
+    }
+
+    private Lock lock(Lock lock, File repository) throws GitException {
+        final long start = System.nanoTime();
+        try {
+            if (!lock.tryLock(timeout, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new GitException("Repository " + repository.getName() + " is busy with another operation, try again later.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitException("Interrupted while waiting for repository lock");
+        }
+        final long waitTime = System.nanoTime() - start;
+        acquired.incrementAndGet();
+        totalWaitTime.addAndGet(waitTime);
+        long max;
+        while ((max = maxWaitTime.get()) < waitTime && !maxWaitTime.compareAndSet(max, waitTime)) {
+        }
+        return lock;
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Fingerprint of repository state which is computed from files of <i>.git</i> directory without git process.
+ * <p/>
+ * Fingerprint covers content of <i>HEAD</i>, modification time and size of loose refs, their directories,
+ * <i>packed-refs</i>, <i>index</i>, <i>config</i> and <i>info/exclude</i>. Git updates these files by renaming
+ * lock files, so any change of branches, tags, remotes or index changes fingerprint. Changes of working tree files
+ * aren't covered. Files modified too close to the moment of reading may be changed again in the same tick of file
+ * system clock, fingerprint isn't computed for such repositories.
+ */
+public class RepositoryState {
+
+    /** File systems with the coarsest timestamps keep modification time with 2 seconds precision. */
+    static final long RACY_PERIOD = 2000;
+
+    private RepositoryState() {
+    }
+
+    /**
+     * Computes fingerprint of repository.
+     *
+     * @param workTree
+     *         working tree of repository
+     * @return fingerprint or {@code null} if repository doesn't have <i>.git</i> directory or it was just modified
+     */
+    public static String fingerprint(File workTree) {
+        final long started = System.currentTimeMillis();
+        final File gitDir = new File(workTree, ".git");
+        final File head = new File(gitDir, "HEAD");
+        if (!head.isFile()) {
+            return null;
+        }
+        final Hasher hasher = Hashing.sha1().newHasher();
+        try {
+            hasher.putBytes(Files.readAllBytes(head.toPath()));
+        } catch (IOException e) {
+            return null;
+        }
+        final Stamp stamp = new Stamp(hasher, started - RACY_PERIOD);
+        stamp.add(head);
+        stamp.add(new File(gitDir, "packed-refs"));
+        stamp.add(new File(gitDir, "index"));
+        stamp.add(new File(gitDir, "config"));
+        stamp.add(new File(gitDir, "info/exclude"));
+        stamp.addDirectory(new File(gitDir, "refs"));
+        return stamp.racy ? null : hasher.hash().toString();
+    }
+
+    private static class Stamp {
+        final Hasher hasher;
+        final long   racyAfter;
+
+        boolean racy;
+
+        Stamp(Hasher hasher, long racyAfter) {
+            this.hasher = hasher;
+            this.racyAfter = racyAfter;
+        }
+
+        void add(File file) {
+            final long modified = file.lastModified();
+            racy |= modified >= racyAfter;
+            hasher.putString(file.getName(), StandardCharsets.UTF_8)
+                  .putLong(modified)
+                  .putLong(file.isDirectory() ? -1 : file.length());
+        }
+
+        void addDirectory(File dir) {
+            add(dir);
+            final File[] children = dir.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isDirectory()) {
+                        addDirectory(child);
+                    } else {
+                        add(child);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.ide.ext.git.shared.Status;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import com.google.common.base.Joiner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Status of each changed path of working tree, the same as two letters code of short status output.
+ * Entries are collected once and used for classification of files in {@link Status} and for its text representation.
+ */
+public class StatusEntries {
+
+    /** Two letters status code of each tracked path, unchanged side is space. */
+    private final NavigableMap<String, String> codes           = new TreeMap<>();
+    /** Original path of renamed or copied paths. */
+    private final NavigableMap<String, String> originalPaths   = new TreeMap<>();
+    /** Changes inside submodules, e.g. <i>new commits</i>. */
+    private final NavigableMap<String, String> submoduleStates = new TreeMap<>();
+    /** Untracked files and folders, folders end with '/'. Path may be also tracked if it is removed from index. */
+    private final NavigableSet<String>         notTracked      = new TreeSet<>();
+    /** Ignored files and folders, they are known only if they were asked for, folders end with '/'. */
+    private final NavigableSet<String>         ignored         = new TreeSet<>();
+
+    private String  upstream;
+    private int     ahead;
+    private int     behind;
+    private boolean initial;
+
+    public StatusEntries() {
+    }
+
+    /** Creates copy of {@code other}, changes of copy don't affect it. */
+    public StatusEntries(StatusEntries other) {
+        codes.putAll(other.codes);
+        originalPaths.putAll(other.originalPaths);
+        submoduleStates.putAll(other.submoduleStates);
+        notTracked.addAll(other.notTracked);
+        ignored.addAll(other.ignored);
+        setUpstream(other.upstream, other.ahead, other.behind);
+        initial = other.initial;
+    }
+
+    /** @return status code of path or {@code null} if path isn't changed */
+    public String getCode(String path) {
+        return codes.get(path);
+    }
+
+    /**
+     * @param path
+     *         path of tracked file
+     * @param code
+     *         two letters status code, e.g. <i>AM</i>
+     */
+    public void putCode(String path, String code) {
+        codes.put(path, code);
+    }
+
+    /** Remembers path which was renamed or copied to {@code path}. */
+    public void putOriginalPath(String path, String originalPath) {
+        originalPaths.put(path, originalPath);
+    }
+
+    /** Remembers changes inside submodule, they are shown in long format, e.g. <i>new commits, modified content</i>. */
+    public void putSubmoduleState(String path, String state) {
+        submoduleStates.put(path, state);
+    }
+
+    /**
+     * @param path
+     *         untracked file or folder, folder should end with '/'
+     */
+    public void addNotTracked(String path) {
+        notTracked.add(path);
+    }
+
+    /**
+     * @param path
+     *         ignored file or folder, folder should end with '/'
+     */
+    public void addIgnored(String path) {
+        ignored.add(path);
+    }
+
+    /** @return ignored files and folders, folders end with '/' */
+    public Set<String> getIgnored() {
+        return Collections.unmodifiableSet(ignored);
+    }
+
+    /** @return {@code true} if some paths are renamed or copied */
+    public boolean hasOriginalPaths() {
+        return !originalPaths.isEmpty();
+    }
+
+    /**
+     * Finds topmost untracked folder which contains {@code path}. Git shows such folder instead of its content.
+     *
+     * @return folder without trailing '/' or {@code null} if path isn't inside of untracked folder
+     */
+    public String getUntrackedFolder(String path) {
+        for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+            if (notTracked.contains(path.substring(0, i + 1))) {
+                return path.substring(0, i);
+            }
+        }
+        return notTracked.contains(path + '/') ? path : null;
+    }
+
+    /** Forgets status of {@code path} and everything inside of it. */
+    public void remove(String path) {
+        removeUnder(codes.navigableKeySet(), path);
+        removeUnder(originalPaths.navigableKeySet(), path);
+        removeUnder(submoduleStates.navigableKeySet(), path);
+        removeUnder(notTracked, path);
+        removeUnder(ignored, path);
+    }
+
+    private static void removeUnder(NavigableSet<String> paths, String path) {
+        paths.remove(path);
+        // all paths which start with "path/" are less than "path0"
+        paths.subSet(path + '/', true, path + (char)('/' + 1), false).clear();
+    }
+
+    /** Adds all entries of {@code other}, entries of the same paths are replaced. */
+    public void putAll(StatusEntries other) {
+        codes.putAll(other.codes);
+        originalPaths.putAll(other.originalPaths);
+        submoduleStates.putAll(other.submoduleStates);
+        notTracked.addAll(other.notTracked);
+        ignored.addAll(other.ignored);
+    }
+
+    /**
+     * @param upstream
+     *         upstream branch of current branch, e.g. <i>origin/master</i>
+     * @param ahead
+     *         number of commits which upstream doesn't have
+     * @param behind
+     *         number of commits of upstream which current branch doesn't have
+     */
+    public void setUpstream(String upstream, int ahead, int behind) {
+        this.upstream = upstream;
+        this.ahead = ahead;
+        this.behind = behind;
+    }
+
+    /**
+     * @param initial
+     *         {@code true} if current branch doesn't have commits yet
+     */
+    public void setInitial(boolean initial) {
+        this.initial = initial;
+    }
+
+    public boolean isClean() {
+        return codes.isEmpty() && notTracked.isEmpty();
+    }
+
+    /** Sorts paths to lists of {@code status}, every path is checked once. */
+    public void classify(Status status) {
+        status.setClean(isClean());
+        if (isClean()) {
+            return;
+        }
+        final Set<String> added = new LinkedHashSet<>();
+        final Set<String> changed = new LinkedHashSet<>();
+        final Set<String> removed = new LinkedHashSet<>();
+        final Set<String> missing = new LinkedHashSet<>();
+        final Set<String> modified = new LinkedHashSet<>();
+        final Set<String> untracked = new LinkedHashSet<>();
+        final Set<String> untrackedFolders = new LinkedHashSet<>();
+        final Set<String> conflicting = new LinkedHashSet<>();
+        for (Map.Entry<String, String> entry : codes.entrySet()) {
+            final String path = entry.getKey();
+            final char x = entry.getValue().charAt(0);
+            final char y = entry.getValue().charAt(1);
+            if (x == 'A' && y == 'A' || x == 'U' || y == 'U') {
+                conflicting.add(path);
+            }
+            if (x == 'A' && (y == 'M' || y == ' ')) {
+                added.add(path);
+            } else if (x == 'A' && y == 'D') {
+                missing.add(path);
+            }
+            if (x == 'R' || x == 'C') {
+                // the same as JGit shows renamed files without rename detection
+                added.add(path);
+                if (x == 'R' && originalPaths.containsKey(path)) {
+                    removed.add(originalPaths.get(path));
+                }
+            }
+            if (x == 'M') {
+                changed.add(path);
+            }
+            if (x == 'D' || x == ' ' && y == 'D') {
+                removed.add(path);
+            }
+            if (y == 'M') {
+                modified.add(path);
+            }
+        }
+        for (String path : notTracked) {
+            if (path.endsWith("/")) {
+                untrackedFolders.add(path.substring(0, path.length() - 1));
+            } else {
+                untracked.add(path);
+            }
+        }
+        status.setAdded(new ArrayList<>(added));
+        status.setChanged(new ArrayList<>(changed));
+        status.setRemoved(new ArrayList<>(removed));
+        status.setMissing(new ArrayList<>(missing));
+        status.setModified(new ArrayList<>(modified));
+        status.setUntracked(new ArrayList<>(untracked));
+        status.setUntrackedFolders(new ArrayList<>(untrackedFolders));
+        status.setConflicting(new ArrayList<>(conflicting));
+    }
+
+    /**
+     * Writes status in the same form as {@code git status} does, without hints and trailing line separator.
+     *
+     * @param out
+     *         output stream
+     * @param format
+     *         format of status, short format is used for all formats except of long one
+     * @param branchName
+     *         current branch or description of detached HEAD in the same form as {@code git branch} shows it,
+     *         e.g. <i>(HEAD detached at 1a2b3c4)</i>, may be {@code null}
+     */
+    public void writeTo(OutputStream out, StatusFormat format, String branchName) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        if (format == StatusFormat.LONG) {
+            writeLong(lines, branchName);
+        } else {
+            for (Map.Entry<String, String> entry : codes.entrySet()) {
+                final String originalPath = originalPaths.get(entry.getKey());
+                lines.add(entry.getValue() + ' ' + (originalPath == null ? "" : originalPath + " -> ") + entry.getKey());
+            }
+            for (String path : notTracked) {
+                lines.add("?? " + path);
+            }
+        }
+        out.write(Joiner.on('\n').join(lines).getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void writeLong(List<String> lines, String branchName) {
+        if (branchName == null) {
+            // branch isn't known
+        } else if (branchName.startsWith("(no branch")) {
+            lines.add("Not currently on any branch.");
+        } else if (branchName.startsWith("(") && branchName.endsWith(")")) {
+            lines.add(branchName.substring(1, branchName.length() - 1));
+        } else {
+            lines.add("On branch " + branchName);
+        }
+        if (initial) {
+            lines.add("");
+            lines.add("No commits yet");
+            lines.add("");
+        } else if (upstream != null) {
+            if (ahead > 0 && behind > 0) {
+                lines.add(String.format("Your branch and '%s' have diverged,", upstream));
+                lines.add(String.format("and have %d and %d different commits each, respectively.", ahead, behind));
+            } else if (ahead > 0) {
+                lines.add(String.format("Your branch is ahead of '%s' by %d %s.", upstream, ahead, commits(ahead)));
+            } else if (behind > 0) {
+                lines.add(String.format("Your branch is behind '%s' by %d %s, and can be fast-forwarded.", upstream, behind,
+                                        commits(behind)));
+            } else {
+                lines.add(String.format("Your branch is up to date with '%s'.", upstream));
+            }
+            lines.add("");
+        }
+        final List<String> staged = new ArrayList<>();
+        final List<String> notStaged = new ArrayList<>();
+        final List<String> unmerged = new ArrayList<>();
+        for (Map.Entry<String, String> entry : codes.entrySet()) {
+            final String path = entry.getKey();
+            final String code = entry.getValue();
+            final char x = code.charAt(0);
+            final char y = code.charAt(1);
+            final String unmergedLabel = unmergedLabel(code);
+            if (unmergedLabel != null) {
+                unmerged.add(String.format("%-17s%s", unmergedLabel, path));
+                continue;
+            }
+            if (x != ' ') {
+                final String originalPath = originalPaths.get(path);
+                staged.add(String.format("%-12s%s", label(x), originalPath == null ? path : originalPath + " -> " + path));
+            }
+            if (y != ' ') {
+                final String submoduleState = submoduleStates.get(path);
+                notStaged.add(String.format("%-12s%s", label(y), submoduleState == null ? path : path + " (" + submoduleState + ')'));
+            }
+        }
+        addSection(lines, "Changes to be committed:", staged);
+        addSection(lines, "Unmerged paths:", unmerged);
+        addSection(lines, "Changes not staged for commit:", notStaged);
+        addSection(lines, "Untracked files:", new ArrayList<>(notTracked));
+        if (!staged.isEmpty()) {
+            // nothing is said when there are changes to commit
+        } else if (!notStaged.isEmpty() || !unmerged.isEmpty()) {
+            lines.add("no changes added to commit");
+        } else if (!notTracked.isEmpty()) {
+            lines.add("nothing added to commit but untracked files present");
+        } else if (initial) {
+            lines.add("nothing to commit");
+        } else {
+            lines.add("nothing to commit, working tree clean");
+        }
+        if (lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+    }
+
+    private static String commits(int count) {
+        return count == 1 ? "commit" : "commits";
+    }
+
+    private static String label(char code) {
+        switch (code) {
+            case 'A':
+                return "new file:";
+            case 'D':
+                return "deleted:";
+            case 'R':
+                return "renamed:";
+            case 'C':
+                return "copied:";
+            case 'T':
+                return "typechange:";
+            default:
+                return "modified:";
+        }
+    }
+
+    private static String unmergedLabel(String code) {
+        switch (code) {
+            case "DD":
+                return "both deleted:";
+            case "AU":
+                return "added by us:";
+            case "UD":
+                return "deleted by them:";
+            case "UA":
+                return "added by them:";
+            case "DU":
+                return "deleted by us:";
+            case "AA":
+                return "both added:";
+            case "UU":
+                return "both modified:";
+            default:
+                return null;
+        }
+    }
+
+    private void addSection(List<String> lines, String title, List<String> paths) {
+        if (!paths.isEmpty()) {
+            lines.add(title);
+            for (String path : paths) {
+                lines.add('\t' + path);
+            }
+            lines.add("");
+        }
+    }
+}
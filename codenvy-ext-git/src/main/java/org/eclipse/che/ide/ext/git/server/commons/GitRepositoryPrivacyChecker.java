@@ -16,40 +16,200 @@ import org.eclipse.che.ide.ext.git.server.GitConnection;
 import org.eclipse.che.ide.ext.git.server.GitConnectionFactory;
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 
-import javax.ws.rs.core.UriBuilder;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
  * Check if repository is public and set private permission to vfs otherwise.
+ * <p/>
+ * Repositories available over http(s) are checked with request of smart HTTP refs advertisement, other repositories
+ * with git ls-remote. Requests of refs advertisement are sent at the same time from separate threads, git ls-remote
+ * is executed in calling thread since it needs environment of current user. Results are kept for a while for all URLs
+ * of the same repository.
  *
  * @author Vladyslav Zhukovskii
  */
 @Singleton
 public class GitRepositoryPrivacyChecker {
     private static final Pattern SSH_URL = Pattern.compile("^(?:ssh://)?(?:\\w+@)([a-zA-Z-.]+)(?::(\\d+))?+(?:/|:)(.+)$");
+
+    public static final String TTL     = "git.privacy.check.ttl";
+    public static final String TIMEOUT = "git.privacy.check.timeout";
+
+    private static final long   DEFAULT_TTL     = TimeUnit.MINUTES.toSeconds(10);
+    private static final int    DEFAULT_TIMEOUT = 10;
+    /** Maximal number of threads which send requests of refs advertisement, calling thread sends request if all are busy. */
+    private static final int    MAX_PROBES      = 32;
+    private static final String ADVERTISEMENT   = "application/x-git-upload-pack-advertisement";
+
     private final GitConnectionFactory gitConnectionFactory;
+    private final ExecutorService      executor;
+
+    private volatile Cache<String, Boolean> results;
+    private volatile int                    timeout = DEFAULT_TIMEOUT;
 
     @Inject
     public GitRepositoryPrivacyChecker(GitConnectionFactory gitConnectionFactory) {
         this.gitConnectionFactory = gitConnectionFactory;
+        this.executor = new ThreadPoolExecutor(0, MAX_PROBES, 60L, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(),
+                                               new ThreadFactoryBuilder().setNameFormat("GitPrivacyChecker-%d")
+                                                                         .setDaemon(true)
+                                                                         .build(),
+                                               new ThreadPoolExecutor.CallerRunsPolicy());
+        setTtl(DEFAULT_TTL);
     }
 
     /**
-     * Check repository public or not with calling git ls-remote.
+     * @param ttl
+     *         time in seconds result of check is kept
+     */
+    @Inject(optional = true)
+    public void setTtl(@Named(TTL) long ttl) {
+        this.results = CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(ttl, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * @param timeout
+     *         time in seconds to wait for all requests of refs advertisement, requests which aren't answered in time
+     *         are aborted and their URLs are considered as not readable
+     */
+    @Inject(optional = true)
+    public void setTimeout(@Named(TIMEOUT) int timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Check repository public or not.
      * If url is SSH, it will be converted to https or http, because ssh can't be checked in such way.
+     * All converted urls are checked at the same time, repository is public if any of them may be read.
      *
      * @param gitUrl
      *         repository url
      * @return <code>true</code> when repository is public
      */
     public boolean isRepositoryPublic(String gitUrl) {
-        // Calls git ls-remote
+        final Set<String> gitUrls = new LinkedHashSet<>();
+        final String key;
+        Matcher matcher = SSH_URL.matcher(gitUrl);
+        if (!matcher.matches()) {
+            gitUrls.add(gitUrl);
+            key = key(gitUrl);
+        } else {
+            String host = matcher.group(1);
+            String port = matcher.group(2);
+            String path = matcher.group(3);
+            gitUrls.add(createUrl("https", host, port, path));
+            gitUrls.add(createUrl("http", host, port, path));
+            gitUrls.add(createUrl("https", host, null, path));
+            gitUrls.add(createUrl("http", host, null, path));
+            key = key(host, port == null || "22".equals(port) ? null : port, path);
+        }
+        try {
+            // result is loaded in calling thread
+            return results.get(key, new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws InterruptedException {
+                    return isAnyPublic(gitUrls);
+                }
+            });
+        } catch (ExecutionException e) {
+            // check was interrupted, result isn't known
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException)e.getCause();
+        }
+    }
+
+    /**
+     * Requests refs advertisement of all http(s) urls at the same time, the rest of requests are aborted when the first
+     * url may be read. Urls which can't be checked in such way are checked with git ls-remote one by one.
+     */
+    private boolean isAnyPublic(Set<String> gitUrls) throws InterruptedException {
+        final List<String> unknown = new ArrayList<>();
+        final List<Probe> probes = new ArrayList<>();
+        for (String gitUrl : gitUrls) {
+            if (gitUrl.startsWith("http://") || gitUrl.startsWith("https://")) {
+                probes.add(new Probe(gitUrl, timeout));
+            } else {
+                unknown.add(gitUrl);
+            }
+        }
+        if (!probes.isEmpty()) {
+            final CompletionService<Boolean> checks = new ExecutorCompletionService<>(executor);
+            final Map<Future<Boolean>, Probe> futures = new HashMap<>();
+            try {
+                for (Probe probe : probes) {
+                    futures.put(checks.submit(probe), probe);
+                }
+                final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeout);
+                for (int i = 0; i < probes.size(); i++) {
+                    final Future<Boolean> future = checks.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                    if (future == null) {
+                        // the rest of urls aren't answered in time
+                        break;
+                    }
+                    try {
+                        final Boolean advertised = future.get();
+                        if (advertised == null) {
+                            unknown.add(futures.get(future).gitUrl);
+                        } else if (advertised) {
+                            return true;
+                        }
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException)e.getCause();
+                        }
+                    }
+                }
+            } finally {
+                // blocked reads aren't interrupted with cancel, so connections are closed
+                for (Map.Entry<Future<Boolean>, Probe> entry : futures.entrySet()) {
+                    entry.getKey().cancel(true);
+                    entry.getValue().abort();
+                }
+            }
+        }
+        for (String gitUrl : unknown) {
+            if (isReadable(gitUrl)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Calls git ls-remote, must be called in thread of user since git connection depends on environment of user. */
+    private boolean isReadable(String gitUrl) {
         GitConnection gitConnection = null;
         try {
             try {
@@ -59,35 +219,12 @@ public class GitRepositoryPrivacyChecker {
                 // Can't continue
                 throw new RuntimeException(e);
             }
-            Matcher matcher = SSH_URL.matcher(gitUrl);
-            DtoFactory dtoFactory = DtoFactory.getInstance();
-            if (!matcher.matches()) {
-                try {
-                    gitConnection.lsRemote(dtoFactory.createDto(LsRemoteRequest.class).withRemoteUrl(gitUrl).withUseAuthorization(false));
-                    return true;
-                } catch (GitException | UnauthorizedException e) {
-                    return false;
-                }
-            } else {
-                // If url is ssh, use special check order is important
-                String host = matcher.group(1);
-                String port = matcher.group(2);
-                String path = matcher.group(3);
-                List<String> gitUrls = new ArrayList<>();
-                gitUrls.add(createHttpsUrl(host, port, path));
-                gitUrls.add(createHttpUrl(host, port, path));
-                gitUrls.add(createHttpsWithoutPortUrl(host, path));
-                gitUrls.add(createHttpWithoutPortUrl(host, path));
-                LsRemoteRequest lsRemoteRequest = dtoFactory.createDto(LsRemoteRequest.class).withUseAuthorization(false);
-                for (String repoUrl : gitUrls) {
-                    try {
-                        lsRemoteRequest.setRemoteUrl(repoUrl);
-                        gitConnection.lsRemote(lsRemoteRequest);
-                        return true;
-                    } catch (GitException | UnauthorizedException ignored) {
-                        // try another url to check for
-                    }
-                }
+            try {
+                gitConnection.lsRemote(DtoFactory.getInstance().createDto(LsRemoteRequest.class)
+                                                 .withRemoteUrl(gitUrl)
+                                                 .withUseAuthorization(false));
+                return true;
+            } catch (GitException | UnauthorizedException e) {
                 return false;
             }
         } finally {
@@ -97,29 +234,109 @@ public class GitRepositoryPrivacyChecker {
         }
     }
 
-    private String createHttpsUrl(String host, String port, String path) {
-        UriBuilder ub = UriBuilder.fromPath(path);
-        ub.scheme("https").host(host);
-        if (port != null && port.isEmpty()) {
-            ub.port(Integer.parseInt(port));
+    /**
+     * Requests refs advertisement of smart HTTP protocol without credentials. Result of request is {@code true} if refs
+     * are advertised, {@code false} if server requires credentials or repository isn't found, {@code null} if server
+     * doesn't support smart HTTP protocol or answers unexpectedly.
+     */
+    private static class Probe implements Callable<Boolean> {
+        final String gitUrl;
+        final int    timeout;
+
+        volatile HttpURLConnection connection;
+        volatile boolean           aborted;
+
+        Probe(String gitUrl, int timeout) {
+            this.gitUrl = gitUrl;
+            this.timeout = timeout;
+        }
+
+        @Override
+        public Boolean call() {
+            try {
+                final String base = gitUrl.endsWith("/") ? gitUrl.substring(0, gitUrl.length() - 1) : gitUrl;
+                connection = (HttpURLConnection)new URL(base + "/info/refs?service=git-upload-pack").openConnection();
+                if (aborted) {
+                    return Boolean.FALSE;
+                }
+                connection.setConnectTimeout((int)TimeUnit.SECONDS.toMillis(timeout));
+                connection.setReadTimeout((int)TimeUnit.SECONDS.toMillis(timeout));
+                connection.setUseCaches(false);
+                connection.setRequestProperty("User-Agent", "git/2.0");
+                final int code = connection.getResponseCode();
+                if (code == HttpURLConnection.HTTP_OK) {
+                    final String contentType = connection.getContentType();
+                    return contentType != null && contentType.startsWith(ADVERTISEMENT) ? Boolean.TRUE : null;
+                }
+                if (code == HttpURLConnection.HTTP_UNAUTHORIZED || code == HttpURLConnection.HTTP_FORBIDDEN
+                    || code == HttpURLConnection.HTTP_NOT_FOUND) {
+                    return Boolean.FALSE;
+                }
+                return null;
+            } catch (IOException e) {
+                // host isn't reachable with this url
+                return Boolean.FALSE;
+            } finally {
+                abort();
+            }
+        }
+
+        /** Closes connection, blocked request is failed at once. */
+        void abort() {
+            aborted = true;
+            final HttpURLConnection current = connection;
+            if (current != null) {
+                current.disconnect();
+            }
+        }
+    }
+
+    private String createUrl(String scheme, String host, String port, String path) {
+        final StringBuilder url = new StringBuilder(scheme).append("://").append(host);
+        if (port != null && !port.isEmpty()) {
+            url.append(':').append(port);
         }
-        return ub.build().toString();
+        if (!path.startsWith("/")) {
+            url.append('/');
+        }
+        return url.append(path).toString();
     }
 
-    private String createHttpUrl(String host, String port, String path) {
-        UriBuilder ub = UriBuilder.fromPath(path);
-        ub.scheme("http").host(host);
-        if (port != null && port.isEmpty()) {
-            ub.port(Integer.parseInt(port));
+    /** Creates key of repository which doesn't depend on protocol, user, default port, trailing slash and <i>.git</i> suffix. */
+    private String key(String gitUrl) {
+        try {
+            final URI uri = new URI(gitUrl);
+            if (uri.getHost() != null && uri.getPath() != null) {
+                final int port = uri.getPort();
+                final boolean defaultPort = port == -1
+                                            || (port == 80 && "http".equals(uri.getScheme()))
+                                            || (port == 443 && "https".equals(uri.getScheme()))
+                                            || (port == 22 && "ssh".equals(uri.getScheme()))
+                                            || (port == 9418 && "git".equals(uri.getScheme()));
+                return key(uri.getHost(), defaultPort ? null : String.valueOf(port), uri.getPath());
+            }
+        } catch (URISyntaxException ignored) {
         }
-        return ub.build().toString();
+        return gitUrl;
     }
 
-    private String createHttpsWithoutPortUrl(String host, String path) {
-        return UriBuilder.fromPath(path).host(host).scheme("https").build().toString();
+    private String key(String host, String port, String path) {
+        String normalized = path;
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        if (normalized.endsWith(".git")) {
+            normalized = normalized.substring(0, normalized.length() - 4);
+        }
+        final String authority = port == null ? host.toLowerCase(Locale.ENGLISH) : host.toLowerCase(Locale.ENGLISH) + ':' + port;
+        return authority + '/' + normalized;
     }
 
-    private String createHttpWithoutPortUrl(String host, String path) {
-        return UriBuilder.fromPath(path).host(host).scheme("http").build().toString();
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 }
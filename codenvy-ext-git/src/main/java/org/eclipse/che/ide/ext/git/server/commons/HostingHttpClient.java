@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.commons;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import javax.inject.Named;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP client shared by integrations with hostings of git repositories, e.g. GitHub and Bitbucket.
+ * <p/>
+ * Responses are read completely and connections aren't closed, so they are kept alive and reused by the next requests
+ * to the same host (size of the pool is set with <i>http.maxConnections</i> system property). Responses are requested
+ * compressed. Successful responses of GET requests which have <i>ETag</i> or <i>Last-Modified</i> header are kept
+ * separately for each user and are revalidated with conditional requests, response <i>304 Not Modified</i> is answered
+ * with the kept response. GitHub doesn't count such requests against rate limit of user.
+ */
+@Singleton
+public class HostingHttpClient {
+
+    public static final String CONNECT_TIMEOUT = "git.hosting.http.connect.timeout";
+    public static final String READ_TIMEOUT    = "git.hosting.http.read.timeout";
+    public static final String CACHE_SIZE      = "git.hosting.http.cache.size";
+
+    private static final int  DEFAULT_CONNECT_TIMEOUT = (int)TimeUnit.SECONDS.toMillis(30);
+    private static final int  DEFAULT_READ_TIMEOUT    = (int)TimeUnit.SECONDS.toMillis(60);
+    private static final long DEFAULT_CACHE_SIZE      = 16 * 1024 * 1024;
+
+    private volatile int                     connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private volatile int                     readTimeout    = DEFAULT_READ_TIMEOUT;
+    private volatile Cache<String, Response> responses;
+
+    public HostingHttpClient() {
+        setCacheSize(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param connectTimeout
+     *         time in milliseconds to wait for connection
+     */
+    @Inject(optional = true)
+    public void setConnectTimeout(@Named(CONNECT_TIMEOUT) int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * @param readTimeout
+     *         time in milliseconds to wait for response data
+     */
+    @Inject(optional = true)
+    public void setReadTimeout(@Named(READ_TIMEOUT) int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * @param cacheSize
+     *         maximal size of kept response bodies in bytes
+     */
+    @Inject(optional = true)
+    public void setCacheSize(@Named(CACHE_SIZE) long cacheSize) {
+        this.responses = CacheBuilder.newBuilder()
+                                     .maximumWeight(cacheSize)
+                                     .weigher(new Weigher<String, Response>() {
+                                         @Override
+                                         public int weigh(String key, Response response) {
+                                             return response.body == null ? 1 : response.body.length();
+                                         }
+                                     })
+                                     .expireAfterAccess(1, TimeUnit.DAYS)
+                                     .build();
+    }
+
+    /**
+     * Executes request.
+     *
+     * @param request
+     *         request
+     * @return response, status of response isn't checked
+     * @throws IOException
+     *         if any i/o errors occurs
+     */
+    public Response execute(Request request) throws IOException {
+        final String key = "GET".equals(request.method) && request.cacheKey != null ? request.cacheKey + '\0' + request.url : null;
+        final Response cached = key == null ? null : responses.getIfPresent(key);
+
+        final HttpURLConnection http = (HttpURLConnection)new URL(request.url).openConnection();
+        try {
+            http.setConnectTimeout(connectTimeout);
+            http.setReadTimeout(readTimeout);
+            http.setInstanceFollowRedirects(false);
+            http.setRequestMethod(request.method);
+            http.setRequestProperty("Accept-Encoding", "gzip");
+            for (Map.Entry<String, String> header : request.headers.entrySet()) {
+                http.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (cached != null) {
+                if (cached.getHeader("ETag") != null) {
+                    http.setRequestProperty("If-None-Match", cached.getHeader("ETag"));
+                }
+                if (cached.getHeader("Last-Modified") != null) {
+                    http.setRequestProperty("If-Modified-Since", cached.getHeader("Last-Modified"));
+                }
+            }
+            if (request.body != null) {
+                final byte[] body = request.body.getBytes(StandardCharsets.UTF_8);
+                http.setRequestProperty("Content-Type", request.contentType);
+                http.setFixedLengthStreamingMode(body.length);
+                http.setDoOutput(true);
+                try (OutputStream output = http.getOutputStream()) {
+                    output.write(body);
+                }
+            }
+
+            final int responseCode = http.getResponseCode();
+            final String body = readBody(http, responseCode);
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                return cached;
+            }
+            final Response response = new Response(responseCode, body, http.getContentType(), copyHeaders(http));
+            if (key != null && responseCode == HttpURLConnection.HTTP_OK
+                && (response.getHeader("ETag") != null || response.getHeader("Last-Modified") != null)) {
+                responses.put(key, response);
+            }
+            return response;
+        } catch (IOException e) {
+            // connection in unknown state mustn't be reused
+            http.disconnect();
+            throw e;
+        }
+    }
+
+    /** Reads whole body, otherwise connection can't be reused. */
+    private String readBody(HttpURLConnection http, int responseCode) throws IOException {
+        final InputStream stream = responseCode >= 400 ? http.getErrorStream() : http.getInputStream();
+        if (stream == null) {
+            return null;
+        }
+        try (InputStream input = "gzip".equalsIgnoreCase(http.getContentEncoding()) ? new GZIPInputStream(stream) : stream) {
+            final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+            final byte[] buf = new byte[8192];
+            int point;
+            while ((point = input.read(buf)) != -1) {
+                bout.write(buf, 0, point);
+            }
+            return bout.size() == 0 ? null : bout.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+
+    private Map<String, String> copyHeaders(HttpURLConnection http) {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<String>> header : http.getHeaderFields().entrySet()) {
+            if (header.getKey() != null && !header.getValue().isEmpty()) {
+                headers.put(header.getKey().toLowerCase(), header.getValue().get(0));
+            }
+        }
+        return headers;
+    }
+
+    /** HTTP request to hosting. */
+    public static class Request {
+        private final String              method;
+        private final String              url;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+
+        private String contentType;
+        private String body;
+        private String cacheKey;
+
+        public Request(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        public Request withHeader(String name, String value) {
+            headers.put(name, value);
+            return this;
+        }
+
+        public Request withBody(String contentType, String body) {
+            this.contentType = contentType;
+            this.body = body;
+            return this;
+        }
+
+        /**
+         * @param cacheKey
+         *         identity of user whose credentials are used for request, responses are kept separately for each
+         *         identity. Responses aren't kept if it is {@code null}.
+         */
+        public Request withCacheKey(String cacheKey) {
+            this.cacheKey = cacheKey;
+            return this;
+        }
+    }
+
+    /** HTTP response of hosting. */
+    public static class Response {
+        private final int                 code;
+        private final String              body;
+        private final String              contentType;
+        private final Map<String, String> headers;
+
+        Response(int code, String body, String contentType, Map<String, String> headers) {
+            this.code = code;
+            this.body = body;
+            this.contentType = contentType;
+            this.headers = Collections.unmodifiableMap(headers);
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        /** @return body or {@code null} if response doesn't have body */
+        public String getBody() {
+            return body;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        /** @return the first value of header or {@code null} if response doesn't have such header */
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase());
+        }
+    }
+}
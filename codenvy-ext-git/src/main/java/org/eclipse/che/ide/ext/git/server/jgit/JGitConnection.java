@@ -0,0 +1,471 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.jgit;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.Config;
+import org.eclipse.che.ide.ext.git.server.DiffPage;
+import org.eclipse.che.ide.ext.git.server.GitConnection;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.LogPage;
+import org.eclipse.che.ide.ext.git.shared.AddRequest;
+import org.eclipse.che.ide.ext.git.shared.Branch;
+import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchCreateRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchDeleteRequest;
+import org.eclipse.che.ide.ext.git.shared.BranchListRequest;
+import org.eclipse.che.ide.ext.git.shared.CloneRequest;
+import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.FetchRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.InitRequest;
+import org.eclipse.che.ide.ext.git.shared.LogRequest;
+import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import org.eclipse.che.ide.ext.git.shared.MergeRequest;
+import org.eclipse.che.ide.ext.git.shared.MergeResult;
+import org.eclipse.che.ide.ext.git.shared.MoveRequest;
+import org.eclipse.che.ide.ext.git.shared.PullRequest;
+import org.eclipse.che.ide.ext.git.shared.PushRequest;
+import org.eclipse.che.ide.ext.git.shared.Remote;
+import org.eclipse.che.ide.ext.git.shared.RemoteAddRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteListRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteReference;
+import org.eclipse.che.ide.ext.git.shared.RemoteUpdateRequest;
+import org.eclipse.che.ide.ext.git.shared.ResetRequest;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+import org.eclipse.che.ide.ext.git.shared.RmRequest;
+import org.eclipse.che.ide.ext.git.shared.Status;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import org.eclipse.che.ide.ext.git.shared.Tag;
+import org.eclipse.che.ide.ext.git.shared.TagCreateRequest;
+import org.eclipse.che.ide.ext.git.shared.TagDeleteRequest;
+import org.eclipse.che.ide.ext.git.shared.TagListRequest;
+import org.eclipse.jgit.errors.RepositoryNotFoundException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JGit implementation of GitConnection.
+ * <p/>
+ * Status, log, diff, branch and tag lists and committers are read in-process with JGit, so they don't
+ * start git processes. All other operations are delegated to the native connection, because they
+ * modify repository, need authentication or depend on hooks and configuration of git binary.
+ */
+public class JGitConnection implements GitConnection {
+
+    private final GitConnection nativeConnection;
+
+    private Repository repository;
+
+    /**
+     * @param nativeConnection
+     *         connection which executes operations that are not implemented with JGit
+     */
+    public JGitConnection(GitConnection nativeConnection) {
+        this.nativeConnection = nativeConnection;
+    }
+
+    @Override
+    public File getWorkingDir() {
+        return nativeConnection.getWorkingDir();
+    }
+
+    @Override
+    public void add(AddRequest request) throws GitException {
+        nativeConnection.add(request);
+    }
+
+    @Override
+    public void branchCheckout(BranchCheckoutRequest request) throws GitException {
+        nativeConnection.branchCheckout(request);
+    }
+
+    @Override
+    public Branch branchCreate(BranchCreateRequest request) throws GitException {
+        return nativeConnection.branchCreate(request);
+    }
+
+    @Override
+    public void branchDelete(BranchDeleteRequest request) throws GitException, UnauthorizedException {
+        nativeConnection.branchDelete(request);
+    }
+
+    @Override
+    public void branchRename(String oldName, String newName) throws GitException {
+        nativeConnection.branchRename(oldName, newName);
+    }
+
+    @Override
+    public List<Branch> branchList(BranchListRequest request) throws GitException {
+        String listMode = request.getListMode();
+        if (listMode != null
+            && !(listMode.equals(BranchListRequest.LIST_ALL) || listMode.equals(BranchListRequest.LIST_REMOTE))) {
+            throw new IllegalArgumentException("Unsupported list mode '" + listMode + "'. Must be either 'a' or 'r'. ");
+        }
+        final Repository repository = getRepository();
+        final List<Branch> branches = new LinkedList<>();
+        try {
+            if (listMode == null || listMode.equals(BranchListRequest.LIST_ALL)) {
+                final String current = repository.getFullBranch();
+                for (Ref ref : repository.getRefDatabase().getRefs(Constants.R_HEADS).values()) {
+                    branches.add(newBranch(ref.getName(), ref.getName().equals(current), false));
+                }
+            }
+            if (listMode != null) {
+                for (Ref ref : repository.getRefDatabase().getRefs(Constants.R_REMOTES).values()) {
+                    // git branch -r skips symbolic refs like origin/HEAD -> origin/master
+                    if (!ref.isSymbolic()) {
+                        branches.add(newBranch(ref.getName(), false, true));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return branches;
+    }
+
+    @Override
+    public void clone(CloneRequest request) throws URISyntaxException, ServerException, UnauthorizedException {
+        nativeConnection.clone(request);
+    }
+
+    @Override
+    public Revision commit(CommitRequest request) throws GitException {
+        return nativeConnection.commit(request);
+    }
+
+    @Override
+    public DiffPage diff(DiffRequest request) throws GitException {
+        // page is written after connection is closed, so it opens repository by itself
+        return new JGitDiffPage(request, getWorkingDir());
+    }
+
+    @Override
+    public DiffIndex diffIndex(DiffRequest request) throws GitException {
+        // numbers of changed lines and paging are read from git output
+        return nativeConnection.diffIndex(request);
+    }
+
+    @Override
+    public FileDiff diffFile(DiffRequest request) throws GitException {
+        return nativeConnection.diffFile(request);
+    }
+
+    @Override
+    public void fetch(FetchRequest request) throws UnauthorizedException, GitException {
+        nativeConnection.fetch(request);
+    }
+
+    @Override
+    public void init(InitRequest request) throws GitException {
+        nativeConnection.init(request);
+    }
+
+    @Override
+    public LogPage log(LogRequest request) throws GitException {
+        final String revision = request.getRevisionRange();
+        if ((revision != null && revision.contains(".."))
+            || request.getAuthor() != null
+            || request.getSince() > 0
+            || request.getUntil() > 0
+            || (request.getFileFilter() != null && !request.getFileFilter().isEmpty())) {
+            // git is used to get exactly the same commits as it shows, e.g. history simplification for paths
+            return nativeConnection.log(request);
+        }
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<Revision> revisions = new LinkedList<>();
+        for (RevCommit commit : readLog(revision, request.getCursor(), request.getSkip(), request.getMaxCount())) {
+            final PersonIdent authorIdent = commit.getAuthorIdent();
+            final PersonIdent committerIdent = commit.getCommitterIdent();
+            final GitUser author = dtoFactory.createDto(GitUser.class)
+                                             .withName(authorIdent.getName())
+                                             .withEmail(authorIdent.getEmailAddress());
+            final GitUser committer = dtoFactory.createDto(GitUser.class)
+                                                .withName(committerIdent.getName())
+                                                .withEmail(committerIdent.getEmailAddress());
+            final List<String> parents = new ArrayList<>(commit.getParentCount());
+            for (RevCommit parent : commit.getParents()) {
+                parents.add(parent.getName());
+            }
+            final String message = request.isFullMessage() ? stripTrailingLineFeeds(commit.getFullMessage())
+                                                           : commit.getShortMessage();
+            revisions.add(dtoFactory.createDto(Revision.class)
+                                    .withId(commit.getName())
+                                    .withParents(parents)
+                                    .withMessage(message)
+                                    .withAuthor(author)
+                                    .withAuthorTime(authorIdent.getWhen().getTime())
+                                    .withCommitTime((long)commit.getCommitTime() * 1000L)
+                                    .withCommitter(committer));
+        }
+        return new LogPage(revisions);
+    }
+
+    @Override
+    public List<RemoteReference> lsRemote(LsRemoteRequest request) throws UnauthorizedException, GitException {
+        return nativeConnection.lsRemote(request);
+    }
+
+    @Override
+    public MergeResult merge(MergeRequest request) throws GitException {
+        return nativeConnection.merge(request);
+    }
+
+    @Override
+    public void mv(MoveRequest request) throws GitException {
+        nativeConnection.mv(request);
+    }
+
+    @Override
+    public void pull(PullRequest request) throws GitException, UnauthorizedException {
+        nativeConnection.pull(request);
+    }
+
+    @Override
+    public void push(PushRequest request) throws GitException, UnauthorizedException {
+        nativeConnection.push(request);
+    }
+
+    @Override
+    public void remoteAdd(RemoteAddRequest request) throws GitException {
+        nativeConnection.remoteAdd(request);
+    }
+
+    @Override
+    public void remoteDelete(String name) throws GitException {
+        nativeConnection.remoteDelete(name);
+    }
+
+    @Override
+    public List<Remote> remoteList(RemoteListRequest request) throws GitException {
+        return nativeConnection.remoteList(request);
+    }
+
+    @Override
+    public void remoteUpdate(RemoteUpdateRequest request) throws GitException {
+        nativeConnection.remoteUpdate(request);
+    }
+
+    @Override
+    public void reset(ResetRequest request) throws GitException {
+        nativeConnection.reset(request);
+    }
+
+    @Override
+    public void rm(RmRequest request) throws GitException {
+        nativeConnection.rm(request);
+    }
+
+    @Override
+    public Status status(StatusFormat format) throws GitException {
+        return new JGitStatusImpl(getRepository(), format);
+    }
+
+    @Override
+    public Tag tagCreate(TagCreateRequest request) throws GitException {
+        return nativeConnection.tagCreate(request);
+    }
+
+    @Override
+    public void tagDelete(TagDeleteRequest request) throws GitException {
+        nativeConnection.tagDelete(request);
+    }
+
+    @Override
+    public List<Tag> tagList(TagListRequest request) throws GitException {
+        final Pattern pattern = request.getPattern() == null ? null : globToPattern(request.getPattern());
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<Tag> tags = new LinkedList<>();
+        try {
+            for (String name : getRepository().getRefDatabase().getRefs(Constants.R_TAGS).keySet()) {
+                if (pattern == null || pattern.matcher(name).matches()) {
+                    tags.add(dtoFactory.createDto(Tag.class).withName(name));
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return tags;
+    }
+
+    @Override
+    public GitUser getUser() {
+        return nativeConnection.getUser();
+    }
+
+    @Override
+    public List<GitUser> getCommiters() throws GitException {
+        // native connection keeps index of committers
+        return nativeConnection.getCommiters();
+    }
+
+    @Override
+    public Config getConfig() throws GitException {
+        return nativeConnection.getConfig();
+    }
+
+    @Override
+    public void close() {
+        if (repository != null) {
+            repository.close();
+            repository = null;
+        }
+        nativeConnection.close();
+    }
+
+    @Override
+    public void setOutputLineConsumerFactory(LineConsumerFactory outputPublisherFactory) {
+        nativeConnection.setOutputLineConsumerFactory(outputPublisherFactory);
+    }
+
+    /**
+     * Opens repository lazily, since the native connection may create it, e.g. with init or clone.
+     *
+     * @throws GitException
+     *         when working directory isn't git repository
+     */
+    Repository getRepository() throws GitException {
+        if (repository == null) {
+            repository = openRepository(getWorkingDir());
+        }
+        return repository;
+    }
+
+    static Repository openRepository(File workDir) throws GitException {
+        try {
+            return new FileRepositoryBuilder().setWorkTree(workDir)
+                                              .setGitDir(new File(workDir, Constants.DOT_GIT))
+                                              .setMustExist(true)
+                                              .build();
+        } catch (RepositoryNotFoundException e) {
+            throw new GitException("Not a git repository: " + workDir, e);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Walks history starting from {@code revision}, walk is stopped as soon as requested page is read.
+     *
+     * @param revision
+     *         revision to start from, HEAD is used if it is {@code null}
+     * @param cursor
+     *         id of commit after which commits are read, may be {@code null}. Walk starts from parents of cursor instead
+     *         of revision, so commits before cursor aren't walked again
+     * @param skip
+     *         number of commits to skip
+     * @param maxCount
+     *         maximal number of commits, all commits are read if it is not positive
+     */
+    private List<RevCommit> readLog(String revision, String cursor, int skip, int maxCount) throws GitException {
+        // rejected the same way as LogCommand does it
+        if (revision != null && revision.startsWith("-")) {
+            throw new GitException(String.format("Invalid revision range: %s", revision));
+        }
+        if (cursor != null && cursor.startsWith("-")) {
+            throw new GitException(String.format("Invalid cursor: %s", cursor));
+        }
+        final Repository repository = getRepository();
+        final List<RevCommit> commits = new ArrayList<>();
+        final RevWalk walk = new RevWalk(repository);
+        try {
+            if (cursor == null) {
+                final ObjectId start = repository.resolve(revision == null ? Constants.HEAD : revision);
+                if (start == null) {
+                    throw new GitException(revision == null ? "fatal: bad default revision 'HEAD'"
+                                                            : String.format("fatal: bad revision '%s'", revision));
+                }
+                walk.markStart(walk.parseCommit(start));
+            } else {
+                final ObjectId start = repository.resolve(cursor + "^{commit}");
+                if (start == null) {
+                    throw new GitException(String.format("Unknown cursor: %s", cursor));
+                }
+                for (RevCommit parent : walk.parseCommit(start).getParents()) {
+                    walk.markStart(walk.parseCommit(parent));
+                }
+            }
+            int skipped = 0;
+            for (RevCommit commit : walk) {
+                if (skipped < skip) {
+                    skipped++;
+                } else {
+                    commits.add(commit);
+                    if (maxCount > 0 && commits.size() == maxCount) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        } finally {
+            walk.release();
+        }
+        return commits;
+    }
+
+    private Branch newBranch(String refName, boolean active, boolean remote) {
+        return DtoFactory.getInstance().createDto(Branch.class)
+                         .withName(refName)
+                         .withActive(active)
+                         .withDisplayName(Repository.shortenRefName(refName))
+                         .withRemote(remote);
+    }
+
+    /** Full message is printed by git without line feeds at the end. */
+    private static String stripTrailingLineFeeds(String message) {
+        int end = message.length();
+        while (end > 0 && message.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return message.substring(0, end);
+    }
+
+    /** Converts shell glob used by {@code git tag -l <pattern>} to regular expression. */
+    private static Pattern globToPattern(String glob) {
+        final StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.jgit;
+
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.ide.ext.git.server.GitConnection;
+import org.eclipse.che.ide.ext.git.server.GitConnectionFactory;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.NativeGitConnectionFactory;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+
+/**
+ * JGit implementation of GitConnectionFactory. Connections read repository in-process and use
+ * native git connections for operations which modify repository or talk to remote repositories.
+ */
+@Singleton
+public class JGitConnectionFactory extends GitConnectionFactory {
+
+    private final NativeGitConnectionFactory nativeGitConnectionFactory;
+
+    @Inject
+    public JGitConnectionFactory(NativeGitConnectionFactory nativeGitConnectionFactory) {
+        this.nativeGitConnectionFactory = nativeGitConnectionFactory;
+    }
+
+    @Override
+    public GitConnection getConnection(File workDir, GitUser user, LineConsumerFactory outputPublisherFactory) throws GitException {
+        return new JGitConnection(nativeGitConnectionFactory.getConnection(workDir, user, outputPublisherFactory));
+    }
+
+    @Override
+    public GitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
+        return new JGitConnection(nativeGitConnectionFactory.getConnection(workDir, outputPublisherFactory));
+    }
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.jgit;
+
+import org.eclipse.che.ide.ext.git.server.DiffPage;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest.DiffType;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheIterator;
+import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contains information about difference between two commits, commit and working tree,
+ * working tree and index, commit and index. Difference is computed with JGit.
+ */
+public class JGitDiffPage extends DiffPage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JGitDiffPage.class);
+
+    private final DiffRequest request;
+    private final File        workDir;
+
+    private Repository repository;
+
+    public JGitDiffPage(DiffRequest request, File workDir) {
+        this.request = request;
+        this.workDir = workDir;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try {
+            repository = JGitConnection.openRepository(workDir);
+        } catch (GitException e) {
+            LOG.error("Diff page creating exception", e);
+            return;
+        }
+        final BufferedOutputStream bufferedOut = new BufferedOutputStream(out);
+        final DiffFormatter formatter = new DiffFormatter(bufferedOut);
+        final ObjectReader reader = repository.newObjectReader();
+        try {
+            formatter.setRepository(repository);
+            final TreeFilter pathFilter = request.getFileFilter() == null || request.getFileFilter().isEmpty()
+                                          ? TreeFilter.ALL
+                                          : PathFilterGroup.createFromStrings(request.getFileFilter());
+            formatter.setPathFilter(pathFilter);
+            final String commitA = request.getCommitA();
+            final String commitB = request.getCommitB();
+            final boolean withWorkingTree = !request.isCached() && (commitA == null || commitB == null);
+            // untracked files are dropped after scanning, so renames can be detected only without working tree
+            formatter.setDetectRenames(!request.isNoRenames() && !withWorkingTree);
+            if (formatter.isDetectRenames() && request.getRenameLimit() > 0) {
+                formatter.getRenameDetector().setRenameScore(request.getRenameLimit());
+            }
+            final List<DiffEntry> entries;
+            if (commitA == null && commitB == null && !request.isCached()) {
+                // working tree to index
+                entries = trackedOnly(formatter.scan(new DirCacheIterator(repository.readDirCache()), new FileTreeIterator(repository)));
+            } else if (commitB == null && request.isCached()) {
+                // commit to index
+                final ObjectId tree = resolveTree(commitA == null ? Constants.HEAD : commitA, commitA == null);
+                entries = formatter.scan(tree == null ? new EmptyTreeIterator() : new CanonicalTreeParser(null, reader, tree),
+                                         new DirCacheIterator(repository.readDirCache()));
+            } else if (withWorkingTree) {
+                // commit to working tree
+                final ObjectId tree = resolveTree(commitA == null ? commitB : commitA, false);
+                entries = trackedOnly(formatter.scan(new CanonicalTreeParser(null, reader, tree), new FileTreeIterator(repository)));
+                addRemovedFromIndex(entries, tree, pathFilter, reader);
+            } else {
+                entries = formatter.scan(new CanonicalTreeParser(null, reader, resolveTree(commitA, false)),
+                                         new CanonicalTreeParser(null, reader, resolveTree(commitB, false)));
+            }
+            final DiffType type = request.getType();
+            if (type == null || type == DiffType.RAW) {
+                formatter.format(entries);
+                formatter.flush();
+            } else {
+                final PrintWriter writer = new PrintWriter(bufferedOut);
+                for (DiffEntry entry : entries) {
+                    if (type == DiffType.NAME_ONLY) {
+                        writer.format("%s\n", path(entry));
+                    } else {
+                        writeNameStatus(writer, entry);
+                    }
+                }
+                writer.flush();
+            }
+        } catch (GitException e) {
+            LOG.error("Diff page creating exception", e);
+        } finally {
+            reader.release();
+            formatter.release();
+            repository.close();
+            bufferedOut.flush();
+        }
+    }
+
+    private void writeNameStatus(PrintWriter writer, DiffEntry entry) {
+        switch (entry.getChangeType()) {
+            case ADD:
+                writer.format("A\t%s\n", entry.getNewPath());
+                break;
+            case DELETE:
+                writer.format("D\t%s\n", entry.getOldPath());
+                break;
+            case MODIFY:
+                writer.format("M\t%s\n", entry.getNewPath());
+                break;
+            case RENAME:
+                writer.format("R%03d\t%s\t%s\n", entry.getScore(), entry.getOldPath(), entry.getNewPath());
+                break;
+            case COPY:
+                writer.format("C%03d\t%s\t%s\n", entry.getScore(), entry.getOldPath(), entry.getNewPath());
+                break;
+        }
+    }
+
+    /**
+     * Working tree iterator reports untracked and ignored files as added, git doesn't show them in diff.
+     * Removes added entries which are not in index.
+     */
+    private List<DiffEntry> trackedOnly(List<DiffEntry> entries) throws IOException {
+        final DirCache index = repository.readDirCache();
+        for (Iterator<DiffEntry> it = entries.iterator(); it.hasNext(); ) {
+            final DiffEntry entry = it.next();
+            if (entry.getChangeType() == DiffEntry.ChangeType.ADD && index.findEntry(entry.getNewPath()) < 0) {
+                it.remove();
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Files which are removed from index but left in working tree are untracked. Git shows them as deleted
+     * when commit is compared with working tree, but working tree iterator sees them as unchanged or modified.
+     */
+    private void addRemovedFromIndex(List<DiffEntry> entries, ObjectId tree, TreeFilter pathFilter, ObjectReader reader)
+            throws IOException {
+        final DirCache index = repository.readDirCache();
+        final Map<String, DiffEntry> changed = new HashMap<>();
+        for (DiffEntry entry : entries) {
+            if (entry.getChangeType() == DiffEntry.ChangeType.MODIFY) {
+                changed.put(entry.getNewPath(), entry);
+            }
+        }
+        final TreeWalk walk = new TreeWalk(reader);
+        walk.setRecursive(true);
+        walk.setFilter(pathFilter);
+        walk.addTree(tree);
+        boolean added = false;
+        while (walk.next()) {
+            final String path = walk.getPathString();
+            if (index.findEntry(path) < 0 && !walk.getFileMode(0).equals(FileMode.MISSING)) {
+                final DiffEntry modified = changed.get(path);
+                if (modified != null || !containsDeleted(entries, path)) {
+                    entries.remove(modified);
+                    entries.add(new RemovedEntry(path, walk.getFileMode(0), walk.getObjectId(0)));
+                    added = true;
+                }
+            }
+        }
+        walk.release();
+        if (added) {
+            Collections.sort(entries, new Comparator<DiffEntry>() {
+                @Override
+                public int compare(DiffEntry first, DiffEntry second) {
+                    return path(first).compareTo(path(second));
+                }
+            });
+        }
+    }
+
+    private static boolean containsDeleted(List<DiffEntry> entries, String path) {
+        for (DiffEntry entry : entries) {
+            if (entry.getChangeType() == DiffEntry.ChangeType.DELETE && entry.getOldPath().equals(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String path(DiffEntry entry) {
+        return entry.getChangeType() == DiffEntry.ChangeType.DELETE ? entry.getOldPath() : entry.getNewPath();
+    }
+
+    /**
+     * @param revision
+     *         revision expression
+     * @param allowUnborn
+     *         if {@code true} {@code null} is returned when revision doesn't exist, e.g. for HEAD in repository without commits
+     */
+    private ObjectId resolveTree(String revision, boolean allowUnborn) throws IOException, GitException {
+        final ObjectId tree = repository.resolve(revision + "^{tree}");
+        if (tree == null && !allowUnborn) {
+            throw new GitException("fatal: bad revision '" + revision + "'");
+        }
+        return tree;
+    }
+
+    /** Deletion of file which is present in commit and absent in index. */
+    private static class RemovedEntry extends DiffEntry {
+        RemovedEntry(String path, FileMode mode, ObjectId id) {
+            oldPath = path;
+            oldMode = mode;
+            oldId = AbbreviatedObjectId.fromObjectId(id);
+            newPath = DEV_NULL;
+            newMode = FileMode.MISSING;
+            newId = AbbreviatedObjectId.fromObjectId(ObjectId.zeroId());
+            changeType = ChangeType.DELETE;
+        }
+    }
+}
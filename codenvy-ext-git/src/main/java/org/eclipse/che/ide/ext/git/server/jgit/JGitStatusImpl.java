@@ -0,0 +1,311 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.jgit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.InfoPage;
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
+import org.eclipse.che.ide.ext.git.shared.Status;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+
+import org.eclipse.jgit.lib.BranchTrackingStatus;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.IndexDiff;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.FileTreeIterator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * JGit implementation of {@link Status}. Status codes are built from index diff and classified with
+ * {@link StatusEntries} in the same way as native implementation does it, text representation is built
+ * from the same data, so the working tree is scanned only once.
+ */
+public class JGitStatusImpl implements Status, InfoPage {
+
+    private String branchName;
+
+    private StatusFormat format;
+
+    private boolean clean;
+
+    private List<String> added;
+
+    private List<String> changed;
+
+    private List<String> removed;
+
+    private List<String> missing;
+
+    private List<String> modified;
+
+    private List<String> untracked;
+
+    private List<String> untrackedFolders;
+
+    private List<String> conflicting;
+
+    private final StatusEntries entries = new StatusEntries();
+
+    /**
+     * @param repository
+     *         repository
+     * @param format
+     *         the output format for the status
+     * @throws GitException
+     *         when any error occurs
+     */
+    public JGitStatusImpl(Repository repository, StatusFormat format) throws GitException {
+        this.format = format;
+        try {
+            this.branchName = repository.getBranch();
+            load(repository);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+    }
+
+    /** @see InfoPage#writeTo(java.io.OutputStream) */
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        // JGit gives commit of detached HEAD instead of branch, git describes it
+        final String head = ObjectId.isId(branchName) ? "(HEAD detached at " + branchName.substring(0, 7) + ')' : branchName;
+        entries.writeTo(out, format, head);
+    }
+
+    /** @see Status#isClean() */
+    @Override
+    public boolean isClean() {
+        return clean;
+    }
+
+    /** @see Status#setClean(boolean) */
+    @Override
+    public void setClean(boolean clean) {
+        this.clean = clean;
+    }
+
+    /** @see Status#getFormat() */
+    @Override
+    public StatusFormat getFormat() {
+        return this.format;
+    }
+
+    /** @see Status#setFormat(StatusFormat) */
+    @Override
+    public void setFormat(final StatusFormat format) {
+        this.format = format;
+    }
+
+    /** @see Status#getBranchName() */
+    @Override
+    public String getBranchName() {
+        return branchName;
+    }
+
+    /** @see Status#setBranchName(String) */
+    @Override
+    public void setBranchName(String branchName) {
+        this.branchName = branchName;
+    }
+
+    /** @see Status#getAdded() */
+    @Override
+    public List<String> getAdded() {
+        if (added == null) {
+            added = new ArrayList<>();
+        }
+        return added;
+    }
+
+    /** @see Status#setAdded(java.util.List) */
+    @Override
+    public void setAdded(List<String> added) {
+        this.added = added;
+    }
+
+    /** @see Status#getChanged() */
+    @Override
+    public List<String> getChanged() {
+        if (changed == null) {
+            changed = new ArrayList<>();
+        }
+        return changed;
+    }
+
+    /** @see Status#setChanged(java.util.List) */
+    @Override
+    public void setChanged(List<String> changed) {
+        this.changed = changed;
+    }
+
+    /** @see Status#getRemoved() */
+    @Override
+    public List<String> getRemoved() {
+        if (removed == null) {
+            removed = new ArrayList<>();
+        }
+        return removed;
+    }
+
+    /** @see Status#setRemoved(java.util.List) */
+    @Override
+    public void setRemoved(List<String> removed) {
+        this.removed = removed;
+    }
+
+    /** @see Status#getMissing() */
+    @Override
+    public List<String> getMissing() {
+        if (missing == null) {
+            missing = new ArrayList<>();
+        }
+        return missing;
+    }
+
+    /** @see Status#setMissing(java.util.List) */
+    @Override
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+
+    /** @see Status#getModified() */
+    @Override
+    public List<String> getModified() {
+        if (modified == null) {
+            modified = new ArrayList<>();
+        }
+        return modified;
+    }
+
+    /** @see Status#setModified(java.util.List) */
+    @Override
+    public void setModified(List<String> modified) {
+        this.modified = modified;
+    }
+
+    /** @see Status#getUntracked() */
+    @Override
+    public List<String> getUntracked() {
+        if (untracked == null) {
+            untracked = new ArrayList<>();
+        }
+        return untracked;
+    }
+
+    /** @see Status#setUntracked(java.util.List) */
+    @Override
+    public void setUntracked(List<String> untracked) {
+        this.untracked = untracked;
+    }
+
+    /** @see Status#getUntrackedFolders() */
+    @Override
+    public List<String> getUntrackedFolders() {
+        if (untrackedFolders == null) {
+            untrackedFolders = new ArrayList<>();
+        }
+        return untrackedFolders;
+    }
+
+    /** @see Status#setUntrackedFolders(java.util.List) */
+    @Override
+    public void setUntrackedFolders(List<String> untrackedFolders) {
+        this.untrackedFolders = untrackedFolders;
+    }
+
+    /** @see Status#getConflicting() */
+    @Override
+    public List<String> getConflicting() {
+        if (conflicting == null) {
+            conflicting = new ArrayList<>();
+        }
+        return conflicting;
+    }
+
+    /** @see Status#setConflicting(java.util.List) */
+    @Override
+    public void setConflicting(List<String> conflicting) {
+        this.conflicting = conflicting;
+    }
+
+    private void load(Repository repository) throws IOException {
+        final IndexDiff diff = new IndexDiff(repository, Constants.HEAD, new FileTreeIterator(repository));
+        diff.diff();
+        entries.setInitial(repository.resolve(Constants.HEAD) == null);
+
+        for (String path : diff.getConflicting()) {
+            entries.putCode(path, "UU");
+        }
+        // index compared with HEAD
+        for (String path : diff.getAdded()) {
+            setCode(path, 'A', 0);
+        }
+        for (String path : diff.getChanged()) {
+            setCode(path, 'M', 0);
+        }
+        for (String path : diff.getRemoved()) {
+            setCode(path, 'D', 0);
+        }
+        // working tree compared with index
+        for (String path : diff.getModified()) {
+            setCode(path, 'M', 1);
+        }
+        for (String path : diff.getMissing()) {
+            setCode(path, 'D', 1);
+        }
+        // git shows untracked directory instead of its content, only topmost directories are shown
+        final TreeSet<String> folders = new TreeSet<>();
+        for (String folder : diff.getUntrackedFolders()) {
+            if (!isUnder(folder, diff.getUntrackedFolders())) {
+                folders.add(folder);
+                entries.addNotTracked(folder + '/');
+            }
+        }
+        for (String path : diff.getUntracked()) {
+            if (!isUnder(path, folders)) {
+                entries.addNotTracked(path);
+            }
+        }
+        final BranchTrackingStatus tracking = BranchTrackingStatus.of(repository, branchName);
+        if (tracking != null) {
+            entries.setUpstream(Repository.shortenRefName(tracking.getRemoteTrackingBranch()),
+                                tracking.getAheadCount(),
+                                tracking.getBehindCount());
+        }
+        entries.classify(this);
+    }
+
+    private void setCode(String path, char code, int position) {
+        String current = entries.getCode(path);
+        if (current == null) {
+            current = "  ";
+        } else if (current.charAt(0) == 'U') {
+            return;
+        }
+        entries.putCode(path, position == 0 ? code + current.substring(1) : current.substring(0, 1) + code);
+    }
+
+    private static boolean isUnder(String path, Set<String> folders) {
+        for (int i = path.lastIndexOf('/'); i > 0; i = path.lastIndexOf('/', i - 1)) {
+            if (folders.contains(path.substring(0, i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
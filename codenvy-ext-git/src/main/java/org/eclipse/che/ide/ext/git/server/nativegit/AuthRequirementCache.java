@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.env.EnvironmentContext;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers remote repositories which required credentials of user. Remote commands for such repositories are executed
+ * with credentials at once instead of failing without credentials first.
+ */
+@Singleton
+public class AuthRequirementCache {
+
+    public static final String TTL = "git.auth.requirement.ttl";
+
+    private static final long DEFAULT_TTL = TimeUnit.HOURS.toSeconds(1);
+
+    private volatile Cache<String, Boolean> urls;
+
+    public AuthRequirementCache() {
+        setTtl(DEFAULT_TTL);
+    }
+
+    /**
+     * @param ttl
+     *         time in seconds repository is remembered after it required credentials
+     */
+    @Inject(optional = true)
+    public void setTtl(@Named(TTL) long ttl) {
+        this.urls = CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(ttl, TimeUnit.SECONDS).build();
+    }
+
+    /**
+     * @param url
+     *         URL of remote repository
+     * @return {@code true} if repository required credentials of current user recently
+     */
+    public boolean isRequired(String url) {
+        return urls.getIfPresent(key(url)) != null;
+    }
+
+    /**
+     * @param url
+     *         URL of remote repository
+     * @param required
+     *         {@code true} if repository required credentials of current user, {@code false} if it is not known any more
+     */
+    public void setRequired(String url, boolean required) {
+        if (required) {
+            urls.put(key(url), Boolean.TRUE);
+        } else {
+            urls.invalidate(key(url));
+        }
+    }
+
+    private static String key(String url) {
+        return EnvironmentContext.getCurrent().getUser().getName() + '\0' + url;
+    }
+}
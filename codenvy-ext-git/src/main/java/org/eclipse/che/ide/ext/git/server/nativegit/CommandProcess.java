@@ -20,11 +20,20 @@ import org.eclipse.che.api.core.util.ProcessUtil;
 import org.eclipse.che.api.core.util.Watchdog;
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
+import com.google.common.base.Strings;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -35,7 +44,22 @@ import java.util.concurrent.TimeUnit;
  * @author Eugene Voevodin
  */
 public class CommandProcess {
-    private static final Logger LOG = LoggerFactory.getLogger(CommandProcess.class);
+    private static final Logger LOG                = LoggerFactory.getLogger(CommandProcess.class);
+    private static final int    STREAM_BUFFER_SIZE = 8192;
+    private static final int    MAX_ERROR_LINES    = 1000;
+
+    private static volatile GitProcessScheduler scheduler;
+
+    /**
+     * Sets scheduler which limits number of git processes on this node.
+     *
+     * @param scheduler
+     *         scheduler, if it is {@code null} processes are started immediately
+     */
+    @Inject
+    public static void setScheduler(GitProcessScheduler scheduler) {
+        CommandProcess.scheduler = scheduler;
+    }
 
     /**
      * @param command
@@ -46,6 +70,116 @@ public class CommandProcess {
      *         when command execution error occurs
      */
     public static void executeGitCommand(GitCommand command, LineConsumerFactory lineConsumerFactory) throws GitException {
+        ProcessBuilder pb = createProcessBuilder(command);
+
+        LineConsumer lineConsumer = LineConsumer.DEV_NULL;
+        if (lineConsumerFactory != null) {
+            lineConsumer = lineConsumerFactory.newLineConsumer();
+        }
+
+        GitProcessScheduler.Ticket ticket = acquire(command);
+        // Add an external line consumer that comes with factory. It is typically a consumer that sends message events to the client.
+        try (LineConsumer consumer = new CompositeLineConsumer(lineConsumer, command)) {
+            Process process;
+            try {
+                process = ProcessUtil.execute(pb, consumer);
+            } catch (IOException e) {
+                LOG.error("Process creating failed", e);
+                throw new GitException("It is not possible to execute command");
+            }
+            waitFor(process, command, command.getLines());
+        } catch (IOException e) {
+            LOG.error("An error occurred while trying to close the lineConsumer", e);
+        } finally {
+            release(ticket);
+        }
+    }
+
+    /**
+     * Executes command and copies its standard output to {@code output} as it is produced, so output is never kept in memory.
+     * Error output is written to temporary file and used for error message if command fails. If {@code output} throws
+     * {@link OutputCompletedException} process is stopped and command is considered successful.
+     *
+     * @param command
+     *         GitCommand that will be executed
+     * @param lineConsumerFactory
+     *         factory that provides LineConsumer for propagate error output of this command
+     * @param output
+     *         stream for standard output of command
+     * @throws GitException
+     *         when command execution error occurs
+     * @throws IOException
+     *         when it is not possible to write to {@code output}
+     */
+    public static void executeGitCommand(GitCommand command, LineConsumerFactory lineConsumerFactory, OutputStream output)
+            throws GitException, IOException {
+        ProcessBuilder pb = createProcessBuilder(command);
+        File errorFile = File.createTempFile("git-error-", ".log");
+        GitProcessScheduler.Ticket ticket = null;
+        try {
+            ticket = acquire(command);
+            pb.redirectError(errorFile);
+            Process process;
+            try {
+                process = pb.start();
+            } catch (IOException e) {
+                LOG.error("Process creating failed", e);
+                throw new GitException("It is not possible to execute command");
+            }
+            // process is stopped after timeout even if it hangs in the middle of output
+            Watchdog watcher = startWatchdog(process, command);
+            boolean completed = false;
+            try {
+                try (InputStream input = process.getInputStream()) {
+                    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                    int read;
+                    while ((read = input.read(buffer)) != -1) {
+                        output.write(buffer, 0, read);
+                    }
+                    output.flush();
+                } catch (OutputCompletedException e) {
+                    // output has everything it needs, process is destroyed and rest of output isn't computed
+                    return;
+                }
+                List<String> errors = readErrors(errorFile);
+                if (lineConsumerFactory != null) {
+                    try (LineConsumer consumer = lineConsumerFactory.newLineConsumer()) {
+                        for (String line : errors) {
+                            consumer.writeLine(line);
+                        }
+                    } catch (IOException e) {
+                        LOG.error("An error occurred while trying to write the lineConsumer", e);
+                    }
+                }
+                checkExitValue(process, command, errors);
+                completed = true;
+            } finally {
+                stopWatchdog(watcher);
+                if (!completed) {
+                    // client went away or command failed, there is no sense to wait for the rest of output
+                    process.destroy();
+                }
+            }
+        } finally {
+            release(ticket);
+            if (!errorFile.delete()) {
+                LOG.warn("Unable to delete file {}", errorFile);
+            }
+        }
+    }
+
+    private static GitProcessScheduler.Ticket acquire(GitCommand command) throws GitException {
+        GitProcessScheduler current = scheduler;
+        return current == null ? null : current.acquire(command);
+    }
+
+    private static void release(GitProcessScheduler.Ticket ticket) {
+        if (ticket != null) {
+            ticket.release();
+        }
+    }
+
+    private static ProcessBuilder createProcessBuilder(GitCommand command) {
         CommandLine commandLine = command.getCommandLine();
         ProcessBuilder pb = new ProcessBuilder(commandLine.toShellCommand());
 
@@ -59,6 +193,9 @@ public class CommandProcess {
         // if command should be executed with credentials
         if (command.getAskPassScriptPath() != null) {
             environment.put("GIT_ASKPASS", command.getAskPassScriptPath());
+            // credentials are given to the script through environment of process, they aren't written to disk
+            environment.put(GitAskPassScript.USERNAME_VARIABLE, Strings.nullToEmpty(command.getAskPassUserName()));
+            environment.put(GitAskPassScript.PASSWORD_VARIABLE, Strings.nullToEmpty(command.getAskPassPassword()));
         }
         environment.put("LANG", "en_US.UTF-8");
         environment.put("GDM_LANG", "en_US.UTF-8");
@@ -70,51 +207,82 @@ public class CommandProcess {
         }
 
         pb.directory(command.getRepository());
+        return pb;
+    }
 
+    /**
+     * Waits for process, it is stopped after command timeout.
+     *
+     * @param output
+     *         command output which is used for error message
+     * @throws GitException
+     *         when process exit value is not 0
+     */
+    private static void waitFor(Process process, GitCommand command, List<String> output) throws GitException {
+        Watchdog watcher = startWatchdog(process, command);
+        try {
+            checkExitValue(process, command, output);
+        } finally {
+            stopWatchdog(watcher);
+        }
+    }
 
-        LineConsumer lineConsumer = LineConsumer.DEV_NULL;
-        if (lineConsumerFactory != null) {
-            lineConsumer = lineConsumerFactory.newLineConsumer();
+    /**
+     * Starts watchdog which stops process after command timeout.
+     *
+     * @return started watchdog or {@code null} if command doesn't have timeout
+     */
+    private static Watchdog startWatchdog(Process process, GitCommand command) {
+        if (command.getTimeout() <= 0) {
+            return null;
         }
+        Watchdog watcher = new Watchdog(command.getTimeout(), TimeUnit.SECONDS);
+        watcher.start(new CancellableProcessWrapper(process));
+        return watcher;
+    }
 
-        // Add an external line consumer that comes with factory. It is typically a consumer that sends message events to the client.
-        try (LineConsumer consumer = new CompositeLineConsumer(lineConsumer, command)) {
-            Process process;
-            try {
-                process = ProcessUtil.execute(pb, consumer);
-            } catch (IOException e) {
-                LOG.error("Process creating failed", e);
-                throw new GitException("It is not possible to execute command");
-            }
-            // process will be stopped after timeout
-            Watchdog watcher = null;
-            if (command.getTimeout() > 0) {
-                watcher = new Watchdog(command.getTimeout(), TimeUnit.SECONDS);
-                watcher.start(new CancellableProcessWrapper(process));
+    private static void stopWatchdog(Watchdog watcher) {
+        if (watcher != null) {
+            watcher.stop();
+        }
+    }
+
+    /**
+     * Waits for process and checks its exit value.
+     *
+     * @param output
+     *         command output which is used for error message
+     * @throws GitException
+     *         when process exit value is not 0
+     */
+    private static void checkExitValue(Process process, GitCommand command, List<String> output) throws GitException {
+        try {
+            process.waitFor();
+            /*
+             * Check process exit value and search for correct error message without hint and warning messages ant throw it to user.
+             */
+            if (process.exitValue() != 0) {
+                String message = searchErrorMessage(output);
+                LOG.debug(String.format("Command failed!\ncommand: %s\nerror: %s", command.getCommandLine().toString(), message));
+                throw new GitException(message);
+            } else {
+                LOG.debug(String.format("Command successful!\ncommand: %s", command.getCommandLine().toString()));
             }
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+        }
+    }
 
-            try {
-                process.waitFor();
-                /*
-                 * Check process exit value and search for correct error message without hint and warning messages ant throw it to user.
-                 */
-                if (process.exitValue() != 0) {
-                    String message = searchErrorMessage(command.getLines());
-                    LOG.debug(String.format("Command failed!\ncommand: %s\nerror: %s", commandLine.toString(), message));
-                    throw new GitException(message);
-                } else {
-                    LOG.debug(String.format("Command successful!\ncommand: %s", commandLine.toString()));
-                }
-            } catch (InterruptedException e) {
-                Thread.interrupted();
-            } finally {
-                if (watcher != null) {
-                    watcher.stop();
-                }
+    /** Reads first lines of error output, the rest is skipped since it is not needed for error message. */
+    private static List<String> readErrors(File errorFile) throws IOException {
+        List<String> errors = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(errorFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while (errors.size() < MAX_ERROR_LINES && (line = reader.readLine()) != null) {
+                errors.add(line);
             }
-        } catch (IOException e) {
-            LOG.error("An error occurred while trying to close the lineConsumer", e);
         }
+        return errors;
     }
 
     /**
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.CommittersCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps committers of current branch of recently used repositories.
+ * <p/>
+ * Index remembers commit which it was built for. When HEAD is moved forward only new commits are read and added to
+ * index, if HEAD is moved to commit which isn't descendant of indexed one, e.g. after reset or checkout of other
+ * branch, index is built again.
+ */
+@Singleton
+public class CommitterIndexCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CommitterIndexCache.class);
+
+    private static final int DEFAULT_MAX_SIZE = 500;
+
+    private static final Comparator<GitUser> LATEST_FIRST = new Comparator<GitUser>() {
+        @Override
+        public int compare(GitUser first, GitUser second) {
+            return Long.compare(second.getLastCommitTime(), first.getLastCommitTime());
+        }
+    };
+
+    private final Cache<String, Index> indexes;
+
+    public CommitterIndexCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize
+     *         maximal number of repositories which indexes are kept
+     */
+    public CommitterIndexCache(int maxSize) {
+        this.indexes = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Gets committers of current branch, the most recent committers are first.
+     *
+     * @param nativeGit
+     *         git commands factory of repository
+     * @return committers, every committer is included once
+     * @throws GitException
+     *         when it is not possible to read history
+     */
+    public List<GitUser> get(NativeGit nativeGit) throws GitException {
+        final String head = getHeadId(nativeGit);
+        if (head == null) {
+            return Collections.emptyList();
+        }
+        final String key = nativeGit.getRepository().getAbsolutePath();
+        Index index = indexes.getIfPresent(key);
+        if (index == null || !head.equals(index.head)) {
+            index = update(nativeGit, head, index);
+            indexes.put(key, index);
+        }
+        return copy(index.committers);
+    }
+
+    /** @return number of indexed repositories */
+    public long size() {
+        return indexes.size();
+    }
+
+    private Index update(NativeGit nativeGit, String head, Index index) throws GitException {
+        if (index != null) {
+            final CommittersCommand command = nativeGit.createCommittersCommand().setRevision(head).setExcluded(index.head);
+            try {
+                final List<GitUser> added = command.execute();
+                if (command.isExcludedReached()) {
+                    return new Index(head, merge(added, index.committers));
+                }
+            } catch (GitException e) {
+                // indexed commit may be removed by gc after history was rewritten
+                LOG.debug("Unable read commits after {} in {}: {}", index.head, nativeGit.getRepository(), e.getMessage());
+            }
+        }
+        final List<GitUser> committers = nativeGit.createCommittersCommand().setRevision(head).execute();
+        Collections.sort(committers, LATEST_FIRST);
+        return new Index(head, committers);
+    }
+
+    /** New committers go first, numbers of commits of already known committers are summed. */
+    private List<GitUser> merge(List<GitUser> added, List<GitUser> known) {
+        final Map<String, GitUser> committers = new LinkedHashMap<>();
+        for (GitUser committer : added) {
+            committers.put(committer.getName() + '\n' + committer.getEmail(), committer);
+        }
+        for (GitUser committer : known) {
+            final String key = committer.getName() + '\n' + committer.getEmail();
+            final GitUser same = committers.get(key);
+            if (same == null) {
+                committers.put(key, committer);
+            } else {
+                same.setCommits(same.getCommits() + committer.getCommits());
+                same.setLastCommitTime(Math.max(same.getLastCommitTime(), committer.getLastCommitTime()));
+            }
+        }
+        final List<GitUser> result = new ArrayList<>(committers.values());
+        Collections.sort(result, LATEST_FIRST);
+        return result;
+    }
+
+    /** Committers of index are shared between requests so only copies of them are returned. */
+    private List<GitUser> copy(List<GitUser> committers) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final List<GitUser> copy = new ArrayList<>(committers.size());
+        for (GitUser committer : committers) {
+            copy.add(dtoFactory.clone(committer));
+        }
+        return copy;
+    }
+
+    private String getHeadId(NativeGit nativeGit) throws GitException {
+        final RefSnapshot snapshot = nativeGit.getRefSnapshot();
+        if (snapshot != null) {
+            return snapshot.getHeadId();
+        }
+        final EmptyGitCommand command = nativeGit.createEmptyGitCommand();
+        command.setNextParameter("rev-parse").setNextParameter("--verify").setNextParameter("HEAD").execute();
+        return command.getText().trim();
+    }
+
+    /** Committers of history of one commit. */
+    private static class Index {
+        final String        head;
+        final List<GitUser> committers;
+
+        Index(String head, List<GitUser> committers) {
+            this.head = head;
+            this.committers = committers;
+        }
+    }
+}
@@ -12,19 +12,40 @@ package org.eclipse.che.ide.ext.git.server.nativegit;
 
 import org.eclipse.che.ide.ext.git.server.Config;
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.GetConfigCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.SetConfigCommand;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Config is useful for git repository configuration manipulation.
  * For now it is available to load and save information about git repository user.
+ * <p/>
+ * System, global and repository configuration files are parsed in-process and cached until they are changed,
+ * so reading of configuration doesn't start git processes. Changes are written to repository configuration
+ * file with the same lock file git uses. Git is used when configuration includes other files or repository
+ * configuration can't be changed line by line.
+ * <p/>
+ * Location of system configuration file depends on how git was built, so it is asked from git once and then
+ * reused. {@code GIT_CONFIG_SYSTEM} and {@code GIT_CONFIG_NOSYSTEM} are respected in the same way git does.
  *
  * @author Eugene Voevodin
  */
 public class ConfigImpl extends Config {
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigImpl.class);
+
+    private static File    systemConfig;
+    private static boolean systemConfigResolved;
+
     /**
      * @param repository
      *         git repository
@@ -35,51 +56,257 @@ public class ConfigImpl extends Config {
 
     @Override
     public String get(String name) throws GitException {
-        final GetConfigCommand command = new GetConfigCommand(repository).setValue(name);
-        command.execute();
-        final List<String> output = command.getLines();
-        if (output.isEmpty()) {
-            return null;
+        final GitConfigFile.Name parsed = GitConfigFile.Name.parse(name);
+        final List<GitConfigFile> files = readFiles();
+        if (files == null) {
+            return getWithGit(name);
         }
-        return output.get(0);
+        String value = null;
+        boolean found = false;
+        for (GitConfigFile file : files) {
+            for (GitConfigFile.Entry entry : file.getEntries()) {
+                if (entry.is(parsed)) {
+                    value = entry.value;
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            // git exits with code 1 and doesn't print anything
+            throw new GitException("");
+        }
+        // variable without value is printed as empty line
+        return value == null ? "" : value;
     }
 
     @Override
     public List<String> getAll(String name) throws GitException {
-        final GetConfigCommand command = new GetConfigCommand(repository).setValue(name).setGetAll(true);
-        command.execute();
-        return command.getLines();
+        final GitConfigFile.Name parsed = GitConfigFile.Name.parse(name);
+        final List<GitConfigFile> files = readFiles();
+        if (files == null) {
+            final GetConfigCommand command = new GetConfigCommand(repository).setValue(name).setGetAll(true);
+            command.execute();
+            return command.getLines();
+        }
+        final List<String> values = new ArrayList<>();
+        for (GitConfigFile file : files) {
+            for (GitConfigFile.Entry entry : file.getEntries()) {
+                if (entry.is(parsed)) {
+                    values.add(entry.value == null ? "" : entry.value);
+                }
+            }
+        }
+        if (values.isEmpty()) {
+            throw new GitException("");
+        }
+        return values;
     }
 
     @Override
     public List<String> getList() throws GitException {
-        final GetConfigCommand command = new GetConfigCommand(repository).setGetList(true);
-        command.execute();
-        return command.getLines();
+        final List<GitConfigFile> files = readFiles();
+        if (files == null) {
+            final GetConfigCommand command = new GetConfigCommand(repository).setGetList(true);
+            command.execute();
+            return command.getLines();
+        }
+        final List<String> list = new ArrayList<>();
+        for (GitConfigFile file : files) {
+            for (GitConfigFile.Entry entry : file.getEntries()) {
+                if (!entry.isSection()) {
+                    list.add(entry.value == null ? entry.getName() : entry.getName() + '=' + entry.value);
+                }
+            }
+        }
+        return list;
     }
 
+    /** Reads all configuration files once for all names. */
+    @Override
+    public Map<String, String> getValues(List<String> names) throws GitException {
+        final List<GitConfigFile> files = readFiles();
+        if (files == null) {
+            return super.getValues(names);
+        }
+        final Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            final GitConfigFile.Name parsed;
+            try {
+                parsed = GitConfigFile.Name.parse(name);
+            } catch (GitException ignored) {
+                continue;
+            }
+            for (GitConfigFile file : files) {
+                for (GitConfigFile.Entry entry : file.getEntries()) {
+                    if (entry.is(parsed)) {
+                        values.put(name, entry.value == null ? "" : entry.value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
 
     @Override
     public Config set(String name, String value) throws GitException {
-        final SetConfigCommand command = new SetConfigCommand(repository);
-        command.setValue(name, value);
-        command.execute();
+        final Map<String, String> values = new LinkedHashMap<>(1);
+        values.put(name, value);
+        return setValues(values);
+    }
+
+    /** Writes all values with one change of repository configuration file. */
+    @Override
+    public Config setValues(Map<String, String> values) throws GitException {
+        GitConfigFile file = getEditableFile();
+        if (file == null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                final SetConfigCommand command = new SetConfigCommand(repository);
+                command.setValue(entry.getKey(), entry.getValue());
+                command.execute();
+            }
+            return this;
+        }
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            file = file.set(GitConfigFile.Name.parse(entry.getKey()), entry.getValue() == null ? "" : entry.getValue());
+        }
+        file.write();
         return this;
     }
 
     @Override
     public Config add(String name, String value) throws GitException {
-        final SetConfigCommand command = new SetConfigCommand(repository);
-        command.addValue(name, value);
-        command.execute();
+        final GitConfigFile.Name parsed = GitConfigFile.Name.parse(name);
+        final GitConfigFile file = getEditableFile();
+        if (file == null) {
+            final SetConfigCommand command = new SetConfigCommand(repository);
+            command.addValue(name, value);
+            command.execute();
+        } else {
+            file.add(parsed, value == null ? "" : value).write();
+        }
         return this;
     }
 
     @Override
     public Config unset(String name) throws GitException {
-        final SetConfigCommand command = new SetConfigCommand(repository);
-        command.unsetValue(name);
-        command.execute();
+        final GitConfigFile.Name parsed = GitConfigFile.Name.parse(name);
+        final GitConfigFile file = getEditableFile();
+        if (file == null) {
+            final SetConfigCommand command = new SetConfigCommand(repository);
+            command.unsetValue(name);
+            command.execute();
+        } else {
+            file.unset(parsed).write();
+        }
         return this;
     }
+
+    private String getWithGit(String name) throws GitException {
+        final GetConfigCommand command = new GetConfigCommand(repository).setValue(name);
+        command.execute();
+        final List<String> output = command.getLines();
+        if (output.isEmpty()) {
+            return null;
+        }
+        return output.get(0);
+    }
+
+    /**
+     * Reads system, global and repository configuration files in the same order as git reads them.
+     *
+     * @return parsed files or {@code null} if configuration should be read with git
+     */
+    private List<GitConfigFile> readFiles() {
+        final File gitDir = new File(repository, ".git");
+        if (!gitDir.isDirectory()) {
+            return null;
+        }
+        final List<File> locations = new ArrayList<>(4);
+        if (!isTrue(System.getenv("GIT_CONFIG_NOSYSTEM"))) {
+            final File system = getSystemConfig(repository);
+            if (system == null) {
+                return null;
+            }
+            locations.add(system);
+        }
+        // git processes are started with HOME set to user.home
+        final String home = System.getProperty("user.home");
+        final String xdgConfigHome = System.getenv("XDG_CONFIG_HOME");
+        locations.add(xdgConfigHome == null || xdgConfigHome.isEmpty()
+                      ? new File(home, ".config/git/config")
+                      : new File(xdgConfigHome, "git/config"));
+        locations.add(new File(home, ".gitconfig"));
+        locations.add(new File(gitDir, "config"));
+        final List<GitConfigFile> files = new ArrayList<>(locations.size());
+        try {
+            for (File location : locations) {
+                final GitConfigFile file = GitConfigFile.get(location);
+                if (file.hasIncludes()) {
+                    return null;
+                }
+                files.add(file);
+            }
+        } catch (GitException e) {
+            // let git report about problem
+            LOG.debug(e.getMessage(), e);
+            return null;
+        }
+        return files;
+    }
+
+    /**
+     * Asks git which file it reads as system configuration. Editor which prints its argument is used, so git
+     * reports location of file even if it doesn't exist and {@code GIT_CONFIG_SYSTEM} is taken into account.
+     *
+     * @return system configuration file or {@code null} if it is unknown
+     */
+    private static synchronized File getSystemConfig(File repository) {
+        if (!systemConfigResolved) {
+            final EmptyGitCommand command = new EmptyGitCommand(repository);
+            command.setCommandEnvironment(Collections.singletonMap("GIT_EDITOR", "echo"));
+            command.setNextParameter("config").setNextParameter("--system").setNextParameter("--edit");
+            try {
+                command.execute();
+                final List<String> lines = command.getLines();
+                if (lines.size() == 1 && !lines.get(0).isEmpty()) {
+                    systemConfig = new File(lines.get(0));
+                }
+            } catch (GitException e) {
+                LOG.warn("Unable to find location of system git configuration: {}", e.getMessage());
+            }
+            systemConfigResolved = true;
+        }
+        return systemConfig;
+    }
+
+    /** Parses boolean environment variable as git does. */
+    private static boolean isTrue(String value) {
+        if (value == null) {
+            return false;
+        }
+        switch (value.toLowerCase()) {
+            case "1":
+            case "true":
+            case "yes":
+            case "on":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /** @return repository configuration file or {@code null} if it should be changed with git */
+    private GitConfigFile getEditableFile() {
+        final File gitDir = new File(repository, ".git");
+        if (!gitDir.isDirectory()) {
+            return null;
+        }
+        try {
+            final GitConfigFile file = GitConfigFile.get(new File(gitDir, "config"));
+            return file.isEditable() ? file : null;
+        } catch (GitException e) {
+            LOG.debug(e.getMessage(), e);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps diffs between two commits. Such diffs don't change while configuration of repository is the same, so they are
+ * addressed by ids of commits, diff options and configuration of repository and are shared between all users.
+ * <p/>
+ * Diffs are kept in memory while their total size is less than limit, least recently used diffs are removed first.
+ * If directory is configured removed diffs are moved there, size of directory is limited as well.
+ */
+@Singleton
+public class DiffCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiffCache.class);
+
+    public static final String MEMORY_SIZE = "git.diff.cache.memory.size";
+    public static final String DIRECTORY   = "git.diff.cache.dir";
+    public static final String DISK_SIZE   = "git.diff.cache.disk.size";
+
+    private static final long DEFAULT_MEMORY_SIZE = 32 * 1024 * 1024;
+    private static final long DEFAULT_DISK_SIZE   = 512 * 1024 * 1024;
+
+    private final AtomicLong diskUsage = new AtomicLong();
+
+    private volatile Cache<String, byte[]> memory;
+    private volatile int                   maxEntrySize;
+    private volatile File                  directory;
+    private volatile long                  diskSize = DEFAULT_DISK_SIZE;
+
+    public DiffCache() {
+        this(DEFAULT_MEMORY_SIZE);
+    }
+
+    /**
+     * @param memorySize
+     *         maximal size of diffs in memory in bytes
+     */
+    public DiffCache(long memorySize) {
+        setMemorySize(memorySize);
+    }
+
+    @Inject(optional = true)
+    public void setMemorySize(@Named(MEMORY_SIZE) long memorySize) {
+        // one diff can't push out most of others
+        this.maxEntrySize = (int)Math.min(Integer.MAX_VALUE, memorySize / 8);
+        this.memory = CacheBuilder.newBuilder()
+                                  .maximumWeight(memorySize)
+                                  .weigher(new Weigher<String, byte[]>() {
+                                      @Override
+                                      public int weigh(String key, byte[] diff) {
+                                          return diff.length;
+                                      }
+                                  })
+                                  .removalListener(new RemovalListener<String, byte[]>() {
+                                      @Override
+                                      public void onRemoval(RemovalNotification<String, byte[]> notification) {
+                                          if (notification.getCause() == RemovalCause.SIZE) {
+                                              spill(notification.getKey(), notification.getValue());
+                                          }
+                                      }
+                                  })
+                                  .build();
+    }
+
+    /**
+     * @param directory
+     *         directory where diffs removed from memory are kept, diffs aren't kept on disk if it is empty
+     */
+    @Inject(optional = true)
+    public void setDirectory(@Named(DIRECTORY) String directory) {
+        if (directory == null || directory.isEmpty()) {
+            this.directory = null;
+            return;
+        }
+        final File dir = new File(directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOG.warn("Unable create directory {}, diffs are kept in memory only", dir);
+            return;
+        }
+        long usage = 0;
+        final File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                usage += file.length();
+            }
+        }
+        diskUsage.set(usage);
+        this.directory = dir;
+    }
+
+    @Inject(optional = true)
+    public void setDiskSize(@Named(DISK_SIZE) long diskSize) {
+        this.diskSize = diskSize;
+    }
+
+    /** @return maximal size of one diff, bigger diffs aren't cached */
+    public int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Creates key of diff between two commits.
+     *
+     * @param commitA
+     *         full id of the first commit
+     * @param commitB
+     *         full id of the second commit
+     * @param options
+     *         options of diff which change its output, e.g. configuration of repository, type, renames and file filter
+     * @return key of diff
+     */
+    public static String key(String commitA, String commitB, List<?> options) {
+        final String source = Joiner.on('\0').useForNull("").join(commitA, commitB, Joiner.on('\0').useForNull("").join(options));
+        return Hashing.sha1().hashString(source, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * @param key
+     *         key of diff
+     * @return diff or {@code null} if it isn't cached
+     */
+    public byte[] get(String key) {
+        final byte[] diff = memory.getIfPresent(key);
+        if (diff != null) {
+            return diff;
+        }
+        final File dir = directory;
+        if (dir == null) {
+            return null;
+        }
+        final File file = new File(dir, key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final byte[] content = Files.readAllBytes(file.toPath());
+            // file is moved back to memory, it is written again if memory is full
+            if (file.delete()) {
+                diskUsage.addAndGet(-content.length);
+            }
+            memory.put(key, content);
+            return content;
+        } catch (IOException e) {
+            LOG.warn("Unable read cached diff {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param key
+     *         key of diff
+     * @param diff
+     *         diff, it isn't cached if it is bigger than {@link #getMaxEntrySize()}
+     */
+    public void put(String key, byte[] diff) {
+        if (diff.length <= maxEntrySize) {
+            memory.put(key, diff);
+        }
+    }
+
+    /** @return number of diffs in memory */
+    public long size() {
+        return memory.size();
+    }
+
+    private void spill(String key, byte[] diff) {
+        final File dir = directory;
+        if (dir == null || diff.length > diskSize) {
+            return;
+        }
+        final File file = new File(dir, key);
+        if (file.exists()) {
+            return;
+        }
+        try {
+            final File temp = File.createTempFile(key, ".tmp", dir);
+            Files.write(temp.toPath(), diff);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable write diff to {}: {}", dir, e.getMessage());
+            return;
+        }
+        if (diskUsage.addAndGet(diff.length) > diskSize) {
+            trim(dir);
+        }
+    }
+
+    /** Removes the oldest files until directory takes less than three quarters of its limit. */
+    private synchronized void trim(File dir) {
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                return Long.compare(first.lastModified(), second.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (diskUsage.get() <= diskSize / 4 * 3) {
+                break;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                diskUsage.addAndGet(-length);
+            }
+        }
+    }
+}
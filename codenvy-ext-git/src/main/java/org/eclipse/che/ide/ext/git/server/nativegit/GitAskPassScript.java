@@ -10,81 +10,101 @@
  *******************************************************************************/
 package org.eclipse.che.ide.ext.git.server.nativegit;
 
-import org.eclipse.che.commons.env.EnvironmentContext;
-import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
 
 /**
+ * "GIT_ASKPASS" script which answers git prompts with credentials of command.
+ * <p/>
+ * Script doesn't contain credentials, they are passed to each git process in its environment and never written to
+ * disk. So one script is shared by all users and any number of commands may use it at the same time.
+ *
  * @author Sergii Kabashniuk
  */
 public class GitAskPassScript {
 
+    /** Environment variable which contains user name for git process. */
+    public static final String USERNAME_VARIABLE = "CODENVY_GIT_ASKPASS_USERNAME";
+    /** Environment variable which contains password for git process. */
+    public static final String PASSWORD_VARIABLE = "CODENVY_GIT_ASKPASS_PASSWORD";
+
     private static final String GIT_ASK_PASS_SCRIPT_TEMPLATE = "META-INF/NativeGitAskPassTemplate";
     private static final String GIT_ASK_PASS_SCRIPT          = "ask_pass";
     private String gitAskPassTemplate;
 
     private static final Logger LOG = LoggerFactory.getLogger(GitAskPassScript.class);
 
+    /** Script shared by all commands of this JVM. */
+    private static File gitAskPassScript;
+
     public GitAskPassScript() {
         init();
     }
 
     /**
-     * Searches "GIT_ASKPASS" script.
+     * Sets up command to answer git prompts with specified credentials.
      *
+     * @param command
+     *         git command
      * @param credentials
      *         user credentials
+     */
+    public void apply(GitCommand<?> command, UserCredential credentials) throws GitException {
+        command.setAskPassScriptPath(getScript().getAbsolutePath());
+        command.setAskPassCredentials(credentials.getUserName(), credentials.getPassword());
+    }
+
+    /**
+     * Gets "GIT_ASKPASS" script, script is written if it doesn't exist yet or it was removed.
+     *
      * @return stored script
      */
-    public File build(UserCredential credentials) throws GitException {
-        File askScriptDirectory = new File(System.getProperty("java.io.tmpdir")
-                                           + "/" + EnvironmentContext.getCurrent().getUser().getName());
-        if (!askScriptDirectory.exists()) {
-            askScriptDirectory.mkdirs();
-        }
-        File gitAskPassScript = new File(askScriptDirectory, GIT_ASK_PASS_SCRIPT);
-        try (FileOutputStream fos = new FileOutputStream(gitAskPassScript)) {
-            String actualGitAskPassTemplate = gitAskPassTemplate.replace("$self", gitAskPassScript.getAbsolutePath())
-                                                                .replace("$password", credentials.getPassword())
-                                                                .replace("$username", credentials.getUserName());
-            fos.write(actualGitAskPassTemplate.getBytes());
-        } catch (IOException e) {
-            LOG.error("It is not possible to store " + gitAskPassScript + " credentials", e);
-            throw new GitException("Can't store credentials");
+    private synchronized File getScript() throws GitException {
+        if (gitAskPassScript != null && gitAskPassScript.canExecute()) {
+            return gitAskPassScript;
         }
-        if (!gitAskPassScript.setExecutable(true)) {
-            LOG.error("Can't make " + gitAskPassScript + " executable");
-            throw new GitException("Can't set permissions to credentials");
+        final File directory = new File(System.getProperty("java.io.tmpdir"));
+        File temp = null;
+        try {
+            temp = Files.createTempFile(directory.toPath(), GIT_ASK_PASS_SCRIPT, ".tmp",
+                                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")))
+                        .toFile();
+            Files.write(temp.toPath(), gitAskPassTemplate.getBytes(StandardCharsets.UTF_8));
+            // script is visible only when it is complete
+            final String name = temp.getName();
+            final File script = new File(directory, name.substring(0, name.length() - ".tmp".length()));
+            Files.move(temp.toPath(), script.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            script.deleteOnExit();
+            gitAskPassScript = script;
+        } catch (IOException | UnsupportedOperationException e) {
+            if (temp != null && !temp.delete()) {
+                LOG.warn("Can't remove " + temp);
+            }
+            LOG.error("It is not possible to store " + GIT_ASK_PASS_SCRIPT + " script", e);
+            throw new GitException("Can't store credentials script");
         }
         return gitAskPassScript;
     }
 
-    public void remove() {
-
-        File askScriptDirectory = new File(System.getProperty("java.io.tmpdir")
-                                           + "/" + EnvironmentContext.getCurrent().getUser().getName());
-        if (askScriptDirectory.exists()) {
-            if (!IoUtil.deleteRecursive(askScriptDirectory))
-                LOG.warn("Ask-pass script deletion failed.");
-        }
-    }
-
     public void init() {
         try (BufferedReader reader = new BufferedReader(
                 new InputStreamReader(Thread.currentThread().getContextClassLoader().getResourceAsStream(GIT_ASK_PASS_SCRIPT_TEMPLATE)))) {
             StringBuilder sb = new StringBuilder();
             String line;
             while ((line = reader.readLine()) != null) {
-                sb.append(line);
+                sb.append(line).append('\n');
             }
             gitAskPassTemplate = sb.toString();
         } catch (Exception e) {
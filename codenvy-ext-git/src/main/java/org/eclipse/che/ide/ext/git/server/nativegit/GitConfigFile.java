@@ -0,0 +1,579 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Git configuration file parsed in the same way as git does it. Parsed files are cached
+ * until their modification time or size is changed.
+ * <p/>
+ * Files which include other files are marked as {@link #hasIncludes() having includes},
+ * git should be used to read configuration in this case.
+ */
+class GitConfigFile {
+
+    private static final Pattern KEY_PATTERN     = Pattern.compile("[A-Za-z][A-Za-z0-9-]*");
+    private static final Pattern SECTION_PATTERN = Pattern.compile("[A-Za-z0-9.-]+");
+    private static final long    RACY_PERIOD     = RefSnapshot.RACY_PERIOD;
+    private static final int     MAX_CACHE_SIZE  = 1000;
+
+    private static final Cache<String, GitConfigFile> CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).build();
+
+    /** Entry of configuration file. */
+    static class Entry {
+        /** Name of section in lower case. */
+        final String section;
+        /** Name of subsection as it is written in file or {@code null}. */
+        final String subsection;
+        /** Name of variable in lower case. */
+        final String key;
+        /** Value or {@code null} if variable doesn't have value, git treats it as <i>true</i>. */
+        final String value;
+        /** Index of the first line of entry. */
+        final int    firstLine;
+        /** Index of the last line of entry. */
+        final int    lastLine;
+
+        Entry(String section, String subsection, String key, String value, int firstLine, int lastLine) {
+            this.section = section;
+            this.subsection = subsection;
+            this.key = key;
+            this.value = value;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+        }
+
+        /** @return full name of variable in the same form as <i>git config --list</i> shows it */
+        String getName() {
+            return subsection == null ? section + '.' + key : section + '.' + subsection + '.' + key;
+        }
+
+        boolean isSection() {
+            return key == null;
+        }
+
+        boolean inSection(Name name) {
+            return section.equals(name.section) && (subsection == null ? name.subsection == null : subsection.equals(name.subsection));
+        }
+
+        boolean is(Name name) {
+            return !isSection() && key.equals(name.key) && inSection(name);
+        }
+    }
+
+    /** Name of variable split to section, subsection and key. */
+    static class Name {
+        final String section;
+        final String subsection;
+        final String key;
+        /** Key as it is given by user, it is used when new variable is written. */
+        final String originalKey;
+        final String originalSection;
+
+        private Name(String originalSection, String subsection, String originalKey) {
+            this.originalSection = originalSection;
+            this.section = originalSection.toLowerCase();
+            this.subsection = subsection;
+            this.originalKey = originalKey;
+            this.key = originalKey.toLowerCase();
+        }
+
+        /**
+         * Parses name of variable, e.g. <i>remote.origin.url</i>.
+         *
+         * @throws GitException
+         *         when name isn't valid, with the same message as git shows
+         */
+        static Name parse(String name) throws GitException {
+            final int first = name.indexOf('.');
+            final int last = name.lastIndexOf('.');
+            if (first < 0) {
+                throw new GitException("error: key does not contain a section: " + name + '\n');
+            }
+            if (last == name.length() - 1) {
+                throw new GitException("error: key does not contain variable name: " + name + '\n');
+            }
+            final String section = name.substring(0, first);
+            final String key = name.substring(last + 1);
+            if (!SECTION_PATTERN.matcher(section).matches() || !KEY_PATTERN.matcher(key).matches()) {
+                throw new GitException("error: invalid key: " + name + '\n');
+            }
+            return new Name(section, first == last ? null : name.substring(first + 1, last), key);
+        }
+    }
+
+    private final File        file;
+    private final long        lastModified;
+    private final long        length;
+    private final boolean     racy;
+    private final String      content;
+    /** Content of file as it was read, it is used to detect concurrent changes. */
+    private final String      original;
+    private final List<Entry> entries;
+    private final boolean     includes;
+    private final boolean     editable;
+
+    private GitConfigFile(File file, long lastModified, long length, boolean racy, String content, String original)
+            throws GitException {
+        this.file = file;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.racy = racy;
+        this.content = content;
+        this.original = original;
+        final Parser parser = new Parser(file, content);
+        parser.parse();
+        this.entries = Collections.unmodifiableList(parser.entries);
+        this.includes = parser.includes;
+        this.editable = parser.editable;
+    }
+
+    /**
+     * Gets parsed file. Not existed file is treated as empty.
+     *
+     * @throws GitException
+     *         when file can't be read or has bad syntax
+     */
+    static GitConfigFile get(File file) throws GitException {
+        final String key = file.getAbsolutePath();
+        final GitConfigFile cached = CACHE.getIfPresent(key);
+        if (cached != null && cached.isActual()) {
+            return cached;
+        }
+        final long checked = System.currentTimeMillis();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        final String content;
+        try {
+            content = file.isFile() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : "";
+        } catch (IOException e) {
+            throw new GitException("fatal: unable to read config file " + file + ": " + e.getMessage() + '\n', e);
+        }
+        final GitConfigFile parsed = new GitConfigFile(file, lastModified, length, lastModified >= checked - RACY_PERIOD, content,
+                                                         content);
+        CACHE.put(key, parsed);
+        return parsed;
+    }
+
+    /** @return entries of file in the same order as they are written, includes section headers */
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /** @return {@code true} if file includes other files */
+    boolean hasIncludes() {
+        return includes;
+    }
+
+    /**
+     * @return {@code false} if file has few entries in one line, e.g. <i>[core] bare = true</i>,
+     * such file is not changed in-process since entries can't be replaced line by line
+     */
+    boolean isEditable() {
+        return editable;
+    }
+
+    /**
+     * Sets single value of variable, the same as <i>git config name value</i>.
+     *
+     * @return changed file, it should be written with {@link #write()}
+     */
+    GitConfigFile set(Name name, String value) throws GitException {
+        final List<Entry> matched = find(name);
+        if (matched.size() > 1) {
+            throw new GitException("error: cannot overwrite multiple values with a single value\n");
+        }
+        if (matched.isEmpty()) {
+            return add(name, value);
+        }
+        final List<String> lines = lines();
+        final Entry entry = matched.get(0);
+        lines.subList(entry.firstLine, entry.lastLine + 1).clear();
+        lines.add(entry.firstLine, formatEntry(name, value));
+        return changed(lines);
+    }
+
+    /**
+     * Adds value of variable to the end of its section, the same as <i>git config --add name value</i>.
+     *
+     * @return changed file, it should be written with {@link #write()}
+     */
+    GitConfigFile add(Name name, String value) throws GitException {
+        int last = -1;
+        for (Entry entry : entries) {
+            if (entry.inSection(name)) {
+                last = Math.max(last, entry.lastLine);
+            }
+        }
+        final List<String> lines = lines();
+        if (last < 0) {
+            lines.add(name.subsection == null
+                      ? '[' + name.originalSection + ']'
+                      : '[' + name.originalSection + " \"" + name.subsection.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]");
+            lines.add(formatEntry(name, value));
+        } else {
+            lines.add(last + 1, formatEntry(name, value));
+        }
+        return changed(lines);
+    }
+
+    /**
+     * Removes variable, the same as <i>git config --unset name</i>.
+     *
+     * @return changed file, it should be written with {@link #write()}
+     */
+    GitConfigFile unset(Name name) throws GitException {
+        final List<Entry> matched = find(name);
+        if (matched.isEmpty()) {
+            // git exits with code 5 and doesn't print anything
+            throw new GitException("");
+        }
+        if (matched.size() > 1) {
+            throw new GitException("warning: " + matched.get(0).getName() + " has multiple values\n");
+        }
+        final List<String> lines = lines();
+        final Entry entry = matched.get(0);
+        lines.subList(entry.firstLine, entry.lastLine + 1).clear();
+        return changed(lines);
+    }
+
+    /**
+     * Writes file. Lock file is used in the same way as git does it, so concurrent git processes
+     * don't overwrite changes of each other.
+     *
+     * @throws GitException
+     *         when file is locked or was changed after it was read
+     */
+    void write() throws GitException {
+        final File lock = new File(file.getPath() + ".lock");
+        try {
+            if (!lock.createNewFile()) {
+                throw new GitException("error: could not lock config file " + file + ": File exists\n");
+            }
+            try {
+                final String current = file.isFile() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : "";
+                if (!current.equals(original)) {
+                    throw new GitException("error: config file " + file + " was changed by another process\n");
+                }
+                Files.write(lock.toPath(), content.getBytes(StandardCharsets.UTF_8));
+                Files.move(lock.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(lock.toPath());
+            }
+        } catch (IOException e) {
+            throw new GitException("error: could not write config file " + file + ": " + e.getMessage() + '\n', e);
+        }
+        CACHE.invalidate(file.getAbsolutePath());
+    }
+
+    private boolean isActual() {
+        return !racy && file.lastModified() == lastModified && file.length() == length;
+    }
+
+    private List<Entry> find(Name name) {
+        final List<Entry> matched = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.is(name)) {
+                matched.add(entry);
+            }
+        }
+        return matched;
+    }
+
+    private List<String> lines() {
+        final List<String> lines = new ArrayList<>(Arrays.asList(content.split("\n", -1)));
+        // split leaves empty string after the last line separator
+        if (lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return lines;
+    }
+
+    private GitConfigFile changed(List<String> lines) throws GitException {
+        final StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append('\n');
+        }
+        return new GitConfigFile(file, lastModified, length, true, builder.toString(), original);
+    }
+
+    private static String formatEntry(Name name, String value) {
+        return '\t' + name.originalKey + " = " + quote(value);
+    }
+
+    /** Quotes value in the same way as git does it. */
+    static String quote(String value) {
+        final boolean quote = !value.isEmpty()
+                              && (Character.isWhitespace(value.charAt(0))
+                                  || Character.isWhitespace(value.charAt(value.length() - 1))
+                                  || value.indexOf(';') >= 0
+                                  || value.indexOf('#') >= 0);
+        final StringBuilder builder = new StringBuilder();
+        if (quote) {
+            builder.append('"');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '"':
+                case '\\':
+                    builder.append('\\').append(c);
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        if (quote) {
+            builder.append('"');
+        }
+        return builder.toString();
+    }
+
+    /** Parser which follows rules of git config.c. */
+    private static class Parser {
+        final File        file;
+        final String      content;
+        final List<Entry> entries = new ArrayList<>();
+        boolean includes;
+        boolean editable = true;
+        /** Index of the last line which has entry. */
+        int     lastEntryLine = -1;
+        boolean newLine;
+
+        int    position;
+        int    line;
+        String section;
+        String subsection;
+
+        Parser(File file, String content) {
+            this.file = file;
+            this.content = content;
+        }
+
+        void parse() throws GitException {
+            // skip UTF-8 BOM
+            if (content.startsWith("\uFEFF")) {
+                position = 1;
+            }
+            int c;
+            while ((c = next()) != -1) {
+                if (c == '\n' || Character.isWhitespace(c)) {
+                    continue;
+                }
+                if (c == '#' || c == ';') {
+                    skipLine();
+                } else if (c == '[') {
+                    final int first = line;
+                    parseSectionHeader();
+                    addEntry(new Entry(section, subsection, null, null, first, line));
+                    if ("include".equals(section) || "includeif".equals(section)) {
+                        includes = true;
+                    }
+                } else if (Character.isLetter(c)) {
+                    if (section == null) {
+                        throw badConfig();
+                    }
+                    parseVariable((char)c);
+                } else {
+                    throw badConfig();
+                }
+            }
+        }
+
+        private void parseSectionHeader() throws GitException {
+            final StringBuilder name = new StringBuilder();
+            int c;
+            subsection = null;
+            while ((c = next()) != ']') {
+                if (c == -1 || c == '\n') {
+                    throw badConfig();
+                }
+                if (Character.isWhitespace(c)) {
+                    parseSubsection();
+                    break;
+                }
+                if (!Character.isLetterOrDigit(c) && c != '-' && c != '.') {
+                    throw badConfig();
+                }
+                name.append((char)c);
+            }
+            final String header = name.toString();
+            final int dot = header.indexOf('.');
+            if (subsection == null && dot >= 0) {
+                // deprecated [section.subsection] syntax, subsection is case insensitive
+                section = header.substring(0, dot).toLowerCase();
+                subsection = header.substring(dot + 1).toLowerCase();
+            } else {
+                section = header.toLowerCase();
+            }
+        }
+
+        private void parseSubsection() throws GitException {
+            int c;
+            while ((c = next()) != -1 && Character.isWhitespace(c) && c != '\n') {
+            }
+            if (c != '"') {
+                throw badConfig();
+            }
+            final StringBuilder name = new StringBuilder();
+            while ((c = next()) != '"') {
+                if (c == -1 || c == '\n') {
+                    throw badConfig();
+                }
+                if (c == '\\') {
+                    c = next();
+                    if (c == -1 || c == '\n') {
+                        throw badConfig();
+                    }
+                }
+                name.append((char)c);
+            }
+            if (next() != ']') {
+                throw badConfig();
+            }
+            subsection = name.toString();
+        }
+
+        private void parseVariable(char first) throws GitException {
+            final int firstLine = line;
+            final StringBuilder name = new StringBuilder().append(first);
+            int c;
+            while ((c = next()) != -1 && (Character.isLetterOrDigit(c) || c == '-')) {
+                name.append((char)c);
+            }
+            while (c != -1 && c != '\n' && Character.isWhitespace(c)) {
+                c = next();
+            }
+            String value = null;
+            if (c == '=') {
+                value = parseValue();
+            } else if (c == '#' || c == ';') {
+                skipLine();
+            } else if (c != -1 && c != '\n') {
+                throw badConfig();
+            }
+            addEntry(new Entry(section, subsection, name.toString().toLowerCase(), value, firstLine, newLine ? line - 1 : line));
+        }
+
+        private void addEntry(Entry entry) {
+            if (entry.firstLine <= lastEntryLine) {
+                editable = false;
+            }
+            lastEntryLine = entry.lastLine;
+            entries.add(entry);
+        }
+
+        private String parseValue() throws GitException {
+            final StringBuilder value = new StringBuilder();
+            boolean quote = false;
+            boolean comment = false;
+            int spaces = 0;
+            for (; ; ) {
+                int c = next();
+                if (c == -1 || c == '\n') {
+                    if (quote) {
+                        throw badConfig();
+                    }
+                    return value.toString();
+                }
+                if (comment) {
+                    continue;
+                }
+                if (Character.isWhitespace(c) && !quote) {
+                    if (value.length() > 0) {
+                        spaces++;
+                    }
+                    continue;
+                }
+                if (!quote && (c == ';' || c == '#')) {
+                    comment = true;
+                    continue;
+                }
+                for (; spaces > 0; spaces--) {
+                    value.append(' ');
+                }
+                if (c == '\\') {
+                    c = next();
+                    switch (c) {
+                        case '\n':
+                            continue;
+                        case 't':
+                            c = '\t';
+                            break;
+                        case 'b':
+                            c = '\b';
+                            break;
+                        case 'n':
+                            c = '\n';
+                            break;
+                        case '\\':
+                        case '"':
+                            break;
+                        default:
+                            throw badConfig();
+                    }
+                    value.append((char)c);
+                    continue;
+                }
+                if (c == '"') {
+                    quote = !quote;
+                    continue;
+                }
+                value.append((char)c);
+            }
+        }
+
+        private void skipLine() {
+            int c;
+            while ((c = next()) != -1 && c != '\n') {
+            }
+        }
+
+        private int next() {
+            if (position >= content.length()) {
+                return -1;
+            }
+            char c = content.charAt(position++);
+            if (c == '\r' && position < content.length() && content.charAt(position) == '\n') {
+                c = content.charAt(position++);
+            }
+            newLine = c == '\n';
+            if (newLine) {
+                line++;
+            }
+            return c;
+        }
+
+        private GitException badConfig() {
+            return new GitException("fatal: bad config line " + (line + 1) + " in file " + file + '\n');
+        }
+    }
+}
@@ -0,0 +1,405 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * Reads git objects and resolves revisions of one repository through long-lived
+ * {@code git cat-file --batch-check} and {@code git cat-file --batch} processes.
+ * <p/>
+ * Each lookup costs a pipe round trip instead of a new git process. Processes are started lazily
+ * and restarted once if they die. Instances are thread-safe, concurrent lookups are serialized.
+ *
+ * @see GitObjectReaderPool
+ */
+public class GitObjectReader implements Closeable {
+
+    private static final Logger  LOG     = LoggerFactory.getLogger(GitObjectReader.class);
+    private static final Charset UTF_8   = Charset.forName("UTF-8");
+    private static final String  MISSING = " missing";
+
+    /** Header of object returned by cat-file. */
+    public static class ObjectHeader {
+        private final String id;
+        private final String type;
+        private final long   size;
+
+        ObjectHeader(String id, String type, long size) {
+            this.id = id;
+            this.type = type;
+            this.size = size;
+        }
+
+        /** @return object id */
+        public String getId() {
+            return id;
+        }
+
+        /** @return object type, one of <i>commit</i>, <i>tree</i>, <i>blob</i> or <i>tag</i> */
+        public String getType() {
+            return type;
+        }
+
+        /** @return size of object content in bytes */
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private final File   repository;
+    private final Object gitDirKey;
+
+    private BatchProcess batchCheck;
+    private BatchProcess batch;
+    private boolean      closed;
+
+    private volatile long lastAccessTime;
+
+    /**
+     * @param repository
+     *         working directory of git repository
+     */
+    public GitObjectReader(File repository) {
+        this.repository = repository;
+        this.gitDirKey = getGitDirKey(repository);
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Resolves revision to object id.
+     *
+     * @param revision
+     *         any revision expression accepted by git, e.g. <i>HEAD</i>, <i>refs/heads/master</i>, <i>v1.0^{commit}</i>
+     * @return id of object or {@code null} if revision can't be resolved
+     * @throws GitException
+     *         when cat-file process can't be used
+     */
+    public String resolve(String revision) throws GitException {
+        final ObjectHeader header = readHeader(revision);
+        return header == null ? null : header.getId();
+    }
+
+    /**
+     * Reads header of object.
+     *
+     * @param revision
+     *         revision expression
+     * @return header of object or {@code null} if revision can't be resolved
+     * @throws GitException
+     *         when cat-file process can't be used
+     */
+    public synchronized ObjectHeader readHeader(String revision) throws GitException {
+        checkRevision(revision);
+        ensureOpen();
+        try {
+            return request(batchCheck(), revision, false).header;
+        } catch (IOException e) {
+            batchCheck = restart(batchCheck, e);
+            try {
+                return request(batchCheck(), revision, false).header;
+            } catch (IOException again) {
+                throw failed(again);
+            }
+        }
+    }
+
+    /**
+     * Reads content of object.
+     *
+     * @param revision
+     *         revision expression, e.g. <i>HEAD:README.txt</i>
+     * @return content of object or {@code null} if revision can't be resolved
+     * @throws GitException
+     *         when cat-file process can't be used
+     */
+    public synchronized byte[] read(String revision) throws GitException {
+        checkRevision(revision);
+        ensureOpen();
+        try {
+            return request(batch(), revision, true).content;
+        } catch (IOException e) {
+            batch = restart(batch, e);
+            try {
+                return request(batch(), revision, true).content;
+            } catch (IOException again) {
+                throw failed(again);
+            }
+        }
+    }
+
+    /**
+     * Reads commit and converts its header into revision. Message of revision contains commit subject
+     * in the same way as {@code git log --format=%s} does.
+     *
+     * @param revision
+     *         revision expression which points to commit or tag
+     * @return revision or {@code null} if revision can't be resolved
+     * @throws GitException
+     *         when cat-file process can't be used
+     */
+    public Revision readCommit(String revision) throws GitException {
+        final String id = resolve(revision + "^{commit}");
+        if (id == null) {
+            return null;
+        }
+        final byte[] content = read(id);
+        return content == null ? null : parseCommit(id, new String(content, UTF_8));
+    }
+
+    /**
+     * Checks that reader still points to the same repository. Repository might be deleted and created
+     * again in the same place, in this case running processes refer to removed files.
+     */
+    public boolean isValid() {
+        final Object actual = getGitDirKey(repository);
+        return actual != null && actual.equals(gitDirKey);
+    }
+
+    /** @return time of last lookup in milliseconds */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /** @return working directory of repository */
+    public File getRepository() {
+        return repository;
+    }
+
+    /** Stops cat-file processes. Any subsequent lookup fails. */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (batchCheck != null) {
+            batchCheck.destroy();
+            batchCheck = null;
+        }
+        if (batch != null) {
+            batch.destroy();
+            batch = null;
+        }
+    }
+
+    static Revision parseCommit(String id, String content) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        final GitUser committer = dtoFactory.createDto(GitUser.class);
+        long commitTime = 0;
+        int lineStart = 0;
+        int headerEnd = content.indexOf("\n\n");
+        if (headerEnd == -1) {
+            headerEnd = content.length();
+        }
+        while (lineStart < headerEnd) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd == -1 || lineEnd > headerEnd) {
+                lineEnd = headerEnd;
+            }
+            if (content.startsWith("committer ", lineStart)) {
+                // committer Name <email> 1424245223 +0200
+                final int emailStart = content.indexOf('<', lineStart);
+                final int emailEnd = content.indexOf('>', emailStart);
+                if (emailStart != -1 && emailEnd != -1 && emailEnd < lineEnd) {
+                    committer.setName(content.substring(lineStart + "committer ".length(), emailStart).trim());
+                    committer.setEmail(content.substring(emailStart + 1, emailEnd));
+                    final String[] time = content.substring(emailEnd + 1, lineEnd).trim().split(" ");
+                    try {
+                        commitTime = Long.parseLong(time[0]) * 1000L;
+                    } catch (NumberFormatException ignored) {
+                        // leave zero commit time
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return dtoFactory.createDto(Revision.class)
+                         .withId(id)
+                         .withMessage(subject(content, headerEnd))
+                         .withCommitTime(commitTime)
+                         .withCommitter(committer);
+    }
+
+    /** First paragraph of commit message with joined lines, the same as git's %s placeholder. */
+    private static String subject(String content, int headerEnd) {
+        if (headerEnd + 2 >= content.length()) {
+            return "";
+        }
+        int end = content.indexOf("\n\n", headerEnd + 2);
+        if (end == -1) {
+            end = content.length();
+        }
+        final StringBuilder subject = new StringBuilder();
+        for (String line : content.substring(headerEnd + 2, end).split("\n")) {
+            final String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                if (subject.length() > 0) {
+                    subject.append(' ');
+                }
+                subject.append(trimmed);
+            }
+        }
+        return subject.toString();
+    }
+
+    private static class Response {
+        final ObjectHeader header;
+        final byte[]       content;
+
+        Response(ObjectHeader header, byte[] content) {
+            this.header = header;
+            this.content = content;
+        }
+    }
+
+    private Response request(BatchProcess process, String revision, boolean withContent) throws IOException {
+        lastAccessTime = System.currentTimeMillis();
+        process.input.write((revision + '\n').getBytes(UTF_8));
+        process.input.flush();
+        final String line = readLine(process.output);
+        // <revision> missing, newer versions of git may also answer <revision> ambiguous
+        if (line.endsWith(MISSING) || line.endsWith(" ambiguous")) {
+            return new Response(null, null);
+        }
+        final String[] parts = line.split(" ");
+        if (parts.length != 3) {
+            throw new IOException("Unexpected cat-file output: " + line);
+        }
+        final ObjectHeader header = new ObjectHeader(parts[0], parts[1], Long.parseLong(parts[2]));
+        if (!withContent) {
+            return new Response(header, null);
+        }
+        if (header.getSize() > Integer.MAX_VALUE) {
+            throw new IOException("Object " + header.getId() + " is too big");
+        }
+        final byte[] content = new byte[(int)header.getSize()];
+        int offset = 0;
+        while (offset < content.length) {
+            final int read = process.output.read(content, offset, content.length - offset);
+            if (read == -1) {
+                throw new EOFException();
+            }
+            offset += read;
+        }
+        // content is followed by LF
+        if (process.output.read() == -1) {
+            throw new EOFException();
+        }
+        return new Response(header, content);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException();
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), UTF_8);
+    }
+
+    private void checkRevision(String revision) {
+        if (revision == null || revision.isEmpty() || revision.indexOf('\n') != -1) {
+            throw new IllegalArgumentException("Invalid revision " + revision);
+        }
+    }
+
+    private void ensureOpen() throws GitException {
+        if (closed) {
+            throw new GitException("Object reader for " + repository + " is closed");
+        }
+    }
+
+    private BatchProcess batchCheck() throws IOException {
+        if (batchCheck == null) {
+            batchCheck = new BatchProcess(repository, "--batch-check");
+        }
+        return batchCheck;
+    }
+
+    private BatchProcess batch() throws IOException {
+        if (batch == null) {
+            batch = new BatchProcess(repository, "--batch");
+        }
+        return batch;
+    }
+
+    private BatchProcess restart(BatchProcess process, IOException cause) {
+        LOG.debug("cat-file process for {} failed, restarting. {}", repository, cause.getMessage());
+        if (process != null) {
+            process.destroy();
+        }
+        return null;
+    }
+
+    private GitException failed(IOException e) {
+        LOG.error("It is not possible to read objects of " + repository, e);
+        close();
+        return new GitException("It is not possible to read git objects", e);
+    }
+
+    private static Object getGitDirKey(File repository) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(new File(repository, ".git").toPath(), BasicFileAttributes.class);
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static class BatchProcess {
+        final Process      process;
+        final OutputStream input;
+        final InputStream  output;
+
+        BatchProcess(File repository, String mode) throws IOException {
+            final ProcessBuilder pb = new ProcessBuilder("git", "cat-file", mode);
+            final Map<String, String> environment = pb.environment();
+            environment.put("HOME", System.getProperty("user.home"));
+            environment.put("LANG", "en_US.UTF-8");
+            environment.put("GDM_LANG", "en_US.UTF-8");
+            environment.put("LANGUAGE", "us");
+            pb.directory(repository);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            process = pb.start();
+            input = process.getOutputStream();
+            output = new BufferedInputStream(process.getInputStream());
+        }
+
+        void destroy() {
+            try {
+                input.close();
+            } catch (IOException ignored) {
+                // process is destroyed anyway
+            }
+            process.destroy();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one {@link GitObjectReader} per repository. Readers which were not used during idle timeout
+ * are closed, as well as least recently used readers when pool grows over its maximal size.
+ */
+@Singleton
+public class GitObjectReaderPool {
+
+    private static final long DEFAULT_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+    private static final int  DEFAULT_MAX_SIZE     = 200;
+
+    private final ConcurrentMap<String, GitObjectReader> readers;
+    private final ScheduledExecutorService               cleaner;
+    private final long                                   idleTimeout;
+    private final int                                    maxSize;
+
+    @Inject
+    public GitObjectReaderPool() {
+        this(DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param idleTimeout
+     *         time in milliseconds after that unused reader is closed
+     * @param maxSize
+     *         maximal number of opened readers
+     */
+    public GitObjectReaderPool(long idleTimeout, int maxSize) {
+        this.idleTimeout = idleTimeout;
+        this.maxSize = maxSize;
+        this.readers = new ConcurrentHashMap<>();
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitObjectReaderCleaner")
+                                                                                            .setDaemon(true)
+                                                                                            .build());
+        final long period = Math.max(idleTimeout / 2, 1000);
+        cleaner.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                evictIdle();
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gets reader for repository.
+     *
+     * @param repository
+     *         working directory of git repository
+     * @return reader or {@code null} if {@code repository} isn't git repository
+     */
+    public GitObjectReader get(File repository) {
+        if (!new File(repository, ".git").isDirectory()) {
+            return null;
+        }
+        final String key = repository.getAbsolutePath();
+        GitObjectReader reader = readers.get(key);
+        if (reader != null && !reader.isValid()) {
+            if (readers.remove(key, reader)) {
+                reader.close();
+            }
+            reader = null;
+        }
+        if (reader == null) {
+            final GitObjectReader newReader = new GitObjectReader(repository);
+            reader = readers.putIfAbsent(key, newReader);
+            if (reader == null) {
+                reader = newReader;
+                if (readers.size() > maxSize) {
+                    evictEldest();
+                }
+            }
+        }
+        return reader;
+    }
+
+    /** @return number of opened readers */
+    public int size() {
+        return readers.size();
+    }
+
+    /** Closes readers which were not used during idle timeout. */
+    void evictIdle() {
+        final long expired = System.currentTimeMillis() - idleTimeout;
+        for (Iterator<GitObjectReader> it = readers.values().iterator(); it.hasNext(); ) {
+            final GitObjectReader reader = it.next();
+            if (reader.getLastAccessTime() < expired) {
+                it.remove();
+                reader.close();
+            }
+        }
+    }
+
+    private void evictEldest() {
+        Map.Entry<String, GitObjectReader> eldest = null;
+        for (Map.Entry<String, GitObjectReader> entry : readers.entrySet()) {
+            if (eldest == null || entry.getValue().getLastAccessTime() < eldest.getValue().getLastAccessTime()) {
+                eldest = entry;
+            }
+        }
+        if (eldest != null && readers.remove(eldest.getKey(), eldest.getValue())) {
+            eldest.getValue().close();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cleaner.shutdownNow();
+        for (Iterator<GitObjectReader> it = readers.values().iterator(); it.hasNext(); ) {
+            final GitObjectReader reader = it.next();
+            it.remove();
+            reader.close();
+        }
+    }
+}
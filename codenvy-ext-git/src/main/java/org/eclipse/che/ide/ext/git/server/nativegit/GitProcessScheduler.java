@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.CloneCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.FetchCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.LsRemoteCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.PullCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.PushCommand;
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits number of git processes which run on this node at the same time.
+ * <p/>
+ * Local operations (status, add, commit, ...) and network operations (clone, fetch, pull, push, ls-remote)
+ * have separate queues with separate limits, so short local commands never wait behind long transfers.
+ * Inside of each queue waiting commands are grouped by workspace and workspaces are served in turn,
+ * so one workspace which starts many commands can't block other workspaces.
+ */
+@Singleton
+public class GitProcessScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitProcessScheduler.class);
+
+    public static final String LOCAL_LIMIT   = "git.process.local.max";
+    public static final String NETWORK_LIMIT = "git.process.network.max";
+    public static final String QUEUE_LIMIT   = "git.process.queue.max";
+
+    private static final int DEFAULT_LOCAL_LIMIT   = Runtime.getRuntime().availableProcessors() * 2;
+    private static final int DEFAULT_NETWORK_LIMIT = 10;
+    private static final int DEFAULT_QUEUE_LIMIT   = 500;
+
+    private final Lane local;
+    private final Lane network;
+
+    public GitProcessScheduler() {
+        this(DEFAULT_LOCAL_LIMIT, DEFAULT_NETWORK_LIMIT, DEFAULT_QUEUE_LIMIT);
+    }
+
+    /**
+     * @param localLimit
+     *         maximal number of local git processes
+     * @param networkLimit
+     *         maximal number of network git processes
+     * @param queueLimit
+     *         maximal number of commands which wait in each queue
+     */
+    public GitProcessScheduler(int localLimit, int networkLimit, int queueLimit) {
+        this.local = new Lane("local", localLimit, queueLimit);
+        this.network = new Lane("network", networkLimit, queueLimit);
+    }
+
+    @Inject(optional = true)
+    public void setLocalLimit(@Named(LOCAL_LIMIT) int limit) {
+        local.setLimit(limit);
+    }
+
+    @Inject(optional = true)
+    public void setNetworkLimit(@Named(NETWORK_LIMIT) int limit) {
+        network.setLimit(limit);
+    }
+
+    @Inject(optional = true)
+    public void setQueueLimit(@Named(QUEUE_LIMIT) int limit) {
+        local.queueLimit = limit;
+        network.queueLimit = limit;
+    }
+
+    /**
+     * Waits until command may start its process. Returned ticket must be released when process is finished.
+     *
+     * @param command
+     *         command which is going to be executed
+     * @return ticket of running command
+     * @throws GitException
+     *         when queue is full or thread is interrupted while waiting
+     */
+    public Ticket acquire(GitCommand command) throws GitException {
+        final String workspace = EnvironmentContext.getCurrent().getWorkspaceId();
+        final Lane lane = isNetworkCommand(command) ? network : local;
+        final Ticket ticket = lane.acquire(workspace == null ? "" : workspace);
+        if (ticket.queueTime > 0) {
+            LOG.debug("Command '{}' waited {} ms in {} queue", command, TimeUnit.NANOSECONDS.toMillis(ticket.queueTime), lane.name);
+        }
+        return ticket;
+    }
+
+    /** @return statistics of queue for local commands */
+    public Lane getLocalQueue() {
+        return local;
+    }
+
+    /** @return statistics of queue for network commands */
+    public Lane getNetworkQueue() {
+        return network;
+    }
+
+    static boolean isNetworkCommand(GitCommand command) {
+        return command instanceof CloneCommand
+               || command instanceof FetchCommand
+               || command instanceof PullCommand
+               || command instanceof PushCommand
+               || command instanceof LsRemoteCommand;
+    }
+
+    /** Permission to run one git process. */
+    public static class Ticket {
+        private final Lane   lane;
+        private final String workspace;
+        private final long   enqueued;
+
+        private boolean granted;
+        private boolean released;
+        private long    queueTime;
+
+        private Ticket(Lane lane, String workspace) {
+            this.lane = lane;
+            this.workspace = workspace;
+            this.enqueued = System.nanoTime();
+        }
+
+        /** @return time in nanoseconds which command spent in queue */
+        public long getQueueTime() {
+            return queueTime;
+        }
+
+        /** Releases ticket, so the next waiting command may start. Repeated calls are ignored. */
+        public void release() {
+            lane.release(this);
+        }
+    }
+
+    /** Queue of commands of one kind with its own limit of running processes. */
+    public static class Lane {
+        private final String                     name;
+        /** Waiting tickets of each workspace, workspaces are served in order of iteration. */
+        private final Map<String, Deque<Ticket>> waiting;
+
+        private int  limit;
+        private int  queueLimit;
+        private int  running;
+        private int  queued;
+        private long executed;
+        private long rejected;
+        private long totalQueueTime;
+        private long maxQueueTime;
+
+        private Lane(String name, int limit, int queueLimit) {
+            this.name = name;
+            this.limit = limit;
+            this.queueLimit = queueLimit;
+            this.waiting = new LinkedHashMap<>();
+        }
+
+        /** @return number of running processes */
+        public synchronized int getRunning() {
+            return running;
+        }
+
+        /** @return number of commands which wait for start */
+        public synchronized int getWaiting() {
+            return queued;
+        }
+
+        /** @return number of started processes */
+        public synchronized long getExecuted() {
+            return executed;
+        }
+
+        /** @return number of commands which were rejected because queue was full */
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        /** @return average time in milliseconds which started commands spent in queue */
+        public synchronized long getAverageQueueTime() {
+            return executed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalQueueTime / executed);
+        }
+
+        /** @return maximal time in milliseconds which command spent in queue */
+        public synchronized long getMaxQueueTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxQueueTime);
+        }
+
+        private synchronized void setLimit(int limit) {
+            this.limit = limit;
+            grant();
+        }
+
+        private synchronized Ticket acquire(String workspace) throws GitException {
+            final Ticket ticket = new Ticket(this, workspace);
+            if (queued == 0 && running < limit) {
+                start(ticket);
+                return ticket;
+            }
+            if (queued >= queueLimit) {
+                rejected++;
+                throw new GitException("Too many git operations are waiting for execution, try again later.");
+            }
+            Deque<Ticket> tickets = waiting.get(workspace);
+            if (tickets == null) {
+                waiting.put(workspace, tickets = new ArrayDeque<>());
+            }
+            tickets.add(ticket);
+            queued++;
+            try {
+                while (!ticket.granted) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                if (ticket.granted) {
+                    release(ticket);
+                } else {
+                    remove(ticket);
+                }
+                Thread.currentThread().interrupt();
+                throw new GitException("Interrupted while waiting for execution of git command");
+            }
+            return ticket;
+        }
+
+        private synchronized void release(Ticket ticket) {
+            if (ticket.granted && !ticket.released) {
+                ticket.released = true;
+                running--;
+                grant();
+            }
+        }
+
+        /** Starts waiting commands while there are free slots, takes one command of each workspace in turn. */
+        private void grant() {
+            boolean granted = false;
+            while (running < limit && queued > 0) {
+                final Iterator<Map.Entry<String, Deque<Ticket>>> it = waiting.entrySet().iterator();
+                final Map.Entry<String, Deque<Ticket>> first = it.next();
+                it.remove();
+                final Ticket ticket = first.getValue().poll();
+                if (!first.getValue().isEmpty()) {
+                    // workspace goes to the end of line
+                    waiting.put(first.getKey(), first.getValue());
+                }
+                queued--;
+                start(ticket);
+                granted = true;
+            }
+            if (granted) {
+                notifyAll();
+            }
+        }
+
+        private void start(Ticket ticket) {
+            ticket.granted = true;
+            ticket.queueTime = System.nanoTime() - ticket.enqueued;
+            running++;
+            executed++;
+            totalQueueTime += ticket.queueTime;
+            maxQueueTime = Math.max(maxQueueTime, ticket.queueTime);
+        }
+
+        private void remove(Ticket ticket) {
+            final Deque<Ticket> tickets = waiting.get(ticket.workspace);
+            if (tickets != null && tickets.remove(ticket)) {
+                queued--;
+                if (tickets.isEmpty()) {
+                    waiting.remove(ticket.workspace);
+                }
+            }
+        }
+    }
+}
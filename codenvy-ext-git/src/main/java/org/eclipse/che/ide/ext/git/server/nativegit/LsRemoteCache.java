@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteReference;
+import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.inject.Inject;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps references of remote repositories listed recently, so import wizards and branch pickers don't list the same
+ * remote repository again and again. References are kept for a short time only and separately for each user, since
+ * list of references may depend on credentials of user.
+ */
+@Singleton
+public class LsRemoteCache {
+
+    public static final String TTL = "git.ls.remote.cache.ttl";
+
+    private static final long DEFAULT_TTL = 30;
+    /** Maximal number of references in cache. */
+    private static final long MAX_SIZE    = 1000000;
+
+    private volatile Cache<String, List<RemoteReference>> references;
+
+    public LsRemoteCache() {
+        setTtl(DEFAULT_TTL);
+    }
+
+    /**
+     * @param ttl
+     *         time in seconds references are kept
+     */
+    @Inject(optional = true)
+    public void setTtl(@Named(TTL) long ttl) {
+        this.references = CacheBuilder.newBuilder()
+                                      .maximumWeight(MAX_SIZE)
+                                      .weigher(new Weigher<String, List<RemoteReference>>() {
+                                          @Override
+                                          public int weigh(String key, List<RemoteReference> value) {
+                                              return value.size();
+                                          }
+                                      })
+                                      .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                                      .build();
+    }
+
+    /**
+     * @param request
+     *         ls-remote request
+     * @return references or {@code null} if they aren't listed recently
+     */
+    public List<RemoteReference> get(LsRemoteRequest request) {
+        return references.getIfPresent(key(request));
+    }
+
+    /**
+     * @param request
+     *         ls-remote request
+     * @param result
+     *         references listed for request, they are copied so later changes of list don't affect cache
+     */
+    public void put(LsRemoteRequest request, List<RemoteReference> result) {
+        references.put(key(request), Collections.unmodifiableList(new ArrayList<>(result)));
+    }
+
+    private static String key(LsRemoteRequest request) {
+        final List<String> patterns = request.getPatterns();
+        return Joiner.on('\0').useForNull("").join(EnvironmentContext.getCurrent().getUser().getName(),
+                                                   request.getRemoteUrl(),
+                                                   request.isUseAuthorization(),
+                                                   request.isHeads(),
+                                                   request.isTags(),
+                                                   patterns == null ? "" : Joiner.on('\0').join(patterns));
+    }
+}
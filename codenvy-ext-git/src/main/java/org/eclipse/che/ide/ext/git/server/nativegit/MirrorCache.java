@@ -0,0 +1,430 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bare mirrors of public remote repositories which are cloned often. Clone of such repository takes objects from
+ * mirror and downloads from remote repository only refs and objects which mirror doesn't have yet. Clone doesn't
+ * depend on mirror afterwards, so mirrors may be removed at any time.
+ * <p/>
+ * Mirror is created in background when repository is cloned the second time, mirrors are updated in background
+ * when they are used and were not updated recently. Mirrors are read without credentials, so only repositories which
+ * may be read anonymously over http(s) or git protocol are mirrored. Total size of mirrors is limited, least recently
+ * used mirrors are removed first.
+ * <p/>
+ * Clone tells remote repository which objects it takes from mirror, so these objects mustn't be pruned until clone
+ * copies them. Mirrors are created with <i>gc.auto=0</i>, fetch doesn't collect garbage, and mirror is repacked or
+ * removed only by updater when no clone reads it. Mirror isn't given to clones while it is repacked or removed.
+ */
+@Singleton
+public class MirrorCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MirrorCache.class);
+
+    public static final String DIRECTORY = "git.mirror.dir";
+    public static final String DISK_SIZE = "git.mirror.disk.size";
+
+    private static final long DEFAULT_DISK_SIZE = 10L * 1024 * 1024 * 1024;
+    private static final long UPDATE_PERIOD     = TimeUnit.MINUTES.toMillis(10);
+    /** Mirrors used recently aren't removed, clones may still read them. */
+    private static final long IN_USE_PERIOD     = TimeUnit.MINUTES.toMillis(30);
+    private static final int  TIMEOUT           = (int)TimeUnit.HOURS.toSeconds(1);
+    /** Default threshold of loose objects of git, mirrors don't use automatic garbage collection of fetch. */
+    private static final int  GC_AUTO           = 6700;
+
+    private final ExecutorService             executor;
+    /** Keys of repositories which were cloned once and don't have mirror yet. */
+    private final Cache<String, Boolean>      requested;
+    private final ConcurrentMap<String, Long> updated;
+    private final Set<String>                 scheduled;
+    /** Numbers of clones which read mirrors, key of mirror is removed when it isn't read. */
+    private final Map<String, Integer>        readers;
+    /** Keys of mirrors which are repacked or removed, guarded by {@link #readers}. */
+    private final Set<String>                 maintained;
+
+    private volatile File directory;
+    private volatile long diskSize = DEFAULT_DISK_SIZE;
+
+    public MirrorCache() {
+        this(Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("GitMirrorUpdater")
+                                                                         .setDaemon(true)
+                                                                         .build()));
+    }
+
+    /**
+     * @param executor
+     *         executor of background creation and update of mirrors
+     */
+    MirrorCache(ExecutorService executor) {
+        this.executor = executor;
+        this.requested = CacheBuilder.newBuilder().maximumSize(10000).expireAfterWrite(1, TimeUnit.DAYS).build();
+        this.updated = new ConcurrentHashMap<>();
+        this.scheduled = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        this.readers = new HashMap<>();
+        this.maintained = new HashSet<>();
+    }
+
+    /**
+     * @param directory
+     *         directory of mirrors, repositories aren't mirrored if it is empty
+     */
+    @Inject(optional = true)
+    public void setDirectory(@Named(DIRECTORY) String directory) {
+        if (directory == null || directory.isEmpty()) {
+            this.directory = null;
+            return;
+        }
+        final File dir = new File(directory);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOG.warn("Unable create directory {}, repositories aren't mirrored", dir);
+            return;
+        }
+        this.directory = dir;
+    }
+
+    /**
+     * @param diskSize
+     *         maximal size of all mirrors in bytes
+     */
+    @Inject(optional = true)
+    public void setDiskSize(@Named(DISK_SIZE) long diskSize) {
+        this.diskSize = diskSize;
+    }
+
+    /**
+     * Creates key of mirror. URLs which differ only in case of scheme and host, default port, trailing slash and
+     * <i>.git</i> suffix have the same key.
+     *
+     * @param remoteUri
+     *         URL of remote repository
+     * @return key or {@code null} if repository can't be mirrored, e.g. it is accessed with ssh or URL contains
+     *         credentials
+     */
+    public static String key(String remoteUri) {
+        final URI uri;
+        try {
+            uri = new URI(remoteUri);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        final String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ENGLISH);
+        if (!("http".equals(scheme) || "https".equals(scheme) || "git".equals(scheme))
+            || uri.getRawUserInfo() != null || uri.getHost() == null || uri.getRawQuery() != null) {
+            return null;
+        }
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path.endsWith(".git")) {
+            path = path.substring(0, path.length() - 4);
+        }
+        final String port = uri.getPort() == -1 ? "" : ":" + uri.getPort();
+        final String normalized = scheme + "://" + uri.getHost().toLowerCase(Locale.ENGLISH) + port + path;
+        return Hashing.sha1().hashString(normalized, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * Gets mirror of remote repository to be used as reference of clone. Mirror must be {@link #release(File)
+     * released} when clone is completed.
+     *
+     * @param remoteUri
+     *         URL of remote repository
+     * @return bare mirror or {@code null} if repository isn't mirrored yet or mirror is being repacked
+     */
+    public File getMirror(String remoteUri) {
+        final File dir = directory;
+        final String key = key(remoteUri);
+        if (dir == null || key == null) {
+            return null;
+        }
+        final File mirror = new File(dir, key);
+        if (!new File(mirror, "HEAD").isFile()) {
+            if (requested.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+                schedule(key, new Update(mirror, remoteUri, true));
+            }
+            return null;
+        }
+        if (!acquire(key)) {
+            return null;
+        }
+        // modification time of mirror directory is time of its last use
+        mirror.setLastModified(System.currentTimeMillis());
+        final Long lastUpdate = updated.get(key);
+        if (lastUpdate == null || lastUpdate < System.currentTimeMillis() - UPDATE_PERIOD) {
+            schedule(key, new Update(mirror, remoteUri, false));
+        }
+        return mirror;
+    }
+
+    /**
+     * Tells that clone doesn't read mirror any more.
+     *
+     * @param mirror
+     *         mirror got with {@link #getMirror(String)}
+     */
+    public void release(File mirror) {
+        final String key = mirror.getName();
+        synchronized (readers) {
+            final Integer count = readers.get(key);
+            if (count == null || count <= 1) {
+                readers.remove(key);
+            } else {
+                readers.put(key, count - 1);
+            }
+        }
+    }
+
+    private boolean acquire(String key) {
+        synchronized (readers) {
+            if (maintained.contains(key)) {
+                return false;
+            }
+            final Integer count = readers.get(key);
+            readers.put(key, count == null ? 1 : count + 1);
+            return true;
+        }
+    }
+
+    /** @return {@code false} if mirror is read by clone and mustn't be repacked or removed now */
+    private boolean startMaintenance(String key) {
+        synchronized (readers) {
+            if (readers.containsKey(key)) {
+                return false;
+            }
+            maintained.add(key);
+            return true;
+        }
+    }
+
+    private void endMaintenance(String key) {
+        synchronized (readers) {
+            maintained.remove(key);
+        }
+    }
+
+    /**
+     * Repacks mirror and prunes its unreachable objects if mirror has many loose objects and isn't read by clone.
+     *
+     * @return {@code false} if mirror is read by clone and isn't repacked
+     */
+    boolean collectGarbage(String key, File mirror) throws GitException {
+        if (!startMaintenance(key)) {
+            return false;
+        }
+        try {
+            final EmptyGitCommand gc = new EmptyGitCommand(mirror);
+            gc.setTimeout(TIMEOUT);
+            gc.setNextParameter("-c").setNextParameter("gc.auto=" + GC_AUTO)
+              .setNextParameter("gc").setNextParameter("--auto").setNextParameter("--quiet")
+              .execute();
+        } finally {
+            endMaintenance(key);
+        }
+        return true;
+    }
+
+    private void schedule(final String key, final Update update) {
+        if (!scheduled.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        update.run();
+                        if (!update.create) {
+                            collectGarbage(key, update.mirror);
+                        }
+                        updated.put(key, System.currentTimeMillis());
+                        requested.invalidate(key);
+                    } catch (GitException e) {
+                        LOG.warn("Unable update mirror of {}: {}", update.remoteUri, e.getMessage());
+                        // don't try again until the next period
+                        updated.put(key, System.currentTimeMillis());
+                    } finally {
+                        scheduled.remove(key);
+                    }
+                    if (update.create) {
+                        evict();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(key);
+        }
+    }
+
+    /** Removes least recently used mirrors until total size of mirrors is less than limit. */
+    void evict() {
+        final File dir = directory;
+        if (dir == null) {
+            return;
+        }
+        // mirrors which are being created are not counted
+        final File[] mirrors = dir.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return !file.getName().endsWith(".tmp");
+            }
+        });
+        if (mirrors == null) {
+            return;
+        }
+        final Map<File, Long> sizes = new HashMap<>();
+        long total = 0;
+        for (File mirror : mirrors) {
+            final long size = sizeOf(mirror);
+            sizes.put(mirror, size);
+            total += size;
+        }
+        final Map<File, Long> lastUse = new HashMap<>();
+        for (File mirror : mirrors) {
+            lastUse.put(mirror, mirror.lastModified());
+        }
+        Arrays.sort(mirrors, new Comparator<File>() {
+            @Override
+            public int compare(File first, File second) {
+                return Long.compare(lastUse.get(first), lastUse.get(second));
+            }
+        });
+        final long inUse = System.currentTimeMillis() - IN_USE_PERIOD;
+        for (File mirror : mirrors) {
+            if (total <= diskSize || lastUse.get(mirror) >= inUse) {
+                break;
+            }
+            if (!startMaintenance(mirror.getName())) {
+                continue;
+            }
+            try {
+                if (IoUtil.deleteRecursive(mirror)) {
+                    total -= sizes.get(mirror);
+                    updated.remove(mirror.getName());
+                }
+            } finally {
+                endMaintenance(mirror.getName());
+            }
+        }
+    }
+
+    private long sizeOf(File mirror) {
+        final long[] size = new long[1];
+        try {
+            Files.walkFileTree(mirror.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    size[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.warn(e.getMessage(), e);
+        }
+        return size[0];
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Creates mirror or fetches changes of remote repository into existed mirror. */
+    static class Update {
+        final File    mirror;
+        final String  remoteUri;
+        final boolean create;
+
+        Update(File mirror, String remoteUri, boolean create) {
+            this.mirror = mirror;
+            this.remoteUri = remoteUri;
+            this.create = create;
+        }
+
+        void run() throws GitException {
+            final Map<String, String> environment = new HashMap<>();
+            // mirrors are read anonymously, git must not wait for credentials
+            environment.put("GIT_TERMINAL_PROMPT", "0");
+            if (!create) {
+                final EmptyGitCommand fetch = new EmptyGitCommand(mirror);
+                fetch.setCommandEnvironment(environment);
+                fetch.setTimeout(TIMEOUT);
+                fetch.setNextParameter("fetch").setNextParameter("--prune").setNextParameter("--quiet").setNextParameter("origin")
+                     .execute();
+                return;
+            }
+            // mirror is visible only when it is complete
+            final File temp = new File(mirror.getParentFile(), mirror.getName() + ".tmp");
+            IoUtil.deleteRecursive(temp);
+            final EmptyGitCommand clone = new EmptyGitCommand(mirror.getParentFile());
+            clone.setCommandEnvironment(environment);
+            clone.setTimeout(TIMEOUT);
+            try {
+                // objects taken by clones mustn't be pruned by fetch, see collectGarbage
+                clone.setNextParameter("clone").setNextParameter("--mirror").setNextParameter("--quiet")
+                     .setNextParameter("--config").setNextParameter("gc.auto=0")
+                     .setNextParameter(remoteUri).setNextParameter(temp.getAbsolutePath())
+                     .execute();
+                if (!temp.renameTo(mirror)) {
+                    throw new GitException("Unable move mirror to " + mirror);
+                }
+            } finally {
+                IoUtil.deleteRecursive(temp);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ package org.eclipse.che.ide.ext.git.server.nativegit;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.ide.ext.git.server.Config;
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.AddCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchCheckoutCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchCreateCommand;
@@ -20,6 +21,7 @@ import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchDeleteCommand
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchListCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchRenameCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.CloneCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.CommittersCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.CommitCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.DiffCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
@@ -42,6 +44,7 @@ import org.eclipse.che.ide.ext.git.server.nativegit.commands.StatusCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.TagCreateCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.TagDeleteCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.TagListCommand;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +54,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.List;
 
 /**
  * Git commands factory.
@@ -65,6 +69,14 @@ public class NativeGit {
     private static String sshScriptTemplate;
     private        File   repository;
     protected LineConsumerFactory gitOutputPublisherFactory;
+    private GitObjectReaderPool  objectReaderPool;
+    private RefSnapshotCache     refSnapshotCache;
+    private StatusCache          statusCache;
+    private CommitterIndexCache  committerIndexCache;
+    private DiffCache            diffCache;
+    private MirrorCache          mirrorCache;
+    private AuthRequirementCache authRequirementCache;
+    private LsRemoteCache        lsRemoteCache;
 
     /**
      * Loading template, that will be used to store ssh
@@ -169,6 +181,7 @@ public class NativeGit {
     public LogCommand createLogCommand() {
         LogCommand command = new LogCommand(repository);
         command.setLineConsumerFactory(gitOutputPublisherFactory);
+        command.setObjectReader(getObjectReader());
         return command;
     }
 
@@ -247,6 +260,23 @@ public class NativeGit {
         return command;
     }
 
+    /**
+     * Creates branch checkout command that will be used with ssh key for downloading missing objects of partial clone
+     *
+     * @param sshKeyPath
+     *         path to ssh key that will be used with branch checkout command
+     * @return branch checkout command with ssh key parameter
+     * @throws GitException
+     *         when some error with script storing occurs
+     */
+    public BranchCheckoutCommand createBranchCheckoutCommand(String sshKeyPath) throws GitException {
+        storeSshScript(sshKeyPath);
+        BranchCheckoutCommand command = new BranchCheckoutCommand(repository);
+        command.setLineConsumerFactory(gitOutputPublisherFactory);
+        command.setSSHScriptPath(SshKeysManager.getKeyDirectoryPath() + '/' + SSH_SCRIPT);
+        return command;
+    }
+
     /** @return list files command */
     public ListFilesCommand createListFilesCommand() {
         ListFilesCommand command = new ListFilesCommand(repository);
@@ -299,6 +329,13 @@ public class NativeGit {
         return command;
     }
 
+    /** @return committers command */
+    public CommittersCommand createCommittersCommand() {
+        CommittersCommand command = new CommittersCommand(repository);
+        command.setLineConsumerFactory(gitOutputPublisherFactory);
+        return command;
+    }
+
     /** @return status command */
     public StatusCommand createStatusCommand() {
         StatusCommand command = new StatusCommand(repository);
@@ -310,6 +347,7 @@ public class NativeGit {
     public MergeCommand createMergeCommand() {
         MergeCommand command = new MergeCommand(repository);
         command.setLineConsumerFactory(gitOutputPublisherFactory);
+        command.setObjectReader(getObjectReader());
         return command;
     }
 
@@ -444,4 +482,161 @@ public class NativeGit {
     public void setOutputLineConsumerFactory(LineConsumerFactory gitOutputPublisherFactory) {
         this.gitOutputPublisherFactory = gitOutputPublisherFactory;
     }
-}
\ No newline at end of file
+
+    /**
+     * @param objectReaderPool
+     *         pool of object readers, if it is {@code null} objects are read with separate git processes
+     */
+    public void setObjectReaderPool(GitObjectReaderPool objectReaderPool) {
+        this.objectReaderPool = objectReaderPool;
+    }
+
+    /** @return object reader for repository or {@code null} if it isn't available */
+    public GitObjectReader getObjectReader() {
+        return objectReaderPool == null ? null : objectReaderPool.get(repository);
+    }
+
+    /**
+     * @param refSnapshotCache
+     *         cache of refs, if it is {@code null} refs are read with separate git processes
+     */
+    public void setRefSnapshotCache(RefSnapshotCache refSnapshotCache) {
+        this.refSnapshotCache = refSnapshotCache;
+    }
+
+    /** @return actual snapshot of refs of repository or {@code null} if it isn't available */
+    public RefSnapshot getRefSnapshot() {
+        return refSnapshotCache == null ? null : refSnapshotCache.get(repository);
+    }
+
+    /**
+     * @param statusCache
+     *         cache of status, if it is {@code null} status is read with separate git process every time
+     */
+    public void setStatusCache(StatusCache statusCache) {
+        this.statusCache = statusCache;
+    }
+
+    /**
+     * Reads status of working tree, from cache if it is available.
+     *
+     * @return status, it must not be changed
+     * @throws GitException
+     *         when it is not possible to read status
+     */
+    public StatusEntries readStatus() throws GitException {
+        return statusCache == null ? createStatusCommand().executeEntries() : statusCache.get(this);
+    }
+
+    /**
+     * Tells cache of status that index or working tree was changed with git command of this connection. File system
+     * events of these changes are delivered with delay, so status read right after command would miss them otherwise.
+     */
+    public void statusChanged() {
+        if (statusCache != null) {
+            statusCache.invalidate(repository);
+        }
+    }
+
+    /**
+     * @param committerIndexCache
+     *         cache of committers, if it is {@code null} committers are read from whole history every time
+     */
+    public void setCommitterIndexCache(CommitterIndexCache committerIndexCache) {
+        this.committerIndexCache = committerIndexCache;
+    }
+
+    /**
+     * Reads committers of current branch, from cache if it is available.
+     *
+     * @return committers, every committer is included once
+     * @throws GitException
+     *         when it is not possible to read history
+     */
+    public List<GitUser> readCommitters() throws GitException {
+        return committerIndexCache == null ? createCommittersCommand().execute() : committerIndexCache.get(this);
+    }
+
+    /**
+     * @param diffCache
+     *         cache of diffs between commits, if it is {@code null} diffs are always read with git
+     */
+    public void setDiffCache(DiffCache diffCache) {
+        this.diffCache = diffCache;
+    }
+
+    /** @return cache of diffs between commits or {@code null} if it isn't available */
+    public DiffCache getDiffCache() {
+        return diffCache;
+    }
+
+    /**
+     * @param mirrorCache
+     *         mirrors of remote repositories, if it is {@code null} repositories are always cloned from remote
+     */
+    public void setMirrorCache(MirrorCache mirrorCache) {
+        this.mirrorCache = mirrorCache;
+    }
+
+    /**
+     * @param remoteUri
+     *         URL of remote repository
+     * @return local mirror of remote repository or {@code null} if it isn't available
+     */
+    public File getMirror(String remoteUri) {
+        return mirrorCache == null ? null : mirrorCache.getMirror(remoteUri);
+    }
+
+    /**
+     * @param mirror
+     *         mirror got with {@link #getMirror(String)}, it may be repacked after clone is completed
+     */
+    public void releaseMirror(File mirror) {
+        if (mirrorCache != null) {
+            mirrorCache.release(mirror);
+        }
+    }
+
+    /**
+     * @param authRequirementCache
+     *         remote repositories which required credentials, if it is {@code null} remote commands are always
+     *         executed without credentials first
+     */
+    public void setAuthRequirementCache(AuthRequirementCache authRequirementCache) {
+        this.authRequirementCache = authRequirementCache;
+    }
+
+    /**
+     * @param remoteUri
+     *         URL of remote repository
+     * @return {@code true} if remote repository required credentials recently
+     */
+    public boolean isAuthRequired(String remoteUri) {
+        return authRequirementCache != null && authRequirementCache.isRequired(remoteUri);
+    }
+
+    /**
+     * @param remoteUri
+     *         URL of remote repository
+     * @param required
+     *         {@code true} if remote repository required credentials, {@code false} if it is not known any more
+     */
+    public void setAuthRequired(String remoteUri, boolean required) {
+        if (authRequirementCache != null) {
+            authRequirementCache.setRequired(remoteUri, required);
+        }
+    }
+
+    /**
+     * @param lsRemoteCache
+     *         references of remote repositories listed recently, if it is {@code null} remote repositories are listed
+     *         on each request
+     */
+    public void setLsRemoteCache(LsRemoteCache lsRemoteCache) {
+        this.lsRemoteCache = lsRemoteCache;
+    }
+
+    public LsRemoteCache getLsRemoteCache() {
+        return lsRemoteCache;
+    }
+}
@@ -26,6 +26,7 @@ import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchDeleteCommand
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchListCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.CloneCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.CommitCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.DiffCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.FetchCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
@@ -43,8 +44,10 @@ import org.eclipse.che.ide.ext.git.shared.BranchDeleteRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchListRequest;
 import org.eclipse.che.ide.ext.git.shared.CloneRequest;
 import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
 import org.eclipse.che.ide.ext.git.shared.DiffRequest;
 import org.eclipse.che.ide.ext.git.shared.FetchRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
 import org.eclipse.che.ide.ext.git.shared.GitUser;
 import org.eclipse.che.ide.ext.git.shared.InitRequest;
 import org.eclipse.che.ide.ext.git.shared.LogRequest;
@@ -73,10 +76,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -89,6 +92,11 @@ public class NativeGitConnection implements GitConnection {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeGitConnection.class);
 
+    /** Size of diff of one file which is shown if client doesn't ask for other one. */
+    private static final int DEFAULT_FILE_DIFF_SIZE = 256 * 1024;
+    /** Diff of one file is never bigger, otherwise it is truncated. */
+    private static final int MAX_FILE_DIFF_SIZE     = 2 * 1024 * 1024;
+
     private final NativeGit         nativeGit;
     private final CredentialsLoader credentialsLoader;
     private final GitAskPassScript  gitAskPassScript;
@@ -153,34 +161,80 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public void add(AddRequest request) throws GitException {
-        AddCommand command = nativeGit.createAddCommand();
-        command.setFilePattern(request.getFilepattern() == null ?
-                               AddRequest.DEFAULT_PATTERN :
-                               request.getFilepattern());
-        command.setUpdate(request.isUpdate());
-        command.execute();
+        try {
+            AddCommand command = nativeGit.createAddCommand();
+            command.setFilePattern(request.getFilepattern() == null ?
+                                   AddRequest.DEFAULT_PATTERN :
+                                   request.getFilepattern());
+            command.setUpdate(request.isUpdate());
+            command.execute();
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
     public void branchCheckout(BranchCheckoutRequest request) throws GitException {
-        BranchCheckoutCommand command = nativeGit.createBranchCheckoutCommand();
-        /*
-         * IF branch name is origin/HEAD then *(no branch).
-         * Create new means that remote branch was selected,
-         * so git checkout -t remote/branchName will create
-         * branchName tracked to remote/branchName
-         */
-        if (request.isCreateNew()) {
-            try {
-                if (!(getBranchRef(request.getName()).startsWith("refs/remotes/") && request.getName().endsWith("/HEAD"))) {
-                    command.setRemote(true);
+        try {
+            final String promisorUrl = getPromisorUrl();
+            BranchCheckoutCommand command;
+            if (promisorUrl != null && Util.isSSH(promisorUrl)) {
+                command = nativeGit.createBranchCheckoutCommand(keysManager.writeKeyFile(promisorUrl).getAbsolutePath());
+            } else {
+                command = nativeGit.createBranchCheckoutCommand();
+            }
+            /*
+             * IF branch name is origin/HEAD then *(no branch).
+             * Create new means that remote branch was selected,
+             * so git checkout -t remote/branchName will create
+             * branchName tracked to remote/branchName
+             */
+            if (request.isCreateNew()) {
+                try {
+                    if (!(getBranchRef(request.getName()).startsWith("refs/remotes/") && request.getName().endsWith("/HEAD"))) {
+                        command.setRemote(true);
+                    }
+                } catch (GitException ignored) {
+                    command.setCreateNew(true);
+                    command.setStartPoint(request.getStartPoint());
                 }
-            } catch (GitException ignored) {
-                command.setCreateNew(true);
-                command.setStartPoint(request.getStartPoint());
             }
+            command.setBranchName(request.getName());
+            if (promisorUrl == null) {
+                command.execute();
+                return;
+            }
+            // content of files of partial clone is downloaded while they are checked out
+            try {
+                executeRemoteCommand(command, promisorUrl);
+            } catch (UnauthorizedException e) {
+                throw new GitException(e.getMessage(), e);
+            }
+        } finally {
+            nativeGit.statusChanged();
+        }
+    }
+
+    /**
+     * @return URL of remote repository which missing objects of partial clone are downloaded from or {@code null} if
+     *         repository isn't partial clone
+     */
+    private String getPromisorUrl() throws GitException {
+        final File[] promisors = new File(nativeGit.getRepository(), ".git/objects/pack").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".promisor");
+            }
+        });
+        if (promisors == null || promisors.length == 0) {
+            return null;
+        }
+        final Config config = getConfig();
+        try {
+            return config.get("remote." + config.get("extensions.partialclone") + ".url");
+        } catch (GitException e) {
+            return null;
         }
-        command.setBranchName(request.getName()).execute();
     }
 
     @Override
@@ -231,7 +285,11 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public void branchRename(String oldName, String newName) throws GitException {
-        nativeGit.createBranchRenameCommand().setNames(oldName, newName).execute();
+        try {
+            nativeGit.createBranchRenameCommand().setNames(oldName, newName).execute();
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
@@ -265,11 +323,25 @@ public class NativeGitConnection implements GitConnection {
         }
         clone.setUri(remoteUri);
         clone.setRemoteName(request.getRemoteName());
+        clone.setDepth(request.getDepth());
+        clone.setBranch(request.getBranch());
+        clone.setSingleBranch(request.isSingleBranch());
+        clone.setFilter(request.getFilter());
+        final File mirror = nativeGit.getMirror(remoteUri);
+        if (mirror != null) {
+            clone.setReference(mirror.getAbsolutePath());
+        }
         if (clone.getTimeout() > 0) {
             clone.setTimeout(request.getTimeout());
         }
 
-        executeRemoteCommand(clone, remoteUri);
+        try {
+            executeRemoteCommand(clone, remoteUri);
+        } finally {
+            if (mirror != null) {
+                nativeGit.releaseMirror(mirror);
+            }
+        }
 
         UserCredential credentials = credentialsLoader.getUserCredential(remoteUri);
         if (credentials != null) {
@@ -283,38 +355,40 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public Revision commit(CommitRequest request) throws GitException {
-        CommitCommand command = nativeGit.createCommitCommand();
-        GitUser committer = getLocalCommitter();
-        command.setCommitter(committer);
-
         try {
-            // overrider author from .gitconfig. We may set it in previous versions.
-            // We need to override it since committer can differ from the person who clone or init repository.
-            getConfig().get("user.name");
-            command.setAuthor(committer);
-        } catch (GitException e) {
-            //ignore property not found.
-        }
+            CommitCommand command = nativeGit.createCommitCommand();
+            GitUser committer = getLocalCommitter();
+            command.setCommitter(committer);
 
+            try {
+                // overrider author from .gitconfig. We may set it in previous versions.
+                // We need to override it since committer can differ from the person who clone or init repository.
+                getConfig().get("user.name");
+                command.setAuthor(committer);
+            } catch (GitException e) {
+                //ignore property not found.
+            }
 
-        command.setAll(request.isAll());
-        command.setAmend(request.isAmend());
-        command.setMessage(request.getMessage());
-        command.setFiles(request.getFiles());
 
-        try {
-            command.execute();
-            LogCommand log = nativeGit.createLogCommand();
-            Revision rev = log.execute().get(0);
-            rev.setBranch(getCurrentBranch());
-            return rev;
-        } catch (Exception e) {
-            Revision revision = DtoFactory.getInstance().createDto(Revision.class);
-            revision.setMessage(e.getMessage());
-            revision.setFake(true);
-            return revision;
-        }
+            command.setAll(request.isAll());
+            command.setAmend(request.isAmend());
+            command.setMessage(request.getMessage());
+            command.setFiles(request.getFiles());
 
+            try {
+                command.execute();
+                Revision rev = getHeadRevision();
+                rev.setBranch(getCurrentBranch());
+                return rev;
+            } catch (Exception e) {
+                Revision revision = DtoFactory.getInstance().createDto(Revision.class);
+                revision.setMessage(e.getMessage());
+                revision.setFake(true);
+                return revision;
+            }
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
@@ -322,29 +396,66 @@ public class NativeGitConnection implements GitConnection {
         return new NativeGitDiffPage(request, nativeGit);
     }
 
+    @Override
+    public DiffIndex diffIndex(DiffRequest request) throws GitException {
+        if (request.getSkip() < 0) {
+            throw new GitException("Number of files to skip must not be negative: " + request.getSkip());
+        }
+        return createDiffCommand(request).executeIndex(request.getSkip(), request.getMaxCount());
+    }
+
+    @Override
+    public FileDiff diffFile(DiffRequest request) throws GitException {
+        if (request.getFileFilter() == null || request.getFileFilter().isEmpty()) {
+            throw new GitException("File to show diff is not specified.");
+        }
+        if (request.getMaxSize() < 0) {
+            throw new GitException("Maximal size of diff must not be negative: " + request.getMaxSize());
+        }
+        final int maxSize = request.getMaxSize() > 0 ? Math.min(request.getMaxSize(), MAX_FILE_DIFF_SIZE) : DEFAULT_FILE_DIFF_SIZE;
+        return createDiffCommand(request).executeFile(maxSize);
+    }
+
+    private DiffCommand createDiffCommand(DiffRequest request) {
+        return nativeGit.createDiffCommand()
+                        .setCommitA(request.getCommitA())
+                        .setCommitB(request.getCommitB())
+                        .setCached(request.isCached())
+                        .setFileFilter(request.getFileFilter())
+                        .setNoRenames(request.isNoRenames())
+                        .setRenamesCount(request.getRenameLimit());
+    }
+
     @Override
     public void fetch(FetchRequest request) throws GitException, UnauthorizedException {
-        FetchCommand fetchCommand;
-        String remoteUri;
         try {
-            remoteUri = nativeGit.createRemoteListCommand()
-                                 .setRemoteName(request.getRemote())
-                                 .execute()
-                                 .get(0)
-                                 .getUrl();
-        } catch (GitException ignored) {
-            remoteUri = request.getRemote();
-        }
-        if (Util.isSSH(remoteUri)) {
-            fetchCommand = nativeGit.createFetchCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
-        } else {
-            fetchCommand = nativeGit.createFetchCommand();
+            FetchCommand fetchCommand;
+            String remoteUri;
+            try {
+                remoteUri = nativeGit.createRemoteListCommand()
+                                     .setRemoteName(request.getRemote())
+                                     .execute()
+                                     .get(0)
+                                     .getUrl();
+            } catch (GitException ignored) {
+                remoteUri = request.getRemote();
+            }
+            if (Util.isSSH(remoteUri)) {
+                fetchCommand = nativeGit.createFetchCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
+            } else {
+                fetchCommand = nativeGit.createFetchCommand();
+            }
+            fetchCommand.setRemote(request.getRemote())
+                        .setPrune(request.isRemoveDeletedRefs())
+                        .setRefSpec(request.getRefSpec())
+                        .setDepth(request.getDepth())
+                        .setDeepen(request.getDeepen())
+                        .setUnshallow(request.isUnshallow())
+                        .setTimeout(request.getTimeout());
+            executeRemoteCommand(fetchCommand, remoteUri);
+        } finally {
+            nativeGit.statusChanged();
         }
-        fetchCommand.setRemote(request.getRemote())
-                    .setPrune(request.isRemoveDeletedRefs())
-                    .setRefSpec(request.getRefSpec())
-                    .setTimeout(request.getTimeout());
-        executeRemoteCommand(fetchCommand, remoteUri);
     }
 
     @Override
@@ -370,102 +481,139 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public LogPage log(LogRequest request) throws GitException {
-        return new LogPage(nativeGit.createLogCommand().execute());
+        LogCommand command = nativeGit.createLogCommand();
+        command.setSkip(request.getSkip());
+        command.setCount(request.getMaxCount());
+        command.setCursor(request.getCursor());
+        command.setBranch(request.getRevisionRange());
+        command.setAuthor(request.getAuthor());
+        command.setSince(request.getSince());
+        command.setUntil(request.getUntil());
+        command.setFileFilter(request.getFileFilter());
+        command.setFullMessage(request.isFullMessage());
+        return new LogPage(command.execute());
     }
 
     @Override
     public List<RemoteReference> lsRemote(LsRemoteRequest request) throws GitException, UnauthorizedException {
-        LsRemoteCommand command = nativeGit.createLsRemoteCommand().setRemoteUrl(request.getRemoteUrl());
+        final LsRemoteCache cache = nativeGit.getLsRemoteCache();
+        if (cache != null) {
+            final List<RemoteReference> references = cache.get(request);
+            if (references != null) {
+                return references;
+            }
+        }
+        LsRemoteCommand command = nativeGit.createLsRemoteCommand()
+                                           .setRemoteUrl(request.getRemoteUrl())
+                                           .setHeads(request.isHeads())
+                                           .setTags(request.isTags())
+                                           .setPatterns(request.getPatterns());
         if (request.isUseAuthorization()) {
             executeRemoteCommand(command, request.getRemoteUrl());
         } else {
-            try {
-                command.setAskPassScriptPath(gitAskPassScript.build(UserCredential.EMPTY_CREDENTIALS).toString());
+            gitAskPassScript.apply(command, UserCredential.EMPTY_CREDENTIALS);
 
-                restoreGitRepoDir();
+            restoreGitRepoDir();
 
-                command.execute();
-            } finally {
-                gitAskPassScript.remove();
-            }
+            command.execute();
+        }
+        final List<RemoteReference> references = command.getRemoteReferences();
+        if (cache != null) {
+            cache.put(request, references);
         }
-        return command.getRemoteReferences();
+        return references;
     }
 
     @Override
     public MergeResult merge(MergeRequest request) throws GitException {
-        if (getBranchRef(request.getCommit()) == null) {
-            throw new GitException("Invalid reference to commit for merge " + request.getCommit());
+        try {
+            if (getBranchRef(request.getCommit()) == null) {
+                throw new GitException("Invalid reference to commit for merge " + request.getCommit());
+            }
+            return nativeGit.createMergeCommand().setCommit(request.getCommit()).setCommitter(getLocalCommitter()).execute();
+        } finally {
+            nativeGit.statusChanged();
         }
-        return nativeGit.createMergeCommand().setCommit(request.getCommit()).setCommitter(getLocalCommitter()).execute();
     }
 
     @Override
     public void mv(MoveRequest request) throws GitException {
-        nativeGit.createMoveCommand()
-                 .setSource(request.getSource())
-                 .setTarget(request.getTarget())
-                 .execute();
+        try {
+            nativeGit.createMoveCommand()
+                     .setSource(request.getSource())
+                     .setTarget(request.getTarget())
+                     .execute();
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
     public void pull(PullRequest request) throws GitException, UnauthorizedException {
-        PullCommand pullCommand;
-        String remoteUri;
         try {
-            remoteUri = nativeGit.createRemoteListCommand()
-                                 .setRemoteName(request.getRemote())
-                                 .execute()
-                                 .get(0)
-                                 .getUrl();
-        } catch (GitException ignored) {
-            remoteUri = request.getRemote();
-        }
-        if (Util.isSSH(remoteUri)) {
-            pullCommand = nativeGit.createPullCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
-        } else {
-            pullCommand = nativeGit.createPullCommand();
-        }
-        pullCommand.setRemote(remoteUri)
-                   .setRefSpec(request.getRefSpec())
-                   .setAuthor(getLocalCommitter())
-                   .setTimeout(request.getTimeout());
+            PullCommand pullCommand;
+            String remoteUri;
+            try {
+                remoteUri = nativeGit.createRemoteListCommand()
+                                     .setRemoteName(request.getRemote())
+                                     .execute()
+                                     .get(0)
+                                     .getUrl();
+            } catch (GitException ignored) {
+                remoteUri = request.getRemote();
+            }
+            if (Util.isSSH(remoteUri)) {
+                pullCommand = nativeGit.createPullCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
+            } else {
+                pullCommand = nativeGit.createPullCommand();
+            }
+            pullCommand.setRemote(remoteUri)
+                       .setRefSpec(request.getRefSpec())
+                       .setAuthor(getLocalCommitter())
+                       .setTimeout(request.getTimeout());
 
-        executeRemoteCommand(pullCommand, remoteUri);
+            executeRemoteCommand(pullCommand, remoteUri);
 
-        if (pullCommand.getText().toLowerCase().contains("already up-to-date")) {
-            throw new AlreadyUpToDateException("Already up-to-date");
+            if (pullCommand.getText().toLowerCase().contains("already up-to-date")) {
+                throw new AlreadyUpToDateException("Already up-to-date");
+            }
+        } finally {
+            nativeGit.statusChanged();
         }
     }
 
     @Override
     public void push(PushRequest request) throws GitException, UnauthorizedException {
-        PushCommand pushCommand;
-        String remoteUri;
         try {
-            remoteUri = nativeGit.createRemoteListCommand()
-                                 .setRemoteName(request.getRemote())
-                                 .execute()
-                                 .get(0)
-                                 .getUrl();
-        } catch (GitException ignored) {
-            remoteUri = request.getRemote();
-        }
-        if (Util.isSSH(remoteUri)) {
-            pushCommand = nativeGit.createPushCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
-        } else {
-            pushCommand = nativeGit.createPushCommand();
-        }
+            PushCommand pushCommand;
+            String remoteUri;
+            try {
+                remoteUri = nativeGit.createRemoteListCommand()
+                                     .setRemoteName(request.getRemote())
+                                     .execute()
+                                     .get(0)
+                                     .getUrl();
+            } catch (GitException ignored) {
+                remoteUri = request.getRemote();
+            }
+            if (Util.isSSH(remoteUri)) {
+                pushCommand = nativeGit.createPushCommand(keysManager.writeKeyFile(remoteUri).getAbsolutePath());
+            } else {
+                pushCommand = nativeGit.createPushCommand();
+            }
 
-        pushCommand.setRemote(request.getRemote())
-                   .setForce(request.isForce())
-                   .setRefSpec(request.getRefSpec())
-                   .setTimeout(request.getTimeout());
+            pushCommand.setRemote(request.getRemote())
+                       .setForce(request.isForce())
+                       .setRefSpec(request.getRefSpec())
+                       .setTimeout(request.getTimeout());
 
-        executeRemoteCommand(pushCommand, remoteUri);
+            executeRemoteCommand(pushCommand, remoteUri);
 
-        if (pushCommand.getText().toLowerCase().contains("everything up-to-date")) {
-            throw new AlreadyUpToDateException("Everything up-to-date");
+            if (pushCommand.getText().toLowerCase().contains("everything up-to-date")) {
+                throw new AlreadyUpToDateException("Everything up-to-date");
+            }
+        } finally {
+            nativeGit.statusChanged();
         }
     }
 
@@ -504,20 +652,28 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public void reset(ResetRequest request) throws GitException {
-        nativeGit.createResetCommand()
-                 .setMode(request.getType().getValue())
-                 .setCommit(request.getCommit())
-                 .setFilePattern(request.getFilePattern())
-                 .execute();
+        try {
+            nativeGit.createResetCommand()
+                     .setMode(request.getType().getValue())
+                     .setCommit(request.getCommit())
+                     .setFilePattern(request.getFilePattern())
+                     .execute();
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
     public void rm(RmRequest request) throws GitException {
-        nativeGit.createRemoveCommand()
-                 .setCached(request.isCached())
-                 .setListOfItems(request.getItems())
-                 .setRecursively(request.isRecursively())
-                 .execute();
+        try {
+            nativeGit.createRemoveCommand()
+                     .setCached(request.isCached())
+                     .setListOfItems(request.getItems())
+                     .setRecursively(request.isRecursively())
+                     .execute();
+        } finally {
+            nativeGit.statusChanged();
+        }
     }
 
     @Override
@@ -551,12 +707,7 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public List<GitUser> getCommiters() throws GitException {
-        List<GitUser> users = new LinkedList<>();
-        List<Revision> revList = nativeGit.createLogCommand().execute();
-        for (Revision rev : revList) {
-            users.add(rev.getCommitter());
-        }
-        return users;
+        return nativeGit.readCommitters();
     }
 
     @Override
@@ -582,6 +733,11 @@ public class NativeGitConnection implements GitConnection {
      *         if any error occurs
      */
     public String getCurrentBranch() throws GitException {
+        final RefSnapshot snapshot = nativeGit.getRefSnapshot();
+        // git shows description of detached HEAD instead of branch name, it is left to git
+        if (snapshot != null && !snapshot.isDetached()) {
+            return snapshot.getCurrentBranch();
+        }
         BranchListCommand command = nativeGit.createBranchListCommand();
         command.execute();
         String branchName = null;
@@ -590,6 +746,18 @@ public class NativeGitConnection implements GitConnection {
                 branchName = outLine.substring(2);
             }
         }
+        if (branchName == null) {
+            // git branch doesn't show current branch until it has commits
+            final EmptyGitCommand symbolicRef = nativeGit.createEmptyGitCommand();
+            symbolicRef.setNextParameter("symbolic-ref").setNextParameter("--quiet").setNextParameter("--short")
+                       .setNextParameter("HEAD");
+            try {
+                symbolicRef.execute();
+                branchName = symbolicRef.getText();
+            } catch (GitException e) {
+                LOG.debug(e.getMessage(), e);
+            }
+        }
         return branchName;
     }
 
@@ -616,15 +784,22 @@ public class NativeGitConnection implements GitConnection {
      *         when it is not possible to execute {@code command} with existing credentials
      */
     private void executeRemoteCommand(GitCommand<?> command, String url) throws GitException, UnauthorizedException {
-        //first time execute without of credentials
         try {
-            command.execute();
-        } catch (GitException gitEx) {
-            if (!isOperationNeedAuth(gitEx.getMessage())) {
-                throw gitEx;
+            //repository which required credentials recently is accessed with credentials at once
+            final boolean authRequired = url != null && nativeGit.isAuthRequired(url);
+            if (!authRequired) {
+                //first time execute without of credentials
+                try {
+                    command.execute();
+                    return;
+                } catch (GitException gitEx) {
+                    if (!isOperationNeedAuth(gitEx.getMessage())) {
+                        throw gitEx;
+                    }
+                }
+                //restoring git repository directory if it was removed after first command execution
+                restoreGitRepoDir();
             }
-            //restoring git repository directory if it was removed after first command execution
-            restoreGitRepoDir();
             //try to execute command with credentials
             try {
                 withCredentials(command, url).execute();
@@ -632,9 +807,13 @@ public class NativeGitConnection implements GitConnection {
                 if (!isOperationNeedAuth(gitEx2.getMessage())) {
                     throw gitEx2;
                 }
+                if (url != null) {
+                    nativeGit.setAuthRequired(url, false);
+                }
                 throw new UnauthorizedException("Not authorized");
-            } finally {
-                gitAskPassScript.remove();
+            }
+            if (url != null && !authRequired) {
+                nativeGit.setAuthRequired(url, true);
             }
         } finally {
             if (url != null && Util.isSSH(url)) {
@@ -649,7 +828,7 @@ public class NativeGitConnection implements GitConnection {
         if (credentials == null) {
             credentials = UserCredential.EMPTY_CREDENTIALS;
         }
-        command.setAskPassScriptPath(gitAskPassScript.build(credentials).toString());
+        gitAskPassScript.apply(command, credentials);
         return command;
     }
 
@@ -676,6 +855,15 @@ public class NativeGitConnection implements GitConnection {
      *         when it is not possible to get branchName ref
      */
     private String getBranchRef(String branchName) throws GitException {
+        final RefSnapshot snapshot = nativeGit.getRefSnapshot();
+        if (snapshot != null) {
+            final String ref = snapshot.findRef(branchName);
+            if (ref == null) {
+                // the same as show-ref does when nothing found
+                throw new GitException("Ref " + branchName + " not found");
+            }
+            return ref;
+        }
         EmptyGitCommand command = nativeGit.createEmptyGitCommand();
         command.setNextParameter("show-ref").setNextParameter(branchName).execute();
         final String output = command.getText();
@@ -686,6 +874,22 @@ public class NativeGitConnection implements GitConnection {
         }
     }
 
+    /** Gets last commit of current branch without running git log if object reader is available. */
+    private Revision getHeadRevision() throws GitException {
+        final GitObjectReader reader = nativeGit.getObjectReader();
+        if (reader != null) {
+            try {
+                final Revision revision = reader.readCommit("HEAD");
+                if (revision != null) {
+                    return revision;
+                }
+            } catch (GitException ignored) {
+                // fall back to git log
+            }
+        }
+        return nativeGit.createLogCommand().setCount(1).execute().get(0);
+    }
+
     private String parseBranchName(String name) {
         int branchNameIndex = 0;
         if (name.startsWith("refs/remotes/")) {
@@ -41,20 +41,59 @@ public class NativeGitConnectionFactory extends GitConnectionFactory {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeGitConnectionFactory.class);
 
-    private final SshKeysManager    keysManager;
-    private final CredentialsLoader credentialsLoader;
-    private final UserProfileDao    userProfileDao;
+    private final SshKeysManager       keysManager;
+    private final CredentialsLoader    credentialsLoader;
+    private final UserProfileDao       userProfileDao;
+    private final GitObjectReaderPool  objectReaderPool;
+    private final RefSnapshotCache     refSnapshotCache;
+    private final StatusCache          statusCache;
+    private final CommitterIndexCache  committerIndexCache;
+    private final DiffCache            diffCache;
+    private final MirrorCache          mirrorCache;
+    private final AuthRequirementCache authRequirementCache;
+    private final LsRemoteCache        lsRemoteCache;
 
-    @Inject
     public NativeGitConnectionFactory(SshKeysManager keysManager, CredentialsLoader credentialsLoader, UserProfileDao userProfileDao) {
+        this(keysManager, credentialsLoader, userProfileDao, null, null, null, null, null, null, null, null);
+    }
+
+    @Inject
+    public NativeGitConnectionFactory(SshKeysManager keysManager,
+                                      CredentialsLoader credentialsLoader,
+                                      UserProfileDao userProfileDao,
+                                      GitObjectReaderPool objectReaderPool,
+                                      RefSnapshotCache refSnapshotCache,
+                                      StatusCache statusCache,
+                                      CommitterIndexCache committerIndexCache,
+                                      DiffCache diffCache,
+                                      MirrorCache mirrorCache,
+                                      AuthRequirementCache authRequirementCache,
+                                      LsRemoteCache lsRemoteCache) {
         this.keysManager = keysManager;
         this.credentialsLoader = credentialsLoader;
         this.userProfileDao = userProfileDao;
+        this.objectReaderPool = objectReaderPool;
+        this.refSnapshotCache = refSnapshotCache;
+        this.statusCache = statusCache;
+        this.committerIndexCache = committerIndexCache;
+        this.diffCache = diffCache;
+        this.mirrorCache = mirrorCache;
+        this.authRequirementCache = authRequirementCache;
+        this.lsRemoteCache = lsRemoteCache;
     }
 
     @Override
     public GitConnection getConnection(File workDir, GitUser user, LineConsumerFactory outputPublisherFactory) throws GitException {
-        final GitConnection gitConnection = new NativeGitConnection(workDir, user, keysManager, credentialsLoader);
+        final NativeGit nativeGit = new NativeGit(workDir);
+        nativeGit.setObjectReaderPool(objectReaderPool);
+        nativeGit.setRefSnapshotCache(refSnapshotCache);
+        nativeGit.setStatusCache(statusCache);
+        nativeGit.setCommitterIndexCache(committerIndexCache);
+        nativeGit.setDiffCache(diffCache);
+        nativeGit.setMirrorCache(mirrorCache);
+        nativeGit.setAuthRequirementCache(authRequirementCache);
+        nativeGit.setLsRemoteCache(lsRemoteCache);
+        final GitConnection gitConnection = new NativeGitConnection(nativeGit, user, keysManager, credentialsLoader, new GitAskPassScript());
         gitConnection.setOutputLineConsumerFactory(outputPublisherFactory);
         return gitConnection;
     }
@@ -12,14 +12,23 @@ package org.eclipse.che.ide.ext.git.server.nativegit;
 
 import org.eclipse.che.ide.ext.git.server.DiffPage;
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.shared.DiffRequest;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 
 /**
  * Contains information about difference between two commits, commit and working tree,
@@ -40,15 +49,16 @@ public class NativeGitDiffPage extends DiffPage {
 
     @Override
     public void writeTo(OutputStream out) throws IOException {
-        try (PrintWriter outWriter = new PrintWriter(out);){
+        // diff is spooled while git runs, so slow client doesn't hold git process
+        try {
             if (request.getCommitA() == null && request.getCommitB() == null && !request.isCached()) {
-                workingTreeToIndex(outWriter);
+                workingTreeToIndex(out);
             } else if (request.getCommitA() != null && request.getCommitB() == null && !request.isCached()) {
-                commitToWorkingTree(request.getCommitA(), outWriter);
+                commitToWorkingTree(request.getCommitA(), out);
             } else if (request.getCommitB() == null && request.isCached()) {
-                commitToIndex(request.getCommitA(), outWriter);
+                commitToIndex(request.getCommitA(), out);
             } else {
-                commitToCommit(request.getCommitA(), request.getCommitB(), outWriter);
+                commitToCommit(request.getCommitA(), request.getCommitB(), out);
             }
         } catch (GitException e) {
             LOG.error("Diff page creating exception", e);
@@ -60,28 +70,28 @@ public class NativeGitDiffPage extends DiffPage {
      * @return difference between index and commit
      * @throws GitException when any error occurs
      */
-    private void commitToIndex(String commit, PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
+    private void commitToIndex(String commit, OutputStream out) throws GitException, IOException {
+        nativeGit.createDiffCommand()
                 .setCommitA(commit)
                 .setCached(true)
                 .setType(request.getType().toString())
                 .setFileFilter(request.getFileFilter())
                 .setNoRenames(request.isNoRenames())
                 .setRenamesCount(request.getRenameLimit())
-                .execute());
+                .execute(out);
     }
 
     /**
      * @return difference between working tree and index
      * @throws GitException when any error occurs
      */
-    private void workingTreeToIndex(PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
+    private void workingTreeToIndex(OutputStream out) throws GitException, IOException {
+        nativeGit.createDiffCommand()
                 .setType(request.getType().toString())
                 .setFileFilter(request.getFileFilter())
                 .setNoRenames(request.isNoRenames())
                 .setRenamesCount(request.getRenameLimit())
-                .execute());
+                .execute(out);
     }
 
     /**
@@ -90,15 +100,127 @@ public class NativeGitDiffPage extends DiffPage {
      * @return difference between two commits
      * @throws GitException when any error occurs
      */
-    private void commitToCommit(String commitA, String commitB, PrintWriter outWriter) throws GitException {
-        outWriter.print(nativeGit.createDiffCommand()
-                .setCommitA(commitA)
-                .setCommitB(commitB)
-                .setType(request.getType().toString())
-                .setFileFilter(request.getFileFilter())
-                .setNoRenames(request.isNoRenames())
-                .setRenamesCount(request.getRenameLimit())
-                .execute());
+    private void commitToCommit(String commitA, String commitB, OutputStream out) throws GitException, IOException {
+        final DiffCache cache = nativeGit.getDiffCache();
+        final String idA = cache == null ? null : resolve(commitA);
+        final String idB = cache == null ? null : resolve(commitB);
+        final String configuration = idA == null || idB == null ? null : configuration();
+        if (configuration == null) {
+            nativeGit.createDiffCommand()
+                     .setCommitA(commitA)
+                     .setCommitB(commitB)
+                     .setType(request.getType().toString())
+                     .setFileFilter(request.getFileFilter())
+                     .setNoRenames(request.isNoRenames())
+                     .setRenamesCount(request.getRenameLimit())
+                     .execute(out);
+            return;
+        }
+        // diff between two commits doesn't change while configuration of repository is the same, so it is read once
+        final String key = DiffCache.key(idA, idB, Arrays.asList(configuration,
+                                                                 request.getType(),
+                                                                 request.isNoRenames(),
+                                                                 request.getRenameLimit(),
+                                                                 request.getFileFilter()));
+        final byte[] cached = cache.get(key);
+        if (cached != null) {
+            out.write(cached);
+            return;
+        }
+        final CopyingOutputStream copy = new CopyingOutputStream(out, cache.getMaxEntrySize());
+        nativeGit.createDiffCommand()
+                 .setCommitA(idA)
+                 .setCommitB(idB)
+                 .setType(request.getType().toString())
+                 .setFileFilter(request.getFileFilter())
+                 .setNoRenames(request.isNoRenames())
+                 .setRenamesCount(request.getRenameLimit())
+                 .execute(copy);
+        if (!copy.overflow) {
+            cache.put(key, copy.toByteArray());
+        }
+    }
+
+    /** @return full id of commit or {@code null} if it can't be resolved */
+    private String resolve(String commit) {
+        final GitObjectReader reader = nativeGit.getObjectReader();
+        try {
+            if (reader != null) {
+                return reader.resolve(commit + "^{commit}");
+            }
+            final EmptyGitCommand command = nativeGit.createEmptyGitCommand();
+            command.setNextParameter("rev-parse").setNextParameter("--verify").setNextParameter(commit + "^{commit}").execute();
+            return command.getText().trim();
+        } catch (GitException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Output of diff depends on repository config and attributes, e.g. <i>diff.noprefix</i>, textconv filters or
+     * <i>-diff</i> attribute. Result covers path of repository and content of its config and attributes files, config
+     * of user and system config aren't expected to be changed while server is running.
+     *
+     * @return hash of repository configuration or {@code null} if it can't be read
+     */
+    private String configuration() {
+        final File workTree = nativeGit.getRepository();
+        final Hasher hasher = Hashing.sha1().newHasher();
+        hasher.putString(workTree.getAbsolutePath(), StandardCharsets.UTF_8);
+        for (File file : new File[]{new File(workTree, ".git/config"),
+                                    new File(workTree, ".git/info/attributes"),
+                                    new File(workTree, ".gitattributes")}) {
+            hasher.putByte((byte)0);
+            try {
+                if (file.isFile()) {
+                    hasher.putBytes(Files.readAllBytes(file.toPath()));
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /** Writes everything to output and keeps copy of written bytes until they fit into limit. */
+    private static class CopyingOutputStream extends FilterOutputStream {
+        final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        final int                   limit;
+
+        boolean overflow;
+
+        CopyingOutputStream(OutputStream out, int limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            keep(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            keep(bytes, offset, length);
+        }
+
+        private void keep(byte[] bytes, int offset, int length) {
+            if (overflow) {
+                return;
+            }
+            if (copy.size() + length > limit) {
+                overflow = true;
+                copy.reset();
+            } else {
+                copy.write(bytes, offset, length);
+            }
+        }
+
+        byte[] toByteArray() {
+            return copy.toByteArray();
+        }
     }
 
     /**
@@ -106,13 +228,13 @@ public class NativeGitDiffPage extends DiffPage {
      * @return difference between commit and working tree
      * @throws GitException
      */
-    private void commitToWorkingTree(String commit, PrintWriter outWriter) throws GitException {
-         outWriter.print(nativeGit.createDiffCommand()
+    private void commitToWorkingTree(String commit, OutputStream out) throws GitException, IOException {
+         nativeGit.createDiffCommand()
                  .setCommitA(commit)
                  .setType(request.getType().toString())
                  .setFileFilter(request.getFileFilter())
                  .setNoRenames(request.isNoRenames())
                  .setRenamesCount(request.getRenameLimit())
-                 .execute());
+                 .execute(out);
     }
 }
@@ -12,7 +12,7 @@ package org.eclipse.che.ide.ext.git.server.nativegit;
 
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.InfoPage;
-import org.eclipse.che.ide.ext.git.server.nativegit.commands.StatusCommand;
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
 import org.eclipse.che.ide.ext.git.shared.Status;
 import org.eclipse.che.ide.ext.git.shared.StatusFormat;
 
@@ -22,7 +22,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * NativeGit implementation {@link Status}
+ * NativeGit implementation {@link Status}.
+ * <p/>
+ * Status is read with one git process, its machine readable output is used for both file lists and text representation.
  *
  * @author Eugene Voevodin
  */
@@ -52,6 +54,8 @@ public class NativeGitStatusImpl implements Status, InfoPage {
 
     private NativeGit nativeGit;
 
+    private StatusEntries entries;
+
     /**
      * @param branchName
      *         current repository branch name
@@ -72,13 +76,7 @@ public class NativeGitStatusImpl implements Status, InfoPage {
     /** @see InfoPage#writeTo(java.io.OutputStream) */
     @Override
     public void writeTo(OutputStream out) throws IOException {
-        StatusCommand status = nativeGit.createStatusCommand().setFormat(format);
-        try {
-            status.execute();
-            out.write(status.getText().getBytes());
-        } catch (GitException e) {
-            throw new IOException(e.getMessage(), e);
-        }
+        entries.writeTo(out, format, branchName);
     }
 
     /** @see Status#isClean() */
@@ -245,70 +243,7 @@ public class NativeGitStatusImpl implements Status, InfoPage {
      *         when it is not possible to get status information
      */
     public void load() throws GitException {
-        StatusCommand status = nativeGit.createStatusCommand().setFormat(StatusFormat.PORCELAIN);
-        List<String> statusOutput = status.execute();
-        setClean(statusOutput.size() == 0);
-        if (!isClean()) {
-            added = new ArrayList<>();
-            changed = new ArrayList<>();
-            removed = new ArrayList<>();
-            missing = new ArrayList<>();
-            modified = new ArrayList<>();
-            untracked = new ArrayList<>();
-            untrackedFolders = new ArrayList<>();
-            conflicting = new ArrayList<>();
-            for (String statusLine : statusOutput) {
-                //add conflict files AA, UU, any of U
-                addIfMatches(conflicting, statusLine, 'A', 'A');
-                addIfMatches(conflicting, statusLine, 'U', '*');
-                addIfMatches(conflicting, statusLine, '*', 'U');
-                //add Added files
-                addIfMatches(added, statusLine, 'A', 'M');
-                addIfMatches(added, statusLine, 'A', ' ');
-                //add Changed
-                addIfMatches(changed, statusLine, 'M', '*');
-                //add removed
-                addIfMatches(removed, statusLine, 'D', '*');
-                addIfMatches(removed, statusLine, ' ', 'D');
-                //add missing
-                addIfMatches(missing, statusLine, 'A', 'D');
-                //add modified
-                addIfMatches(modified, statusLine, '*', 'M');
-                if (statusLine.endsWith("/")) {
-                    //add untracked folders
-                    addIfMatches(untrackedFolders, statusLine.substring(0, statusLine.length() - 1), '?', '?');
-                } else {
-                    //add untracked Files
-                    addIfMatches(untracked, statusLine, '?', '?');
-                }
-            }
-        }
-    }
-
-    /**
-     * Adds files to container if they matched to template.
-     *
-     * @param container
-     *         container for matched files
-     * @param statusLine
-     *         short status command line
-     * @param x
-     *         first template parameter
-     * @param y
-     *         second template parameter
-     */
-    private void addIfMatches(List<String> container, String statusLine, char x, char y) {
-        if (matches(statusLine, x, y)) {
-            final String filename = statusLine.substring(3);
-            if (!container.contains(filename)) {
-                container.add(filename);
-            }
-        }
-    }
-
-    private boolean matches(String statusLine, char x, char y) {
-        return x == '*' && statusLine.charAt(1) == y ||
-               y == '*' && statusLine.charAt(0) == x ||
-               x == statusLine.charAt(0) && y == statusLine.charAt(1);
+        entries = nativeGit.readStatus();
+        entries.classify(this);
     }
 }
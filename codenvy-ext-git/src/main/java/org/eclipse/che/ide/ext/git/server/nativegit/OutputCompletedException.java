@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import java.io.IOException;
+
+/**
+ * Thrown by stream which receives output of git command when it doesn't need the rest of output. Git process is
+ * stopped at once and command is considered successful.
+ *
+ * @see CommandProcess#executeGitCommand(org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand,
+ * org.eclipse.che.api.core.util.LineConsumerFactory, java.io.OutputStream)
+ */
+public class OutputCompletedException extends IOException {
+    public OutputCompletedException() {
+        super("Output of git command is completed");
+    }
+}
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Refs of repository read from <i>.git/HEAD</i>, loose refs and <i>.git/packed-refs</i> without git process.
+ * <p/>
+ * Snapshot remembers modification time and size of files and directories it was read from and is valid
+ * while they are not changed. Git updates refs by renaming lock files, so modification time of directory
+ * which contains ref is changed as well. Files modified too close to the moment of reading may be changed
+ * again in the same tick of file system clock, snapshot which contains such files is never trusted.
+ */
+public class RefSnapshot {
+
+    static final String HEAD        = "HEAD";
+    static final String R_HEADS     = "refs/heads/";
+    static final String SYMREF      = "ref: ";
+    /** File systems with the coarsest timestamps keep modification time with 2 seconds precision. */
+    static final long   RACY_PERIOD = 2000;
+
+    private final File                         gitDir;
+    /** Target of symbolic HEAD or {@code null} when HEAD is detached. */
+    private final String                       headTarget;
+    /** Commit of HEAD or {@code null} when current branch doesn't have commits yet. */
+    private final String                       headId;
+    private final SortedMap<String, String>    refs;
+    private final List<Long>                   stamp;
+    private final boolean                      racy;
+
+    private RefSnapshot(File gitDir, String headTarget, String headId, SortedMap<String, String> refs, List<Long> stamp,
+                        boolean racy) {
+        this.gitDir = gitDir;
+        this.headTarget = headTarget;
+        this.headId = headId;
+        this.refs = refs;
+        this.stamp = stamp;
+        this.racy = racy;
+    }
+
+    /**
+     * Reads refs of repository.
+     *
+     * @param gitDir
+     *         <i>.git</i> directory of repository
+     * @return snapshot of refs
+     * @throws IOException
+     *         when any error occurs while reading files
+     */
+    public static RefSnapshot read(File gitDir) throws IOException {
+        final long loaded = System.currentTimeMillis();
+        // stamp first, if refs are modified while they are read snapshot will be invalid on next check
+        final List<Long> stamp = stamp(gitDir);
+        final SortedMap<String, String> refs = new TreeMap<>();
+        final Map<String, String> symbolicRefs = new TreeMap<>();
+        readPackedRefs(new File(gitDir, "packed-refs"), refs);
+        readLooseRefs(new File(gitDir, "refs"), "refs/", refs, symbolicRefs);
+        // symbolic refs like refs/remotes/origin/HEAD are shown by git with id of their targets
+        for (Map.Entry<String, String> entry : symbolicRefs.entrySet()) {
+            final String id = refs.get(entry.getValue());
+            if (id != null) {
+                refs.put(entry.getKey(), id);
+            }
+        }
+        final String head = readFirstLine(new File(gitDir, HEAD));
+        if (head == null) {
+            throw new IOException("Unable read HEAD of " + gitDir);
+        }
+        final String headTarget = head.startsWith(SYMREF) ? head.substring(SYMREF.length()).trim() : null;
+        final String headId = headTarget == null ? head.trim() : refs.get(headTarget);
+        boolean racy = false;
+        for (int i = 0; i < stamp.size() && !racy; i += 2) {
+            racy = stamp.get(i) >= loaded - RACY_PERIOD;
+        }
+        return new RefSnapshot(gitDir, headTarget, headId, Collections.unmodifiableSortedMap(refs), stamp, racy);
+    }
+
+    /** @return {@code true} if refs of repository were not changed since snapshot was read */
+    public boolean isValid() {
+        return !racy && stamp.equals(stamp(gitDir));
+    }
+
+    /**
+     * Gets current branch in the same form as <i>git status</i> shows it, branch is known even if it doesn't have
+     * commits yet.
+     *
+     * @return short name of current branch or {@code null} when HEAD is detached
+     */
+    public String getCurrentBranch() {
+        if (headTarget == null || !headTarget.startsWith(R_HEADS)) {
+            return null;
+        }
+        return headTarget.substring(R_HEADS.length());
+    }
+
+    /** @return {@code true} if HEAD points directly to commit */
+    public boolean isDetached() {
+        return headTarget == null;
+    }
+
+    /** @return commit of HEAD or {@code null} if current branch doesn't have commits */
+    public String getHeadId() {
+        return headId;
+    }
+
+    /** @return all refs, except HEAD, sorted by name */
+    public SortedMap<String, String> getRefs() {
+        return refs;
+    }
+
+    /**
+     * Finds ref in the same way as <i>git show-ref &lt;pattern&gt;</i> does, ref matches if its name
+     * is equal to pattern or ends with <i>/pattern</i>.
+     *
+     * @return name of the first matched ref or {@code null} if there is no matched ref
+     */
+    public String findRef(String pattern) {
+        if (refs.containsKey(pattern) && pattern.startsWith("refs/")) {
+            return pattern;
+        }
+        final String suffix = '/' + pattern;
+        for (String name : refs.keySet()) {
+            if (name.endsWith(suffix)) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /** Collects modification time and size of files and directories which contain refs. */
+    private static List<Long> stamp(File gitDir) {
+        final List<Long> stamp = new ArrayList<>();
+        addStamp(new File(gitDir, HEAD), stamp);
+        addStamp(new File(gitDir, "packed-refs"), stamp);
+        addDirectoryStamps(new File(gitDir, "refs"), stamp);
+        return stamp;
+    }
+
+    private static void addDirectoryStamps(File dir, List<Long> stamp) {
+        addStamp(dir, stamp);
+        final File[] children = dir.listFiles();
+        if (children != null) {
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    addDirectoryStamps(child, stamp);
+                }
+            }
+        }
+    }
+
+    private static void addStamp(File file, List<Long> stamp) {
+        stamp.add(file.lastModified());
+        stamp.add(file.isDirectory() ? -1 : file.length());
+    }
+
+    private static void readPackedRefs(File packedRefs, Map<String, String> refs) throws IOException {
+        if (!packedRefs.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(packedRefs.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // skip header and peeled values of annotated tags
+                if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '^') {
+                    continue;
+                }
+                final int space = line.indexOf(' ');
+                if (space > 0) {
+                    refs.put(line.substring(space + 1), line.substring(0, space));
+                }
+            }
+        }
+    }
+
+    /** Loose refs override packed ones. */
+    private static void readLooseRefs(File dir, String prefix, Map<String, String> refs, Map<String, String> symbolicRefs)
+            throws IOException {
+        final File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            final String name = prefix + child.getName();
+            if (child.isDirectory()) {
+                readLooseRefs(child, name + '/', refs, symbolicRefs);
+            } else if (!name.endsWith(".lock")) {
+                final String value = readFirstLine(child);
+                if (value == null) {
+                    continue;
+                }
+                if (value.startsWith(SYMREF)) {
+                    symbolicRefs.put(name, value.substring(SYMREF.length()).trim());
+                } else {
+                    refs.put(name, value.trim());
+                }
+            }
+        }
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return reader.readLine();
+        }
+    }
+}
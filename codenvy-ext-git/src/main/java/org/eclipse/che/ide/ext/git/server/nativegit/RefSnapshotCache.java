@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Keeps {@link RefSnapshot} of recently used repositories. Snapshot is checked before each use
+ * and is read again only when refs of repository were changed.
+ */
+@Singleton
+public class RefSnapshotCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RefSnapshotCache.class);
+
+    private static final int DEFAULT_MAX_SIZE = 500;
+
+    private final Cache<String, RefSnapshot> snapshots;
+
+    public RefSnapshotCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize
+     *         maximal number of repositories which snapshots are kept
+     */
+    public RefSnapshotCache(int maxSize) {
+        this.snapshots = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * Gets actual snapshot of refs of repository.
+     *
+     * @param repository
+     *         working directory of git repository
+     * @return snapshot or {@code null} if refs can't be read without git, e.g. if <i>.git</i> isn't directory
+     */
+    public RefSnapshot get(File repository) {
+        final File gitDir = new File(repository, ".git");
+        if (!gitDir.isDirectory()) {
+            return null;
+        }
+        final String key = repository.getAbsolutePath();
+        RefSnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot == null || !snapshot.isValid()) {
+            try {
+                snapshot = RefSnapshot.read(gitDir);
+            } catch (IOException e) {
+                LOG.warn("Unable read refs of {}: {}", repository, e.getMessage());
+                snapshots.invalidate(key);
+                return null;
+            }
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /** @return number of cached snapshots */
+    public long size() {
+        return snapshots.size();
+    }
+}
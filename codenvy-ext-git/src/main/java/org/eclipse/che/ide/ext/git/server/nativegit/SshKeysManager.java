@@ -18,11 +18,21 @@ import org.eclipse.che.ide.ext.ssh.server.SshKey;
 import org.eclipse.che.ide.ext.ssh.server.SshKeyPair;
 import org.eclipse.che.ide.ext.ssh.server.SshKeyStore;
 import org.eclipse.che.ide.ext.ssh.server.SshKeyStoreException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -32,9 +42,17 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Writes SSH key into file.
+ * <p/>
+ * Key files are kept for a while after the last use, so remote commands of the same user and host don't write the key
+ * again. While key file is kept manager also remembers that its public key was uploaded to hosting of repository and
+ * doesn't upload it again. Files of keys which are not used during configured time are removed in background.
  *
  * @author Eugene Voevodin
  */
@@ -43,19 +61,68 @@ public class SshKeysManager {
 
     private static final Logger LOG = LoggerFactory.getLogger(SshKeysManager.class);
 
+    public static final String KEY_TTL = "git.ssh.key.ttl";
+
     private static final String DEFAULT_KEY_DIRECTORY_PATH = System.getProperty("java.io.tmpdir");
     private static final String DEFAULT_KEY_NAME           = "identity";
+    private static final long   DEFAULT_KEY_TTL            = TimeUnit.MINUTES.toSeconds(5);
 
     //used in tests
     static String keyDirectoryPath; // TODO(GUICE): initialize
 
-    private final SshKeyStore         sshKeyStore;
-    private final Set<SshKeyUploader> sshKeyUploaders;
+    private final SshKeyStore              sshKeyStore;
+    private final Set<SshKeyUploader>      sshKeyUploaders;
+    private final ScheduledExecutorService cleaner;
+
+    /** Kept key files by their paths. */
+    private volatile Cache<String, KeyState> keys;
+    private volatile ScheduledFuture<?>      cleanTask;
 
     @Inject
     public SshKeysManager(SshKeyStore sshKeyStore, Set<SshKeyUploader> sshKeyUploaders) {
         this.sshKeyStore = sshKeyStore;
         this.sshKeyUploaders = sshKeyUploaders;
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("GitSshKeysCleaner")
+                                                                                            .setDaemon(true)
+                                                                                            .build());
+        setKeyTtl(DEFAULT_KEY_TTL);
+    }
+
+    /**
+     * @param keyTtl
+     *         time in seconds key file is kept after the last use, key files are removed right after remote command if
+     *         it is 0
+     */
+    @Inject(optional = true)
+    public synchronized void setKeyTtl(@Named(KEY_TTL) long keyTtl) {
+        if (cleanTask != null) {
+            cleanTask.cancel(false);
+            cleanTask = null;
+        }
+        if (keyTtl <= 0) {
+            this.keys = null;
+            return;
+        }
+        final Cache<String, KeyState> keys = CacheBuilder.newBuilder()
+                                .expireAfterAccess(keyTtl, TimeUnit.SECONDS)
+                                .removalListener(new RemovalListener<String, KeyState>() {
+                                    @Override
+                                    public void onRemoval(RemovalNotification<String, KeyState> notification) {
+                                        if (notification.getCause() != RemovalCause.REPLACED) {
+                                            delete(Paths.get(notification.getKey()));
+                                        }
+                                    }
+                                })
+                                .build();
+        this.keys = keys;
+        // expired keys are removed only by operations of cache, so it is cleaned up periodically
+        final long period = Math.max(keyTtl / 2, 1);
+        cleanTask = cleaner.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                keys.cleanUp();
+            }
+        }, period, period, TimeUnit.SECONDS);
     }
 
     public static String getKeyDirectoryPath() {
@@ -102,29 +169,27 @@ public class SshKeysManager {
             throw new GitException(e.getMessage(), e);
         }
 
-        // create directories if need
-        final File keyDirectory = new File(getKeyDirectoryPath(), host);
-        if (!keyDirectory.exists()) {
-            keyDirectory.mkdirs();
+        final File keyFile = getKeyPath(host).toFile();
+        final Cache<String, KeyState> keys = this.keys;
+        if (keys != null) {
+            // removes files of expired keys
+            keys.cleanUp();
         }
-
-        // save private key in local file
-        final File keyFile = new File(getKeyDirectoryPath() + '/' + host + '/' + DEFAULT_KEY_NAME);
-        try (FileOutputStream fos = new FileOutputStream(keyFile)) {
-            fos.write(privateKey.getBytes());
-        } catch (IOException e) {
-            LOG.error("Cant store key", e);
-            throw new GitException("Cant store ssh key. ");
+        final HashCode privateKeyHash = Hashing.sha1().hashBytes(privateKey.getBytes());
+        KeyState state = keys == null ? null : keys.getIfPresent(keyFile.getPath());
+        // key is written again if it was regenerated or its file was removed
+        if (state == null || !state.privateKeyHash.equals(privateKeyHash) || !keyFile.isFile()) {
+            writeKey(keyFile, privateKey);
+            state = new KeyState(privateKeyHash);
+            if (keys != null) {
+                keys.put(keyFile.getPath(), state);
+            }
         }
 
-        //set perm to -r--r--r--
-        keyFile.setReadOnly();
-        //set perm to ----------
-        keyFile.setReadable(false, false);
-        //set perm to -r--------
-        keyFile.setReadable(true, true);
-        //set perm to -rw-------
-        keyFile.setWritable(true, true);
+        final HashCode publicKeyHash = Hashing.sha1().hashBytes(publicKey.getBytes());
+        if (publicKeyHash.equals(state.uploadedKeyHash)) {
+            return keyFile;
+        }
 
         SshKeyUploader uploader = null;
 
@@ -139,6 +204,7 @@ public class SshKeysManager {
             // upload public key
             try {
                 uploader.uploadKey(publicKey);
+                state.uploadedKeyHash = publicKeyHash;
             } catch (IOException e) {
                 throw new GitException(e.getMessage(), e);
             } catch (UnauthorizedException e) {
@@ -153,6 +219,46 @@ public class SshKeysManager {
         return keyFile;
     }
 
+    private void writeKey(File keyFile, SshKey privateKey) throws GitException {
+        // create directories if need
+        final File keyDirectory = keyFile.getParentFile();
+        if (!keyDirectory.exists()) {
+            // directory of user isn't readable by others as well, otherwise hosts of user are visible
+            createPrivateDirectory(keyDirectory.getParentFile());
+            createPrivateDirectory(keyDirectory);
+        }
+
+        // save private key in local file
+        try (FileOutputStream fos = new FileOutputStream(keyFile)) {
+            fos.write(privateKey.getBytes());
+        } catch (IOException e) {
+            LOG.error("Cant store key", e);
+            throw new GitException("Cant store ssh key. ");
+        }
+
+        //set perm to -r--r--r--
+        keyFile.setReadOnly();
+        //set perm to ----------
+        keyFile.setReadable(false, false);
+        //set perm to -r--------
+        keyFile.setReadable(true, true);
+        //set perm to -rw-------
+        keyFile.setWritable(true, true);
+    }
+
+    private void createPrivateDirectory(File directory) {
+        if (!directory.exists()) {
+            directory.mkdirs();
+            //set perm to drwx------
+            directory.setReadable(false, false);
+            directory.setWritable(false, false);
+            directory.setExecutable(false, false);
+            directory.setReadable(true, true);
+            directory.setWritable(true, true);
+            directory.setExecutable(true, true);
+        }
+    }
+
     /**
      *
      * /home/jumper/code/plugin-git/codenvy-ext-git/target/ssh-keys/host.com/codenvy/identity
@@ -160,6 +266,8 @@ public class SshKeysManager {
      *
      * Removes ssh key from file system.
      * If ssh key doesn't exist - nothing will be done.
+     * If ssh key is kept for the next commands - it is removed
+     * when it isn't used during configured time.
      * <p/>
      * This method should be used with remote git commands
      * to clean up ssh keys from filesystem after it executions
@@ -175,10 +283,34 @@ public class SshKeysManager {
         if (host == null) {
             throw new IllegalArgumentException(String.format("Unable get host name from %s. Probably isn't a SSH URL", url));
         }
-        final Path key = Paths.get(getKeyDirectoryPath())
-                              .resolve(host)
-                              .resolve(DEFAULT_KEY_NAME);
+        final Path key = getKeyPath(host);
+
+        final Cache<String, KeyState> keys = this.keys;
+        if (keys != null) {
+            keys.cleanUp();
+            if (keys.asMap().containsKey(key.toString())) {
+                return;
+            }
+        }
 
+        delete(key);
+    }
+
+    /** Removes all kept ssh keys from file system. */
+    @PreDestroy
+    public void removeKeys() {
+        cleaner.shutdownNow();
+        final Cache<String, KeyState> keys = this.keys;
+        if (keys != null) {
+            keys.invalidateAll();
+        }
+    }
+
+    private Path getKeyPath(String host) {
+        return Paths.get(getKeyDirectoryPath(), host, DEFAULT_KEY_NAME);
+    }
+
+    private void delete(Path key) {
         if (!Files.exists(key)) return;
 
         try {
@@ -187,4 +319,15 @@ public class SshKeysManager {
             LOG.error("It is not possible to remove ssh key {}", key);
         }
     }
+
+    private static class KeyState {
+        final HashCode privateKeyHash;
+
+        /** Hash of public key which was uploaded to hosting of repository. */
+        volatile HashCode uploadedKeyHash;
+
+        KeyState(HashCode privateKeyHash) {
+            this.privateKeyHash = privateKeyHash;
+        }
+    }
 }
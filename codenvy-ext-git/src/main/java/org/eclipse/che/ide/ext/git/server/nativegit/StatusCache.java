@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.StatusCommand;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Keeps status of recently used working trees and updates it incrementally.
+ * <p/>
+ * Directories of working tree, <i>.git</i> and <i>.git/refs</i> are watched with {@link WatchService}. Events are read
+ * when status is asked, only paths which were changed since previous status are checked again with git. Whole working
+ * tree is read again after changes of index, refs or ignore rules and if some events were lost. Ignored folders and
+ * nested repositories aren't watched, so changes inside of submodules are visible after the next full read.
+ * Working trees with too many directories aren't cached.
+ * <p/>
+ * Events are delivered with some delay, so git commands executed by this server {@link #invalidate(File) invalidate}
+ * status synchronously and the next status after them reads whole working tree.
+ */
+@Singleton
+public class StatusCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StatusCache.class);
+
+    public static final String MAX_DIRECTORIES = "git.status.watch.directories.max";
+
+    private static final int DEFAULT_MAX_REPOSITORIES = 100;
+    private static final int DEFAULT_MAX_DIRECTORIES  = 10000;
+    /** If more paths are changed it is faster to read whole status. */
+    private static final int MAX_CHANGED_PATHS        = 200;
+
+    private final Cache<String, WatchedStatus> statuses;
+
+    private volatile int maxDirectories;
+
+    public StatusCache() {
+        this(DEFAULT_MAX_REPOSITORIES, DEFAULT_MAX_DIRECTORIES);
+    }
+
+    /**
+     * @param maxRepositories
+     *         maximal number of working trees which are watched
+     * @param maxDirectories
+     *         maximal number of directories of one working tree, bigger working trees aren't cached
+     */
+    public StatusCache(int maxRepositories, int maxDirectories) {
+        this.maxDirectories = maxDirectories;
+        this.statuses = CacheBuilder.newBuilder()
+                                    .maximumSize(maxRepositories)
+                                    .expireAfterAccess(30, TimeUnit.MINUTES)
+                                    .removalListener(new RemovalListener<String, WatchedStatus>() {
+                                        @Override
+                                        public void onRemoval(RemovalNotification<String, WatchedStatus> notification) {
+                                            notification.getValue().close();
+                                        }
+                                    })
+                                    .build();
+    }
+
+    @Inject(optional = true)
+    public void setMaxDirectories(@Named(MAX_DIRECTORIES) int maxDirectories) {
+        this.maxDirectories = maxDirectories;
+    }
+
+    /**
+     * Gets actual status of working tree.
+     *
+     * @param nativeGit
+     *         git commands factory of working tree
+     * @return status, it must not be changed
+     * @throws GitException
+     *         when it is not possible to read status
+     */
+    public StatusEntries get(final NativeGit nativeGit) throws GitException {
+        final File workTree = nativeGit.getRepository();
+        if (!new File(workTree, ".git").isDirectory()) {
+            return nativeGit.createStatusCommand().executeEntries();
+        }
+        final WatchedStatus status;
+        try {
+            status = statuses.get(workTree.getAbsolutePath(), new Callable<WatchedStatus>() {
+                @Override
+                public WatchedStatus call() {
+                    return new WatchedStatus(workTree.toPath().toAbsolutePath());
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return status.get(nativeGit);
+    }
+
+    /**
+     * Makes the next status of working tree read whole working tree again. It must be called after index or working
+     * tree is changed with git, file system events of such changes are seen with some delay.
+     *
+     * @param workTree
+     *         working tree
+     */
+    public void invalidate(File workTree) {
+        final WatchedStatus status = statuses.getIfPresent(workTree.getAbsolutePath());
+        if (status != null) {
+            status.invalidate();
+        }
+    }
+
+    /** @return {@code true} if changes of working tree are watched, so its status is cached */
+    boolean isWatched(File workTree) {
+        final WatchedStatus status = statuses.getIfPresent(workTree.getAbsolutePath());
+        return status != null && status.isWatched();
+    }
+
+    /** @return number of watched working trees */
+    public long size() {
+        return statuses.size();
+    }
+
+    /** Status of one working tree and watcher of its changes. */
+    private class WatchedStatus {
+        private final Path                root;
+        private final Path                gitDir;
+        private final Map<WatchKey, Path> directories = new HashMap<>();
+        private final Set<String>         changed     = new LinkedHashSet<>();
+        /** Ignored directories, they aren't registered and don't count against maximal number of directories. */
+        private final Set<Path>           ignored     = new HashSet<>();
+
+        private WatchService  watcher;
+        private StatusEntries entries;
+        private boolean       readAll;
+        private boolean       disabled;
+
+        WatchedStatus(Path root) {
+            this.root = root;
+            this.gitDir = root.resolve(".git");
+        }
+
+        synchronized StatusEntries get(NativeGit nativeGit) throws GitException {
+            if (disabled) {
+                return nativeGit.createStatusCommand().executeEntries();
+            }
+            if (watcher == null) {
+                // changes made while watcher is registered are found with the next full read
+                final StatusEntries first = read(nativeGit, null);
+                entries = first;
+                startWatching();
+                readAll = true;
+                return first;
+            }
+            readEvents();
+            if (readAll || changed.size() > MAX_CHANGED_PATHS || !changed.isEmpty() && entries.hasOriginalPaths()) {
+                changed.clear();
+                readAll = false;
+                entries = read(nativeGit, null);
+                ignored.clear();
+                stopWatchingIgnored(entries.getIgnored());
+            } else if (!changed.isEmpty()) {
+                final Set<String> paths = new LinkedHashSet<>();
+                for (String path : changed) {
+                    // git shows untracked folder instead of its content
+                    final String folder = entries.getUntrackedFolder(path);
+                    paths.add(folder == null ? path : folder);
+                }
+                changed.clear();
+                removeNested(paths);
+                final StatusEntries update = read(nativeGit, new ArrayList<>(paths));
+                final StatusEntries copy = new StatusEntries(entries);
+                for (String path : paths) {
+                    copy.remove(path);
+                }
+                copy.putAll(update);
+                entries = copy;
+                stopWatchingIgnored(update.getIgnored());
+            }
+            return entries;
+        }
+
+        synchronized void invalidate() {
+            readAll = true;
+        }
+
+        synchronized boolean isWatched() {
+            return !disabled && watcher != null;
+        }
+
+        /** Removes paths inside of other paths, otherwise git shows untracked file together with its untracked folder. */
+        private void removeNested(Set<String> paths) {
+            for (Iterator<String> iterator = paths.iterator(); iterator.hasNext(); ) {
+                final String path = iterator.next();
+                for (int i = path.indexOf('/'); i > 0; i = path.indexOf('/', i + 1)) {
+                    if (paths.contains(path.substring(0, i))) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+            }
+        }
+
+        private StatusEntries read(NativeGit nativeGit, List<String> paths) throws GitException {
+            final StatusCommand command = nativeGit.createStatusCommand();
+            // index isn't refreshed by status, otherwise each status changes index and the next one reads everything
+            return command.setPaths(paths).setIgnored(true).setNoOptionalLocks(true).executeEntries();
+        }
+
+        private void startWatching() {
+            try {
+                watcher = FileSystems.getDefault().newWatchService();
+                // ignored directories are known from the first read, e.g. node_modules or target aren't walked at all
+                addIgnored(entries.getIgnored());
+                register(gitDir);
+                registerAll(gitDir.resolve("refs"));
+                registerAll(root);
+            } catch (IOException e) {
+                LOG.warn("Unable watch working tree {}, status isn't cached: {}", root, e.getMessage());
+                disable();
+            }
+        }
+
+        private void registerAll(Path start) throws IOException {
+            Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (dir.equals(gitDir) || ignored.contains(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (!dir.equals(root) && !dir.startsWith(gitDir) && Files.exists(dir.resolve(".git"), LinkOption.NOFOLLOW_LINKS)) {
+                        // nested repository or submodule
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    register(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    // file is removed while directories are registered, watcher of its parent shows it
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+
+        private void register(Path dir) throws IOException {
+            if (directories.size() >= maxDirectories) {
+                throw new IOException(String.format("working tree has more than %d directories", maxDirectories));
+            }
+            directories.put(dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+        }
+
+        private void addIgnored(Set<String> paths) {
+            for (String path : paths) {
+                if (path.endsWith("/")) {
+                    ignored.add(root.resolve(path.substring(0, path.length() - 1)));
+                }
+            }
+        }
+
+        private void stopWatchingIgnored(Set<String> paths) {
+            addIgnored(paths);
+            for (String path : paths) {
+                if (path.endsWith("/")) {
+                    final Path dir = root.resolve(path.substring(0, path.length() - 1));
+                    for (Iterator<Map.Entry<WatchKey, Path>> iterator = directories.entrySet().iterator(); iterator.hasNext(); ) {
+                        final Map.Entry<WatchKey, Path> entry = iterator.next();
+                        if (entry.getValue().startsWith(dir)) {
+                            entry.getKey().cancel();
+                            iterator.remove();
+                        }
+                    }
+                }
+            }
+        }
+
+        private void readEvents() {
+            WatchKey key;
+            while (!disabled && (key = watcher.poll()) != null) {
+                final Path dir = directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW || dir == null) {
+                        readAll = true;
+                    } else {
+                        onEvent(event.kind(), dir.resolve((Path)event.context()));
+                    }
+                }
+                if (!key.reset()) {
+                    directories.remove(key);
+                }
+            }
+        }
+
+        private void onEvent(WatchEvent.Kind<?> kind, Path path) {
+            if (path.startsWith(gitDir)) {
+                // index, HEAD or refs are changed
+                readAll = true;
+                return;
+            }
+            if (".gitignore".equals(path.getFileName().toString())) {
+                readAll = true;
+            }
+            changed.add(root.relativize(path).toString().replace(File.separatorChar, '/'));
+            if (kind == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerAll(path);
+                } catch (IOException e) {
+                    LOG.warn("Unable watch working tree {}, status isn't cached: {}", root, e.getMessage());
+                    disable();
+                }
+            }
+        }
+
+        private void disable() {
+            entries = null;
+            changed.clear();
+            close();
+        }
+
+        /**
+         * Stops watching. Status may be still used by thread which got it before it was removed from cache, so it is
+         * disabled, otherwise the next {@link #get(NativeGit)} polls closed watcher.
+         */
+        synchronized void close() {
+            disabled = true;
+            directories.clear();
+            ignored.clear();
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    LOG.warn(e.getMessage(), e);
+                }
+            }
+        }
+    }
+}
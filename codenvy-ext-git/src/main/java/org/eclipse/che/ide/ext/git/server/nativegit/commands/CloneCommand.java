@@ -21,8 +21,13 @@ import org.eclipse.che.ide.ext.git.server.GitException;
  */
 public class CloneCommand extends GitCommand<Void> {
 
-    private String uri;
-    private String remoteName;
+    private String  uri;
+    private String  remoteName;
+    private int     depth;
+    private String  branch;
+    private boolean singleBranch;
+    private String  filter;
+    private String  reference;
 
     public CloneCommand(File place) {
         super(place);
@@ -36,6 +41,26 @@ public class CloneCommand extends GitCommand<Void> {
         if (remoteName != null) {
             commandLine.add("--origin", remoteName);
         } //else default origin name
+        if (depth > 0) {
+            commandLine.add("--depth=" + depth);
+            // depth implies single branch
+            if (!singleBranch) {
+                commandLine.add("--no-single-branch");
+            }
+        } else if (singleBranch) {
+            commandLine.add("--single-branch");
+        }
+        if (branch != null) {
+            commandLine.add("--branch", branch);
+        }
+        if (filter != null) {
+            commandLine.add("--filter=" + filter);
+        }
+        if (reference != null) {
+            // objects are copied from reference, so clone doesn't depend on it
+            commandLine.add("--reference-if-able", reference);
+            commandLine.add("--dissociate");
+        }
         commandLine.add(uri, getRepository().getAbsolutePath());
         // Progress not shown if not a terminal. Activating progress output. See git clone man page.
         commandLine.add("--progress");
@@ -62,4 +87,55 @@ public class CloneCommand extends GitCommand<Void> {
         this.remoteName = remoteName;
         return this;
     }
+
+    /**
+     * @param depth
+     *         number of commits of history to be cloned, whole history is cloned if it is not positive
+     * @return CloneCommand with established depth
+     */
+    public CloneCommand setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * @param branch
+     *         branch to be checked out, if it is null than default branch of remote repository will be used
+     * @return CloneCommand with established branch
+     */
+    public CloneCommand setBranch(String branch) {
+        this.branch = branch;
+        return this;
+    }
+
+    /**
+     * @param singleBranch
+     *         if <code>true</code> only history of checked out branch will be cloned
+     * @return CloneCommand with established singleBranch parameter
+     */
+    public CloneCommand setSingleBranch(boolean singleBranch) {
+        this.singleBranch = singleBranch;
+        return this;
+    }
+
+    /**
+     * @param filter
+     *         filter of partial clone, e.g. <i>blob:none</i>, all objects will be cloned if it is null
+     * @return CloneCommand with established filter
+     */
+    public CloneCommand setFilter(String filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * @param reference
+     *         local repository which objects are used instead of downloading them, it is not used if it is null or
+     *         doesn't exist
+     * @return CloneCommand with established reference
+     */
+    public CloneCommand setReference(String reference) {
+        this.reference = reference;
+        return this;
+    }
 }
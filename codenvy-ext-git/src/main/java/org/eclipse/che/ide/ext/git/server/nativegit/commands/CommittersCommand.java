@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects committers of history, every committer is returned once with number of commits and time of the latest one.
+ * Committers are ordered in the same way as git log shows their latest commits. Only aggregated committers are kept
+ * in memory while git prints history.
+ */
+public class CommittersCommand extends GitCommand<List<GitUser>> {
+
+    private String  revision = "HEAD";
+    private String  excluded;
+    private boolean excludedReached;
+
+    public CommittersCommand(File repository) {
+        super(repository);
+    }
+
+    /** @see GitCommand#execute() */
+    @Override
+    public List<GitUser> execute() throws GitException {
+        reset();
+        excludedReached = false;
+        commandLine.add("log", "-z", LogOutputParser.FORMAT, revision);
+        if (excluded != null) {
+            commandLine.add('^' + excluded);
+        }
+        final CommittersParser parser = new CommittersParser();
+        try {
+            start(parser);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return new ArrayList<>(parser.committers.values());
+    }
+
+    /**
+     * @param revision
+     *         commit which history is read, <i>HEAD</i> by default
+     * @return CommittersCommand with established revision
+     */
+    public CommittersCommand setRevision(String revision) {
+        this.revision = revision;
+        return this;
+    }
+
+    /**
+     * @param excluded
+     *         commit which history is already known, its commits are not read
+     * @return CommittersCommand with established excluded commit
+     */
+    public CommittersCommand setExcluded(String excluded) {
+        this.excluded = excluded;
+        return this;
+    }
+
+    /**
+     * Shows if excluded commit is ancestor of revision, it is so if one of read commits is child of excluded one.
+     * Otherwise history was rewritten and committers of excluded commit may not belong to history of revision.
+     *
+     * @return {@code true} if excluded commit is parent of one of read commits
+     */
+    public boolean isExcludedReached() {
+        return excludedReached;
+    }
+
+    private class CommittersParser extends LogOutputParser {
+        final Map<String, GitUser> committers = new LinkedHashMap<>();
+
+        @Override
+        protected void revision(Revision revision) {
+            if (excluded != null && revision.getParents().contains(excluded)) {
+                excludedReached = true;
+            }
+            final GitUser committer = revision.getCommitter();
+            final String key = committer.getName() + '\n' + committer.getEmail();
+            final GitUser known = committers.get(key);
+            if (known == null) {
+                committers.put(key, DtoFactory.getInstance().createDto(GitUser.class)
+                                              .withName(committer.getName())
+                                              .withEmail(committer.getEmail())
+                                              .withCommits(1)
+                                              .withLastCommitTime(revision.getCommitTime()));
+            } else {
+                known.setCommits(known.getCommits() + 1);
+                known.setLastCommitTime(Math.max(known.getLastCommitTime(), revision.getCommitTime()));
+            }
+        }
+    }
+}
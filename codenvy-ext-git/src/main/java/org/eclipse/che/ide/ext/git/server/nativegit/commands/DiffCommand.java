@@ -11,9 +11,17 @@
 package org.eclipse.che.ide.ext.git.server.nativegit.commands;
 
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.nativegit.OutputCompletedException;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
 import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -38,11 +46,93 @@ public class DiffCommand extends GitCommand<String> {
     /** @see GitCommand#execute() */
     @Override
     public String execute() throws GitException {
-        reset();
-        commandLine.add("diff");
-        if (!(type == null || type.equals(DiffRequest.DiffType.RAW.toString()))) {
-            commandLine.add(type);
+        prepareCommandLine();
+        start();
+        if (type == null || type.equals("--raw")) {
+            return getText() + "\n";
+        }
+        return getText();
+    }
+
+    /**
+     * Executes command and writes diff to {@code output} once git is finished.
+     *
+     * @throws GitException
+     *         when command execution failed
+     * @throws IOException
+     *         when it is not possible to write to {@code output}
+     */
+    public void execute(OutputStream output) throws GitException, IOException {
+        prepareCommandLine();
+        startSpooled(output);
+    }
+
+    /**
+     * Executes command and reads changed files without their content.
+     *
+     * @param skip
+     *         number of files to skip
+     * @param maxCount
+     *         maximal number of files, all files are read if it is not positive
+     * @return changed files of requested page and total number of changed files
+     * @throws GitException
+     *         when command execution failed
+     */
+    public DiffIndex executeIndex(int skip, int maxCount) throws GitException {
+        prepareDiff("--raw", "--numstat", "-z");
+        final DiffIndexParser parser = new DiffIndexParser(skip, maxCount);
+        try {
+            start(parser);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return DtoFactory.getInstance().createDto(DiffIndex.class).withEntries(parser.getEntries()).withTotal(parser.getTotal());
+    }
+
+    /**
+     * Executes command and reads diff in unified format, usually of one file. Only beginning of diff is kept if it is
+     * bigger than {@code maxSize}, git is stopped once it is read.
+     *
+     * @param maxSize
+     *         maximal size of diff in bytes
+     * @return diff
+     * @throws GitException
+     *         when command execution failed
+     */
+    public FileDiff executeFile(int maxSize) throws GitException {
+        prepareDiff("--no-color", "--no-ext-diff");
+        final LimitedOutputStream output = new LimitedOutputStream(maxSize);
+        try {
+            start(output);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        int size = output.size;
+        if (output.truncated) {
+            // keep whole lines only
+            while (size > 0 && output.buffer[size - 1] != '\n') {
+                size--;
+            }
         }
+        final String diff = new String(output.buffer, 0, size, StandardCharsets.UTF_8);
+        return DtoFactory.getInstance().createDto(FileDiff.class)
+                         .withDiff(diff)
+                         .withTruncated(output.truncated)
+                         .withBinary(diff.startsWith("Binary files ") || diff.contains("\nBinary files ")
+                                     || diff.contains("\nGIT binary patch"));
+    }
+
+    private void prepareCommandLine() {
+        if (type == null || type.equals(DiffRequest.DiffType.RAW.toString())) {
+            prepareDiff();
+        } else {
+            prepareDiff(type);
+        }
+    }
+
+    private void prepareDiff(String... format) {
+        reset();
+        commandLine.add("diff").add(format);
         if (noRenames) {
             commandLine.add("--no-renames");
         }
@@ -58,14 +148,9 @@ public class DiffCommand extends GitCommand<String> {
         if (commitB != null) {
             commandLine.add(commitB);
         }
-        if (filesFilter != null) {
-            commandLine.add(filesFilter);
-        }
-        start();
-        if (type == null || type.equals("--raw")) {
-            return getText() + "\n";
+        if (filesFilter != null && !filesFilter.isEmpty()) {
+            commandLine.add("--").add(filesFilter);
         }
-        return getText();
     }
 
     /**
@@ -137,4 +222,39 @@ public class DiffCommand extends GitCommand<String> {
         this.noRenames = noRenames;
         return this;
     }
+
+    /** Keeps at most {@code limit} bytes, git is stopped once more bytes are written. */
+    private static class LimitedOutputStream extends OutputStream {
+        final int limit;
+
+        byte[]  buffer = new byte[8192];
+        int     size;
+        boolean truncated;
+
+        LimitedOutputStream(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            final int accepted = Math.min(length, limit - size);
+            if (accepted > 0) {
+                if (size + accepted > buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(limit, Math.max(buffer.length * 2, size + accepted)));
+                }
+                System.arraycopy(bytes, offset, buffer, size, accepted);
+                size += accepted;
+            }
+            if (accepted < length) {
+                truncated = true;
+                // there is no sense to let git compute the rest of diff
+                throw new OutputCompletedException();
+            }
+        }
+    }
 }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.shared.DiffIndexEntry;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses output of {@code git diff --raw --numstat -z} while git writes it.
+ * <p/>
+ * Git prints raw records of all files first and then numstat records of the same files in the same order.
+ * Raw record is <i>:mode mode id id status</i> followed by path, renamed and copied files have two paths.
+ * Numstat record is <i>added&lt;TAB&gt;removed&lt;TAB&gt;path</i>, path of renamed and copied files is empty and
+ * followed by two paths, binary files have <i>-</i> instead of numbers. Only files of requested page are kept.
+ */
+class DiffIndexParser extends OutputStream {
+
+    private final List<DiffIndexEntry> entries = new ArrayList<>();
+    private final int                  skip;
+    private final int                  maxCount;
+
+    private byte[] buffer = new byte[256];
+    private int    length;
+
+    /** Number of raw records. */
+    private int            total;
+    /** Number of numstat records. */
+    private int            counted;
+    /** Entry which paths are expected in next records. */
+    private DiffIndexEntry current;
+    private int            pathsExpected;
+    private boolean        numstat;
+
+    /**
+     * @param skip
+     *         number of files to skip
+     * @param maxCount
+     *         maximal number of files, all files are kept if it is not positive
+     */
+    DiffIndexParser(int skip, int maxCount) {
+        this.skip = skip;
+        this.maxCount = maxCount;
+    }
+
+    List<DiffIndexEntry> getEntries() {
+        return entries;
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    @Override
+    public void write(int b) {
+        if (b == 0) {
+            endRecord();
+        } else {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte)b;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) {
+        final int end = offset + count;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] == 0) {
+                append(bytes, start, i - start);
+                endRecord();
+                start = i + 1;
+            }
+        }
+        append(bytes, start, end - start);
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    private void endRecord() {
+        final String record = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        length = 0;
+        if (pathsExpected > 0) {
+            pathsExpected--;
+            if (current != null && !numstat) {
+                if (pathsExpected == 1) {
+                    current.setOldPath(record);
+                } else {
+                    current.setPath(record);
+                }
+            }
+        } else if (record.startsWith(":")) {
+            parseRaw(record);
+        } else {
+            parseNumstat(record);
+        }
+    }
+
+    private void parseRaw(String record) {
+        // :100644 100644 bcd1234 0123456 M
+        final String status = record.substring(record.lastIndexOf(' ') + 1);
+        final char type = status.charAt(0);
+        pathsExpected = type == 'R' || type == 'C' ? 2 : 1;
+        numstat = false;
+        current = null;
+        if (isOnPage(total++)) {
+            current = DtoFactory.getInstance().createDto(DiffIndexEntry.class).withChangeType(String.valueOf(type));
+            entries.add(current);
+        }
+    }
+
+    private void parseNumstat(String record) {
+        final int firstTab = record.indexOf('\t');
+        final int secondTab = record.indexOf('\t', firstTab + 1);
+        if (secondTab == record.length() - 1) {
+            // renamed or copied file, paths are in next records
+            numstat = true;
+            pathsExpected = 2;
+        }
+        final int index = counted++ - skip;
+        if (index < 0 || index >= entries.size()) {
+            return;
+        }
+        final DiffIndexEntry entry = entries.get(index);
+        final String added = record.substring(0, firstTab);
+        if ("-".equals(added)) {
+            entry.setBinary(true);
+        } else {
+            entry.setAddedLines(Integer.parseInt(added));
+            entry.setRemovedLines(Integer.parseInt(record.substring(firstTab + 1, secondTab)));
+        }
+    }
+
+    private boolean isOnPage(int index) {
+        return index >= skip && (maxCount <= 0 || index < skip + maxCount);
+    }
+}
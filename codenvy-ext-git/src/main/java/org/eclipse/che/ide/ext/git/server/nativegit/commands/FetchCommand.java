@@ -25,6 +25,9 @@ public class FetchCommand extends GitCommand<Void> {
     private List<String> refSpec;
     private String   remote;
     private boolean  prune;
+    private int      depth;
+    private int      deepen;
+    private boolean  unshallow;
 
     public FetchCommand(File repository) {
         super(repository);
@@ -40,6 +43,16 @@ public class FetchCommand extends GitCommand<Void> {
         if (prune) {
             commandLine.add("--prune");
         }
+        if (depth > 0) {
+            commandLine.add("--depth=" + depth);
+        }
+        if (deepen > 0) {
+            commandLine.add("--deepen=" + deepen);
+        }
+        // git refuses to unshallow complete repository
+        if (unshallow && new File(getRepository(), ".git" + File.separator + "shallow").exists()) {
+            commandLine.add("--unshallow");
+        }
         // Progress not shown if not a terminal. Activating progress output. See git fetch man page.
         commandLine.add("--progress");
         start();
@@ -75,4 +88,34 @@ public class FetchCommand extends GitCommand<Void> {
         this.prune = prune;
         return this;
     }
+
+    /**
+     * @param depth
+     *         number of commits of history to be fetched from the tips of branches, not limited if it is not positive
+     * @return FetchCommand with established depth
+     */
+    public FetchCommand setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * @param deepen
+     *         number of commits by which history of shallow repository will be deepened
+     * @return FetchCommand with established deepen parameter
+     */
+    public FetchCommand setDeepen(int deepen) {
+        this.deepen = deepen;
+        return this;
+    }
+
+    /**
+     * @param unshallow
+     *         if <code>true</code> whole history will be fetched into shallow repository
+     * @return FetchCommand with established unshallow parameter
+     */
+    public FetchCommand setUnshallow(boolean unshallow) {
+        this.unshallow = unshallow;
+        return this;
+    }
 }
@@ -17,6 +17,8 @@ import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.nativegit.CommandProcess;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Map;
 
@@ -27,11 +29,16 @@ import java.util.Map;
  */
 public abstract class GitCommand<T> extends ListLineConsumer {
 
+    /** Output of git which is written to client is kept in memory up to this size, the rest is spooled to file. */
+    private static final int SPOOL_MEMORY_LIMIT = 1024 * 1024;
+
     private final File repository;
 
     private int                 timeout;
     private String              SSHScriptPath;
     private String              askPassScriptPath;
+    private String              askPassUserName;
+    private String              askPassPassword;
     private LineConsumerFactory lineConsumerFactory;
     private Map<String, String> commandEnvironment;
 
@@ -88,6 +95,27 @@ public abstract class GitCommand<T> extends ListLineConsumer {
         return askPassScriptPath;
     }
 
+    /**
+     * Sets credentials which "GIT_ASKPASS" script gives to git process.
+     *
+     * @param userName
+     *         user name
+     * @param password
+     *         password
+     */
+    public void setAskPassCredentials(String userName, String password) {
+        this.askPassUserName = userName;
+        this.askPassPassword = password;
+    }
+
+    public String getAskPassUserName() {
+        return askPassUserName;
+    }
+
+    public String getAskPassPassword() {
+        return askPassPassword;
+    }
+
     /**
      * @param timeout
      *         command execution timeout in seconds
@@ -133,6 +161,35 @@ public abstract class GitCommand<T> extends ListLineConsumer {
         CommandProcess.executeGitCommand(this, lineConsumerFactory);
     }
 
+    /**
+     * Executes git command and writes its output to {@code output} instead of keeping it in this consumer.
+     *
+     * @throws GitException
+     *         when command execution failed or command execution exit value is not 0
+     * @throws IOException
+     *         when it is not possible to write to {@code output}
+     */
+    protected void start(OutputStream output) throws GitException, IOException {
+        CommandProcess.executeGitCommand(this, lineConsumerFactory, output);
+    }
+
+    /**
+     * Executes git command and writes its output to {@code output} once process is finished. Output is kept in memory
+     * and temporary file meanwhile, so slow reader of output, e.g. HTTP client, doesn't hold git process and its slot
+     * of {@link org.eclipse.che.ide.ext.git.server.nativegit.GitProcessScheduler}.
+     *
+     * @throws GitException
+     *         when command execution failed or command execution exit value is not 0
+     * @throws IOException
+     *         when it is not possible to write to {@code output}
+     */
+    protected void startSpooled(OutputStream output) throws GitException, IOException {
+        try (SpoolOutputStream spool = new SpoolOutputStream(SPOOL_MEMORY_LIMIT)) {
+            start(spool);
+            spool.writeTo(output);
+        }
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -10,24 +10,38 @@
  *******************************************************************************/
 package org.eclipse.che.ide.ext.git.server.nativegit.commands;
 
-import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.git.server.GitException;
-import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.server.nativegit.GitObjectReader;
 import org.eclipse.che.ide.ext.git.shared.Revision;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
 /**
- * Show commit logs
+ * Show commit logs.
+ * <p/>
+ * Output is parsed while git prints it, so only commits of requested page are kept in memory.
+ * Skip and limit are passed to git and it stops walking history once page is printed. If cursor is set history is
+ * walked from parents of cursor, commits before cursor aren't walked again.
  *
  * @author Eugene Voevodin
+ * @see LogOutputParser
  */
 public class LogCommand extends GitCommand<List<Revision>> {
 
-    private int    count;
-    private String branch;
+    private int          count;
+    private int          skip;
+    private String       cursor;
+    private String       branch;
+    private String       author;
+    private long         since;
+    private long         until;
+    private boolean      fullMessage;
+    private List<String> fileFilter;
+
+    private GitObjectReader objectReader;
 
     public LogCommand(File place) {
         super(place);
@@ -36,36 +50,86 @@ public class LogCommand extends GitCommand<List<Revision>> {
     /** @see GitCommand#execute() */
     @Override
     public List<Revision> execute() throws GitException {
+        // values are given by client, they mustn't be taken for options of git
+        checkNotOption("revision range", branch);
+        checkNotOption("author", author);
+        checkNotOption("cursor", cursor);
         reset();
         commandLine.add("log")
-                   .add("--format=%an#%ae#%cn#%ce#%cd#%H#%s")
-                   .add("--date=raw");
-        if (branch != null) {
-            commandLine.add(branch);
+                   .add("-z")
+                   .add(fullMessage ? LogOutputParser.FULL_FORMAT : LogOutputParser.FORMAT);
+        if (skip > 0) {
+            commandLine.add("--skip=" + skip);
         }
         if (count > 0) {
             commandLine.add("-" + count);
         }
-        start();
-        List<Revision> list = new LinkedList<>();
-        final DtoFactory dtoFactory = DtoFactory.getInstance();
-        for (String oneRev : lines) {
-            String[] elements = oneRev.split("#");
-            GitUser committer = dtoFactory.createDto(GitUser.class).withName(elements[2]).withEmail(elements[3]);
-            long commitTime = Long.parseLong(elements[4].substring(0, elements[4].indexOf(" "))) * 1000L;
-            String commitId = elements[5];
-            StringBuilder commitMessage = new StringBuilder();
-            for (int i = 6; i < elements.length; i++) {
-                commitMessage.append(elements[i]);
+        if (author != null) {
+            commandLine.add("--author=" + author);
+        }
+        if (since > 0) {
+            commandLine.add("--since=@" + since / 1000L);
+        }
+        if (until > 0) {
+            commandLine.add("--until=@" + until / 1000L);
+        }
+        if (cursor != null) {
+            commandLine.add(resolveCursor() + "^@");
+            // cursor is in range, only commits excluded by range are excluded from walk of its parents
+            if (branch != null && branch.contains("..")) {
+                if (branch.contains("...")) {
+                    throw new GitException("Cursor can't be used with symmetric difference: " + branch);
+                }
+                final String excluded = branch.substring(0, branch.indexOf(".."));
+                commandLine.add("^" + (excluded.isEmpty() ? "HEAD" : excluded));
             }
-            Revision revision = dtoFactory.createDto(Revision.class)
-                                          .withId(commitId)
-                                          .withMessage(commitMessage.toString())
-                                          .withCommitTime(commitTime)
-                                          .withCommitter(committer);
-            list.add(revision);
+        } else if (branch != null) {
+            commandLine.add(branch);
+        }
+        if (fileFilter != null && !fileFilter.isEmpty()) {
+            commandLine.add("--").add(fileFilter);
+        }
+        final PageParser parser = new PageParser();
+        try {
+            start(parser);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return parser.revisions;
+    }
+
+    /**
+     * Resolves cursor to id of commit, it may be abbreviated by client.
+     *
+     * @throws GitException
+     *         when cursor isn't commit of repository
+     */
+    private String resolveCursor() throws GitException {
+        if (objectReader != null) {
+            try {
+                final String id = objectReader.resolve(cursor + "^{commit}");
+                if (id != null) {
+                    return id;
+                }
+            } catch (GitException ignored) {
+                // fall back to rev-parse
+            }
+        }
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository());
+        command.setNextParameter("rev-parse").setNextParameter("--verify").setNextParameter("--quiet")
+               .setNextParameter(cursor + "^{commit}");
+        try {
+            command.execute();
+        } catch (GitException e) {
+            throw new GitException(String.format("Unknown cursor: %s", cursor));
+        }
+        return command.getText().trim();
+    }
+
+    private static void checkNotOption(String name, String value) throws GitException {
+        if (value != null && value.startsWith("-")) {
+            throw new GitException(String.format("Invalid %s: %s", name, value));
         }
-        return list;
     }
 
     /**
@@ -78,13 +142,110 @@ public class LogCommand extends GitCommand<List<Revision>> {
         return this;
     }
 
+    /**
+     * @param skip
+     *         number of commits to skip
+     * @return LogCommand with established number of commits to skip
+     */
+    public LogCommand setSkip(int skip) {
+        this.skip = skip;
+        return this;
+    }
+
+    /**
+     * @param cursor
+     *         id of commit after which log should be shown
+     * @return LogCommand with established cursor
+     */
+    public LogCommand setCursor(String cursor) {
+        this.cursor = cursor;
+        return this;
+    }
+
     /**
      * @param branch
-     *         branch
+     *         branch, revision or revision range
      * @return LogCommand with established branch
      */
     public LogCommand setBranch(String branch) {
         this.branch = branch;
         return this;
     }
+
+    /**
+     * @param author
+     *         pattern of commit author
+     * @return LogCommand with established author pattern
+     */
+    public LogCommand setAuthor(String author) {
+        this.author = author;
+        return this;
+    }
+
+    /**
+     * @param since
+     *         time in milliseconds, only newer commits are shown
+     * @return LogCommand with established time
+     */
+    public LogCommand setSince(long since) {
+        this.since = since;
+        return this;
+    }
+
+    /**
+     * @param until
+     *         time in milliseconds, only older commits are shown
+     * @return LogCommand with established time
+     */
+    public LogCommand setUntil(long until) {
+        this.until = until;
+        return this;
+    }
+
+    /**
+     * @param fullMessage
+     *         {@code true} if full commit messages should be read instead of subjects
+     * @return LogCommand with established message mode
+     */
+    public LogCommand setFullMessage(boolean fullMessage) {
+        this.fullMessage = fullMessage;
+        return this;
+    }
+
+    /**
+     * @param fileFilter
+     *         files which commits are shown
+     * @return LogCommand with established files
+     */
+    public LogCommand setFileFilter(List<String> fileFilter) {
+        this.fileFilter = fileFilter;
+        return this;
+    }
+
+    /**
+     * @param objectReader
+     *         reader used to resolve cursor, if it is {@code null} git rev-parse is used
+     * @return LogCommand with established object reader
+     */
+    public LogCommand setObjectReader(GitObjectReader objectReader) {
+        this.objectReader = objectReader;
+        return this;
+    }
+
+    /** Keeps commits of requested page. */
+    private class PageParser extends LogOutputParser {
+        final List<Revision> revisions = new LinkedList<>();
+
+        @Override
+        protected void revision(Revision revision) {
+            if (count <= 0 || revisions.size() < count) {
+                revisions.add(revision);
+            }
+        }
+
+        @Override
+        protected boolean isCompleted() {
+            return count > 0 && revisions.size() >= count;
+        }
+    }
 }
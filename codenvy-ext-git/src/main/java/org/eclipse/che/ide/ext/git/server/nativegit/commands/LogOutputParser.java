@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.nativegit.OutputCompletedException;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parses output of {@code git log -z} printed with {@link #FORMAT} or {@link #FULL_FORMAT} while git writes it.
+ * <p/>
+ * Every field of commit is terminated with NUL character, so field values may contain any other characters,
+ * commits are separated by number of fields. Output is read in one pass, bytes of current field are kept in
+ * reusable buffer and numbers are parsed without creating strings.
+ */
+abstract class LogOutputParser extends OutputStream {
+
+    /** Format of commit: id, parents, author name, email and time, committer name, email and time and subject. */
+    static final String FORMAT      = "--format=%H%x00%P%x00%an%x00%ae%x00%at%x00%cn%x00%ce%x00%ct%x00%s";
+    /** The same as {@link #FORMAT} but with full commit message instead of subject. */
+    static final String FULL_FORMAT = "--format=%H%x00%P%x00%an%x00%ae%x00%at%x00%cn%x00%ce%x00%ct%x00%B";
+
+    private static final int ID              = 0;
+    private static final int PARENTS         = 1;
+    private static final int AUTHOR_NAME     = 2;
+    private static final int AUTHOR_EMAIL    = 3;
+    private static final int AUTHOR_TIME     = 4;
+    private static final int COMMITTER_NAME  = 5;
+    private static final int COMMITTER_EMAIL = 6;
+    private static final int COMMITTER_TIME  = 7;
+    private static final int MESSAGE         = 8;
+    private static final int FIELDS          = 9;
+
+    private final DtoFactory dtoFactory = DtoFactory.getInstance();
+
+    private byte[] buffer = new byte[256];
+    private int    length;
+    private int    field;
+
+    private String       id;
+    private List<String> parents;
+    private String       authorName;
+    private String       authorEmail;
+    private long         authorTime;
+    private String       committerName;
+    private String       committerEmail;
+    private long         committerTime;
+
+    /**
+     * Is called for every parsed commit in the same order as git prints them.
+     *
+     * @param revision
+     *         parsed commit
+     */
+    protected abstract void revision(Revision revision);
+
+    /**
+     * Is checked after every parsed commit, git is stopped once it returns {@code true}.
+     *
+     * @return {@code true} if the rest of commits isn't needed
+     */
+    protected boolean isCompleted() {
+        return false;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (b == 0) {
+            endField();
+        } else {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte)b;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) throws IOException {
+        final int end = offset + count;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] == 0) {
+                append(bytes, start, i - start);
+                endField();
+                start = i + 1;
+            }
+        }
+        append(bytes, start, end - start);
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    private void endField() throws IOException {
+        switch (field) {
+            case ID:
+                id = new String(buffer, 0, length, StandardCharsets.US_ASCII);
+                break;
+            case PARENTS:
+                parents = parseParents();
+                break;
+            case AUTHOR_NAME:
+                authorName = string();
+                break;
+            case AUTHOR_EMAIL:
+                authorEmail = string();
+                break;
+            case AUTHOR_TIME:
+                authorTime = parseTime();
+                break;
+            case COMMITTER_NAME:
+                committerName = string();
+                break;
+            case COMMITTER_EMAIL:
+                committerEmail = string();
+                break;
+            case COMMITTER_TIME:
+                committerTime = parseTime();
+                break;
+            case MESSAGE:
+                // full message is ended with line feed
+                int end = length;
+                while (end > 0 && buffer[end - 1] == '\n') {
+                    end--;
+                }
+                revision(newRevision(new String(buffer, 0, end, StandardCharsets.UTF_8)));
+                break;
+        }
+        length = 0;
+        field = (field + 1) % FIELDS;
+        if (field == ID && isCompleted()) {
+            throw new OutputCompletedException();
+        }
+    }
+
+    private String string() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** @return time in milliseconds, git prints it in seconds */
+    private long parseTime() {
+        long seconds = 0;
+        for (int i = 0; i < length; i++) {
+            seconds = seconds * 10 + (buffer[i] - '0');
+        }
+        return seconds * 1000L;
+    }
+
+    private List<String> parseParents() {
+        if (length == 0) {
+            return Collections.emptyList();
+        }
+        final List<String> result = new ArrayList<>(2);
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || buffer[i] == ' ') {
+                result.add(new String(buffer, start, i - start, StandardCharsets.US_ASCII));
+                start = i + 1;
+            }
+        }
+        return result;
+    }
+
+    private Revision newRevision(String message) {
+        final GitUser author = dtoFactory.createDto(GitUser.class).withName(authorName).withEmail(authorEmail);
+        final GitUser committer = dtoFactory.createDto(GitUser.class).withName(committerName).withEmail(committerEmail);
+        return dtoFactory.createDto(Revision.class)
+                         .withId(id)
+                         .withParents(parents)
+                         .withMessage(message)
+                         .withAuthor(author)
+                         .withAuthorTime(authorTime)
+                         .withCommitter(committer)
+                         .withCommitTime(committerTime);
+    }
+}
@@ -15,14 +15,17 @@ import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.shared.RemoteReference;
 
 import java.io.File;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * @author Vladyslav Zhukovskii
  */
 public class LsRemoteCommand extends GitCommand<Void> {
-    private String url;
+    private String       url;
+    private boolean      heads;
+    private boolean      tags;
+    private List<String> patterns;
 
     public LsRemoteCommand(File repository) {
         super(repository);
@@ -35,7 +38,17 @@ public class LsRemoteCommand extends GitCommand<Void> {
             throw new GitException("Remote repository URL wasn't set.");
         }
         reset();
-        commandLine.add("ls-remote", url);
+        commandLine.add("ls-remote");
+        if (heads) {
+            commandLine.add("--heads");
+        }
+        if (tags) {
+            commandLine.add("--tags");
+        }
+        commandLine.add(url);
+        if (patterns != null) {
+            commandLine.add(patterns);
+        }
         start();
         return null;
     }
@@ -50,16 +63,50 @@ public class LsRemoteCommand extends GitCommand<Void> {
         return this;
     }
 
+    /**
+     * @param heads
+     *         if <code>true</code> only branches are listed
+     * @return LsRemoteCommand with established heads filter
+     */
+    public LsRemoteCommand setHeads(boolean heads) {
+        this.heads = heads;
+        return this;
+    }
+
+    /**
+     * @param tags
+     *         if <code>true</code> only tags are listed, tags and branches are listed if heads filter is set too
+     * @return LsRemoteCommand with established tags filter
+     */
+    public LsRemoteCommand setTags(boolean tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    /**
+     * @param patterns
+     *         patterns which names of listed references must match from the end
+     * @return LsRemoteCommand with established patterns
+     */
+    public LsRemoteCommand setPatterns(List<String> patterns) {
+        this.patterns = patterns;
+        return this;
+    }
+
     /**
      * Get list of remote references.
      */
     public List<RemoteReference> getRemoteReferences() {
-        List<RemoteReference> references = new LinkedList<>();
+        final List<RemoteReference> references = new ArrayList<>(lines.size());
         final DtoFactory dtoFactory = DtoFactory.getInstance();
         for (String outLine : lines) {
-            String[] parts = outLine.trim().split("\\s");
-            String commitId = parts[0];
-            String referenceName = parts[1];
+            // line is "<commit id> TAB <reference name>"
+            final int separator = outLine.indexOf('\t');
+            if (separator == -1) {
+                continue;
+            }
+            final String commitId = outLine.substring(0, separator).trim();
+            final String referenceName = outLine.substring(separator + 1).trim();
             references.add(dtoFactory.createDto(RemoteReference.class).withCommitId(commitId).withReferenceName(referenceName));
         }
         return references;
@@ -11,6 +11,7 @@
 package org.eclipse.che.ide.ext.git.server.nativegit.commands;
 
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.GitObjectReader;
 import org.eclipse.che.ide.ext.git.server.nativegit.NativeGitMergeResult;
 import org.eclipse.che.ide.ext.git.shared.GitUser;
 import org.eclipse.che.ide.ext.git.shared.MergeResult;
@@ -30,8 +31,9 @@ import java.util.Map;
  */
 public class MergeCommand extends GitCommand<MergeResult> {
 
-    private String  commit;
-    private GitUser committer;
+    private String          commit;
+    private GitUser         committer;
+    private GitObjectReader objectReader;
 
     public MergeCommand(File repository) {
         super(repository);
@@ -49,8 +51,8 @@ public class MergeCommand extends GitCommand<MergeResult> {
         NativeGitMergeResult mergeResult = new NativeGitMergeResult();
         //get merge commits
         ArrayList<String> mergedCommits = new ArrayList<>(2);
-        mergedCommits.add(new LogCommand(getRepository()).setCount(1).execute().get(0).getId());
-        mergedCommits.add(new LogCommand(getRepository()).setBranch(commit).setCount(1).execute().get(0).getId());
+        mergedCommits.add(resolveCommit(null));
+        mergedCommits.add(resolveCommit(commit));
         mergeResult.setMergedCommits(mergedCommits);
 
         if (committer != null) {
@@ -108,10 +110,33 @@ public class MergeCommand extends GitCommand<MergeResult> {
                 mergeResult.setStatus(MergeResult.MergeStatus.NOT_SUPPORTED);
             }
         }
-        mergeResult.setHead(new LogCommand(getRepository()).setCount(1).execute().get(0).getId());
+        mergeResult.setHead(resolveCommit(null));
         return mergeResult;
     }
 
+    /**
+     * Gets id of commit which revision points to.
+     *
+     * @param revision
+     *         revision, if it is {@code null} then HEAD is used
+     * @return commit id
+     * @throws GitException
+     *         when it is not possible to resolve revision
+     */
+    private String resolveCommit(String revision) throws GitException {
+        if (objectReader != null) {
+            try {
+                final String id = objectReader.resolve((revision == null ? "HEAD" : revision) + "^{commit}");
+                if (id != null) {
+                    return id;
+                }
+            } catch (GitException ignored) {
+                // fall back to git log
+            }
+        }
+        return new LogCommand(getRepository()).setBranch(revision).setCount(1).execute().get(0).getId();
+    }
+
     /**
      * @param commit
      *         commit to merge with
@@ -131,4 +156,14 @@ public class MergeCommand extends GitCommand<MergeResult> {
         this.committer = committer;
         return this;
     }
+
+    /**
+     * @param objectReader
+     *         reader used to resolve merged commits, if it is {@code null} git log is used
+     * @return MergeCommand with established object reader
+     */
+    public MergeCommand setObjectReader(GitObjectReader objectReader) {
+        this.objectReader = objectReader;
+        return this;
+    }
 }
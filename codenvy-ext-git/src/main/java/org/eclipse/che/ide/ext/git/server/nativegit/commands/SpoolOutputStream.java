@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+/**
+ * Keeps output of git process until it is written to slow reader, e.g. HTTP client. Beginning of output is kept in
+ * memory, the rest of it is written to temporary file, which is removed when stream is closed.
+ */
+class SpoolOutputStream extends OutputStream {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpoolOutputStream.class);
+
+    private final int                   memoryLimit;
+    private final ByteArrayOutputStream memory;
+
+    private File         file;
+    private OutputStream fileOutput;
+
+    /**
+     * @param memoryLimit
+     *         maximal number of bytes which are kept in memory
+     */
+    SpoolOutputStream(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        this.memory = new ByteArrayOutputStream(Math.min(memoryLimit, 8192));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (fileOutput == null && memory.size() + len <= memoryLimit) {
+            memory.write(b, off, len);
+            return;
+        }
+        if (fileOutput == null) {
+            file = File.createTempFile("git-output-", ".tmp");
+            fileOutput = new BufferedOutputStream(new FileOutputStream(file));
+        }
+        fileOutput.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (fileOutput != null) {
+            fileOutput.flush();
+        }
+    }
+
+    /** Writes everything that was written to this stream to {@code output}. */
+    void writeTo(OutputStream output) throws IOException {
+        memory.writeTo(output);
+        if (file != null) {
+            fileOutput.flush();
+            Files.copy(file.toPath(), output);
+        }
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileOutput != null) {
+            fileOutput.close();
+            if (!file.delete()) {
+                LOG.warn("Unable to delete file {}", file);
+            }
+            fileOutput = null;
+        }
+    }
+}
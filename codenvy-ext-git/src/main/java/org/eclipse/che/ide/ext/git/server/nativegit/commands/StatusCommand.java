@@ -11,10 +11,15 @@
 package org.eclipse.che.ide.ext.git.server.nativegit.commands;
 
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
 import org.eclipse.che.ide.ext.git.shared.StatusFormat;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Show repository status.
@@ -23,7 +28,13 @@ import java.util.List;
  */
 public class StatusCommand extends GitCommand<List<String>> {
 
+    /** Porcelain version 2 is supported by git since 2.11, older versions are asked for version 1. */
+    private static volatile boolean porcelainV2Supported = true;
+
     private StatusFormat format;
+    private List<String> paths;
+    private boolean      ignored;
+    private boolean      noOptionalLocks;
 
     public StatusCommand(File repository) {
         super(repository);
@@ -32,6 +43,74 @@ public class StatusCommand extends GitCommand<List<String>> {
     /** @see GitCommand#execute() */
     @Override
     public List<String> execute() throws GitException {
+        prepareCommandLine();
+        start();
+        return getLines();
+    }
+
+    /**
+     * Executes command and writes status to {@code output} once git is finished.
+     *
+     * @throws GitException
+     *         when command execution failed
+     * @throws IOException
+     *         when it is not possible to write to {@code output}
+     */
+    public void execute(OutputStream output) throws GitException, IOException {
+        prepareCommandLine();
+        startSpooled(output);
+    }
+
+    /**
+     * Executes command once and parses its NUL separated machine readable output while git prints it.
+     *
+     * @return status of each changed path
+     * @throws GitException
+     *         when command execution failed
+     */
+    public StatusEntries executeEntries() throws GitException {
+        if (porcelainV2Supported) {
+            try {
+                return executeEntries(true);
+            } catch (GitException e) {
+                if (!e.getMessage().contains("porcelain")) {
+                    throw e;
+                }
+                porcelainV2Supported = false;
+            }
+        }
+        return executeEntries(false);
+    }
+
+    private StatusEntries executeEntries(boolean version2) throws GitException {
+        reset();
+        commandLine.add("status", "-z", version2 ? "--porcelain=v2" : "--porcelain");
+        if (version2) {
+            commandLine.add("--branch");
+        }
+        if (ignored) {
+            commandLine.add("--ignored");
+        }
+        final Map<String, String> environment = new HashMap<>(getCommandEnvironment());
+        if (paths != null && !paths.isEmpty()) {
+            // paths are not patterns
+            environment.put("GIT_LITERAL_PATHSPECS", "1");
+            commandLine.add("--").add(paths);
+        }
+        if (noOptionalLocks) {
+            environment.put("GIT_OPTIONAL_LOCKS", "0");
+        }
+        setCommandEnvironment(environment);
+        final StatusOutputParser parser = new StatusOutputParser(version2);
+        try {
+            start(parser);
+        } catch (IOException e) {
+            throw new GitException(e.getMessage(), e);
+        }
+        return parser.getEntries();
+    }
+
+    private void prepareCommandLine() {
         reset();
         commandLine.add("status");
         if (format != null) {
@@ -48,8 +127,36 @@ public class StatusCommand extends GitCommand<List<String>> {
                 default:
             }
         }
-        start();
-        return getLines();
+    }
+
+    /**
+     * @param paths
+     *         paths which status is read, status of whole working tree is read if it is {@code null} or empty
+     * @return StatusCommand with established paths
+     */
+    public StatusCommand setPaths(List<String> paths) {
+        this.paths = paths;
+        return this;
+    }
+
+    /**
+     * @param ignored
+     *         {@code true} if ignored files should be read, see {@link StatusEntries#getIgnored()}
+     * @return StatusCommand with established ignored files mode
+     */
+    public StatusCommand setIgnored(boolean ignored) {
+        this.ignored = ignored;
+        return this;
+    }
+
+    /**
+     * @param noOptionalLocks
+     *         {@code true} if git shouldn't refresh index while it reads status, so status doesn't change repository
+     * @return StatusCommand with established locks mode
+     */
+    public StatusCommand setNoOptionalLocks(boolean noOptionalLocks) {
+        this.noOptionalLocks = noOptionalLocks;
+        return this;
     }
 
     /**
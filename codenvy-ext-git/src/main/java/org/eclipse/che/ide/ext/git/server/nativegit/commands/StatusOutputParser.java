@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
+import com.google.common.base.Joiner;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses output of {@code git status --porcelain=v2 -z} or {@code git status --porcelain -z} to {@link StatusEntries}
+ * while git writes it. Every record is terminated with NUL character, so paths are never quoted, renamed and copied
+ * paths are followed by one more record with original path.
+ */
+class StatusOutputParser extends OutputStream {
+
+    private final StatusEntries entries = new StatusEntries();
+    private final boolean       version2;
+
+    private byte[] buffer = new byte[256];
+    private int    length;
+
+    /** Path which original path is expected in next record. */
+    private String renamedPath;
+
+    private String upstream;
+
+    /**
+     * @param version2
+     *         {@code true} if output is printed in porcelain version 2 format
+     */
+    StatusOutputParser(boolean version2) {
+        this.version2 = version2;
+    }
+
+    StatusEntries getEntries() {
+        return entries;
+    }
+
+    @Override
+    public void write(int b) {
+        if (b == 0) {
+            endRecord();
+        } else {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = (byte)b;
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) {
+        final int end = offset + count;
+        int start = offset;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] == 0) {
+                append(bytes, start, i - start);
+                endRecord();
+                start = i + 1;
+            }
+        }
+        append(bytes, start, end - start);
+    }
+
+    private void append(byte[] bytes, int offset, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (length + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + count));
+        }
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    private void endRecord() {
+        final String record = new String(buffer, 0, length, StandardCharsets.UTF_8);
+        length = 0;
+        if (renamedPath != null) {
+            entries.putOriginalPath(renamedPath, record);
+            renamedPath = null;
+        } else if (version2) {
+            parseVersion2(record);
+        } else {
+            parseVersion1(record);
+        }
+    }
+
+    /** Record is <i>XY path</i>, renamed and copied paths are followed by original path. */
+    private void parseVersion1(String record) {
+        if (record.length() < 4) {
+            return;
+        }
+        final String code = record.substring(0, 2);
+        final String path = record.substring(3);
+        if ("??".equals(code)) {
+            entries.addNotTracked(path);
+        } else if ("!!".equals(code)) {
+            entries.addIgnored(path);
+        } else {
+            entries.putCode(path, code);
+            if (code.charAt(0) == 'R' || code.charAt(0) == 'C') {
+                renamedPath = path;
+            }
+        }
+    }
+
+    private void parseVersion2(String record) {
+        if (record.length() < 2) {
+            return;
+        }
+        switch (record.charAt(0)) {
+            case '#':
+                parseHeader(record);
+                break;
+            case '1':
+                // 1 XY sub mH mI mW hH hI path
+                addChanged(fields(record, 8));
+                break;
+            case '2':
+                // 2 XY sub mH mI mW hH hI Xscore path, original path is in next record
+                final List<String> renamed = fields(record, 9);
+                addChanged(renamed);
+                renamedPath = renamed.get(renamed.size() - 1);
+                break;
+            case 'u':
+                // u XY sub m1 m2 m3 mW h1 h2 h3 path
+                addChanged(fields(record, 10));
+                break;
+            case '?':
+                entries.addNotTracked(record.substring(2));
+                break;
+            case '!':
+                entries.addIgnored(record.substring(2));
+                break;
+            default:
+        }
+    }
+
+    private void addChanged(List<String> fields) {
+        final String path = fields.get(fields.size() - 1);
+        // porcelain v2 shows unchanged side as '.'
+        entries.putCode(path, fields.get(1).replace('.', ' '));
+        final String submodule = fields.get(2);
+        if (submodule.charAt(0) == 'S') {
+            final List<String> states = new ArrayList<>(3);
+            if (submodule.charAt(1) == 'C') {
+                states.add("new commits");
+            }
+            if (submodule.charAt(2) == 'M') {
+                states.add("modified content");
+            }
+            if (submodule.charAt(3) == 'U') {
+                states.add("untracked content");
+            }
+            if (!states.isEmpty()) {
+                entries.putSubmoduleState(path, Joiner.on(", ").join(states));
+            }
+        }
+    }
+
+    /**
+     * Headers are <i># branch.oid (initial)</i>, <i># branch.upstream origin/master</i> and <i># branch.ab +1 -2</i>,
+     * others aren't used. The last one is absent if upstream branch doesn't exist.
+     */
+    private void parseHeader(String record) {
+        if (record.equals("# branch.oid (initial)")) {
+            entries.setInitial(true);
+        } else if (record.startsWith("# branch.upstream ")) {
+            upstream = record.substring("# branch.upstream ".length());
+        } else if (record.startsWith("# branch.ab ") && upstream != null) {
+            final List<String> fields = fields(record, 3);
+            entries.setUpstream(upstream, Integer.parseInt(fields.get(2).substring(1)), Integer.parseInt(fields.get(3).substring(1)));
+        }
+    }
+
+    /** Splits record to {@code count} fields separated by space and the rest of record which may contain spaces. */
+    private static List<String> fields(String record, int count) {
+        final List<String> fields = new ArrayList<>(count + 1);
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            final int end = record.indexOf(' ', start);
+            fields.add(record.substring(start, end));
+            start = end + 1;
+        }
+        fields.add(record.substring(start));
+        return fields;
+    }
+}
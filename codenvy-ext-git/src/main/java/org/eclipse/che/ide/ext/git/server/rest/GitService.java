@@ -29,8 +29,12 @@ import org.eclipse.che.ide.ext.git.server.GitConnection;
 import org.eclipse.che.ide.ext.git.server.GitConnectionFactory;
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.InfoPage;
-import org.eclipse.che.ide.ext.git.server.LogPage;
+import org.eclipse.che.ide.ext.git.server.RepositoryLockManager;
+import org.eclipse.che.ide.ext.git.server.RepositoryState;
 import org.eclipse.che.ide.ext.git.shared.AddRequest;
+import org.eclipse.che.ide.ext.git.shared.BatchOperation;
+import org.eclipse.che.ide.ext.git.shared.BatchRequest;
+import org.eclipse.che.ide.ext.git.shared.BatchResult;
 import org.eclipse.che.ide.ext.git.shared.Branch;
 import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchCreateRequest;
@@ -40,8 +44,10 @@ import org.eclipse.che.ide.ext.git.shared.CloneRequest;
 import org.eclipse.che.ide.ext.git.shared.CommitRequest;
 import org.eclipse.che.ide.ext.git.shared.Commiters;
 import org.eclipse.che.ide.ext.git.shared.ConfigRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
 import org.eclipse.che.ide.ext.git.shared.DiffRequest;
 import org.eclipse.che.ide.ext.git.shared.FetchRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
 import org.eclipse.che.ide.ext.git.shared.InitRequest;
 import org.eclipse.che.ide.ext.git.shared.LogRequest;
 import org.eclipse.che.ide.ext.git.shared.MergeRequest;
@@ -66,6 +72,9 @@ import org.eclipse.che.ide.ext.git.shared.TagListRequest;
 import org.eclipse.che.vfs.impl.fs.GitUrlResolver;
 import org.eclipse.che.vfs.impl.fs.LocalPathResolver;
 
+import com.google.common.base.Joiner;
+import com.google.common.hash.Hashing;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,21 +87,36 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /** @author andrew00x */
 @Path("git/{ws-id}")
 public class GitService {
     private static final Logger LOG = LoggerFactory.getLogger(GitService.class);
+
+    /** Batches which contain only these operations share lock of repository, other batches lock it exclusively. */
+    private static final Set<String> READ_OPERATIONS = new HashSet<>(Arrays.asList("branch-list", "config", "fetch", "push",
+                                                                                   "remote-list", "status", "tag-list"));
+
     @Inject
     private LocalPathResolver         localPathResolver;
     @Inject
@@ -103,6 +127,8 @@ public class GitService {
     private GitConnectionFactory      gitConnectionFactory;
     @Inject
     private ProjectManager            projectManager;
+    @Inject
+    private RepositoryLockManager     lockManager;
 
     @PathParam("ws-id")
     private String vfsId;
@@ -121,6 +147,128 @@ public class GitService {
         }
     }
 
+    @Path("batch")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public GenericEntity<List<BatchResult>> batch(BatchRequest request) throws ApiException {
+        if (request == null || request.getOperations() == null || request.getOperations().isEmpty()) {
+            throw new GitException("Operations of batch are required");
+        }
+        boolean readOnly = true;
+        for (BatchOperation operation : request.getOperations()) {
+            if (operation == null) {
+                throw new GitException("Batch operation is required");
+            }
+            readOnly &= READ_OPERATIONS.contains(operation.getType());
+        }
+        final List<BatchResult> results = new ArrayList<>(request.getOperations().size());
+        GitConnection gitConnection = getGitConnection();
+        try {
+            // operations of connection take the same lock once more, it is reentrant
+            final Lock lock = readOnly ? lockManager.lockRead(gitConnection.getWorkingDir())
+                                       : lockManager.lockWrite(gitConnection.getWorkingDir());
+            try {
+                for (BatchOperation operation : request.getOperations()) {
+                    final BatchResult result = DtoFactory.getInstance().createDto(BatchResult.class).withType(operation.getType());
+                    results.add(result);
+                    try {
+                        execute(gitConnection, operation, result);
+                    } catch (GitException e) {
+                        result.setError(e.getMessage());
+                        break;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            gitConnection.close();
+        }
+        return new GenericEntity<List<BatchResult>>(results) {
+        };
+    }
+
+    private void execute(GitConnection gitConnection, BatchOperation operation, BatchResult result) throws ApiException {
+        final String type = operation.getType();
+        if (type == null) {
+            throw new GitException("Type of batch operation is required");
+        }
+        switch (type) {
+            case "add":
+                gitConnection.add(required(operation.getAdd(), type));
+                break;
+            case "branch-checkout":
+                gitConnection.branchCheckout(required(operation.getBranchCheckout(), type));
+                break;
+            case "branch-create":
+                result.setBranch(gitConnection.branchCreate(required(operation.getBranchCreate(), type)));
+                break;
+            case "branch-delete":
+                gitConnection.branchDelete(required(operation.getBranchDelete(), type));
+                break;
+            case "branch-list":
+                result.setBranches(gitConnection.branchList(required(operation.getBranchList(), type)));
+                break;
+            case "commit":
+                result.setRevision(gitConnection.commit(required(operation.getCommit(), type)));
+                break;
+            case "config":
+                result.setConfig(readConfig(gitConnection, required(operation.getConfig(), type)));
+                break;
+            case "fetch":
+                gitConnection.fetch(required(operation.getFetch(), type));
+                break;
+            case "pull":
+                gitConnection.pull(required(operation.getPull(), type));
+                break;
+            case "push":
+                gitConnection.push(required(operation.getPush(), type));
+                break;
+            case "remote-list":
+                result.setRemotes(gitConnection.remoteList(required(operation.getRemoteList(), type)));
+                break;
+            case "reset":
+                gitConnection.reset(required(operation.getReset(), type));
+                break;
+            case "rm":
+                gitConnection.rm(required(operation.getRm(), type));
+                break;
+            case "status":
+                result.setStatus(toDto(gitConnection.status(operation.getStatusFormat())));
+                break;
+            case "tag-list":
+                result.setTags(gitConnection.tagList(required(operation.getTagList(), type)));
+                break;
+            default:
+                throw new GitException("Unsupported batch operation " + type);
+        }
+    }
+
+    private <T> T required(T request, String type) throws GitException {
+        if (request == null) {
+            throw new GitException("Request of batch operation " + type + " is required");
+        }
+        return request;
+    }
+
+    /** Status of connection isn't DTO, it is copied to be serialized as part of batch result. */
+    private Status toDto(Status status) {
+        final Status dto = DtoFactory.getInstance().createDto(Status.class);
+        dto.setClean(status.isClean());
+        dto.setFormat(status.getFormat());
+        dto.setBranchName(status.getBranchName());
+        dto.setAdded(status.getAdded());
+        dto.setChanged(status.getChanged());
+        dto.setRemoved(status.getRemoved());
+        dto.setMissing(status.getMissing());
+        dto.setModified(status.getModified());
+        dto.setUntracked(status.getUntracked());
+        dto.setUntrackedFolders(status.getUntrackedFolders());
+        dto.setConflicting(status.getConflicting());
+        return dto;
+    }
+
     @Path("branch-checkout")
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
@@ -175,11 +323,16 @@ public class GitService {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
-    public GenericEntity<List<Branch>> branchList(BranchListRequest request) throws ApiException {
-        GitConnection gitConnection = getGitConnection();
+    public Response branchList(BranchListRequest request, @Context HttpHeaders headers) throws ApiException {
+        final String workTree = resolveLocalPathByPath(projectPath);
+        final EntityTag tag = stateTag(workTree, headers, "branch-list", toJson(request));
+        if (isNotModified(headers, tag)) {
+            return Response.notModified(tag).build();
+        }
+        GitConnection gitConnection = gitConnectionFactory.getConnection(workTree);
         try {
-            return new GenericEntity<List<Branch>>(gitConnection.branchList(request)) {
-            };
+            return withTag(new GenericEntity<List<Branch>>(gitConnection.branchList(request)) {
+            }, tag);
         } finally {
             gitConnection.close();
         }
@@ -217,7 +370,7 @@ public class GitService {
         Revision revision = gitConnection.commit(request);
         try {
             if (revision.isFake()) {
-                Status status = status(StatusFormat.LONG);
+                Status status = gitConnection.status(StatusFormat.LONG);
 
                 try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
                     ((InfoPage)status).writeTo(bos);
@@ -246,6 +399,32 @@ public class GitService {
         }
     }
 
+    @Path("diff-index")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public DiffIndex diffIndex(DiffRequest request) throws ApiException {
+        GitConnection gitConnection = getGitConnection();
+        try {
+            return gitConnection.diffIndex(request);
+        } finally {
+            gitConnection.close();
+        }
+    }
+
+    @Path("diff-file")
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public FileDiff diffFile(DiffRequest request) throws ApiException {
+        GitConnection gitConnection = getGitConnection();
+        try {
+            return gitConnection.diffFile(request);
+        } finally {
+            gitConnection.close();
+        }
+    }
+
     @Path("fetch")
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
@@ -275,10 +454,15 @@ public class GitService {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
-    public LogPage log(LogRequest request) throws ApiException {
-        GitConnection gitConnection = getGitConnection();
+    public Response log(LogRequest request, @Context HttpHeaders headers) throws ApiException {
+        final String workTree = resolveLocalPathByPath(projectPath);
+        final EntityTag tag = stateTag(workTree, headers, "log", toJson(request));
+        if (isNotModified(headers, tag)) {
+            return Response.notModified(tag).build();
+        }
+        GitConnection gitConnection = gitConnectionFactory.getConnection(workTree);
         try {
-            return gitConnection.log(request);
+            return withTag(gitConnection.log(request), tag);
         } finally {
             gitConnection.close();
         }
@@ -360,11 +544,16 @@ public class GitService {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
-    public GenericEntity<List<Remote>> remoteList(RemoteListRequest request) throws ApiException {
-        GitConnection gitConnection = getGitConnection();
+    public Response remoteList(RemoteListRequest request, @Context HttpHeaders headers) throws ApiException {
+        final String workTree = resolveLocalPathByPath(projectPath);
+        final EntityTag tag = stateTag(workTree, headers, "remote-list", toJson(request));
+        if (isNotModified(headers, tag)) {
+            return Response.notModified(tag).build();
+        }
+        GitConnection gitConnection = gitConnectionFactory.getConnection(workTree);
         try {
-            return new GenericEntity<List<Remote>>(gitConnection.remoteList(request)) {
-            };
+            return withTag(new GenericEntity<List<Remote>>(gitConnection.remoteList(request)) {
+            }, tag);
         } finally {
             gitConnection.close();
         }
@@ -450,27 +639,25 @@ public class GitService {
     @Produces(MediaType.APPLICATION_JSON)
     public Map<String, String> getConfig(ConfigRequest request) throws ApiException {
         GitConnection gitConnection = getGitConnection();
-        Map<String, String> result = new HashMap<>();
         try {
-            Config config = gitConnection.getConfig();
-            if (request.isGetAll()) {
-                for (String row : config.getList()) {
-                    String[] keyValues  = row.split("=", 2);
-                    result.put(keyValues[0], keyValues[1]);
-                }
-            } else {
-               for (String entry : request.getConfigEntry()) {
-                   try {
-                       String value = config.get(entry);
-                       result.put(entry, value);
-                   } catch (GitException exception) {
-                        //value for this config property non found. Do nothing
-                   }
-               }
-            }
+            return readConfig(gitConnection, request);
         } finally {
             gitConnection.close();
         }
+    }
+
+    private Map<String, String> readConfig(GitConnection gitConnection, ConfigRequest request) throws GitException {
+        Map<String, String> result = new HashMap<>();
+        Config config = gitConnection.getConfig();
+        if (request.isGetAll()) {
+            for (String row : config.getList()) {
+                String[] keyValues  = row.split("=", 2);
+                result.put(keyValues[0], keyValues[1]);
+            }
+        } else {
+            // properties which are not found are skipped
+            result.putAll(config.getValues(request.getConfigEntry()));
+        }
         return result;
     }
 
@@ -478,11 +665,16 @@ public class GitService {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces({MediaType.APPLICATION_JSON, MediaType.TEXT_PLAIN})
-    public GenericEntity<List<Tag>> tagList(TagListRequest request) throws ApiException {
-        GitConnection gitConnection = getGitConnection();
+    public Response tagList(TagListRequest request, @Context HttpHeaders headers) throws ApiException {
+        final String workTree = resolveLocalPathByPath(projectPath);
+        final EntityTag tag = stateTag(workTree, headers, "tag-list", toJson(request));
+        if (isNotModified(headers, tag)) {
+            return Response.notModified(tag).build();
+        }
+        GitConnection gitConnection = gitConnectionFactory.getConnection(workTree);
         try {
-            return new GenericEntity<List<Tag>>(gitConnection.tagList(request)) {
-            };
+            return withTag(new GenericEntity<List<Tag>>(gitConnection.tagList(request)) {
+            }, tag);
         } finally {
             gitConnection.close();
         }
@@ -567,4 +759,56 @@ public class GitService {
     protected GitConnection getGitConnection() throws ApiException {
         return gitConnectionFactory.getConnection(resolveLocalPathByPath(projectPath));
     }
+
+    /**
+     * Creates tag of response of read operation. Tag is computed before operation is executed from files of
+     * <i>.git</i> directory only, so request with the same tag in <i>If-None-Match</i> header is answered without git.
+     * Endpoints are POST, but they don't change repository, so weak tags are used like for GET requests.
+     *
+     * @param workTree
+     *         working tree of repository
+     * @param headers
+     *         headers of request, representation depends on accepted media type
+     * @param parts
+     *         name of operation and its parameters
+     * @return tag or {@code null} if repository state can't be trusted, e.g. it was just modified
+     */
+    private EntityTag stateTag(String workTree, HttpHeaders headers, String... parts) {
+        final String state = RepositoryState.fingerprint(new File(workTree));
+        if (state == null) {
+            return null;
+        }
+        final String source = Joiner.on('\0').useForNull("").join(state, headers.getHeaderString(HttpHeaders.ACCEPT), vfsId,
+                                                                   Joiner.on('\0').useForNull("").join(parts));
+        return new EntityTag(Hashing.sha1().hashString(source, StandardCharsets.UTF_8).toString(), true);
+    }
+
+    private boolean isNotModified(HttpHeaders headers, EntityTag tag) {
+        final String ifNoneMatch = headers.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (tag == null || ifNoneMatch == null) {
+            return false;
+        }
+        for (String value : ifNoneMatch.split(",")) {
+            String candidate = value.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals('"' + tag.getValue() + '"')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Response withTag(Object entity, EntityTag tag) {
+        final Response.ResponseBuilder builder = Response.ok(entity);
+        if (tag != null) {
+            builder.tag(tag);
+        }
+        return builder.build();
+    }
+
+    private String toJson(Object request) {
+        return request == null ? null : DtoFactory.getInstance().toJson(request);
+    }
 }
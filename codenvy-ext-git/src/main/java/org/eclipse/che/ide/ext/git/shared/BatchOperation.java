@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/**
+ * One operation of {@link BatchRequest}. Type of operation is the name of the same single operation of git service,
+ * e.g. <i>status</i> or <i>branch-list</i>, request of operation is kept in field of its type, other fields are empty.
+ */
+@DTO
+public interface BatchOperation {
+    /** @return type of operation */
+    String getType();
+
+    void setType(String type);
+
+    BatchOperation withType(String type);
+
+    /** @return request of <i>add</i> operation */
+    AddRequest getAdd();
+
+    void setAdd(AddRequest add);
+
+    BatchOperation withAdd(AddRequest add);
+
+    /** @return request of <i>branch-checkout</i> operation */
+    BranchCheckoutRequest getBranchCheckout();
+
+    void setBranchCheckout(BranchCheckoutRequest branchCheckout);
+
+    BatchOperation withBranchCheckout(BranchCheckoutRequest branchCheckout);
+
+    /** @return request of <i>branch-create</i> operation */
+    BranchCreateRequest getBranchCreate();
+
+    void setBranchCreate(BranchCreateRequest branchCreate);
+
+    BatchOperation withBranchCreate(BranchCreateRequest branchCreate);
+
+    /** @return request of <i>branch-delete</i> operation */
+    BranchDeleteRequest getBranchDelete();
+
+    void setBranchDelete(BranchDeleteRequest branchDelete);
+
+    BatchOperation withBranchDelete(BranchDeleteRequest branchDelete);
+
+    /** @return request of <i>branch-list</i> operation */
+    BranchListRequest getBranchList();
+
+    void setBranchList(BranchListRequest branchList);
+
+    BatchOperation withBranchList(BranchListRequest branchList);
+
+    /** @return request of <i>commit</i> operation */
+    CommitRequest getCommit();
+
+    void setCommit(CommitRequest commit);
+
+    BatchOperation withCommit(CommitRequest commit);
+
+    /** @return request of <i>config</i> operation */
+    ConfigRequest getConfig();
+
+    void setConfig(ConfigRequest config);
+
+    BatchOperation withConfig(ConfigRequest config);
+
+    /** @return request of <i>fetch</i> operation */
+    FetchRequest getFetch();
+
+    void setFetch(FetchRequest fetch);
+
+    BatchOperation withFetch(FetchRequest fetch);
+
+    /** @return request of <i>pull</i> operation */
+    PullRequest getPull();
+
+    void setPull(PullRequest pull);
+
+    BatchOperation withPull(PullRequest pull);
+
+    /** @return request of <i>push</i> operation */
+    PushRequest getPush();
+
+    void setPush(PushRequest push);
+
+    BatchOperation withPush(PushRequest push);
+
+    /** @return request of <i>remote-list</i> operation */
+    RemoteListRequest getRemoteList();
+
+    void setRemoteList(RemoteListRequest remoteList);
+
+    BatchOperation withRemoteList(RemoteListRequest remoteList);
+
+    /** @return request of <i>reset</i> operation */
+    ResetRequest getReset();
+
+    void setReset(ResetRequest reset);
+
+    BatchOperation withReset(ResetRequest reset);
+
+    /** @return request of <i>rm</i> operation */
+    RmRequest getRm();
+
+    void setRm(RmRequest rm);
+
+    BatchOperation withRm(RmRequest rm);
+
+    /** @return format of <i>status</i> operation */
+    StatusFormat getStatusFormat();
+
+    void setStatusFormat(StatusFormat statusFormat);
+
+    BatchOperation withStatusFormat(StatusFormat statusFormat);
+
+    /** @return request of <i>tag-list</i> operation */
+    TagListRequest getTagList();
+
+    void setTagList(TagListRequest tagList);
+
+    BatchOperation withTagList(TagListRequest tagList);
+}
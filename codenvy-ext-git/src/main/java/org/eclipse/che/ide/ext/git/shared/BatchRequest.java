@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Operations which are executed one by one with the same connection while repository is locked. Execution is stopped
+ * at the first failed operation, so the next operations may rely on results of the previous ones.
+ */
+@DTO
+public interface BatchRequest {
+    /** @return operations in order of execution */
+    List<BatchOperation> getOperations();
+
+    void setOperations(List<BatchOperation> operations);
+
+    BatchRequest withOperations(List<BatchOperation> operations);
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+/** Result of one operation of {@link BatchRequest}, only field of its type is set. */
+@DTO
+public interface BatchResult {
+    /** @return type of operation */
+    String getType();
+
+    void setType(String type);
+
+    BatchResult withType(String type);
+
+    /** @return message of error if operation failed, the next operations aren't executed in this case */
+    String getError();
+
+    void setError(String error);
+
+    BatchResult withError(String error);
+
+    /** @return result of <i>status</i> operation */
+    Status getStatus();
+
+    void setStatus(Status status);
+
+    BatchResult withStatus(Status status);
+
+    /** @return result of <i>branch-create</i> operation */
+    Branch getBranch();
+
+    void setBranch(Branch branch);
+
+    BatchResult withBranch(Branch branch);
+
+    /** @return result of <i>branch-list</i> operation */
+    List<Branch> getBranches();
+
+    void setBranches(List<Branch> branches);
+
+    BatchResult withBranches(List<Branch> branches);
+
+    /** @return result of <i>commit</i> operation */
+    Revision getRevision();
+
+    void setRevision(Revision revision);
+
+    BatchResult withRevision(Revision revision);
+
+    /** @return result of <i>config</i> operation */
+    Map<String, String> getConfig();
+
+    void setConfig(Map<String, String> config);
+
+    BatchResult withConfig(Map<String, String> config);
+
+    /** @return result of <i>remote-list</i> operation */
+    List<Remote> getRemotes();
+
+    void setRemotes(List<Remote> remotes);
+
+    BatchResult withRemotes(List<Remote> remotes);
+
+    /** @return result of <i>tag-list</i> operation */
+    List<Tag> getTags();
+
+    void setTags(List<Tag> tags);
+
+    BatchResult withTags(List<Tag> tags);
+}
@@ -58,4 +58,35 @@ public interface CloneRequest extends GitRequest {
     void setTimeout(int timeout);
     
     CloneRequest withTimeout(int timeout);
-}
\ No newline at end of file
+
+    /** @return number of commits of history to be cloned, whole history is cloned if it is not positive */
+    int getDepth();
+
+    void setDepth(int depth);
+
+    CloneRequest withDepth(int depth);
+
+    /** @return branch to be checked out after clone. If <code>null</code> then default branch of remote repository is used */
+    String getBranch();
+
+    void setBranch(String branch);
+
+    CloneRequest withBranch(String branch);
+
+    /** @return <code>true</code> if only history of one branch must be cloned */
+    boolean isSingleBranch();
+
+    void setSingleBranch(boolean singleBranch);
+
+    CloneRequest withSingleBranch(boolean singleBranch);
+
+    /**
+     * @return filter of partial clone, e.g. <i>blob:none</i> or <i>tree:0</i>. Filtered objects are downloaded when they
+     *         are needed. If <code>null</code> then all objects are cloned
+     */
+    String getFilter();
+
+    void setFilter(String filter);
+
+    CloneRequest withFilter(String filter);
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Page of changed files of diff. Content of each file may be got separately with diff request which file filter
+ * contains path of file.
+ */
+@DTO
+public interface DiffIndex {
+    /** @return changed files of requested page */
+    List<DiffIndexEntry> getEntries();
+
+    void setEntries(List<DiffIndexEntry> entries);
+
+    DiffIndex withEntries(List<DiffIndexEntry> entries);
+
+    /** @return number of all changed files */
+    int getTotal();
+
+    void setTotal(int total);
+
+    DiffIndex withTotal(int total);
+}
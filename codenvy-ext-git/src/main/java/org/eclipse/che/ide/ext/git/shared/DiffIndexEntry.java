@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/** Changed file of diff without its content. */
+@DTO
+public interface DiffIndexEntry {
+    /** @return path of file, new path if file is renamed or copied */
+    String getPath();
+
+    void setPath(String path);
+
+    DiffIndexEntry withPath(String path);
+
+    /** @return original path of renamed or copied file, otherwise {@code null} */
+    String getOldPath();
+
+    void setOldPath(String oldPath);
+
+    DiffIndexEntry withOldPath(String oldPath);
+
+    /** @return type of change in the same form as git shows it, e.g. <i>A</i>, <i>M</i>, <i>D</i>, <i>R</i> */
+    String getChangeType();
+
+    void setChangeType(String changeType);
+
+    DiffIndexEntry withChangeType(String changeType);
+
+    /** @return number of added lines, it is 0 for binary files */
+    int getAddedLines();
+
+    void setAddedLines(int addedLines);
+
+    DiffIndexEntry withAddedLines(int addedLines);
+
+    /** @return number of removed lines, it is 0 for binary files */
+    int getRemovedLines();
+
+    void setRemovedLines(int removedLines);
+
+    DiffIndexEntry withRemovedLines(int removedLines);
+
+    /** @return {@code true} if file is binary */
+    boolean isBinary();
+
+    void setBinary(boolean binary);
+
+    DiffIndexEntry withBinary(boolean binary);
+}
@@ -115,4 +115,25 @@ public interface DiffRequest extends GitRequest {
     void setCached(boolean isCached);
     
     DiffRequest withCached(boolean isCached);
-}
\ No newline at end of file
+
+    /** @return number of files to skip in diff index, must not be negative */
+    int getSkip();
+
+    void setSkip(int skip);
+
+    DiffRequest withSkip(int skip);
+
+    /** @return maximal number of files in diff index, all files are shown if it is not positive */
+    int getMaxCount();
+
+    void setMaxCount(int maxCount);
+
+    DiffRequest withMaxCount(int maxCount);
+
+    /** @return maximal size of diff of one file in bytes, must not be negative, server limit is used if it is 0 or bigger than it */
+    int getMaxSize();
+
+    void setMaxSize(int maxSize);
+
+    DiffRequest withMaxSize(int maxSize);
+}
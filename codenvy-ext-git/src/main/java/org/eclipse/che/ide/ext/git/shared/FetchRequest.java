@@ -49,4 +49,25 @@ public interface FetchRequest extends GitRequest {
     void setTimeout(int timeout);
     
     FetchRequest withTimeout(int timeout);
-}
\ No newline at end of file
+
+    /** @return number of commits of history to be fetched from the tips of fetched branches, not limited if it is not positive */
+    int getDepth();
+
+    void setDepth(int depth);
+
+    FetchRequest withDepth(int depth);
+
+    /** @return number of commits by which history of shallow repository must be deepened */
+    int getDeepen();
+
+    void setDeepen(int deepen);
+
+    FetchRequest withDeepen(int deepen);
+
+    /** @return <code>true</code> if whole history must be fetched into shallow repository */
+    boolean isUnshallow();
+
+    void setUnshallow(boolean unshallow);
+
+    FetchRequest withUnshallow(boolean unshallow);
+}
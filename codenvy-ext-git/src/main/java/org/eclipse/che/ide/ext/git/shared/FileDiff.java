@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.shared;
+
+import org.eclipse.che.dto.shared.DTO;
+
+/** Diff of one file in unified format. */
+@DTO
+public interface FileDiff {
+    /** @return diff text, if diff is truncated it contains only whole lines which fit into limit */
+    String getDiff();
+
+    void setDiff(String diff);
+
+    FileDiff withDiff(String diff);
+
+    /** @return {@code true} if diff is bigger than limit and only its beginning is shown */
+    boolean isTruncated();
+
+    void setTruncated(boolean truncated);
+
+    FileDiff withTruncated(boolean truncated);
+
+    /** @return {@code true} if file is binary, diff contains only notice about change */
+    boolean isBinary();
+
+    void setBinary(boolean binary);
+
+    FileDiff withBinary(boolean binary);
+}
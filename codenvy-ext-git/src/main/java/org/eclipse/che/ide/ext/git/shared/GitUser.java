@@ -29,4 +29,18 @@ public interface GitUser {
     void setEmail(String email);
     
     GitUser withEmail(String email);
-}
\ No newline at end of file
+
+    /** @return number of commits of user in current branch, it is set only in list of committers */
+    int getCommits();
+
+    void setCommits(int commits);
+
+    GitUser withCommits(int commits);
+
+    /** @return time of the latest commit of user in current branch, it is set only in list of committers */
+    long getLastCommitTime();
+
+    void setLastCommitTime(long time);
+
+    GitUser withLastCommitTime(long time);
+}
@@ -12,6 +12,8 @@ package org.eclipse.che.ide.ext.git.shared;
 
 import org.eclipse.che.dto.shared.DTO;
 
+import java.util.List;
+
 /**
  * Request to get commit logs.
  *
@@ -20,7 +22,72 @@ import org.eclipse.che.dto.shared.DTO;
  */
 @DTO
 public interface LogRequest extends GitRequest {
-    // private List<String> fileFilter;
     // private boolean noRenames = true;
     // private int renameLimit;
+
+    /** @return number of commits to skip before starting to show commits */
+    int getSkip();
+
+    void setSkip(int skip);
+
+    LogRequest withSkip(int skip);
+
+    /** @return maximal number of commits to show, all commits are shown if it is not positive */
+    int getMaxCount();
+
+    void setMaxCount(int maxCount);
+
+    LogRequest withMaxCount(int maxCount);
+
+    /**
+     * @return id of last commit of previous page, if it is set log starts from parents of this commit. Skip is applied to commits
+     * after this one. Unknown cursor is rejected.
+     */
+    String getCursor();
+
+    void setCursor(String cursor);
+
+    LogRequest withCursor(String cursor);
+
+    /** @return branch, revision or revision range, e.g. <i>master..feature</i>, to show commits of. HEAD is used if it is not set */
+    String getRevisionRange();
+
+    void setRevisionRange(String revisionRange);
+
+    LogRequest withRevisionRange(String revisionRange);
+
+    /** @return show only commits that modify these files */
+    List<String> getFileFilter();
+
+    void setFileFilter(List<String> fileFilter);
+
+    LogRequest withFileFilter(List<String> fileFilter);
+
+    /** @return show only commits with author that matches this regular expression */
+    String getAuthor();
+
+    void setAuthor(String author);
+
+    LogRequest withAuthor(String author);
+
+    /** @return show only commits more recent than this time in milliseconds, not used if it is not positive */
+    long getSince();
+
+    void setSince(long since);
+
+    LogRequest withSince(long since);
+
+    /** @return show only commits older than this time in milliseconds, not used if it is not positive */
+    long getUntil();
+
+    void setUntil(long until);
+
+    LogRequest withUntil(long until);
+
+    /** @return {@code true} if full commit messages should be shown instead of subjects */
+    boolean isFullMessage();
+
+    void setFullMessage(boolean fullMessage);
+
+    LogRequest withFullMessage(boolean fullMessage);
 }
\ No newline at end of file
@@ -12,6 +12,8 @@ package org.eclipse.che.ide.ext.git.shared;
 
 import org.eclipse.che.dto.shared.DTO;
 
+import java.util.List;
+
 /**
  * Request for calling git ls-remote.
  *
@@ -32,4 +34,25 @@ public interface LsRemoteRequest extends GitRequest {
     void setUseAuthorization(boolean useAuthorization);
 
     LsRemoteRequest withUseAuthorization(boolean useAuthorization);
+
+    /** @return <code>true</code> if only branches must be listed */
+    boolean isHeads();
+
+    void setHeads(boolean heads);
+
+    LsRemoteRequest withHeads(boolean heads);
+
+    /** @return <code>true</code> if only tags must be listed, tags and branches are listed if heads are requested too */
+    boolean isTags();
+
+    void setTags(boolean tags);
+
+    LsRemoteRequest withTags(boolean tags);
+
+    /** @return patterns which names of listed references must match from the end, e.g. <i>master</i> or <i>refs/heads/v*</i> */
+    List<String> getPatterns();
+
+    void setPatterns(List<String> patterns);
+
+    LsRemoteRequest withPatterns(List<String> patterns);
 }
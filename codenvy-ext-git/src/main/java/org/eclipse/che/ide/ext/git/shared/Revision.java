@@ -12,6 +12,8 @@ package org.eclipse.che.ide.ext.git.shared;
 
 import org.eclipse.che.dto.shared.DTO;
 
+import java.util.List;
+
 /**
  * Describe single commit.
  *
@@ -59,4 +61,25 @@ public interface Revision {
     GitUser getCommitter();
     
     Revision withCommitter(GitUser user);
+
+    /** @return ids of parent commits */
+    List<String> getParents();
+
+    void setParents(List<String> parents);
+
+    Revision withParents(List<String> parents);
+
+    /** @return author */
+    GitUser getAuthor();
+
+    void setAuthor(GitUser author);
+
+    Revision withAuthor(GitUser author);
+
+    /** @return time when commit was authored */
+    long getAuthorTime();
+
+    void setAuthorTime(long time);
+
+    Revision withAuthorTime(long time);
 }
\ No newline at end of file
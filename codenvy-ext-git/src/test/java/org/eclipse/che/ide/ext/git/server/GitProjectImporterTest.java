@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.che.ide.ext.git.server;
 
+import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
@@ -27,6 +28,7 @@ import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.git.server.nativegit.CredentialsProvider;
 import org.eclipse.che.ide.ext.git.server.nativegit.NativeGitConnectionFactory;
 import org.eclipse.che.ide.ext.git.server.nativegit.SshKeyUploader;
+import org.eclipse.che.ide.ext.git.shared.AddRequest;
 import org.eclipse.che.ide.ext.git.shared.Branch;
 import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchCreateRequest;
@@ -289,6 +291,100 @@ public class GitProjectImporterTest {
         Assert.assertNotNull(folder.getChild("hello.c"));
     }
 
+    @Test
+    public void testImportKeepNestedDirectory() throws Exception {
+        commitNestedDirectories();
+
+        FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
+        Map<String, String> parameters = new HashMap<>(2);
+        parameters.put("keepDirectory", "src/main");
+        gitProjectImporter.importSources(folder, gitRepo.getAbsolutePath(), parameters, new SystemOutLineConsumerFactory());
+        // only content of src/main folder copied
+        Assert.assertEquals(1, folder.getChildren().size());
+        Assert.assertNotNull(folder.getChild("app.c"));
+    }
+
+    @Test
+    public void testImportKeepDirectoryMergesContentWithProjectFiles() throws Exception {
+        commitNestedDirectories();
+
+        FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
+        File projectDir = ((VirtualFileImpl)folder.getVirtualFile()).getIoFile();
+        Assert.assertTrue(new File(projectDir, "main").mkdir());
+        try (BufferedWriter w = Files.newBufferedWriter(new File(projectDir, "main/existing.c").toPath(), Charset.forName("UTF-8"))) {
+            w.write("existing");
+        }
+        Map<String, String> parameters = new HashMap<>(2);
+        parameters.put("keepDirectory", "src");
+        gitProjectImporter.importSources(folder, gitRepo.getAbsolutePath(), parameters, new SystemOutLineConsumerFactory());
+        Assert.assertNotNull(folder.getChild("hello.c"));
+        Assert.assertNotNull(folder.getChild("main/app.c"));
+        Assert.assertNotNull(folder.getChild("main/existing.c"));
+        Assert.assertNotNull(folder.getChild("other/other.c"));
+        // temporary repository is removed
+        Assert.assertEquals(3, folder.getChildren().size());
+    }
+
+    @Test
+    public void testImportKeepMissingDirectory() throws Exception {
+        FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
+        Map<String, String> parameters = new HashMap<>(2);
+        parameters.put("keepDirectory", "missing");
+        try {
+            gitProjectImporter.importSources(folder, gitRepo.getAbsolutePath(), parameters, new SystemOutLineConsumerFactory());
+            Assert.fail("IOException expected");
+        } catch (IOException e) {
+            Assert.assertEquals("Directory missing doesn't exist in repository.", e.getMessage());
+        }
+        Assert.assertEquals(0, folder.getChildren().size());
+    }
+
+    @Test
+    public void testImportKeepDirectoryOutsideOfRepository() throws Exception {
+        FolderEntry other = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("other"));
+        File otherDir = ((VirtualFileImpl)other.getVirtualFile()).getIoFile();
+        try (BufferedWriter w = Files.newBufferedWriter(new File(otherDir, "file.txt").toPath(), Charset.forName("UTF-8"))) {
+            w.write("other");
+        }
+        FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
+        Map<String, String> parameters = new HashMap<>(2);
+        parameters.put("keepDirectory", "../../other");
+        try {
+            gitProjectImporter.importSources(folder, gitRepo.getAbsolutePath(), parameters, new SystemOutLineConsumerFactory());
+            Assert.fail("ServerException expected");
+        } catch (ServerException e) {
+            Assert.assertEquals("Directory to keep must be a relative path in repository: ../../other", e.getMessage());
+        }
+        Assert.assertNotNull(other.getChild("file.txt"));
+        Assert.assertEquals(0, folder.getChildren().size());
+    }
+
+    @Test
+    public void testKeepDirectoryMustBeInsideOfRepository() throws Exception {
+        final File temp = Files.createTempDirectory("import").toFile();
+        try {
+            Assert.assertEquals(new File(temp, "src/main").getCanonicalFile(), GitProjectImporter.resolveKeepDirectory(temp, "src/main"));
+            Assert.assertEquals(new File(temp, "src").getCanonicalFile(), GitProjectImporter.resolveKeepDirectory(temp, "src/main/.."));
+            for (String directory : Arrays.asList("", " ", ".", "..", "src/../..", "../" + temp.getName() + "x",
+                                                  temp.getAbsolutePath(), ".git", ".git/objects")) {
+                try {
+                    GitProjectImporter.resolveKeepDirectory(temp, directory);
+                    Assert.fail("ServerException expected for " + directory);
+                } catch (ServerException ignored) {
+                }
+            }
+        } finally {
+            IoUtil.deleteRecursive(temp);
+        }
+    }
+
+    @Test
+    public void testConePatternsIncludeParentDirectoriesOfKeptDirectory() {
+        Assert.assertEquals("/*\n!/*/\n/src/\n", GitProjectImporter.conePatterns("src"));
+        Assert.assertEquals("/*\n!/*/\n/src/\n!/src/*/\n/src/main/\n", GitProjectImporter.conePatterns("src/main"));
+        Assert.assertEquals("/*\n!/*/\n/src/\n!/src/*/\n/src/main/\n", GitProjectImporter.conePatterns("/src\\main/"));
+    }
+
     @Test
     public void testImportKeepVcs() throws Exception {
         FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
@@ -300,6 +396,21 @@ public class GitProjectImporterTest {
         Assert.assertNotNull(folder.getChild(".git"));
     }
 
+    private void commitNestedDirectories() throws Exception {
+        Assert.assertTrue(new File(gitRepo, "src/main").mkdirs());
+        Assert.assertTrue(new File(gitRepo, "src/other").mkdirs());
+        try (BufferedWriter w = Files.newBufferedWriter(new File(gitRepo, "src/main/app.c").toPath(), Charset.forName("UTF-8"))) {
+            w.write("app");
+        }
+        try (BufferedWriter w = Files.newBufferedWriter(new File(gitRepo, "src/other/other.c").toPath(), Charset.forName("UTF-8"))) {
+            w.write("other");
+        }
+        GitConnection git = gitFactory.getConnection(gitRepo);
+        git.add(dtoFactory.createDto(AddRequest.class).withFilepattern(Collections.singletonList("src")));
+        git.commit(dtoFactory.createDto(CommitRequest.class).withMessage("nested directories"));
+        git.close();
+    }
+
     @Test
     public void testImportRemoveVcs() throws Exception {
         FolderEntry folder = new FolderEntry("my-vfs", vfs.getMountPoint().getRoot().createFolder("project"));
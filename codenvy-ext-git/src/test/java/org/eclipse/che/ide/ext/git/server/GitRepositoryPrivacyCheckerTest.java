@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.api.core.util.LineConsumerFactory;
+import org.eclipse.che.ide.ext.git.server.commons.GitRepositoryPrivacyChecker;
+import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class GitRepositoryPrivacyCheckerTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch release  = new CountDownLatch(1);
+
+    private HttpServer                  server;
+    private GitConnectionFactory        connectionFactory;
+    private GitRepositoryPrivacyChecker checker;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                if ("/slow.git/info/refs".equals(exchange.getRequestURI().getPath())) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+                if ("/public.git/info/refs".equals(exchange.getRequestURI().getPath())) {
+                    exchange.getResponseHeaders().add("Content-Type", "application/x-git-upload-pack-advertisement");
+                    exchange.sendResponseHeaders(200, -1);
+                } else {
+                    exchange.sendResponseHeaders(401, -1);
+                }
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        connectionFactory = mock(GitConnectionFactory.class);
+        checker = new GitRepositoryPrivacyChecker(connectionFactory);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        release.countDown();
+        server.stop(0);
+        checker.shutdown();
+    }
+
+    @Test
+    public void testRepositoryIsCheckedWithRefsAdvertisement() {
+        assertTrue(checker.isRepositoryPublic(url("public.git")));
+        assertFalse(checker.isRepositoryPublic(url("private.git")));
+        verifyZeroInteractions(connectionFactory);
+    }
+
+    @Test
+    public void testResultIsSharedByUrlsOfTheSameRepository() {
+        assertTrue(checker.isRepositoryPublic(url("public.git")));
+        final int checked = requests.get();
+
+        assertTrue(checker.isRepositoryPublic(url("public/")));
+        assertTrue(checker.isRepositoryPublic("ssh://git@localhost:" + server.getAddress().getPort() + "/public.git"));
+
+        assertEquals(requests.get(), checked);
+    }
+
+    @Test
+    public void testSshUrlIsCheckedOverHttp() {
+        assertTrue(checker.isRepositoryPublic("ssh://git@localhost:" + server.getAddress().getPort() + "/public.git"));
+    }
+
+    @Test
+    public void testRepositoriesOnDifferentPortsAreDistinguished() throws Exception {
+        final HttpServer other = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        other.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+            }
+        });
+        other.start();
+        try {
+            assertTrue(checker.isRepositoryPublic(url("public.git")));
+            assertFalse(checker.isRepositoryPublic("http://localhost:" + other.getAddress().getPort() + "/public.git"));
+        } finally {
+            other.stop(0);
+        }
+    }
+
+    @Test(timeOut = 20000)
+    public void testUnansweredRequestIsAbortedAfterTimeout() {
+        checker.setTimeout(1);
+
+        assertFalse(checker.isRepositoryPublic(url("slow.git")));
+    }
+
+    @Test
+    public void testLsRemoteIsExecutedInCallingThread() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final GitConnection connection = mock(GitConnection.class);
+        when(connectionFactory.getConnection(any(File.class), any(LineConsumerFactory.class))).thenAnswer(new Answer<GitConnection>() {
+            @Override
+            public GitConnection answer(InvocationOnMock invocation) {
+                // environment of user is available in calling thread only
+                assertSame(Thread.currentThread(), caller);
+                return connection;
+            }
+        });
+
+        assertTrue(checker.isRepositoryPublic("git://localhost:" + server.getAddress().getPort() + "/public.git"));
+        verify(connection).lsRemote(any(LsRemoteRequest.class));
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + '/' + path;
+    }
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.ide.ext.git.server.commons.HostingHttpClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class HostingHttpClientTest {
+
+    private static final String ETAG = "\"abc\"";
+
+    private final List<String> conditions = new CopyOnWriteArrayList<>();
+
+    private HttpServer        server;
+    private HostingHttpClient client;
+    private volatile String   body;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        conditions.clear();
+        body = "[{\"id\":1}]";
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                final String condition = exchange.getRequestHeaders().getFirst("If-None-Match");
+                conditions.add(String.valueOf(condition));
+                try (InputStream input = exchange.getRequestBody()) {
+                    final ByteArrayOutputStream received = new ByteArrayOutputStream();
+                    final byte[] buf = new byte[1024];
+                    int point;
+                    while ((point = input.read(buf)) != -1) {
+                        received.write(buf, 0, point);
+                    }
+                    if (received.size() > 0) {
+                        body = received.toString(StandardCharsets.UTF_8.name());
+                    }
+                }
+                if (ETAG.equals(condition)) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (OutputStream output = new GZIPOutputStream(compressed)) {
+                    output.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, compressed.size());
+                try (OutputStream output = exchange.getResponseBody()) {
+                    compressed.writeTo(output);
+                }
+            }
+        });
+        server.start();
+        client = new HostingHttpClient();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testCompressedResponseIsRead() throws Exception {
+        final HostingHttpClient.Response response = client.execute(new HostingHttpClient.Request("GET", url()));
+
+        assertEquals(response.getCode(), 200);
+        assertEquals(response.getBody(), "[{\"id\":1}]");
+        assertEquals(response.getHeader("etag"), ETAG);
+    }
+
+    @Test
+    public void testKeptResponseIsRevalidated() throws Exception {
+        final HostingHttpClient.Response first = client.execute(new HostingHttpClient.Request("GET", url()).withCacheKey("user1"));
+        final HostingHttpClient.Response second = client.execute(new HostingHttpClient.Request("GET", url()).withCacheKey("user1"));
+
+        assertEquals(conditions, Arrays.asList("null", ETAG));
+        assertEquals(second.getCode(), 200);
+        assertEquals(second.getBody(), first.getBody());
+    }
+
+    @Test
+    public void testResponsesAreKeptSeparatelyForEachUser() throws Exception {
+        client.execute(new HostingHttpClient.Request("GET", url()).withCacheKey("user1"));
+        client.execute(new HostingHttpClient.Request("GET", url()).withCacheKey("user2"));
+        client.execute(new HostingHttpClient.Request("GET", url()));
+
+        assertEquals(conditions, Collections.nCopies(3, "null"));
+    }
+
+    @Test
+    public void testRequestBodyIsSent() throws Exception {
+        final HostingHttpClient.Response response = client.execute(new HostingHttpClient.Request("POST", url())
+                                                                           .withBody("application/json", "{\"key\":\"cl\u00e9\"}")
+                                                                           .withCacheKey("user1"));
+
+        assertEquals(response.getBody(), "{\"key\":\"cl\u00e9\"}");
+        client.execute(new HostingHttpClient.Request("GET", url()).withCacheKey("user1"));
+        assertEquals(conditions, Collections.nCopies(2, "null"));
+    }
+
+    @Test
+    public void testMissingHeaderIsNull() throws Exception {
+        assertNull(client.execute(new HostingHttpClient.Request("GET", url())).getHeader("Link"));
+    }
+
+    private String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/user/keys";
+    }
+}
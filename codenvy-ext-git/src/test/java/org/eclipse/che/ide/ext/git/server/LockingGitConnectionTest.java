@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server;
+
+import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Lock;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class LockingGitConnectionTest {
+
+    private final File repository = new File("target/repository");
+
+    private RepositoryLockManager lockManager;
+    private GitConnection         delegate;
+    private GitConnection         connection;
+
+    @BeforeMethod
+    public void setUp() {
+        lockManager = new RepositoryLockManager(100);
+        delegate = mock(GitConnection.class);
+        when(delegate.getWorkingDir()).thenReturn(repository);
+        connection = new LockingGitConnection(delegate, lockManager);
+    }
+
+    @Test
+    public void testReadOperationsShareLock() throws Exception {
+        when(delegate.status(any(StatusFormat.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                // read lock of another operation is acquired while status is running
+                lockManager.lockRead(repository).unlock();
+                return null;
+            }
+        });
+
+        connection.status(StatusFormat.SHORT);
+
+        assertEquals(lockManager.getAcquired(), 2);
+        assertEquals(lockManager.getTimeouts(), 0);
+    }
+
+    @Test
+    public void testWriteOperationIsExclusive() throws Exception {
+        when(delegate.commit(any(CommitRequest.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                final LockResult result = new LockResult();
+                final Thread status = new Thread(result);
+                status.start();
+                status.join();
+                if (result.error == null) {
+                    fail("Repository must be locked while commit is running");
+                }
+                return null;
+            }
+        });
+
+        connection.commit(null);
+
+        assertEquals(lockManager.getTimeouts(), 1);
+        // lock is released after operation
+        final Lock lock = lockManager.lockWrite(repository);
+        lock.unlock();
+    }
+
+    @Test
+    public void testDiffIsWrittenUnderReadLock() throws Exception {
+        when(delegate.diff(any(DiffRequest.class))).thenReturn(new DiffPage() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                final LockResult result = new LockResult(true);
+                final Thread commit = new Thread(result);
+                commit.start();
+                try {
+                    commit.join();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                if (result.error == null) {
+                    fail("Repository must be locked while diff is written");
+                }
+            }
+        });
+
+        final DiffPage page = connection.diff(null);
+        page.writeTo(new ByteArrayOutputStream());
+
+        assertEquals(lockManager.getTimeouts(), 1);
+        lockManager.lockWrite(repository).unlock();
+    }
+
+    @Test
+    public void testConfigIsModifiedUnderWriteLock() throws Exception {
+        final Config config = mock(Config.class);
+        when(delegate.getConfig()).thenReturn(config);
+        when(config.set(anyString(), anyString())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                final LockResult result = new LockResult(false);
+                final Thread status = new Thread(result);
+                status.start();
+                status.join();
+                if (result.error == null) {
+                    fail("Repository must be locked while config is modified");
+                }
+                return null;
+            }
+        });
+
+        connection.getConfig().set("user.name", "name");
+
+        verify(config).set("user.name", "name");
+        assertEquals(lockManager.getTimeouts(), 1);
+        lockManager.lockWrite(repository).unlock();
+    }
+
+    private class LockResult implements Runnable {
+        final boolean write;
+
+        GitException error;
+
+        LockResult() {
+            this(false);
+        }
+
+        LockResult(boolean write) {
+            this.write = write;
+        }
+
+        @Override
+        public void run() {
+            try {
+                (write ? lockManager.lockWrite(repository) : lockManager.lockRead(repository)).unlock();
+            } catch (GitException e) {
+                error = e;
+            }
+        }
+    }
+}
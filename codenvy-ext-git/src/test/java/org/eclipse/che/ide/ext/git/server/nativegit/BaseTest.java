@@ -15,7 +15,9 @@ import org.eclipse.che.commons.user.UserImpl;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.ext.git.server.GitConnection;
 import org.eclipse.che.ide.ext.git.server.GitConnectionFactory;
+import org.eclipse.che.ide.ext.git.server.GitConnectionFactoryProvider;
 import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.jgit.JGitConnectionFactory;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.ListFilesCommand;
 import org.eclipse.che.ide.ext.git.shared.AddRequest;
@@ -76,7 +78,7 @@ public abstract class BaseTest {
         init(repository);
         //setup connection
         user = newDTO(GitUser.class).withName("test_name").withEmail("test@email");
-        connectionFactory = new NativeGitConnectionFactory(null, loader, null);
+        connectionFactory = createConnectionFactory();
         connection = connectionFactory.getConnection(repository, user, NULL);
         addFile(repository.toPath(), "README.txt", CONTENT);
         connection.add(newDTO(AddRequest.class).withFilepattern(Arrays.asList("README.txt")));
@@ -94,6 +96,15 @@ public abstract class BaseTest {
         forClean.clear();
     }
 
+    /** Creates factory for engine selected with system property <i>git.engine</i>, so the same tests run against both engines. */
+    protected GitConnectionFactory createConnectionFactory() {
+        final NativeGitConnectionFactory nativeGitConnectionFactory = new NativeGitConnectionFactory(null, loader, null);
+        if (GitConnectionFactoryProvider.ENGINE_JGIT.equals(System.getProperty(GitConnectionFactoryProvider.ENGINE))) {
+            return new JGitConnectionFactory(nativeGitConnectionFactory);
+        }
+        return nativeGitConnectionFactory;
+    }
+
     protected Path getTarget() throws URISyntaxException {
         if (target == null) {
             final URL targetParent = Thread.currentThread().getContextClassLoader().getResource(".");
@@ -10,16 +10,20 @@
  *******************************************************************************/
 package org.eclipse.che.ide.ext.git.server.nativegit;
 
+import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.BranchListCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.shared.AddRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchCreateRequest;
+import org.eclipse.che.ide.ext.git.shared.CloneRequest;
 import org.eclipse.che.ide.ext.git.shared.CommitRequest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.Arrays;
 
@@ -75,4 +79,31 @@ public class BranchCheckoutTest extends BaseTest {
         assertEquals(blc.execute().size(), 3);
         assertTrue(new File(getRepository().toFile(), "newfile").exists());
     }
+
+    @Test
+    public void testContentOfPartialCloneIsDownloadedOnCheckout() throws Exception {
+        //given
+        new EmptyGitCommand(getRepository().toFile()).setNextParameter("config")
+                                                      .setNextParameter("uploadpack.allowFilter")
+                                                      .setNextParameter("true")
+                                                      .execute();
+        File partialRepo = new File(getTarget().toFile(), "partialRepo");
+        partialRepo.mkdir();
+        forClean.add(partialRepo);
+        String uri = getRepository().toUri().toString();
+        connectionFactory.getConnection(partialRepo, getUser(), LineConsumerFactory.NULL)
+                         .clone(newDTO(CloneRequest.class).withRemoteUri(uri).withFilter("blob:none"));
+        File[] promisors = new File(partialRepo, ".git/objects/pack").listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".promisor");
+            }
+        });
+        assertTrue(promisors != null && promisors.length > 0);
+        //when
+        connectionFactory.getConnection(partialRepo, getUser(), LineConsumerFactory.NULL)
+                         .branchCheckout(newDTO(BranchCheckoutRequest.class).withName(FIRST_BRANCH_NAME));
+        //then
+        assertEquals(readFile(new File(partialRepo, "newfile")), "new file content");
+    }
 }
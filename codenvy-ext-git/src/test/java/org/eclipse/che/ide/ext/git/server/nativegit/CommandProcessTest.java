@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class CommandProcessTest {
+
+    private File repository;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        repository = Files.createTempDirectory("git-process-").toFile();
+        new EmptyGitCommand(repository).setNextParameter("init").execute();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(repository);
+    }
+
+    @Test(timeOut = 30000)
+    public void testStreamingCommandIsStoppedAfterTimeout() throws Exception {
+        // git waits for object names on standard input which is never closed
+        final StreamingCommand command = new StreamingCommand(repository, "cat-file", "--batch");
+        command.setTimeout(1);
+        final long start = System.currentTimeMillis();
+        try {
+            command.execute(new ByteArrayOutputStream());
+            throw new AssertionError("GitException expected");
+        } catch (GitException e) {
+            assertTrue(System.currentTimeMillis() - start < 20000);
+        }
+    }
+
+    @Test
+    public void testCommandIsCompletedWhenOutputDoesNotNeedMore() throws Exception {
+        final StreamingCommand command = new StreamingCommand(repository, "help", "--all");
+        final AtomicInteger writes = new AtomicInteger();
+
+        command.execute(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writes.incrementAndGet();
+                throw new OutputCompletedException();
+            }
+        });
+
+        assertEquals(writes.get(), 1);
+    }
+
+    @Test(timeOut = 30000)
+    public void testSpooledOutputIsWrittenWhenProcessIsReleased() throws Exception {
+        final GitProcessScheduler scheduler = new GitProcessScheduler(1, 1, 10);
+        CommandProcess.setScheduler(scheduler);
+        try {
+            final StreamingCommand command = new StreamingCommand(repository, "help", "--all");
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            command.execute(expected);
+            final ByteArrayOutputStream output = new ByteArrayOutputStream() {
+                @Override
+                public synchronized void write(byte[] b, int off, int len) {
+                    // slow client doesn't keep slot of git process
+                    assertEquals(scheduler.getLocalQueue().getRunning(), 0);
+                    super.write(b, off, len);
+                }
+            };
+
+            command.executeSpooled(output);
+
+            assertEquals(output.toByteArray(), expected.toByteArray());
+        } finally {
+            CommandProcess.setScheduler(null);
+        }
+    }
+
+    private static class StreamingCommand extends GitCommand<Void> {
+        private final String[] args;
+
+        StreamingCommand(File repository, String... args) {
+            super(repository);
+            this.args = args;
+        }
+
+        @Override
+        public Void execute() throws GitException {
+            throw new UnsupportedOperationException();
+        }
+
+        void execute(OutputStream output) throws GitException, IOException {
+            reset();
+            commandLine.add(args);
+            start(output);
+        }
+
+        void executeSpooled(OutputStream output) throws GitException, IOException {
+            reset();
+            commandLine.add(args);
+            startSpooled(output);
+        }
+    }
+}
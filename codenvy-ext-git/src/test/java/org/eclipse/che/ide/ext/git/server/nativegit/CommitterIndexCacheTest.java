@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+public class CommitterIndexCacheTest extends BaseTest {
+
+    private NativeGit           nativeGit;
+    private CommitterIndexCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        nativeGit = spy(new NativeGit(getRepository().toFile()));
+        cache = new CommitterIndexCache();
+        // repository already has initial commit of test user
+        commit("Alice", "2000000000 +0000");
+        commit("Bob", "2000001000 +0000");
+        commit("Alice", "2000002000 +0000");
+    }
+
+    @Test
+    public void testCommittersAreAggregated() throws Exception {
+        final List<GitUser> committers = cache.get(nativeGit);
+
+        assertEquals(committers.size(), 3);
+        assertCommitter(committers.get(0), "Alice", 2, 2000002000000L);
+        assertCommitter(committers.get(1), "Bob", 1, 2000001000000L);
+    }
+
+    @Test
+    public void testNewCommitsAreAddedToIndex() throws Exception {
+        cache.get(nativeGit);
+        commit("Bob", "2000003000 +0000");
+        commit("Carol", "2000004000 +0000");
+        reset(nativeGit);
+
+        final List<GitUser> committers = cache.get(nativeGit);
+
+        verify(nativeGit, times(1)).createCommittersCommand();
+        assertEquals(committers.size(), 4);
+        assertCommitter(committers.get(0), "Carol", 1, 2000004000000L);
+        assertCommitter(committers.get(1), "Bob", 2, 2000003000000L);
+        assertCommitter(committers.get(2), "Alice", 2, 2000002000000L);
+    }
+
+    @Test
+    public void testIndexIsNotUpdatedIfHeadIsNotChanged() throws Exception {
+        cache.get(nativeGit);
+        reset(nativeGit);
+
+        cache.get(nativeGit);
+
+        verify(nativeGit, times(0)).createCommittersCommand();
+    }
+
+    @Test
+    public void testIndexIsBuiltAgainAfterHistoryRewrite() throws Exception {
+        cache.get(nativeGit);
+        git("reset", "--hard", "HEAD~2");
+        commit("Carol", "2000004000 +0000");
+
+        final List<GitUser> committers = cache.get(nativeGit);
+
+        assertEquals(committers.size(), 3);
+        assertCommitter(committers.get(0), "Carol", 1, 2000004000000L);
+        assertCommitter(committers.get(1), "Alice", 1, 2000000000000L);
+    }
+
+    private void assertCommitter(GitUser committer, String name, int commits, long lastCommitTime) {
+        assertEquals(committer.getName(), name);
+        assertEquals(committer.getEmail(), name.toLowerCase() + "@example.com");
+        assertEquals(committer.getCommits(), commits);
+        assertEquals(committer.getLastCommitTime(), lastCommitTime);
+    }
+
+    private void commit(String committer, String date) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        final Map<String, String> environment = new HashMap<>();
+        environment.put("GIT_COMMITTER_NAME", committer);
+        environment.put("GIT_COMMITTER_EMAIL", committer.toLowerCase() + "@example.com");
+        environment.put("GIT_COMMITTER_DATE", date);
+        command.setCommandEnvironment(environment);
+        command.setNextParameter("commit")
+               .setNextParameter("--allow-empty")
+               .setNextParameter("-m").setNextParameter(committer)
+               .execute();
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
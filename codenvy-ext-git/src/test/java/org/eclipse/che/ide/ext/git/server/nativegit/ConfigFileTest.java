@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.Config;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+/** Checks that configuration is read and written in-process in the same way as git does it. */
+public class ConfigFileTest extends BaseTest {
+
+    private static final String CONFIG = "[Core]\n"
+                                         + "\tflag\n"
+                                         + "[Sec \"Sub\"]\n"
+                                         + "\tKey = a b\\\n"
+                                         + "  c  ; comment\n"
+                                         + "\tkey = \"x;y\"  \n"
+                                         + "# comment\n"
+                                         + "[a.B]\n"
+                                         + "\tc = \"escaped \\\"\\\\\\t\"\n";
+
+    @Test
+    public void testReadTheSameAsGit() throws Exception {
+        appendConfig(CONFIG);
+        final Config config = new ConfigImpl(getRepository().toFile());
+
+        assertEquals(config.getList(), git("config", "--list"));
+        assertEquals(config.get("sec.Sub.key"), git("config", "--get", "sec.Sub.key").get(0));
+        assertEquals(config.getAll("sec.Sub.KEY"), git("config", "--get-all", "sec.Sub.KEY"));
+        assertEquals(config.get("a.b.c"), git("config", "--get", "a.b.c").get(0));
+        assertEquals(config.get("core.flag"), "");
+    }
+
+    @Test
+    public void testGetValues() throws Exception {
+        appendConfig(CONFIG);
+        final Config config = new ConfigImpl(getRepository().toFile());
+
+        final Map<String, String> values = config.getValues(Arrays.asList("core.bare", "unknown.key", "invalid", "sec.Sub.key"));
+
+        final Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("core.bare", "false");
+        expected.put("sec.Sub.key", "x;y");
+        assertEquals(values, expected);
+    }
+
+    @Test
+    public void testWriteIsReadableByGit() throws Exception {
+        appendConfig(CONFIG);
+        final Config config = new ConfigImpl(getRepository().toFile());
+        final Map<String, String> values = new LinkedHashMap<>();
+        values.put("core.bare", "false");
+        values.put("a.b.c", "changed");
+        values.put("new.Sub.name", " value with spaces and # ");
+        values.put("user.name", "Name \"quoted\"\\");
+
+        config.setValues(values);
+        config.add("remote.origin.fetch", "+refs/heads/*:refs/remotes/origin/*");
+        config.add("remote.origin.fetch", "+refs/tags/*:refs/tags/*");
+        config.unset("core.flag");
+
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            assertEquals(git("config", "--get", entry.getKey()).get(0), entry.getValue());
+        }
+        assertEquals(git("config", "--get-all", "remote.origin.fetch"),
+                     Arrays.asList("+refs/heads/*:refs/remotes/origin/*", "+refs/tags/*:refs/tags/*"));
+        assertFalse(git("config", "--list").contains("core.flag"));
+        // not changed lines are kept as they are
+        assertEquals(config.getAll("sec.Sub.key"), Arrays.asList("a b  c", "x;y"));
+    }
+
+    @Test(expectedExceptions = GitException.class, expectedExceptionsMessageRegExp = "warning: sec.Sub.key has multiple values\n")
+    public void testUnsetMultipleValues() throws Exception {
+        appendConfig(CONFIG);
+        new ConfigImpl(getRepository().toFile()).unset("sec.Sub.key");
+    }
+
+    @Test
+    public void testChangesMadeByGitAreVisible() throws Exception {
+        final Config config = new ConfigImpl(getRepository().toFile());
+        config.set("test.value", "first");
+        assertEquals(config.get("test.value"), "first");
+
+        git("config", "test.value", "second");
+
+        assertEquals(config.get("test.value"), "second");
+    }
+
+    private void appendConfig(String content) throws Exception {
+        final File file = getRepository().resolve(".git/config").toFile();
+        Files.write(file.toPath(), content.getBytes(), StandardOpenOption.APPEND);
+    }
+
+    private List<String> git(String... args) throws GitException {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+        return command.getLines();
+    }
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+public class DiffCacheTest extends BaseTest {
+
+    private NativeGit nativeGit;
+    private DiffCache cache;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        cache = new DiffCache();
+        nativeGit = spy(new NativeGit(getRepository().toFile()));
+        nativeGit.setDiffCache(cache);
+        addFile("file.txt", "first\n");
+        git("add", "file.txt");
+        git("commit", "-m", "first");
+        addFile("file.txt", "second\n");
+    }
+
+    @Test
+    public void testDiffBetweenCommitsIsReadOnce() throws Exception {
+        git("commit", "-a", "-m", "second");
+        final DiffRequest request = newDTO(DiffRequest.class).withType(DiffRequest.DiffType.RAW).withCommitA("HEAD~1").withCommitB("HEAD");
+        final String expected = read(new NativeGitDiffPage(request, new NativeGit(getRepository().toFile())));
+        reset(nativeGit);
+
+        final String first = read(new NativeGitDiffPage(request, nativeGit));
+        final String second = read(new NativeGitDiffPage(request, nativeGit));
+
+        verify(nativeGit, times(1)).createDiffCommand();
+        assertEquals(first, expected);
+        assertEquals(second, expected);
+        assertTrue(expected.contains("file.txt"));
+    }
+
+    @Test
+    public void testOptionsAreDistinguished() throws Exception {
+        git("commit", "-a", "-m", "second");
+        final DiffRequest request = newDTO(DiffRequest.class).withType(DiffRequest.DiffType.NAME_ONLY).withCommitA("HEAD~1").withCommitB("HEAD");
+        read(new NativeGitDiffPage(request, nativeGit));
+
+        final String filtered = read(new NativeGitDiffPage(request.withFileFilter(Collections.singletonList("README.txt")), nativeGit));
+
+        assertEquals(filtered, "");
+        assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void testDiffIsReadAgainWhenConfigurationIsChanged() throws Exception {
+        git("commit", "-a", "-m", "second");
+        final DiffRequest request = newDTO(DiffRequest.class).withType(DiffRequest.DiffType.RAW).withCommitA("HEAD~1").withCommitB("HEAD");
+        final String first = read(new NativeGitDiffPage(request, nativeGit));
+
+        git("config", "diff.noprefix", "true");
+        final String second = read(new NativeGitDiffPage(request, nativeGit));
+        addFile(".gitattributes", "file.txt -diff\n");
+        final String third = read(new NativeGitDiffPage(request, nativeGit));
+
+        assertTrue(first.contains("diff --git a/file.txt b/file.txt"));
+        assertTrue(second.contains("diff --git file.txt file.txt"));
+        assertTrue(third.contains("Binary files"));
+        assertEquals(cache.size(), 3);
+    }
+
+    @Test
+    public void testWorkingTreeDiffIsNotCached() throws Exception {
+        final DiffRequest request = newDTO(DiffRequest.class).withType(DiffRequest.DiffType.NAME_ONLY).withCommitA("HEAD");
+
+        assertTrue(read(new NativeGitDiffPage(request, nativeGit)).contains("file.txt"));
+        assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testEvictedDiffsAreKeptOnDisk() throws Exception {
+        final File directory = getTarget().resolve("diff-cache").toFile();
+        forClean.add(directory);
+        final DiffCache small = new DiffCache(800);
+        small.setDirectory(directory.getAbsolutePath());
+
+        for (int i = 0; i < 100; i++) {
+            small.put("key" + i, ("diff " + i).getBytes());
+        }
+
+        assertTrue(small.size() < 100);
+        for (int i = 0; i < 100; i++) {
+            final byte[] diff = small.get("key" + i);
+            assertNotNull(diff);
+            assertEquals(new String(diff), "diff " + i);
+        }
+    }
+
+    private String read(NativeGitDiffPage page) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        page.writeTo(out);
+        return out.toString();
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.DiffIndex;
+import org.eclipse.che.ide.ext.git.shared.DiffIndexEntry;
+import org.eclipse.che.ide.ext.git.shared.DiffRequest;
+import org.eclipse.che.ide.ext.git.shared.FileDiff;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class DiffIndexTest extends BaseTest {
+
+    @BeforeMethod
+    public void createChanges() throws Exception {
+        final StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            lines.append("line ").append(i).append('\n');
+        }
+        addFile("big.txt", lines.toString());
+        addFile("old name.txt", lines.toString());
+        Files.write(getRepository().resolve("image.bin"), new byte[]{0, 1, 2});
+        git("add", ".");
+        git("commit", "-m", "files");
+
+        addFile("big.txt", lines.toString().replace("line 5\n", "changed 5\n") + "added\n");
+        Files.write(getRepository().resolve("image.bin"), new byte[]{0, 3, 4});
+        git("mv", "old name.txt", "new name.txt");
+        git("rm", "-q", "README.txt");
+        git("add", ".");
+    }
+
+    @Test
+    public void testIndex() throws Exception {
+        final DiffIndex index = getConnection().diffIndex(diff());
+
+        assertEquals(index.getTotal(), 4);
+        assertEquals(index.getEntries().size(), 4);
+        assertEntry(index.getEntries().get(0), "D", "README.txt", null, 0, 1);
+        assertEntry(index.getEntries().get(1), "M", "big.txt", null, 2, 1);
+        assertEntry(index.getEntries().get(2), "M", "image.bin", null, 0, 0);
+        assertTrue(index.getEntries().get(2).isBinary());
+        assertEntry(index.getEntries().get(3), "R", "new name.txt", "old name.txt", 0, 0);
+    }
+
+    @Test
+    public void testIndexPage() throws Exception {
+        final DiffIndex index = getConnection().diffIndex(diff().withSkip(1).withMaxCount(2));
+
+        assertEquals(index.getTotal(), 4);
+        assertEquals(index.getEntries().size(), 2);
+        assertEntry(index.getEntries().get(0), "M", "big.txt", null, 2, 1);
+        assertEntry(index.getEntries().get(1), "M", "image.bin", null, 0, 0);
+    }
+
+    @Test
+    public void testFileDiff() throws Exception {
+        final FileDiff diff = getConnection().diffFile(diff().withFileFilter(Arrays.asList("big.txt")));
+
+        assertFalse(diff.isTruncated());
+        assertFalse(diff.isBinary());
+        assertTrue(diff.getDiff().contains("\n-line 5\n+changed 5\n"));
+        assertTrue(diff.getDiff().endsWith("+added\n"));
+    }
+
+    @Test
+    public void testFileDiffIsTruncated() throws Exception {
+        final FileDiff diff = getConnection().diffFile(diff().withFileFilter(Arrays.asList("big.txt")).withMaxSize(200));
+
+        assertTrue(diff.isTruncated());
+        assertTrue(diff.getDiff().length() <= 200);
+        assertTrue(diff.getDiff().endsWith("\n"));
+        assertTrue(diff.getDiff().startsWith("diff --git a/big.txt b/big.txt\n"));
+    }
+
+    @Test
+    public void testBinaryFileDiff() throws Exception {
+        final FileDiff diff = getConnection().diffFile(diff().withFileFilter(Arrays.asList("image.bin")));
+
+        assertTrue(diff.isBinary());
+        assertFalse(diff.isTruncated());
+    }
+
+    @Test
+    public void testRenamedFileDiff() throws Exception {
+        final FileDiff diff = getConnection().diffFile(diff().withFileFilter(Arrays.asList("old name.txt", "new name.txt")));
+
+        assertTrue(diff.getDiff().contains("rename from old name.txt\nrename to new name.txt"));
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void testFileIsRequired() throws Exception {
+        getConnection().diffFile(diff());
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void testNegativeSkipIsRejected() throws Exception {
+        getConnection().diffIndex(diff().withSkip(-1).withMaxCount(2));
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void testNegativeMaxSizeIsRejected() throws Exception {
+        getConnection().diffFile(diff().withFileFilter(Arrays.asList("big.txt")).withMaxSize(-1));
+    }
+
+    private DiffRequest diff() {
+        return newDTO(DiffRequest.class).withCommitA("HEAD").withCached(true);
+    }
+
+    private void assertEntry(DiffIndexEntry entry, String changeType, String path, String oldPath, int added, int removed) {
+        assertEquals(entry.getChangeType(), changeType);
+        assertEquals(entry.getPath(), path);
+        if (oldPath == null) {
+            assertNull(entry.getOldPath());
+        } else {
+            assertEquals(entry.getOldPath(), oldPath);
+        }
+        assertEquals(entry.getAddedLines(), added);
+        assertEquals(entry.getRemovedLines(), removed);
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
@@ -14,6 +14,7 @@ import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.ide.ext.git.server.GitException;
 import org.eclipse.che.ide.ext.git.server.nativegit.commands.LogCommand;
+import org.eclipse.che.ide.ext.git.shared.CloneRequest;
 import org.eclipse.che.ide.ext.git.shared.FetchRequest;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -23,6 +24,7 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -92,4 +94,31 @@ public class FetchTest extends BaseTest {
                 new LogCommand(fetchTestRepo).setCount(1).execute().get(0).getMessage(),
                 "fetch branch test");
     }
+
+    @Test
+    public void testShallowCloneIsDeepened() throws Exception {
+        //given
+        File shallowRepo = new File(getTarget().toFile(), "shallowRepo");
+        shallowRepo.mkdir();
+        forClean.add(shallowRepo);
+        // depth is ignored for local paths
+        String uri = getRepository().toUri().toString();
+        connectionFactory.getConnection(shallowRepo, getUser(), LineConsumerFactory.NULL)
+                         .clone(newDTO(CloneRequest.class).withRemoteUri(uri).withDepth(1).withSingleBranch(true));
+        assertEquals(new LogCommand(shallowRepo).execute().size(), 1);
+        assertTrue(new File(shallowRepo, ".git/shallow").exists());
+        //when
+        connectionFactory.getConnection(shallowRepo, getUser(), LineConsumerFactory.NULL)
+                         .fetch(newDTO(FetchRequest.class).withRemote("origin").withDeepen(1));
+        //then
+        assertEquals(new LogCommand(shallowRepo).execute().size(), 2);
+        //when
+        connectionFactory.getConnection(shallowRepo, getUser(), LineConsumerFactory.NULL)
+                         .fetch(newDTO(FetchRequest.class).withRemote("origin").withUnshallow(true));
+        //then
+        assertFalse(new File(shallowRepo, ".git/shallow").exists());
+        // complete repository is fetched without error
+        connectionFactory.getConnection(shallowRepo, getUser(), LineConsumerFactory.NULL)
+                         .fetch(newDTO(FetchRequest.class).withRemote("origin").withUnshallow(true));
+    }
 }
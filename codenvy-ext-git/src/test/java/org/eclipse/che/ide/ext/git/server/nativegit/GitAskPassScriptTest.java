@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.GitCommand;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class GitAskPassScriptTest extends BaseTest {
+
+    @Test
+    public void testCommandsShareScriptAndKeepOwnCredentials() throws Exception {
+        final GitAskPassScript script = new GitAskPassScript();
+        final EmptyGitCommand first = new EmptyGitCommand(getRepository().toFile());
+        final EmptyGitCommand second = new EmptyGitCommand(getRepository().toFile());
+
+        script.apply(first, new UserCredential("first", "first password", "provider"));
+        script.apply(second, new UserCredential("second", "second password", "provider"));
+
+        assertEquals(first.getAskPassScriptPath(), second.getAskPassScriptPath());
+        assertFalse(readFile(new File(first.getAskPassScriptPath())).contains("password"));
+        assertEquals(ask(first, "Username for 'https://host.com': "), "first");
+        assertEquals(ask(second, "Username for 'https://host.com': "), "second");
+        assertEquals(ask(first, "Password for 'https://first@host.com': "), "first password");
+        assertEquals(ask(second, "Password for 'https://second@host.com': "), "second password");
+    }
+
+    @Test
+    public void testCredentialsAreAnsweredAsIs() throws Exception {
+        final GitAskPassScript script = new GitAskPassScript();
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+
+        script.apply(command, new UserCredential("-n", "pass\\word\\n\\c", "provider"));
+
+        assertEquals(ask(command, "Username for 'https://host.com': "), "-n");
+        assertEquals(ask(command, "Password for 'https://-n@host.com': "), "pass\\word\\n\\c");
+    }
+
+    /** Runs script as git does with environment which git command process gets. */
+    private String ask(GitCommand<?> command, String prompt) throws Exception {
+        final ProcessBuilder builder = new ProcessBuilder(command.getAskPassScriptPath(), prompt);
+        builder.environment().put(GitAskPassScript.USERNAME_VARIABLE, command.getAskPassUserName());
+        builder.environment().put(GitAskPassScript.PASSWORD_VARIABLE, command.getAskPassPassword());
+        final Process process = builder.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            final String answer = reader.readLine();
+            process.waitFor();
+            return answer;
+        }
+    }
+}
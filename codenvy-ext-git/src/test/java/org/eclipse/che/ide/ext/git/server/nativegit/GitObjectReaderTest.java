@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class GitObjectReaderTest extends BaseTest {
+
+    private GitObjectReaderPool pool;
+
+    @BeforeMethod
+    public void createPool() {
+        pool = new GitObjectReaderPool(0, 1);
+    }
+
+    @AfterMethod
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testResolveHead() throws Exception {
+        final GitObjectReader reader = pool.get(getRepository().toFile());
+
+        assertEquals(reader.resolve("HEAD"), revParse("HEAD"));
+        assertEquals(reader.resolve("refs/heads/master"), revParse("HEAD"));
+    }
+
+    @Test
+    public void testMissingRevision() throws Exception {
+        final GitObjectReader reader = pool.get(getRepository().toFile());
+
+        assertNull(reader.resolve("refs/heads/unknown"));
+        assertNull(reader.readCommit("unknown"));
+        // reader is still usable after missing object
+        assertNotNull(reader.resolve("HEAD"));
+    }
+
+    @Test
+    public void testReadBlob() throws Exception {
+        final GitObjectReader reader = pool.get(getRepository().toFile());
+
+        assertEquals(new String(reader.read("HEAD:README.txt")), CONTENT);
+        assertEquals(reader.readHeader("HEAD:README.txt").getType(), "blob");
+    }
+
+    @Test
+    public void testReadCommit() throws Exception {
+        final Revision revision = pool.get(getRepository().toFile()).readCommit("HEAD");
+
+        assertEquals(revision.getId(), revParse("HEAD"));
+        assertEquals(revision.getMessage(), "Initial commit");
+        assertEquals(revision.getCommitter().getName(), getUser().getName());
+        assertEquals(revision.getCommitter().getEmail(), getUser().getEmail());
+    }
+
+    @Test
+    public void testPoolReusesAndEvictsReaders() throws Exception {
+        final File repository = getRepository().toFile();
+        final GitObjectReader reader = pool.get(repository);
+
+        assertSame(pool.get(repository), reader);
+
+        Thread.sleep(10);
+        pool.evictIdle();
+
+        assertEquals(pool.size(), 0);
+        assertNotSame(pool.get(repository), reader);
+    }
+
+    @Test
+    public void testPoolReturnsNullForNotGitDirectory() throws Exception {
+        final File notRepository = getTarget().resolve("not-repository").toFile();
+        notRepository.mkdir();
+        forClean.add(notRepository);
+
+        assertNull(pool.get(notRepository));
+    }
+
+    private String revParse(String revision) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        command.setNextParameter("rev-parse").setNextParameter(revision).execute();
+        return command.getText().trim();
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.CloneCommand;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.StatusCommand;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class GitProcessSchedulerTest {
+
+    private final File repository = new File(System.getProperty("java.io.tmpdir"));
+
+    @AfterMethod
+    public void resetContext() {
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void testLocalCommandDoesNotWaitForNetworkCommand() throws Exception {
+        final GitProcessScheduler scheduler = new GitProcessScheduler(1, 1, 10);
+
+        final GitProcessScheduler.Ticket clone = scheduler.acquire(new CloneCommand(repository));
+        final GitProcessScheduler.Ticket status = scheduler.acquire(new StatusCommand(repository));
+
+        assertEquals(scheduler.getNetworkQueue().getRunning(), 1);
+        assertEquals(scheduler.getLocalQueue().getRunning(), 1);
+        status.release();
+        clone.release();
+        assertEquals(scheduler.getLocalQueue().getRunning(), 0);
+        assertEquals(scheduler.getNetworkQueue().getRunning(), 0);
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws Exception {
+        final GitProcessScheduler scheduler = new GitProcessScheduler(1, 1, 0);
+        final GitProcessScheduler.Ticket first = scheduler.acquire(new StatusCommand(repository));
+        try {
+            scheduler.acquire(new StatusCommand(repository));
+            throw new AssertionError("GitException expected");
+        } catch (GitException e) {
+            assertEquals(scheduler.getLocalQueue().getRejected(), 1);
+        } finally {
+            first.release();
+        }
+        // released ticket may be released again without effect
+        first.release();
+        assertEquals(scheduler.getLocalQueue().getRunning(), 0);
+    }
+
+    @Test
+    public void testWorkspacesAreServedInTurn() throws Exception {
+        final GitProcessScheduler scheduler = new GitProcessScheduler(1, 1, 10);
+        final GitProcessScheduler.Ticket running = scheduler.acquire(new StatusCommand(repository));
+        final List<String> started = Collections.synchronizedList(new ArrayList<String>());
+        final List<Thread> threads = new ArrayList<>();
+        for (String workspace : asList("ws1", "ws1", "ws1", "ws2", "ws3")) {
+            final Thread thread = new Thread(new Command(scheduler, workspace, started));
+            thread.start();
+            threads.add(thread);
+            // wait until command is queued to make order of queue predictable
+            while (scheduler.getLocalQueue().getWaiting() < threads.size()) {
+                Thread.sleep(5);
+            }
+        }
+
+        running.release();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        assertEquals(started, asList("ws1", "ws2", "ws3", "ws1", "ws1"));
+        assertEquals(scheduler.getLocalQueue().getExecuted(), 6);
+        assertEquals(scheduler.getLocalQueue().getWaiting(), 0);
+        assertTrue(scheduler.getLocalQueue().getMaxQueueTime() > 0);
+    }
+
+    private class Command implements Runnable {
+        final GitProcessScheduler scheduler;
+        final String              workspace;
+        final List<String>        started;
+
+        Command(GitProcessScheduler scheduler, String workspace, List<String> started) {
+            this.scheduler = scheduler;
+            this.workspace = workspace;
+            this.started = started;
+        }
+
+        @Override
+        public void run() {
+            final EnvironmentContext context = new EnvironmentContext();
+            context.setWorkspaceId(workspace);
+            EnvironmentContext.setCurrent(context);
+            try {
+                final GitProcessScheduler.Ticket ticket = scheduler.acquire(new StatusCommand(repository));
+                started.add(workspace);
+                ticket.release();
+            } catch (GitException e) {
+                started.add(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.LogRequest;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class LogTest extends BaseTest {
+
+    @BeforeMethod
+    public void createHistory() throws Exception {
+        // repository already has initial commit
+        commit("a.txt", "second", "Alice <alice@example.com>", "1400000000 +0000");
+        commit("b.txt", "third", "Bob <bob@example.com>", "1400001000 +0000");
+        commit("a.txt", "fourth", "Alice <alice@example.com>", "1400002000 +0000");
+        git("branch", "feature");
+        commit("b.txt", "fifth", "Bob <bob@example.com>", "1400003000 +0000");
+    }
+
+    @Test
+    public void testSkipAndMaxCount() throws Exception {
+        assertEquals(messages(log().withSkip(1).withMaxCount(2)), Arrays.asList("fourth", "third"));
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        final List<Revision> firstPage = getConnection().log(log().withMaxCount(2)).getCommits();
+        assertEquals(firstPage.size(), 2);
+
+        final LogRequest next = log().withMaxCount(2).withCursor(firstPage.get(1).getId());
+
+        assertEquals(messages(next), Arrays.asList("third", "second"));
+    }
+
+    @Test
+    public void testCursorWithSkipAndAbbreviatedId() throws Exception {
+        final String fifth = getConnection().log(log().withMaxCount(1)).getCommits().get(0).getId();
+
+        assertEquals(messages(log().withMaxCount(2).withSkip(1).withCursor(fifth.substring(0, 10))), Arrays.asList("third", "second"));
+    }
+
+    @Test
+    public void testCursorInRevisionRange() throws Exception {
+        final List<Revision> commits = getConnection().log(log()).getCommits();
+        final String fourth = commits.get(1).getId();
+        final String second = commits.get(3).getId();
+
+        assertEquals(messages(log().withRevisionRange(second + "..master").withCursor(fourth)), Arrays.asList("third"));
+        assertEquals(messages(log().withRevisionRange("feature").withCursor(fourth)), Arrays.asList("third", "second", "Initial commit"));
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void testUnknownCursorIsRejected() throws Exception {
+        getConnection().log(log().withCursor("0000000000000000000000000000000000000000"));
+    }
+
+    @Test
+    public void testRevisionRange() throws Exception {
+        assertEquals(messages(log().withRevisionRange("feature")), Arrays.asList("fourth", "third", "second", "Initial commit"));
+        assertEquals(messages(log().withRevisionRange("feature..master")), Arrays.asList("fifth"));
+    }
+
+    @Test
+    public void testFileAndAuthorFilters() throws Exception {
+        assertEquals(messages(log().withFileFilter(Arrays.asList("a.txt"))), Arrays.asList("fourth", "second"));
+        assertEquals(messages(log().withAuthor("Bob")), Arrays.asList("fifth", "third"));
+    }
+
+    @Test
+    public void testTimeFilters() throws Exception {
+        assertEquals(messages(log().withSince(1400001000000L).withUntil(1400002000000L)), Arrays.asList("fourth", "third"));
+    }
+
+    @Test
+    public void testDelimitersInFieldsAreKept() throws Exception {
+        commit("c.txt", "fix #42\n\nbody # with\n\nparagraphs", "Name # Hash <hash#@example.com>", "1400004000 +0000");
+
+        final Revision subject = getConnection().log(log().withMaxCount(1)).getCommits().get(0);
+        final Revision full = getConnection().log(log().withMaxCount(1).withFullMessage(true)).getCommits().get(0);
+
+        assertEquals(subject.getMessage(), "fix #42");
+        assertEquals(subject.getAuthor().getName(), "Name # Hash");
+        assertEquals(subject.getAuthor().getEmail(), "hash#@example.com");
+        assertEquals(subject.getAuthorTime(), 1400004000000L);
+        assertEquals(full.getMessage(), "fix #42\n\nbody # with\n\nparagraphs");
+    }
+
+    @Test
+    public void testParents() throws Exception {
+        final List<Revision> commits = getConnection().log(log()).getCommits();
+
+        assertEquals(commits.get(0).getParents(), Arrays.asList(commits.get(1).getId()));
+        assertTrue(commits.get(commits.size() - 1).getParents().isEmpty());
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void testUnknownRevision() throws Exception {
+        getConnection().log(log().withRevisionRange("unknown"));
+    }
+
+    @Test
+    public void testOptionsAreNotAcceptedAsFilters() throws Exception {
+        final File output = new File(getRepository().toFile(), "output.txt");
+        for (LogRequest request : Arrays.asList(log().withRevisionRange("--output=" + output),
+                                                log().withAuthor("--output=" + output),
+                                                log().withCursor("--output=" + output))) {
+            try {
+                getConnection().log(request);
+                throw new AssertionError("GitException expected");
+            } catch (GitException ignored) {
+            }
+        }
+        assertFalse(output.exists());
+    }
+
+    private LogRequest log() {
+        return newDTO(LogRequest.class);
+    }
+
+    private List<String> messages(LogRequest request) throws GitException {
+        final List<String> messages = new ArrayList<>();
+        for (Revision revision : getConnection().log(request).getCommits()) {
+            messages.add(revision.getMessage());
+        }
+        return messages;
+    }
+
+    private void commit(String file, String message, String author, String date) throws Exception {
+        addFile(file, message);
+        git("add", file);
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        final Map<String, String> environment = new HashMap<>();
+        environment.put("GIT_COMMITTER_DATE", date);
+        command.setCommandEnvironment(environment);
+        command.setNextParameter("commit")
+               .setNextParameter("-m").setNextParameter(message)
+               .setNextParameter("--author=" + author)
+               .setNextParameter("--date=" + date)
+               .execute();
+    }
+
+    private void git(String... args) throws GitException {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
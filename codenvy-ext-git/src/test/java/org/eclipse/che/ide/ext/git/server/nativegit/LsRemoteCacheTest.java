@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.LsRemoteRequest;
+import org.eclipse.che.ide.ext.git.shared.RemoteReference;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+public class LsRemoteCacheTest extends BaseTest {
+
+    private NativeGit           nativeGit;
+    private NativeGitConnection cachedConnection;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        git("branch", "feature");
+        git("tag", "v1.0");
+        nativeGit = spy(new NativeGit(getRepository().toFile()));
+        nativeGit.setLsRemoteCache(new LsRemoteCache());
+        cachedConnection = new NativeGitConnection(nativeGit, getUser(), null, null, new GitAskPassScript());
+        reset(nativeGit);
+    }
+
+    @Test
+    public void testHeadsAreListed() throws Exception {
+        assertEquals(names(getConnection().lsRemote(request().withHeads(true))),
+                     new TreeSet<>(Arrays.asList("refs/heads/feature", "refs/heads/master")));
+    }
+
+    @Test
+    public void testTagsAreListed() throws Exception {
+        assertEquals(names(getConnection().lsRemote(request().withTags(true))),
+                     new TreeSet<>(Arrays.asList("refs/tags/v1.0")));
+    }
+
+    @Test
+    public void testReferencesAreFilteredByPattern() throws Exception {
+        assertEquals(names(getConnection().lsRemote(request().withPatterns(Arrays.asList("feature", "v1.*")))),
+                     new TreeSet<>(Arrays.asList("refs/heads/feature", "refs/tags/v1.0")));
+    }
+
+    @Test
+    public void testReferencesAreListedOnce() throws Exception {
+        final List<RemoteReference> first = cachedConnection.lsRemote(request().withHeads(true));
+        git("branch", "other");
+
+        final List<RemoteReference> second = cachedConnection.lsRemote(request().withHeads(true));
+
+        verify(nativeGit, times(1)).createLsRemoteCommand();
+        assertEquals(names(second), names(first));
+    }
+
+    @Test
+    public void testChangesOfListedReferencesDontAffectCache() throws Exception {
+        cachedConnection.lsRemote(request().withHeads(true)).clear();
+
+        final List<RemoteReference> cached = cachedConnection.lsRemote(request().withHeads(true));
+
+        verify(nativeGit, times(1)).createLsRemoteCommand();
+        assertEquals(names(cached), new TreeSet<>(Arrays.asList("refs/heads/feature", "refs/heads/master")));
+    }
+
+    @Test
+    public void testRequestsWithDifferentFiltersAreDistinguished() throws Exception {
+        cachedConnection.lsRemote(request().withHeads(true));
+
+        final List<RemoteReference> tags = cachedConnection.lsRemote(request().withTags(true));
+
+        verify(nativeGit, times(2)).createLsRemoteCommand();
+        assertEquals(names(tags), new TreeSet<>(Arrays.asList("refs/tags/v1.0")));
+    }
+
+    private LsRemoteRequest request() {
+        return newDTO(LsRemoteRequest.class).withRemoteUrl(getRepository().toString()).withUseAuthorization(false);
+    }
+
+    private Set<String> names(List<RemoteReference> references) {
+        final Set<String> names = new TreeSet<>();
+        for (RemoteReference reference : references) {
+            names.add(reference.getReferenceName());
+        }
+        return names;
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
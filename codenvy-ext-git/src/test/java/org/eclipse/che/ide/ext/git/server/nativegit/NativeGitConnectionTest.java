@@ -94,6 +94,7 @@ public class NativeGitConnectionTest {
         when(nativeGit.createCommitCommand()).thenReturn(commitCommand);
         when(nativeGit.createBranchDeleteCommand()).thenReturn(branchDeleteCommand);
         when(nativeGit.createLogCommand()).thenReturn(logCommand);
+        when(logCommand.setCount(anyInt())).thenReturn(logCommand);
         when(logCommand.execute()).thenReturn(ImmutableList.of(revision));
         when(nativeGit.createConfig()).thenReturn(config);
         when(nativeGit.createBranchListCommand()).thenReturn(branchListCommand);
@@ -318,4 +319,75 @@ public class NativeGitConnectionTest {
 
         verify(keysManager).removeKey("git@host.com:codenvy");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldFetchWithCredentialsAtOnceIfRemoteRequiredAuthentication() throws Exception {
+        when(nativeGit.isAuthRequired("https://host.com/codenvy")).thenReturn(true);
+
+        //force connection to use remote from fetch request
+        final RemoteListCommand rlc = mock(RemoteListCommand.class);
+        when(rlc.setRemoteName(anyString())).thenReturn(rlc);
+        when(rlc.execute()).thenThrow(new GitException("test"));
+        when(nativeGit.createRemoteListCommand()).thenReturn(rlc);
+
+        final FetchCommand fetchCommand = mock(FetchCommand.class, RETURNS_DEEP_STUBS);
+        when(nativeGit.createFetchCommand()).thenReturn(fetchCommand);
+
+        connection.fetch(DtoFactory.getInstance()
+                                   .createDto(FetchRequest.class)
+                                   .withRemote("https://host.com/codenvy"));
+
+        verify(fetchCommand).setAskPassScriptPath(anyString());
+        verify(fetchCommand, times(1)).execute();
+        verify(nativeGit, never()).setAuthRequired(anyString(), anyBoolean());
+    }
+
+    @Test
+    public void shouldRememberRemoteWhichRequiredAuthentication() throws Exception {
+        when(nativeGit.getRepository()).thenReturn(new File(System.getProperty("java.io.tmpdir")));
+
+        //force connection to use remote from fetch request
+        final RemoteListCommand rlc = mock(RemoteListCommand.class);
+        when(rlc.setRemoteName(anyString())).thenReturn(rlc);
+        when(rlc.execute()).thenThrow(new GitException("test"));
+        when(nativeGit.createRemoteListCommand()).thenReturn(rlc);
+
+        final FetchCommand fetchCommand = mock(FetchCommand.class, RETURNS_DEEP_STUBS);
+        doThrow(new GitException("fatal: Authentication failed for 'https://host.com/codenvy/'")).doReturn(null)
+                                                                                                   .when(fetchCommand).execute();
+        when(nativeGit.createFetchCommand()).thenReturn(fetchCommand);
+
+        connection.fetch(DtoFactory.getInstance()
+                                   .createDto(FetchRequest.class)
+                                   .withRemote("https://host.com/codenvy"));
+
+        verify(fetchCommand, times(2)).execute();
+        verify(nativeGit).setAuthRequired("https://host.com/codenvy", true);
+    }
+
+    @Test
+    public void shouldForgetRemoteIfAuthenticationFailed() throws Exception {
+        when(nativeGit.isAuthRequired("https://host.com/codenvy")).thenReturn(true);
+
+        //force connection to use remote from fetch request
+        final RemoteListCommand rlc = mock(RemoteListCommand.class);
+        when(rlc.setRemoteName(anyString())).thenReturn(rlc);
+        when(rlc.execute()).thenThrow(new GitException("test"));
+        when(nativeGit.createRemoteListCommand()).thenReturn(rlc);
+
+        final FetchCommand fetchCommand = mock(FetchCommand.class, RETURNS_DEEP_STUBS);
+        doThrow(new GitException("fatal: Authentication failed for 'https://host.com/codenvy/'")).when(fetchCommand).execute();
+        when(nativeGit.createFetchCommand()).thenReturn(fetchCommand);
+
+        try {
+            connection.fetch(DtoFactory.getInstance()
+                                       .createDto(FetchRequest.class)
+                                       .withRemote("https://host.com/codenvy"));
+            fail("UnauthorizedException is expected");
+        } catch (UnauthorizedException ignored) {
+        }
+
+        verify(fetchCommand, times(1)).execute();
+        verify(nativeGit).setAuthRequired("https://host.com/codenvy", false);
+    }
+}
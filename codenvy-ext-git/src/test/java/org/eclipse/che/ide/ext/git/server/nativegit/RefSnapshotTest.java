@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class RefSnapshotTest extends BaseTest {
+
+    @Test
+    public void testReadLooseRefs() throws Exception {
+        git("branch", "feature");
+        git("tag", "v1");
+
+        final RefSnapshot snapshot = RefSnapshot.read(getGitDir());
+
+        assertEquals(snapshot.getCurrentBranch(), "master");
+        assertEquals(snapshot.getHeadId(), revParse("HEAD"));
+        assertEquals(snapshot.findRef("feature"), "refs/heads/feature");
+        assertEquals(snapshot.findRef("refs/tags/v1"), "refs/tags/v1");
+        assertNull(snapshot.findRef("unknown"));
+    }
+
+    @Test
+    public void testReadPackedRefs() throws Exception {
+        git("branch", "feature");
+        git("tag", "-a", "v1", "-m", "annotated");
+        git("pack-refs", "--all");
+        git("checkout", "feature");
+
+        final RefSnapshot snapshot = RefSnapshot.read(getGitDir());
+
+        assertEquals(snapshot.getCurrentBranch(), "feature");
+        assertEquals(snapshot.getRefs().get("refs/heads/master"), revParse("master"));
+        assertEquals(snapshot.getRefs().get("refs/tags/v1"), revParse("refs/tags/v1"));
+    }
+
+    @Test
+    public void testDetachedHead() throws Exception {
+        git("checkout", revParse("HEAD"));
+
+        final RefSnapshot snapshot = RefSnapshot.read(getGitDir());
+
+        assertTrue(snapshot.isDetached());
+        assertNull(snapshot.getCurrentBranch());
+        assertEquals(snapshot.getHeadId(), revParse("HEAD"));
+    }
+
+    @Test
+    public void testSnapshotIsReadAgainWhenRefsChanged() throws Exception {
+        final RefSnapshotCache cache = new RefSnapshotCache();
+        makeOld(getGitDir());
+        final RefSnapshot snapshot = cache.get(getRepository().toFile());
+
+        assertTrue(snapshot.isValid());
+        assertSame(cache.get(getRepository().toFile()), snapshot);
+
+        git("branch", "feature");
+
+        assertFalse(snapshot.isValid());
+        final RefSnapshot updated = cache.get(getRepository().toFile());
+        assertNotSame(updated, snapshot);
+        assertEquals(updated.findRef("feature"), "refs/heads/feature");
+    }
+
+    @Test
+    public void testRecentlyModifiedRefsAreNotTrusted() throws Exception {
+        assertFalse(RefSnapshot.read(getGitDir()).isValid());
+    }
+
+    private File getGitDir() {
+        return getRepository().resolve(".git").toFile();
+    }
+
+    /** Moves modification time of refs to the past, so snapshot isn't considered as racy. */
+    private void makeOld(File file) {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                makeOld(child);
+            }
+        }
+        assertTrue(file.setLastModified(System.currentTimeMillis() - 60000));
+    }
+
+    private void git(String... args) throws GitException {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+
+    private String revParse(String revision) throws GitException {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        command.setNextParameter("rev-parse").setNextParameter(revision).execute();
+        return command.getText();
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.RepositoryState;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+public class RepositoryStateTest extends BaseTest {
+
+    @Test
+    public void testFingerprintIsNotChangedWithoutChanges() throws Exception {
+        age();
+        final String fingerprint = RepositoryState.fingerprint(getRepository().toFile());
+
+        assertNotNull(fingerprint);
+        assertEquals(RepositoryState.fingerprint(getRepository().toFile()), fingerprint);
+    }
+
+    @Test
+    public void testFingerprintIsChangedWithRefs() throws Exception {
+        age();
+        final String fingerprint = RepositoryState.fingerprint(getRepository().toFile());
+        git("tag", "v1");
+        // just modified repository isn't trusted
+        assertNull(RepositoryState.fingerprint(getRepository().toFile()));
+
+        age();
+        assertNotEquals(RepositoryState.fingerprint(getRepository().toFile()), fingerprint);
+    }
+
+    @Test
+    public void testFingerprintIsChangedWithIndex() throws Exception {
+        age();
+        final String fingerprint = RepositoryState.fingerprint(getRepository().toFile());
+        addFile("new.txt", "new\n");
+        git("add", "new.txt");
+        age();
+
+        assertNotEquals(RepositoryState.fingerprint(getRepository().toFile()), fingerprint);
+    }
+
+    @Test
+    public void testFingerprintIsChangedWithConfig() throws Exception {
+        age();
+        final String fingerprint = RepositoryState.fingerprint(getRepository().toFile());
+        git("remote", "add", "origin", "https://host.com/repository.git");
+        age();
+
+        assertNotEquals(RepositoryState.fingerprint(getRepository().toFile()), fingerprint);
+    }
+
+    @Test
+    public void testNoFingerprintWithoutRepository() throws Exception {
+        assertNull(RepositoryState.fingerprint(getTarget().toFile()));
+    }
+
+    /** Moves modification time of all files of .git directory to the past, as if repository was modified long ago. */
+    private void age() {
+        age(getRepository().resolve(".git").toFile(), System.currentTimeMillis() - 60000);
+    }
+
+    private void age(File file, long time) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                age(child, time);
+            }
+        }
+        file.setLastModified(time);
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
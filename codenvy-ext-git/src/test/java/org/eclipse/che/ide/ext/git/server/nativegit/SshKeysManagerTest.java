@@ -26,17 +26,28 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Set;
 
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createDirectory;
 import static java.nio.file.Files.createFile;
 import static java.nio.file.Files.exists;
+import static java.nio.file.Files.getPosixFilePermissions;
+import static java.nio.file.attribute.PosixFilePermission.OWNER_EXECUTE;
+import static java.nio.file.attribute.PosixFilePermission.OWNER_READ;
+import static java.nio.file.attribute.PosixFilePermission.OWNER_WRITE;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Eugene Voevodin
@@ -45,7 +56,9 @@ import static org.testng.Assert.assertFalse;
 public class SshKeysManagerTest extends BaseTest {
 
     @Mock
-    SshKeyStore keyStore;
+    SshKeyStore    keyStore;
+    @Mock
+    SshKeyUploader uploader;
 
     @BeforeMethod
     public void prepareSshKeysDir() throws Exception {
@@ -112,6 +125,91 @@ public class SshKeysManagerTest extends BaseTest {
         manager.removeKey("host.com");
     }
 
+    @Test
+    public void shouldKeepKeyFileAndUploadPublicKeyOnce() throws Exception {
+        final SshKey publicKey = new SshKey("public_key", "publicsshkey".getBytes());
+        final SshKey privateKey = new SshKey("private_key", "privatesshkey".getBytes());
+        when(keyStore.getPrivateKey(eq("host.com"))).thenReturn(privateKey);
+        when(keyStore.getPublicKey(eq("host.com"))).thenReturn(publicKey);
+        when(uploader.match(DEFAULT_URI)).thenReturn(true);
+        final SshKeysManager manager = new SshKeysManager(keyStore, Collections.singleton(uploader));
+
+        final File key = manager.writeKeyFile(DEFAULT_URI);
+        manager.removeKey(DEFAULT_URI);
+        assertTrue(key.isFile());
+        manager.writeKeyFile(DEFAULT_URI);
+
+        verify(uploader, times(1)).uploadKey(publicKey);
+        manager.removeKeys();
+        assertFalse(key.exists());
+    }
+
+    @Test
+    public void shouldWriteAndUploadRegeneratedKey() throws Exception {
+        final SshKey publicKey = new SshKey("public_key", "publicsshkey".getBytes());
+        final SshKey newPublicKey = new SshKey("public_key", "newpublicsshkey".getBytes());
+        when(keyStore.getPrivateKey(eq("host.com"))).thenReturn(new SshKey("private_key", "privatesshkey".getBytes()),
+                                                                new SshKey("private_key", "newprivatesshkey".getBytes()));
+        when(keyStore.getPublicKey(eq("host.com"))).thenReturn(publicKey, newPublicKey);
+        when(uploader.match(DEFAULT_URI)).thenReturn(true);
+        final SshKeysManager manager = new SshKeysManager(keyStore, Collections.singleton(uploader));
+
+        manager.writeKeyFile(DEFAULT_URI);
+        final File key = manager.writeKeyFile(DEFAULT_URI);
+
+        assertEquals(readFile(key), "newprivatesshkey");
+        verify(uploader).uploadKey(publicKey);
+        verify(uploader).uploadKey(newPublicKey);
+        manager.removeKeys();
+    }
+
+    @Test
+    public void shouldRemoveKeyFileAfterCommandIfKeysAreNotKept() throws Exception {
+        when(keyStore.getPrivateKey(eq("host.com"))).thenReturn(new SshKey("private_key", "privatesshkey".getBytes()));
+        when(keyStore.getPublicKey(eq("host.com"))).thenReturn(new SshKey("public_key", "publicsshkey".getBytes()));
+        when(uploader.match(DEFAULT_URI)).thenReturn(true);
+        final SshKeysManager manager = new SshKeysManager(keyStore, Collections.singleton(uploader));
+        manager.setKeyTtl(0);
+
+        final File key = manager.writeKeyFile(DEFAULT_URI);
+        manager.removeKey(DEFAULT_URI);
+        assertFalse(key.exists());
+        manager.writeKeyFile(DEFAULT_URI);
+
+        verify(uploader, times(2)).uploadKey(any(SshKey.class));
+    }
+
+    @Test(timeOut = 30000)
+    public void shouldRemoveExpiredKeyFileWithoutFurtherCommands() throws Exception {
+        when(keyStore.getPrivateKey(eq("host.com"))).thenReturn(new SshKey("private_key", "privatesshkey".getBytes()));
+        when(keyStore.getPublicKey(eq("host.com"))).thenReturn(new SshKey("public_key", "publicsshkey".getBytes()));
+        final SshKeysManager manager = new SshKeysManager(keyStore, Collections.<SshKeyUploader>emptySet());
+        manager.setKeyTtl(1);
+
+        final File key = manager.writeKeyFile(DEFAULT_URI);
+        manager.removeKey(DEFAULT_URI);
+        assertTrue(key.isFile());
+
+        while (key.exists()) {
+            Thread.sleep(100);
+        }
+        manager.removeKeys();
+    }
+
+    @Test
+    public void shouldCreateKeyDirectoriesAccessibleByOwnerOnly() throws Exception {
+        when(keyStore.getPrivateKey(eq("host.com"))).thenReturn(new SshKey("private_key", "privatesshkey".getBytes()));
+        when(keyStore.getPublicKey(eq("host.com"))).thenReturn(new SshKey("public_key", "publicsshkey".getBytes()));
+        final SshKeysManager manager = new SshKeysManager(keyStore, Collections.<SshKeyUploader>emptySet());
+
+        final File key = manager.writeKeyFile(DEFAULT_URI);
+
+        final Set<PosixFilePermission> ownerOnly = EnumSet.of(OWNER_READ, OWNER_WRITE, OWNER_EXECUTE);
+        assertEquals(getPosixFilePermissions(key.getParentFile().toPath()), ownerOnly);
+        assertEquals(getPosixFilePermissions(key.getParentFile().getParentFile().toPath()), ownerOnly);
+        manager.removeKeys();
+    }
+
     private Path getKeysRoot() throws URISyntaxException {
         return getTarget().resolve("ssh-keys");
     }
@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit;
+
+import org.eclipse.che.ide.ext.git.server.StatusEntries;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
+import org.eclipse.che.ide.ext.git.shared.AddRequest;
+import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.MoveRequest;
+import org.eclipse.che.ide.ext.git.shared.ResetRequest;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class StatusCacheTest extends BaseTest {
+
+    private NativeGit nativeGit;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        nativeGit = new NativeGit(getRepository().toFile());
+        addFile(".gitignore", "build/\n");
+        addFile("tracked.txt", "tracked\n");
+        addFile(getRepository().resolve("src"), "Main.java", "class Main {}\n");
+        git("add", ".");
+        git("commit", "-m", "files");
+    }
+
+    @Test
+    public void testChangesOfWorkingTree() throws Exception {
+        final StatusCache cache = new StatusCache();
+        assertCached(cache, "");
+        // the second status reads whole working tree once more
+        assertCached(cache, "");
+
+        addFile("new.txt", "new\n");
+        assertCachedEventually(cache, "?? new.txt");
+
+        addFile("tracked.txt", "changed\n");
+        assertCachedEventually(cache, " M tracked.txt\n?? new.txt");
+
+        deleteFile("new.txt");
+        deleteFile("src/Main.java");
+        assertCachedEventually(cache, " D src/Main.java\n M tracked.txt");
+
+        addFile(getRepository().resolve("folder").resolve("sub"), "file.txt", "file\n");
+        assertCachedEventually(cache, " D src/Main.java\n M tracked.txt\n?? folder/");
+
+        addFile(getRepository().resolve("folder"), "other.txt", "other\n");
+        assertCachedEventually(cache, " D src/Main.java\n M tracked.txt\n?? folder/");
+
+        addFile(getRepository().resolve("build"), "out.txt", "out\n");
+        assertCachedEventually(cache, " D src/Main.java\n M tracked.txt\n?? folder/");
+    }
+
+    @Test
+    public void testChangesOfIndex() throws Exception {
+        final StatusCache cache = new StatusCache();
+        final NativeGitConnection connection = connection(cache);
+        assertCached(cache, "");
+        assertCached(cache, "");
+
+        addFile("new.txt", "new\n");
+        assertCachedEventually(cache, "?? new.txt");
+
+        // changes made with connection are visible at once, without waiting for file system events
+        connection.add(newDTO(AddRequest.class).withFilepattern(Arrays.asList("new.txt")));
+        assertCached(cache, "A  new.txt");
+
+        final MoveRequest move = newDTO(MoveRequest.class);
+        move.setSource("tracked.txt");
+        move.setTarget("moved.txt");
+        connection.mv(move);
+        assertCached(cache, "R  tracked.txt -> moved.txt\nA  new.txt");
+
+        addFile("moved.txt", "changed\n");
+        assertCachedEventually(cache, "RM tracked.txt -> moved.txt\nA  new.txt");
+
+        connection.commit(newDTO(CommitRequest.class).withMessage("moved"));
+        assertCached(cache, " M moved.txt");
+
+        final ResetRequest reset = newDTO(ResetRequest.class).withCommit("HEAD");
+        reset.setType(ResetRequest.ResetType.HARD);
+        connection.reset(reset);
+        assertCached(cache, "");
+    }
+
+    @Test
+    public void testInvalidatedStatusIsReadAgain() throws Exception {
+        final StatusCache cache = new StatusCache();
+        addFile("local.txt", "local\n");
+        assertCached(cache, "?? local.txt");
+        assertCached(cache, "?? local.txt");
+
+        // info directory isn't watched, change is seen only because status is invalidated
+        addFile(getRepository().resolve(".git").resolve("info"), "exclude", "local.txt\n");
+        cache.invalidate(getRepository().toFile());
+        assertCached(cache, "");
+    }
+
+    @Test
+    public void testChangesOfIgnoreRules() throws Exception {
+        final StatusCache cache = new StatusCache();
+        addFile(getRepository().resolve("build"), "out.txt", "out\n");
+        assertCached(cache, "");
+        assertCached(cache, "");
+
+        addFile(".gitignore", "");
+        assertCachedEventually(cache, " M .gitignore\n?? build/");
+    }
+
+    @Test
+    public void testBigWorkingTreeIsNotCached() throws Exception {
+        final StatusCache cache = new StatusCache(10, 1);
+        assertCached(cache, "");
+        assertFalse(cache.isWatched(getRepository().toFile()));
+
+        addFile("new.txt", "new\n");
+        assertCached(cache, "?? new.txt");
+    }
+
+    @Test
+    public void testIgnoredDirectoriesAreNotCounted() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            addFile(getRepository().resolve("build").resolve("dir" + i), "out.txt", "out\n");
+        }
+        final StatusCache cache = new StatusCache(10, 20);
+        assertCached(cache, "");
+
+        assertTrue(cache.isWatched(getRepository().toFile()));
+        addFile("new.txt", "new\n");
+        assertCachedEventually(cache, "?? new.txt");
+    }
+
+    /** Checks that the first status read from cache is the same as status read by git. */
+    private void assertCached(StatusCache cache, String expected) throws Exception {
+        // index isn't refreshed, otherwise cache reads whole working tree every time
+        assertEquals(text(nativeGit.createStatusCommand().setNoOptionalLocks(true).executeEntries()), expected);
+        assertEquals(text(cache.get(nativeGit)), expected);
+    }
+
+    /**
+     * Checks cached status after files are changed bypassing git, such changes are seen when file system events are
+     * delivered.
+     */
+    private void assertCachedEventually(StatusCache cache, String expected) throws Exception {
+        assertEquals(text(nativeGit.createStatusCommand().setNoOptionalLocks(true).executeEntries()), expected);
+        String cached = text(cache.get(nativeGit));
+        for (int i = 0; i < 50 && !cached.equals(expected); i++) {
+            Thread.sleep(100);
+            cached = text(cache.get(nativeGit));
+        }
+        assertEquals(cached, expected);
+    }
+
+    private NativeGitConnection connection(StatusCache cache) throws Exception {
+        nativeGit.setStatusCache(cache);
+        return new NativeGitConnection(nativeGit, getUser(), null, null, new GitAskPassScript());
+    }
+
+    private String text(StatusEntries entries) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entries.writeTo(out, StatusFormat.SHORT, null);
+        return out.toString("UTF-8");
+    }
+
+    private void git(String... args) throws Exception {
+        final EmptyGitCommand command = new EmptyGitCommand(getRepository().toFile());
+        for (String arg : args) {
+            command.setNextParameter(arg);
+        }
+        command.execute();
+    }
+}
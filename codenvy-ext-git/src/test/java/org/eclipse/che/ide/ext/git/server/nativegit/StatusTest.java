@@ -10,17 +10,25 @@
  *******************************************************************************/
 package org.eclipse.che.ide.ext.git.server.nativegit;
 
+import org.eclipse.che.ide.ext.git.server.GitConnection;
+import org.eclipse.che.ide.ext.git.server.InfoPage;
+import org.eclipse.che.ide.ext.git.server.nativegit.commands.EmptyGitCommand;
 import org.eclipse.che.ide.ext.git.shared.AddRequest;
 import org.eclipse.che.ide.ext.git.shared.BranchCheckoutRequest;
 import org.eclipse.che.ide.ext.git.shared.CommitRequest;
 import org.eclipse.che.ide.ext.git.shared.MergeRequest;
+import org.eclipse.che.ide.ext.git.shared.MoveRequest;
 import org.eclipse.che.ide.ext.git.shared.RmRequest;
 import org.eclipse.che.ide.ext.git.shared.Status;
 
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 
 import static java.util.Arrays.asList;
+import static org.eclipse.che.api.core.util.LineConsumerFactory.NULL;
+import static org.eclipse.che.ide.ext.git.shared.StatusFormat.LONG;
 import static org.eclipse.che.ide.ext.git.shared.StatusFormat.SHORT;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
@@ -236,4 +244,100 @@ public class StatusTest extends BaseTest {
         assertTrue(status.getUntracked().isEmpty());
         assertTrue(status.getUntrackedFolders().isEmpty());
     }
+
+    @Test
+    public void testRenamed() throws Exception {
+        addFile("a", "a content");
+        getConnection().add(newDTO(AddRequest.class).withFilepattern(asList("a")));
+        getConnection().commit(newDTO(CommitRequest.class).withMessage("add test file"));
+        final MoveRequest move = newDTO(MoveRequest.class);
+        move.setSource("a");
+        move.setTarget("b");
+        getConnection().mv(move);
+
+        final Status status = getConnection().status(SHORT);
+
+        assertEquals(status.getAdded(), asList("b"));
+        assertEquals(status.getRemoved(), asList("a"));
+        assertTrue(status.getModified().isEmpty());
+        assertTrue(status.getUntracked().isEmpty());
+    }
+
+    @Test
+    public void testPathsAreNotQuoted() throws Exception {
+        addFile("a b", "content");
+        addFile("quote\"d", "content");
+
+        final Status status = getConnection().status(SHORT);
+
+        assertEquals(status.getUntracked(), asList("a b", "quote\"d"));
+    }
+
+    @Test
+    public void testTextIsBuiltFromReadStatus() throws Exception {
+        addFile("a", "a content");
+        addFile("b", "b content");
+        getConnection().add(newDTO(AddRequest.class).withFilepattern(asList("a")));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((InfoPage)getConnection().status(SHORT)).writeTo(out);
+
+        assertEquals(out.toString("UTF-8"), "A  a\n?? b");
+    }
+
+    @Test
+    public void testLongTextOfCleanWorkingTree() throws Exception {
+        assertEquals(longText(getConnection()), "On branch master\nnothing to commit, working tree clean");
+    }
+
+    @Test
+    public void testLongTextOfChangedWorkingTree() throws Exception {
+        addFile("README.txt", "changed content");
+        addFile("a", "a content");
+
+        assertEquals(longText(getConnection()), "On branch master\n" +
+                                                "Changes not staged for commit:\n" +
+                                                "\tmodified:   README.txt\n" +
+                                                "\n" +
+                                                "Untracked files:\n" +
+                                                "\ta\n" +
+                                                "\n" +
+                                                "no changes added to commit");
+    }
+
+    @Test
+    public void testLongTextOfDetachedHead() throws Exception {
+        final EmptyGitCommand checkout = new EmptyGitCommand(getRepository().toFile());
+        checkout.setNextParameter("checkout").setNextParameter("--quiet").setNextParameter("--detach").execute();
+        final EmptyGitCommand revParse = new EmptyGitCommand(getRepository().toFile());
+        revParse.setNextParameter("rev-parse").setNextParameter("--short=7").setNextParameter("HEAD").execute();
+
+        assertEquals(longText(getConnection()), "HEAD detached at " + revParse.getText() + "\n" +
+                                                "nothing to commit, working tree clean");
+    }
+
+    @Test
+    public void testLongTextOfRepositoryWithoutCommits() throws Exception {
+        final File repository = getTarget().resolve("repository_without_commits").toFile();
+        assertTrue(repository.mkdir());
+        forClean.add(repository);
+        new NativeGit(repository).createInitCommand().execute();
+        final GitConnection connection = connectionFactory.getConnection(repository, getUser(), NULL);
+        addFile(repository.toPath(), "a", "a content");
+
+        assertEquals(longText(connection), "On branch master\n" +
+                                           "\n" +
+                                           "No commits yet\n" +
+                                           "\n" +
+                                           "Untracked files:\n" +
+                                           "\ta\n" +
+                                           "\n" +
+                                           "nothing added to commit but untracked files present");
+    }
+
+    private String longText(GitConnection connection) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((InfoPage)connection.status(LONG)).writeTo(out);
+        return out.toString("UTF-8");
+    }
 }
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.shared.GitUser;
+import org.eclipse.che.ide.ext.git.shared.Revision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares {@link LogOutputParser} with the former parsing of git log output, which read output line by line and
+ * split lines printed with {@code --format=%an#%ae#%cn#%ce#%cd#%H#%s}. Both read the same generated log from memory
+ * in blocks of the same size as command process does it, so git itself isn't measured.
+ * <p/>
+ * It isn't run by build, run it from directory of module after {@code mvn test-compile}:
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) org.openjdk.jmh.Main LogOutputParserBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LogOutputParserBenchmark {
+
+    private static final Pattern COMMIT_ID = Pattern.compile("[0-9a-f]{40}");
+
+    /** Number of commits in log, former format prints one line for each commit. */
+    @Param("1000000")
+    public int commits;
+
+    private byte[] lines;
+    private byte[] fields;
+
+    @Setup
+    public void generateLog() throws IOException {
+        final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        final ByteArrayOutputStream fields = new ByteArrayOutputStream();
+        for (int i = 0; i < commits; i++) {
+            final String id = id(i);
+            final String name = "Developer " + i % 100;
+            final String email = "developer" + i % 100 + "@codenvy.com";
+            final long time = 1400000000L + i;
+            final String subject = "Change " + i + " of project sources";
+            lines.write((name + '#' + email + '#' + name + '#' + email + '#' + time + " +0200#" + id + '#' + subject + '\n')
+                                .getBytes(StandardCharsets.UTF_8));
+            fields.write((id + '\0' + id(i + 1) + '\0' + name + '\0' + email + '\0' + time + '\0' + name + '\0' + email + '\0'
+                          + time + '\0' + subject + '\0').getBytes(StandardCharsets.UTF_8));
+        }
+        this.lines = lines.toByteArray();
+        this.fields = fields.toByteArray();
+    }
+
+    @Benchmark
+    public void splitLines(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(lines),
+                                                                              StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] elements = line.split("#");
+                if (elements.length >= 6 && COMMIT_ID.matcher(elements[5]).matches()) {
+                    blackhole.consume(parseRevision(elements));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseFields(final Blackhole blackhole) throws IOException {
+        final LogOutputParser parser = new LogOutputParser() {
+            @Override
+            protected void revision(Revision revision) {
+                blackhole.consume(revision);
+            }
+        };
+        final ByteArrayInputStream input = new ByteArrayInputStream(fields);
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            parser.write(buffer, 0, read);
+        }
+    }
+
+    /** The same as former LogCommand did it. */
+    private Revision parseRevision(String[] elements) {
+        final DtoFactory dtoFactory = DtoFactory.getInstance();
+        GitUser committer = dtoFactory.createDto(GitUser.class).withName(elements[2]).withEmail(elements[3]);
+        long commitTime = Long.parseLong(elements[4].substring(0, elements[4].indexOf(" "))) * 1000L;
+        String commitId = elements[5];
+        StringBuilder commitMessage = new StringBuilder();
+        for (int i = 6; i < elements.length; i++) {
+            commitMessage.append(elements[i]);
+        }
+        return dtoFactory.createDto(Revision.class)
+                         .withId(commitId)
+                         .withMessage(commitMessage.toString())
+                         .withCommitTime(commitTime)
+                         .withCommitter(committer);
+    }
+
+    private static String id(int i) {
+        return String.format("%08x%032x", i, (long)i * 2654435761L);
+    }
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.nativegit.commands;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+
+public class SpoolOutputStreamTest {
+
+    @Test
+    public void testOutputIsKeptInMemory() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SpoolOutputStream spool = new SpoolOutputStream(16)) {
+            spool.write("diff".getBytes(StandardCharsets.UTF_8));
+            spool.write('\n');
+            spool.writeTo(output);
+        }
+        assertEquals(output.toString("UTF-8"), "diff\n");
+    }
+
+    @Test
+    public void testOutputBiggerThanMemoryLimitIsSpooledToFile() throws Exception {
+        final StringBuilder expected = new StringBuilder();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (SpoolOutputStream spool = new SpoolOutputStream(16)) {
+            for (int i = 0; i < 100; i++) {
+                final String line = "line " + i + '\n';
+                expected.append(line);
+                spool.write(line.getBytes(StandardCharsets.UTF_8));
+            }
+            spool.writeTo(output);
+        }
+        assertEquals(output.toString("UTF-8"), expected.toString());
+    }
+}
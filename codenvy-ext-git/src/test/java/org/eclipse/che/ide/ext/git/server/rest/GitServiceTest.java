@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2015 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.ide.ext.git.server.rest;
+
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.ide.ext.git.server.GitConnection;
+import org.eclipse.che.ide.ext.git.server.GitException;
+import org.eclipse.che.ide.ext.git.server.RepositoryLockManager;
+import org.eclipse.che.ide.ext.git.shared.AddRequest;
+import org.eclipse.che.ide.ext.git.shared.BatchOperation;
+import org.eclipse.che.ide.ext.git.shared.BatchRequest;
+import org.eclipse.che.ide.ext.git.shared.BatchResult;
+import org.eclipse.che.ide.ext.git.shared.Branch;
+import org.eclipse.che.ide.ext.git.shared.BranchListRequest;
+import org.eclipse.che.ide.ext.git.shared.CommitRequest;
+import org.eclipse.che.ide.ext.git.shared.Status;
+import org.eclipse.che.ide.ext.git.shared.StatusFormat;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+public class GitServiceTest {
+
+    private final File repository = new File("target/repository");
+
+    @Mock
+    private RepositoryLockManager lockManager;
+    @Mock
+    private GitConnection         connection;
+    @Mock
+    private Lock                  lock;
+    @InjectMocks
+    private GitService            service = new GitService() {
+        @Override
+        protected GitConnection getGitConnection() {
+            return connection;
+        }
+    };
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(connection.getWorkingDir()).thenReturn(repository);
+        when(lockManager.lockRead(repository)).thenReturn(lock);
+        when(lockManager.lockWrite(repository)).thenReturn(lock);
+        when(connection.status(any(StatusFormat.class))).thenReturn(mock(Status.class));
+    }
+
+    @Test
+    public void testOperationsAreExecutedInOrder() throws Exception {
+        final List<Branch> branches = Collections.singletonList(newDto(Branch.class).withName("master"));
+        when(connection.branchList(any(BranchListRequest.class))).thenReturn(branches);
+
+        final List<BatchResult> results = service.batch(batch(newOperation("add").withAdd(newDto(AddRequest.class)),
+                                                              newOperation("branch-list").withBranchList(
+                                                                      newDto(BranchListRequest.class)))).getEntity();
+
+        final InOrder order = inOrder(connection, lock);
+        order.verify(connection).add(any(AddRequest.class));
+        order.verify(connection).branchList(any(BranchListRequest.class));
+        order.verify(lock).unlock();
+        order.verify(connection).close();
+        assertEquals(results.size(), 2);
+        assertEquals(results.get(0).getType(), "add");
+        assertNull(results.get(0).getError());
+        assertEquals(results.get(1).getType(), "branch-list");
+        assertEquals(results.get(1).getBranches(), branches);
+    }
+
+    @Test
+    public void testBatchIsStoppedOnFirstError() throws Exception {
+        when(connection.commit(any(CommitRequest.class))).thenThrow(new GitException("nothing to commit"));
+
+        final List<BatchResult> results = service.batch(batch(newOperation("add").withAdd(newDto(AddRequest.class)),
+                                                              newOperation("commit").withCommit(newDto(CommitRequest.class)),
+                                                              newOperation("status").withStatusFormat(StatusFormat.SHORT)))
+                                                 .getEntity();
+
+        assertEquals(results.size(), 2);
+        assertNull(results.get(0).getError());
+        assertEquals(results.get(1).getError(), "nothing to commit");
+        verify(connection, never()).status(any(StatusFormat.class));
+        verify(lock).unlock();
+        verify(connection).close();
+    }
+
+    @Test
+    public void testReadOnlyBatchSharesLock() throws Exception {
+        service.batch(batch(newOperation("status").withStatusFormat(StatusFormat.SHORT),
+                            newOperation("branch-list").withBranchList(newDto(BranchListRequest.class))));
+
+        verify(lockManager).lockRead(repository);
+        verify(lockManager, never()).lockWrite(any(File.class));
+    }
+
+    @Test
+    public void testBatchWithWriteOperationLocksExclusively() throws Exception {
+        service.batch(batch(newOperation("status").withStatusFormat(StatusFormat.SHORT),
+                            newOperation("add").withAdd(newDto(AddRequest.class))));
+
+        verify(lockManager).lockWrite(repository);
+        verify(lockManager, never()).lockRead(any(File.class));
+    }
+
+    @Test
+    public void testStatusIsCopiedToDto() throws Exception {
+        final Status status = mock(Status.class);
+        when(status.isClean()).thenReturn(false);
+        when(status.getFormat()).thenReturn(StatusFormat.SHORT);
+        when(status.getBranchName()).thenReturn("master");
+        when(status.getModified()).thenReturn(Arrays.asList("README.txt"));
+        when(status.getUntracked()).thenReturn(Arrays.asList("a.txt"));
+        when(connection.status(StatusFormat.SHORT)).thenReturn(status);
+
+        final List<BatchResult> results = service.batch(batch(newOperation("status").withStatusFormat(StatusFormat.SHORT)))
+                                                 .getEntity();
+
+        final Status dto = results.get(0).getStatus();
+        assertNotSame(dto, status);
+        assertEquals(dto.getFormat(), StatusFormat.SHORT);
+        assertEquals(dto.getBranchName(), "master");
+        assertEquals(dto.getModified(), Arrays.asList("README.txt"));
+        assertEquals(dto.getUntracked(), Arrays.asList("a.txt"));
+    }
+
+    @Test
+    public void testEmptyBatchIsRejected() throws Exception {
+        for (BatchRequest request : Arrays.asList(null, newDto(BatchRequest.class),
+                                                  newDto(BatchRequest.class).withOperations(Collections.<BatchOperation>emptyList()))) {
+            try {
+                service.batch(request);
+                fail("GitException expected");
+            } catch (GitException expected) {
+            }
+        }
+        verify(connection, never()).close();
+    }
+
+    private BatchRequest batch(BatchOperation... operations) {
+        return newDto(BatchRequest.class).withOperations(Arrays.asList(operations));
+    }
+
+    private BatchOperation newOperation(String type) {
+        return newDto(BatchOperation.class).withType(type);
+    }
+
+    private <T> T newDto(Class<T> dtoInterface) {
+        return DtoFactory.getInstance().createDto(dtoInterface);
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.che.commons.json.JsonNameConventions;
 import org.eclipse.che.commons.json.JsonParseException;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.commons.ParsingResponseException;
+import org.eclipse.che.ide.ext.git.server.commons.HostingHttpClient;
 import org.eclipse.che.ide.ext.github.shared.Collaborators;
 import org.eclipse.che.ide.ext.github.shared.GitHubIssueComment;
 import org.eclipse.che.ide.ext.github.shared.GitHubIssueCommentInput;
@@ -33,14 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -62,6 +57,7 @@ public class GitHub {
 
 
     private final OAuthTokenProvider oauthTokenProvider;
+    private final HostingHttpClient  httpClient;
 
     /** Pattern to parse Link header from GitHub response. */
     private final Pattern linkPattern = Pattern.compile("<(.+)>;\\srel=\"(\\w+)\"");
@@ -85,8 +81,9 @@ public class GitHub {
     private static final String META_NEXT = "next";
 
     @Inject
-    public GitHub(OAuthTokenProvider oauthTokenProvider) {
+    public GitHub(OAuthTokenProvider oauthTokenProvider, HostingHttpClient httpClient) {
         this.oauthTokenProvider = oauthTokenProvider;
+        this.httpClient = httpClient;
     }
 
     /**
@@ -531,30 +528,11 @@ public class GitHub {
 
     private String doJsonRequest(String url, String method, int success, GitHubPullRequestList gitHubPullRequestList) throws IOException,
                                                                                                                              GitHubException {
-        HttpURLConnection http = null;
-        try {
-            http = (HttpURLConnection)new URL(url).openConnection();
-            http.setInstanceFollowRedirects(false);
-            http.setRequestMethod(method);
-            http.setRequestProperty("Accept", "application/json");
-
-            if (http.getResponseCode() != success) {
-                throw fault(http);
-            }
-
-            String result;
-            try (InputStream input = http.getInputStream()) {
-                result = readBody(input, http.getContentLength());
-                if (gitHubPullRequestList != null) {
-                    parseLinkHeader(gitHubPullRequestList, http.getHeaderField(HEADER_LINK));
-                }
-            }
-            return result;
-        } finally {
-            if (http != null) {
-                http.disconnect();
-            }
+        final HostingHttpClient.Response response = execute(url, method, success, null);
+        if (gitHubPullRequestList != null) {
+            parseLinkHeader(gitHubPullRequestList, response.getHeader(HEADER_LINK));
         }
+        return response.getBody();
     }
 
     /**
@@ -597,38 +575,29 @@ public class GitHub {
      */
     private String doJsonRequest(String url, String method, int success, String postData, GitHubRepositoryList gitHubRepositoryList)
             throws IOException, GitHubException {
-        HttpURLConnection http = null;
-        try {
-            http = (HttpURLConnection)new URL(url).openConnection();
-            http.setInstanceFollowRedirects(false);
-            http.setRequestMethod(method);
-            http.setRequestProperty("Accept", "application/json");
-            if (postData != null && !postData.isEmpty()) {
-                http.setRequestProperty("Content-Type", "application/json");
-                http.setDoOutput(true);
-
-                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(http.getOutputStream()))) {
-                    writer.write(postData);
-                }
-            }
-
-            if (http.getResponseCode() != success) {
-                throw fault(http);
-            }
+        final HostingHttpClient.Response response = execute(url, method, success, postData);
+        if (gitHubRepositoryList != null) {
+            parseLinkHeader(gitHubRepositoryList, response.getHeader(HEADER_LINK));
+        }
+        return response.getBody();
+    }
 
-            String result;
-            try (InputStream input = http.getInputStream()) {
-                result = readBody(input, http.getContentLength());
-                if (gitHubRepositoryList != null) {
-                    parseLinkHeader(gitHubRepositoryList, http.getHeaderField(HEADER_LINK));
-                }
-            }
-            return result;
-        } finally {
-            if (http != null) {
-                http.disconnect();
-            }
+    /**
+     * Executes request with shared HTTP client. Responses of GET requests are revalidated with conditional requests
+     * separately for each user, GitHub doesn't count answers <i>304 Not Modified</i> against rate limit of user.
+     */
+    private HostingHttpClient.Response execute(String url, String method, int success, String postData)
+            throws IOException, GitHubException {
+        final HostingHttpClient.Request request = new HostingHttpClient.Request(method, url).withHeader("Accept", "application/json")
+                                                                                           .withCacheKey(getUserId());
+        if (postData != null && !postData.isEmpty()) {
+            request.withBody("application/json", postData);
+        }
+        final HostingHttpClient.Response response = httpClient.execute(request);
+        if (response.getCode() != success) {
+            throw new GitHubException(response.getCode(), response.getBody(), response.getContentType());
         }
+        return response;
     }
 
     /**
@@ -742,43 +711,6 @@ public class GitHub {
         pullRequestList.setPrevPage(null);
     }
 
-    private GitHubException fault(HttpURLConnection http) throws IOException {
-        final int responseCode = http.getResponseCode();
-
-        try (final InputStream stream = (responseCode >= 400 ? http.getErrorStream() : http.getInputStream())) {
-
-            String body = null;
-            if (stream != null) {
-                final int length = http.getContentLength();
-                body = readBody(stream, length);
-            }
-
-            return new GitHubException(responseCode, body, http.getContentType());
-        }
-    }
-
-    private static String readBody(InputStream input, int contentLength) throws IOException {
-        String body = null;
-        if (contentLength > 0) {
-            byte[] b = new byte[contentLength];
-            int off = 0;
-            int i;
-            while ((i = input.read(b, off, contentLength - off)) > 0) {
-                off += i;
-            }
-            body = new String(b);
-        } else if (contentLength < 0) {
-            ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            byte[] buf = new byte[1024];
-            int point;
-            while ((point = input.read(buf)) != -1) {
-                bout.write(buf, 0, point);
-            }
-            body = bout.toString();
-        }
-        return body;
-    }
-
     /**
      * ************************************************************************************
      * Common methods
@@ -17,6 +17,7 @@ import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.json.JsonHelper;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.ide.MimeType;
+import org.eclipse.che.ide.ext.git.server.commons.HostingHttpClient;
 import org.eclipse.che.ide.ext.git.server.commons.Util;
 import org.eclipse.che.ide.ext.git.server.nativegit.SshKeyUploader;
 import org.eclipse.che.ide.ext.github.shared.GitHubKey;
@@ -30,12 +31,7 @@ import com.google.inject.Singleton;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -49,9 +45,12 @@ public class GitHubKeyUploader extends SshKeyUploader {
 
     private static final Logger LOG = LoggerFactory.getLogger(GitHubKeyUploader.class);
 
+    private final HostingHttpClient httpClient;
+
     @Inject
-    public GitHubKeyUploader(OAuthTokenProvider tokenProvider) {
+    public GitHubKeyUploader(OAuthTokenProvider tokenProvider, HostingHttpClient httpClient) {
         super(tokenProvider);
+        this.httpClient = httpClient;
     }
 
     @Override
@@ -87,25 +86,9 @@ public class GitHubKeyUploader extends SshKeyUploader {
 
         LOG.debug("Upload public key: {}", postBody);
 
-        int responseCode;
-        HttpURLConnection conn = null;
-        try {
-            conn = (HttpURLConnection)new URL(url).openConnection();
-            conn.setInstanceFollowRedirects(false);
-            conn.setRequestMethod(HTTPMethod.POST);
-            conn.setRequestProperty(HTTPHeader.ACCEPT, MimeType.APPLICATION_JSON);
-            conn.setRequestProperty(HTTPHeader.CONTENT_TYPE, MimeType.APPLICATION_JSON);
-            conn.setRequestProperty(HTTPHeader.CONTENT_LENGTH, String.valueOf(postBody.length()));
-            conn.setDoOutput(true);
-            try (OutputStream out = conn.getOutputStream()) {
-                out.write(postBody.getBytes());
-            }
-            responseCode = conn.getResponseCode();
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
-        }
+        final int responseCode = httpClient.execute(new HostingHttpClient.Request(HTTPMethod.POST, url)
+                                                            .withHeader(HTTPHeader.ACCEPT, MimeType.APPLICATION_JSON)
+                                                            .withBody(MimeType.APPLICATION_JSON, postBody)).getCode();
 
         LOG.debug("Upload key response code: {}", responseCode);
 
@@ -115,21 +98,17 @@ public class GitHubKeyUploader extends SshKeyUploader {
     }
 
     private List<GitHubKey> getUserPublicKeys(String url, StringBuilder answer) {
-        HttpURLConnection conn = null;
         try {
-            conn = (HttpURLConnection)new URL(url).openConnection();
-            conn.setInstanceFollowRedirects(false);
-            conn.setRequestMethod(HTTPMethod.GET);
-            conn.setRequestProperty(HTTPHeader.ACCEPT, MimeType.APPLICATION_JSON);
-            if (conn.getResponseCode() == HTTPStatus.OK) {
-                try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        answer.append(line).append('\n');
-                    }
+            final HostingHttpClient.Response response =
+                    httpClient.execute(new HostingHttpClient.Request(HTTPMethod.GET, url)
+                                               .withHeader(HTTPHeader.ACCEPT, MimeType.APPLICATION_JSON)
+                                               .withCacheKey(EnvironmentContext.getCurrent().getUser().getId()));
+            if (response.getCode() == HTTPStatus.OK) {
+                if (response.getBody() != null) {
+                    answer.append(response.getBody()).append('\n');
                 }
-                if (conn.getHeaderFields().containsKey("Link")) {
-                    String strForParsing = conn.getHeaderFields().get("Link").get(0);
+                if (response.getHeader("Link") != null) {
+                    String strForParsing = response.getHeader("Link");
                     int indexNext = strForParsing.indexOf("rel=\"next\"");
                     int indexPrev = strForParsing.indexOf("rel=\"prev\"");
 
@@ -150,10 +129,6 @@ public class GitHubKeyUploader extends SshKeyUploader {
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
             return Collections.emptyList();
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
-            }
         }
     }
 }